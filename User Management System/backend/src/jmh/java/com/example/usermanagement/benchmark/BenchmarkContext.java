@@ -0,0 +1,87 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.UserManagementApplication;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.store.UserStore;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Application context without a web server, backed by either store and seeded with
+ * {@link SyntheticUsers} ids {@code 1..rows}.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private static final int SEED_BATCH = 10_000;
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    /**
+     * @param store {@code jpa} for H2 through Hibernate, {@code memory} for the columnar store
+     */
+    static BenchmarkContext start(String store, int rows) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(UserManagementApplication.class)
+                .web(WebApplicationType.NONE);
+        if ("memory".equals(store)) {
+            builder.profiles("memory");
+        }
+        // Command-line arguments, so they win over application.yml
+        BenchmarkContext benchmark = new BenchmarkContext(builder.run(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + store + ";DB_CLOSE_DELAY=-1",
+                "--app.warmup.enabled=false",
+                "--app.snapshot.enabled=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.usermanagement=WARN",
+                "--logging.file.name=target/benchmarks.log"));
+        benchmark.seed(store, rows);
+        return benchmark;
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    private void seed(String store, int rows) {
+        if ("memory".equals(store)) {
+            UserStore.BulkLoad load = bean(UserService.class).openBulkLoad();
+            for (int first = 1; first <= rows; first += SEED_BATCH) {
+                load.add(SyntheticUsers.generate(first, Math.min(SEED_BATCH, rows - first + 1)));
+            }
+            load.publish();
+            return;
+        }
+        // Plain JDBC batches: seeding a million rows through Hibernate takes longer than the benchmarks
+        JdbcTemplate jdbc = bean(JdbcTemplate.class);
+        for (int first = 1; first <= rows; first += SEED_BATCH) {
+            List<Object[]> batch = SyntheticUsers.generate(first, Math.min(SEED_BATCH, rows - first + 1)).stream()
+                    .map(BenchmarkContext::row)
+                    .toList();
+            jdbc.batchUpdate("INSERT INTO users (id, first_name, last_name, ssn, email, age, role, phone, username,"
+                            + " birth_date, gender) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", batch,
+                    new int[] {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+                            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR});
+        }
+        jdbc.execute("ALTER TABLE users ALTER COLUMN id RESTART WITH " + (rows + 1));
+    }
+
+    private static Object[] row(User user) {
+        return new Object[] {user.getId(), user.getFirstName(), user.getLastName(), user.getSsn(), user.getEmail(),
+                user.getAge(), user.getRole(), user.getPhone(), user.getUsername(), user.getBirthDate(), user.getGender()};
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
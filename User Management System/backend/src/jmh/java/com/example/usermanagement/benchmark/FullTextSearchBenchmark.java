@@ -0,0 +1,75 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.store.UserStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code UserStore.fullTextSearch} for each branch of the query planner in
+ * {@link com.example.usermanagement.repository.UserSearchRepository}. With {@code store=jpa}
+ * this is the JPQL path, with {@code store=memory} the columnar scan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FullTextSearchBenchmark {
+
+    @Param({"jpa", "memory"})
+    public String store;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"id", "email", "single_word", "multi_word", "name_ssn", "ssn"})
+    public String shape;
+
+    private BenchmarkContext context;
+    private UserStore userStore;
+    private String term;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(store, rows);
+        userStore = context.bean(UserStore.class);
+        long id = rows / 2;
+        term = switch (shape) {
+            case "id" -> String.valueOf(id);
+            case "email" -> SyntheticUsers.email(id);
+            // One name in 20 rows
+            case "single_word" -> SyntheticUsers.FIRST_NAMES[4];
+            // One row in 420
+            case "multi_word" -> SyntheticUsers.FIRST_NAMES[4] + " " + SyntheticUsers.LAST_NAMES[4];
+            case "name_ssn" -> SyntheticUsers.FIRST_NAMES[4] + " " + SyntheticUsers.ssn(id).substring(0, 6);
+            case "ssn" -> SyntheticUsers.ssn(id);
+            default -> throw new IllegalArgumentException("Unknown query shape: " + shape);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<User> fullTextSearch() {
+        return userStore.fullTextSearch(term);
+    }
+}
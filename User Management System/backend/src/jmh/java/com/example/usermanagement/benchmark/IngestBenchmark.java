@@ -0,0 +1,70 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.service.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code UserService.saveAllUsers} with one page of new users on top of a seeded table.
+ * Every invocation adds {@code batch} rows, so the table grows slightly over a run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IngestBenchmark {
+
+    @Param({"jpa", "memory"})
+    public String store;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"1000"})
+    public int batch;
+
+    private BenchmarkContext context;
+    private UserService userService;
+    private long nextId;
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(store, rows);
+        userService = context.bean(UserService.class);
+        nextId = rows + 1L;
+    }
+
+    @Setup(Level.Invocation)
+    public void nextBatch() {
+        users = SyntheticUsers.generate(nextId, batch);
+        nextId += batch;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void saveAllUsers() {
+        userService.saveAllUsers(users);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.store.UserStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code findByEmail} and the basic {@code findBySearchTerm} query, which back
+ * {@code GET /api/users/email/{email}} and searches shorter than three characters.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    @Param({"jpa", "memory"})
+    public String store;
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkContext context;
+    private UserStore userStore;
+    private String email;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(store, rows);
+        userStore = context.bean(UserStore.class);
+        email = SyntheticUsers.email(rows / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> findByEmail() {
+        return userStore.findByEmail(email);
+    }
+
+    @Benchmark
+    public List<User> findBySearchTerm() {
+        return userStore.findBySearchTerm("Li");
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.usermanagement.benchmark;
+
+import com.example.usermanagement.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deterministic users for benchmarks. Names repeat with a fixed period so a name search
+ * hits a known share of the table; SSNs and emails are unique per id.
+ */
+final class SyntheticUsers {
+
+    static final String[] FIRST_NAMES = {"Emily", "Michael", "Sophia", "James", "Emma", "Oliver", "Ava", "Liam",
+            "Isabella", "Noah", "Mia", "Ethan", "Charlotte", "Lucas", "Amelia", "Mason", "Harper", "Logan",
+            "Evelyn", "Alexander"};
+    static final String[] LAST_NAMES = {"Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis",
+            "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor",
+            "Moore", "Jackson", "Martin", "Lee", "Perez"};
+    private static final String[] ROLES = {"admin", "moderator", "user"};
+
+    private SyntheticUsers() {}
+
+    static List<User> generate(long firstId, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (long id = firstId; id < firstId + count; id++) {
+            users.add(user(id));
+        }
+        return users;
+    }
+
+    static User user(long id) {
+        String firstName = FIRST_NAMES[(int) (id % FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[(int) (id % LAST_NAMES.length)];
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setSsn(ssn(id));
+        user.setEmail(email(id));
+        user.setAge(18 + (int) (id % 60));
+        user.setRole(ROLES[(int) (id % ROLES.length)]);
+        user.setPhone(String.format("+1 %03d-%03d-%04d", id % 1000, (id / 1000) % 1000, id % 10000));
+        user.setUsername(firstName.toLowerCase(Locale.ROOT) + id);
+        user.setBirthDate((1950 + id % 55) + "-" + (1 + id % 12) + "-" + (1 + id % 28));
+        user.setGender(id % 2 == 0 ? "female" : "male");
+        return user;
+    }
+
+    static String email(long id) {
+        return (FIRST_NAMES[(int) (id % FIRST_NAMES.length)] + "." + LAST_NAMES[(int) (id % LAST_NAMES.length)])
+                .toLowerCase(Locale.ROOT) + id + "@example.com";
+    }
+
+    static String ssn(long id) {
+        return String.format("%03d-%02d-%04d", id / 1_000_000 % 1000, id / 10_000 % 100, id % 10_000);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to DTO mapping for a result page, the per-row cost every list endpoint pays.
+ * Lives in this package because {@code convertToDto} is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConvertToDtoBenchmark {
+
+    @Param({"1000"})
+    public int size;
+
+    private UserService userService;
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService(null, new DataChangeFeed(1), new DatasetSnapshotService(false, "unused", Duration.ZERO),
+                TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), Runnable::run);
+        users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            User user = new User();
+            user.setId(id);
+            user.setFirstName("Emily");
+            user.setLastName("Johnson");
+            user.setSsn(String.format("123-45-%04d", id));
+            user.setEmail("emily.johnson" + id + "@example.com");
+            user.setAge(28);
+            user.setRole("admin");
+            user.setPhone("+81 965-431-3024");
+            user.setUsername("emilys" + id);
+            user.setBirthDate("1996-5-30");
+            user.setGender("female");
+            users.add(user);
+        }
+    }
+
+    @Benchmark
+    public void convertToDto(Blackhole blackhole) {
+        for (User user : users) {
+            UserResponseDto dto = userService.convertToDto(user);
+            blackhole.consume(dto);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.usermanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Dedicated executor for background data load jobs so that a slow upstream
+     * never holds a Tomcat request thread.
+     */
+    @Bean(name = "dataLoadExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor dataLoadExecutor(
+            @Value("${app.data-load.executor.pool-size:1}") int poolSize,
+            @Value("${app.data-load.executor.queue-capacity:4}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("data-load-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * With {@code spring.threads.virtual.enabled} on Java 21+ each data load job, and with it
+     * every blocking page fetch and insert, runs on its own virtual thread. The pool size
+     * still caps how many jobs run at once.
+     */
+    @Bean(name = "dataLoadExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualDataLoadExecutor(
+            @Value("${app.data-load.executor.pool-size:1}") int poolSize) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("data-load-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(poolSize);
+        return executor;
+    }
+
+    /**
+     * Single thread for key filter rebuilds. Callers start at most one rebuild at a time, and
+     * the queue slot covers a rebuild requested while the previous one's thread winds down.
+     */
+    @Bean(name = "keyFilterExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor keyFilterExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("key-filter-");
+        executor.setDaemon(true);
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean(name = "keyFilterExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualKeyFilterExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("key-filter-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(1);
+        return executor;
+    }
+}
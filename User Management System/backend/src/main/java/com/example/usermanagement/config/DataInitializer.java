@@ -1,29 +1,50 @@
 package com.example.usermanagement.config;
 
-import com.example.usermanagement.service.DataLoadService;
+import com.example.usermanagement.service.DataLoadJob;
+import com.example.usermanagement.service.DataLoadJobService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.CommandLineRunner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+/**
+ * Starts the initial data load in the background once the application is listening.
+ * Startup no longer waits for the upstream; readiness is reported separately by
+ * {@link DataWarmupHealthIndicator} until the warm-up job has finished.
+ */
 @Component
-public class DataInitializer implements CommandLineRunner {
+public class DataInitializer {
 
     private static final Logger logger = LoggerFactory.getLogger(DataInitializer.class);
 
-    private final DataLoadService dataLoadService;
+    private final DataLoadJobService dataLoadJobService;
+    private final boolean warmupEnabled;
 
-    public DataInitializer(DataLoadService dataLoadService) {
-        this.dataLoadService = dataLoadService;
+    private volatile DataLoadJob warmupJob;
+
+    public DataInitializer(DataLoadJobService dataLoadJobService,
+                           @Value("${app.warmup.enabled:true}") boolean warmupEnabled) {
+        this.dataLoadJobService = dataLoadJobService;
+        this.warmupEnabled = warmupEnabled;
     }
 
-    @Override
-    public void run(String... args) {
-        logger.info("Starting application data initialization");
-        try {
-            dataLoadService.loadUsersFromExternalAPI();
-        } catch (Exception e) {
-            logger.warn("Failed to load initial data automatically. Data can be loaded via /api/data/load endpoint", e);
+    @EventListener(ApplicationReadyEvent.class)
+    public void startWarmup() {
+        if (!warmupEnabled) {
+            logger.info("Data warm-up disabled, data can be loaded via /api/data/load endpoint");
+            return;
         }
+        logger.info("Starting application data initialization in the background");
+        warmupJob = dataLoadJobService.submitLoad();
+    }
+
+    public boolean isWarmupEnabled() {
+        return warmupEnabled;
+    }
+
+    public DataLoadJob getWarmupJob() {
+        return warmupJob;
     }
-}
\ No newline at end of file
+}
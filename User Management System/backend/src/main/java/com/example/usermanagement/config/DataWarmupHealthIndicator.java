@@ -0,0 +1,39 @@
+package com.example.usermanagement.config;
+
+import com.example.usermanagement.service.DataLoadJob;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Part of the readiness group: reports {@code OUT_OF_SERVICE} while the warm-up load is
+ * still running so orchestrators only route traffic to instances that have data.
+ * A failed warm-up still reports {@code UP}; the instance serves what it has and data
+ * can be reloaded through the API, as before.
+ */
+@Component("dataWarmup")
+public class DataWarmupHealthIndicator implements HealthIndicator {
+
+    private final DataInitializer dataInitializer;
+
+    public DataWarmupHealthIndicator(DataInitializer dataInitializer) {
+        this.dataInitializer = dataInitializer;
+    }
+
+    @Override
+    public Health health() {
+        if (!dataInitializer.isWarmupEnabled()) {
+            return Health.up().withDetail("warmup", "disabled").build();
+        }
+        DataLoadJob job = dataInitializer.getWarmupJob();
+        if (job == null) {
+            return Health.outOfService().withDetail("warmup", "not started").build();
+        }
+        Health.Builder builder = job.isFinished() ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("warmup", job.getStatus())
+                .withDetail("jobId", job.getId())
+                .withDetail("rowsWritten", job.getRowsWritten())
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.usermanagement.config;
+
+import com.example.usermanagement.service.DataLoadJob;
+import com.example.usermanagement.service.DataLoadJobService;
+import com.example.usermanagement.service.UpstreamPageCache;
+import com.example.usermanagement.store.InMemoryUserStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Meters for components that already keep their own counters. Request timings
+ * ({@code http.server.requests}) and connection pool usage ({@code hikaricp.*}) come from
+ * Spring Boot's auto-configuration.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder upstreamPageCacheMetrics(UpstreamPageCache pageCache) {
+        return registry -> {
+            FunctionCounter.builder("users.load.cache.requests", pageCache, UpstreamPageCache::getHits)
+                    .description("Upstream page requests answered from the local page cache")
+                    .tag("result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("users.load.cache.requests", pageCache, UpstreamPageCache::getMisses)
+                    .description("Upstream page requests answered from the local page cache")
+                    .tag("result", "miss")
+                    .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder dataLoadJobMetrics(DataLoadJobService dataLoadJobService) {
+        return registry -> Gauge.builder("users.load.job.throughput", dataLoadJobService,
+                        service -> service.getActiveJob().map(DataLoadJob::getThroughputRowsPerSecond).orElse(0.0))
+                .description("Rows per second of the data load job currently running")
+                .baseUnit("rows")
+                .register(registry);
+    }
+
+    @Bean
+    @Profile("memory")
+    public MeterBinder inMemoryUserStoreMetrics(InMemoryUserStore userStore) {
+        return registry -> {
+            Gauge.builder("users.store.memory", userStore, InMemoryUserStore::memoryBytes)
+                    .description("Estimated heap held by the in-memory store's columns and indexes")
+                    .baseUnit("bytes")
+                    .register(registry);
+            Gauge.builder("users.store.memory.per.user", userStore,
+                            store -> store.count() == 0 ? 0 : (double) store.memoryBytes() / store.count())
+                    .description("Estimated in-memory store heap per stored user")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+}
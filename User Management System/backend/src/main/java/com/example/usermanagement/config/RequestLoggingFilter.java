@@ -0,0 +1,89 @@
+package com.example.usermanagement.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One summary line per API request, in {@code key=value} form:
+ * {@code method=GET route=/api/users/{id} status=200 durationUs=1420}. Hot GET requests
+ * are sampled at {@code app.request-logging.sample-rate}; server errors, requests slower
+ * than {@code app.request-logging.slow-threshold} and all other methods are always logged.
+ * The line goes through the async appenders in {@code logback-spring.xml}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RequestLoggingFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestLoggingFilter.class);
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final long slowThresholdNanos;
+
+    public RequestLoggingFilter(@Value("${app.request-logging.enabled:true}") boolean enabled,
+                                @Value("${app.request-logging.sample-rate:0.01}") double sampleRate,
+                                @Value("${app.request-logging.slow-threshold:500ms}") Duration slowThreshold) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            long elapsed = System.nanoTime() - start;
+            logger.error("method={} route={} status=500 durationUs={} error={}", request.getMethod(), route(request),
+                    elapsed / 1_000, e.getClass().getSimpleName());
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        int status = response.getStatus();
+        if (status >= 500) {
+            logger.error("method={} route={} status={} durationUs={}", request.getMethod(), route(request), status,
+                    elapsed / 1_000);
+        } else if (elapsed >= slowThresholdNanos) {
+            logger.warn("method={} route={} status={} durationUs={} slow=true", request.getMethod(), route(request),
+                    status, elapsed / 1_000);
+        } else if (logger.isInfoEnabled() && sampled(request)) {
+            logger.info("method={} route={} status={} durationUs={}", request.getMethod(), route(request), status,
+                    elapsed / 1_000);
+        }
+    }
+
+    private boolean sampled(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * The matched route pattern rather than the raw path, so ids and emails stay out of the log.
+     */
+    private static Object route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern : request.getRequestURI();
+    }
+}
@@ -1,14 +1,27 @@
 package com.example.usermanagement.config;
 
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+
 @Configuration
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(ObjectProvider<RestTemplateBuilder> builderProvider,
+                                     @Value("${api.external.dummyjson.connect-timeout:2000}") long connectTimeout,
+                                     @Value("${api.external.dummyjson.read-timeout:10000}") long readTimeout) {
+        // Boot only auto-configures the builder for servlet apps; the reactive stack still
+        // uses this template for the page cache
+        RestTemplateBuilder builder = builderProvider.getIfAvailable(RestTemplateBuilder::new);
+        return builder
+                .setConnectTimeout(Duration.ofMillis(connectTimeout))
+                .setReadTimeout(Duration.ofMillis(readTimeout))
+                .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.example.usermanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.support.RetryTemplate;
+
+@Configuration
+public class RetryConfig {
+
+    /**
+     * Retry policy for a single upstream page fetch. Exponential backoff with random
+     * jitter keeps concurrent loaders from retrying in lockstep against the upstream.
+     */
+    @Bean(name = "pageRetryTemplate")
+    public RetryTemplate pageRetryTemplate(
+            @Value("${api.external.dummyjson.retry.max-attempts}") int maxAttempts,
+            @Value("${api.external.dummyjson.retry.delay}") long initialDelay,
+            @Value("${api.external.dummyjson.retry.multiplier:2.0}") double multiplier,
+            @Value("${api.external.dummyjson.retry.max-delay:10000}") long maxDelay) {
+        return RetryTemplate.builder()
+                .maxAttempts(maxAttempts)
+                .exponentialBackoff(initialDelay, multiplier, maxDelay, true)
+                .retryOn(Exception.class)
+                .build();
+    }
+}
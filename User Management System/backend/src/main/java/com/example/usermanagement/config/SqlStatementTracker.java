@@ -0,0 +1,152 @@
+package com.example.usermanagement.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Counts the JDBC statements, fetched rows and time spent in the database on the current
+ * thread between {@link #begin()} and {@link #end()}. {@link #wrap(DataSource)} returns a
+ * data source whose connections report into it; outside a tracked scope they only add a
+ * proxy call.
+ */
+public final class SqlStatementTracker {
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private static final Set<String> EXECUTE_METHODS =
+            Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private SqlStatementTracker() {}
+
+    public static Stats begin() {
+        Stats stats = new Stats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * The stats of the scope open on this thread, or {@code null}.
+     */
+    public static Stats current() {
+        return CURRENT.get();
+    }
+
+    public static DataSource wrap(DataSource dataSource) {
+        return new TrackingDataSource(dataSource);
+    }
+
+    public static final class Stats {
+
+        private int statements;
+        private long rows;
+        private long nanos;
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    static final class TrackingDataSource extends DelegatingDataSource {
+
+        TrackingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return proxy(Connection.class, super.getConnection(), SqlStatementTracker::onConnectionCall);
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return proxy(Connection.class, super.getConnection(username, password), SqlStatementTracker::onConnectionCall);
+        }
+    }
+
+    private interface Call {
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static Object onConnectionCall(Object connection, Method method, Object[] args) throws Throwable {
+        Object result = method.invoke(connection, args);
+        return switch (method.getName()) {
+            case "createStatement" -> proxy(Statement.class, result, SqlStatementTracker::onStatementCall);
+            case "prepareStatement" -> proxy(PreparedStatement.class, result, SqlStatementTracker::onStatementCall);
+            case "prepareCall" -> proxy(CallableStatement.class, result, SqlStatementTracker::onStatementCall);
+            default -> result;
+        };
+    }
+
+    private static Object onStatementCall(Object statement, Method method, Object[] args) throws Throwable {
+        Stats stats = CURRENT.get();
+        boolean execute = EXECUTE_METHODS.contains(method.getName());
+        if (stats == null || !execute && !"getResultSet".equals(method.getName())) {
+            return method.invoke(statement, args);
+        }
+        long start = System.nanoTime();
+        Object result = method.invoke(statement, args);
+        if (execute) {
+            stats.statements++;
+            stats.nanos += System.nanoTime() - start;
+        }
+        return result instanceof ResultSet ? proxy(ResultSet.class, result, SqlStatementTracker::onResultSetCall) : result;
+    }
+
+    private static Object onResultSetCall(Object resultSet, Method method, Object[] args) throws Throwable {
+        Stats stats = CURRENT.get();
+        if (stats == null || !"next".equals(method.getName())) {
+            return method.invoke(resultSet, args);
+        }
+        long start = System.nanoTime();
+        Object hasRow = method.invoke(resultSet, args);
+        stats.nanos += System.nanoTime() - start;
+        if (Boolean.TRUE.equals(hasRow)) {
+            stats.rows++;
+        }
+        return hasRow;
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Call call) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            // Hibernate keys its resource registry by statement, so identity must hold
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return call.invoke(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(SqlStatementTracker.class.getClassLoader(), new Class<?>[] {type}, handler));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.usermanagement.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request SQL accounting. Every {@link DataSource} is wrapped by
+ * {@link SqlStatementTracker}, and each servlet request records its statement count, rows
+ * fetched and database time as {@code sql.request.*} meters tagged with the route.
+ * Hibernate's own session-factory statistics are published as {@code hibernate.*} meters
+ * by Spring Boot ({@code hibernate.generate_statistics}). See {@link SqlStatsHeadersAdvice}
+ * for the dev response headers.
+ */
+@Configuration
+public class SqlTrackingConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlTrackingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof SqlStatementTracker.TrackingDataSource)) {
+                    return SqlStatementTracker.wrap(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public OncePerRequestFilter sqlTrackingFilter(MeterRegistry meterRegistry) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                SqlStatementTracker.Stats stats = SqlStatementTracker.begin();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    SqlStatementTracker.end();
+                    Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    if (route != null) {
+                        record(meterRegistry, request.getMethod(), route.toString(), stats);
+                    }
+                }
+            }
+        };
+    }
+
+    private static void record(MeterRegistry registry, String method, String uri, SqlStatementTracker.Stats stats) {
+        DistributionSummary.builder("sql.request.statements")
+                .description("JDBC statements executed per HTTP request")
+                .tags("method", method, "uri", uri)
+                .register(registry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("sql.request.rows")
+                .description("Rows fetched from JDBC result sets per HTTP request")
+                .baseUnit("rows")
+                .tags("method", method, "uri", uri)
+                .register(registry)
+                .record(stats.getRows());
+        Timer.builder("sql.request.time")
+                .description("Time per HTTP request spent executing statements and fetching rows")
+                .tags("method", method, "uri", uri)
+                .register(registry)
+                .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.usermanagement.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking upstream client for the reactive stack. When present, {@code DataLoadService}
+ * fetches pages through it instead of {@link org.springframework.web.client.RestTemplate}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class WebClientConfig {
+
+    @Bean
+    public WebClient upstreamWebClient(WebClient.Builder builder,
+                                       @Value("${api.external.dummyjson.connect-timeout:2000}") long connectTimeout,
+                                       @Value("${api.external.dummyjson.read-timeout:10000}") long readTimeout) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout)
+                .responseTimeout(Duration.ofMillis(readTimeout));
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
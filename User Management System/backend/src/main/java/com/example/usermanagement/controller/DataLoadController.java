@@ -1,17 +1,27 @@
 package com.example.usermanagement.controller;
 
-import com.example.usermanagement.service.DataLoadService;
+import com.example.usermanagement.service.DataChangeFeed;
+import com.example.usermanagement.service.DataLoadJob;
+import com.example.usermanagement.service.DataLoadJobService;
 import com.example.usermanagement.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -22,60 +32,117 @@ public class DataLoadController {
 
     private static final Logger logger = LoggerFactory.getLogger(DataLoadController.class);
 
-    private final DataLoadService dataLoadService;
+    private final DataLoadJobService dataLoadJobService;
     private final UserService userService;
+    private final DataChangeFeed changeFeed;
+    private final Duration heartbeat;
 
-    public DataLoadController(DataLoadService dataLoadService, UserService userService) {
-        this.dataLoadService = dataLoadService;
+    public DataLoadController(DataLoadJobService dataLoadJobService, UserService userService,
+                              DataChangeFeed changeFeed,
+                              @Value("${app.changes.heartbeat:15s}") Duration heartbeat) {
+        this.dataLoadJobService = dataLoadJobService;
         this.userService = userService;
+        this.changeFeed = changeFeed;
+        this.heartbeat = heartbeat;
     }
 
     @PostMapping("/load")
     @Operation(summary = "Load users from external API", 
-               description = "Load all user data from DummyJSON API into the local H2 database")
+               description = "Start a background job that loads all user data from DummyJSON API into the local H2 database. "
+                       + "Requests made while a load is running are coalesced into the running job.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Data loaded successfully"),
-            @ApiResponse(responseCode = "500", description = "Error occurred while loading data")
+            @ApiResponse(responseCode = "202", description = "Load job accepted"),
+            @ApiResponse(responseCode = "500", description = "Error occurred while starting the load")
     })
     public ResponseEntity<Map<String, Object>> loadUsersData() {
-        logger.info("Request received to load users from external API");
-        
-        try {
-            long beforeCount = userService.getUserCount();
-            dataLoadService.loadUsersFromExternalAPI();
-            long afterCount = userService.getUserCount();
-            
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Users data loaded successfully");
-            response.put("previousCount", beforeCount);
-            response.put("currentCount", afterCount);
-            response.put("loadedCount", afterCount - beforeCount);
-            
-            logger.info("Successfully loaded users. Previous count: {}, Current count: {}", beforeCount, afterCount);
-            return ResponseEntity.ok(response);
-            
-        } catch (Exception e) {
-            logger.error("Error loading users data", e);
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", false);
-            response.put("message", "Error loading users data: " + e.getMessage());
-            return ResponseEntity.internalServerError().body(response);
-        }
+        logger.debug("Request received to load users from external API");
+
+        DataLoadJob job = dataLoadJobService.submitLoad();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/data/jobs/" + job.getId()))
+                .body(toJobResponse(job));
+    }
+
+    @GetMapping("/jobs/{id}")
+    @Operation(summary = "Get data load job", description = "Get progress of a data load job: pages fetched, rows written, throughput and ETA")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job found"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    public ResponseEntity<Map<String, Object>> getLoadJob(
+            @Parameter(description = "Job ID", required = true) @PathVariable String id) {
+        return ResponseEntity.ok(toJobResponse(dataLoadJobService.getJob(id)));
     }
 
     @GetMapping("/status")
     @Operation(summary = "Get data load status", description = "Get the current status of loaded data")
     @ApiResponse(responseCode = "200", description = "Status retrieved successfully")
     public ResponseEntity<Map<String, Object>> getDataStatus() {
-        logger.info("Request received to get data status");
+        logger.debug("Request received to get data status");
         
         long userCount = userService.getUserCount();
         
         Map<String, Object> response = new HashMap<>();
         response.put("totalUsers", userCount);
         response.put("dataLoaded", userCount > 0);
+        response.put("dataVersion", changeFeed.getVersion());
+        dataLoadJobService.getActiveJob().ifPresent(job -> response.put("activeJobId", job.getId()));
         
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream data changes",
+               description = "Server-Sent Events for every committed load or write: upsert and delete events per user, "
+                       + "closed by a version event. Reconnecting with Last-Event-ID resumes from the change log; "
+                       + "a reset event means the consumer must reload.")
+    @ApiResponse(responseCode = "200", description = "Event stream opened")
+    public Flux<ServerSentEvent<Object>> streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @Parameter(description = "Resume after this event id, for clients that cannot set Last-Event-ID")
+            @RequestParam(required = false) String lastEventId) {
+        String resumeFrom = lastEventIdHeader != null ? lastEventIdHeader : lastEventId;
+        logger.debug("Change feed subscription from event {}", resumeFrom);
+        Flux<ServerSentEvent<Object>> changes = changeFeed.changes(resumeFrom)
+                .map(change -> ServerSentEvent.builder(change.data())
+                        .id(change.id())
+                        .event(change.type())
+                        .build());
+        // Comments keep idle connections from being closed by proxies
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(heartbeat)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.builder().comment("heartbeat").build());
+        // Heartbeats end with the changes, so a subscriber the feed cut off sees the stream
+        // close and reconnects with its last event id. Prefetch 1 keeps the feed's buffer
+        // the one that decides when a consumer is too slow.
+        return changes.publish(shared -> Flux.merge(1, shared, heartbeats.takeUntilOther(shared.then())), 1);
+    }
+
+    private Map<String, Object> toJobResponse(DataLoadJob job) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("jobId", job.getId());
+        response.put("status", job.getStatus());
+        response.put("success", job.getStatus() != DataLoadJob.Status.FAILED);
+        response.put("message", job.getMessage());
+        response.put("coalescedRequests", job.getCoalescedRequests());
+        response.put("pagesFetched", job.getPagesFetched());
+        response.put("pageRetries", job.getPageRetries());
+        response.put("resumedFromOffset", job.getStartOffset());
+        response.put("rowsFetched", job.getRowsFetched());
+        response.put("rowsWritten", job.getRowsWritten());
+        response.put("totalRows", job.getTotalRows());
+        response.put("throughputRowsPerSecond", Math.round(job.getThroughputRowsPerSecond() * 10) / 10.0);
+        response.put("etaSeconds", job.getEtaSeconds());
+        response.put("startedAt", job.getStartedAt());
+        response.put("finishedAt", job.getFinishedAt());
+        if (job.isFinished()) {
+            response.put("previousCount", job.getPreviousCount());
+            response.put("currentCount", job.getCurrentCount());
+            response.put("loadedCount", job.getCurrentCount() - job.getPreviousCount());
+        }
+        if (job.getCapacityReport() != null) {
+            response.put("capacity", job.getCapacityReport());
+        }
+        return response;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,287 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.dto.UserRequestDto;
+import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.service.ExportFormat;
+import com.example.usermanagement.service.UserExportService;
+import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.service.UserWriteService;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * WebFlux version of {@link UserController} with the same paths, parameters and payloads,
+ * active with the {@code reactive} profile. Store calls run on the bounded elastic
+ * scheduler so a slow lookup never stalls an event loop; responses are written by Netty
+ * as the client reads them, so slow clients hold no threads. List endpoints also answer
+ * {@code application/x-ndjson}, which streams one user per line under backpressure. All
+ * users are read a page at a time as the client takes them, never as one list.
+ */
+@RestController
+@RequestMapping("/api/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Tag(name = "User Management", description = "APIs for managing users")
+@CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
+public class ReactiveUserController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveUserController.class);
+
+    // Users read from the store per step when streaming all of them
+    static final int PAGE_SIZE = 1000;
+
+    private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserWriteService userWriteService;
+    private final Scheduler storeScheduler = Schedulers.boundedElastic();
+
+    public ReactiveUserController(UserService userService, UserExportService userExportService,
+                                  UserWriteService userWriteService) {
+        this.userService = userService;
+        this.userExportService = userExportService;
+        this.userWriteService = userWriteService;
+    }
+
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Get all users", description = "Retrieve a list of all users")
+    public Flux<UserResponseDto> getAllUsers() {
+        logger.debug("Request received to get all users");
+        return allUsers();
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get user by ID", description = "Retrieve a specific user by their ID")
+    public Mono<UserResponseDto> getUserById(
+            @Parameter(description = "User ID", required = true) @PathVariable Long id) {
+        logger.debug("Request received to get user by id: {}", id);
+        return one(() -> userService.getUserById(id));
+    }
+
+    @GetMapping("/email/{email}")
+    @Operation(summary = "Get user by email", description = "Retrieve a specific user by their email address")
+    public Mono<UserResponseDto> getUserByEmail(
+            @Parameter(description = "User email", required = true) @PathVariable String email) {
+        logger.debug("Request received to get user by email: {}", email);
+        return one(() -> userService.getUserByEmail(email));
+    }
+
+    @GetMapping(value = "/search", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Search users",
+               description = "Search users by ID, email, firstName, lastName, or SSN. Supports exact ID/email matching and partial matching for names/SSN. Minimum 3 characters for full-text search. Results can be narrowed by role and age range, with or without a term.")
+    public Flux<UserResponseDto> searchUsers(
+            @Parameter(description = "Search term for ID, email, firstName, lastName, or SSN", required = false)
+            @RequestParam(value = "q", required = false) String searchTerm,
+            @Parameter(description = "Match first and last names by sound (Double Metaphone) instead of spelling")
+            @RequestParam(value = "phonetic", defaultValue = "false") boolean phonetic,
+            @Parameter(description = "Only users with this role, ignoring case")
+            @RequestParam(value = "role", required = false) String role,
+            @Parameter(description = "Minimum age, inclusive, 0 to 150")
+            @RequestParam(value = "minAge", required = false) Integer minAge,
+            @Parameter(description = "Maximum age, inclusive, 0 to 150")
+            @RequestParam(value = "maxAge", required = false) Integer maxAge) {
+        logger.debug("Request received to search users with term: '{}'", searchTerm);
+        boolean unfiltered = (searchTerm == null || searchTerm.isBlank()) && (role == null || role.isBlank())
+                && minAge == null && maxAge == null;
+        if (unfiltered && !phonetic) {
+            return allUsers();
+        }
+        return many(() -> phonetic
+                ? userService.phoneticSearch(searchTerm, role, minAge, maxAge)
+                : userService.searchUsers(searchTerm, role, minAge, maxAge));
+    }
+
+    @GetMapping("/count")
+    @Operation(summary = "Count users",
+               description = "Number of users with the role and within the inclusive age range; both are optional.")
+    public Mono<Map<String, Object>> countUsers(
+            @Parameter(description = "Only users with this role, ignoring case") @RequestParam(value = "role", required = false) String role,
+            @Parameter(description = "Minimum age, inclusive, 0 to 150") @RequestParam(value = "minAge", required = false) Integer minAge,
+            @Parameter(description = "Maximum age, inclusive, 0 to 150") @RequestParam(value = "maxAge", required = false) Integer maxAge) {
+        logger.debug("Request received to count users with role {} aged {} to {}", role, minAge, maxAge);
+        return Mono.fromCallable(() -> Map.<String, Object>of("count", userService.countUsers(role, minAge, maxAge)))
+                .subscribeOn(storeScheduler);
+    }
+
+    @GetMapping(value = "/query", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Query users",
+               description = "Users matching a compound query of search terms and role:, gender:, age:N..M and ssn:123* conditions, combined with AND (also implied between operands), OR and parentheses. Ordered by id.")
+    public Flux<UserResponseDto> queryUsers(
+            @Parameter(description = "Query, e.g. (role:admin OR role:moderator) age:30..40 smith", required = true)
+            @RequestParam("where") String where) {
+        logger.debug("Request received to query users where: {}", where);
+        return many(() -> userService.queryUsers(where));
+    }
+
+    @GetMapping("/query/count")
+    @Operation(summary = "Count query matches",
+               description = "Number of users matching a compound query; same syntax as /query.")
+    public Mono<Map<String, Object>> countQuery(
+            @Parameter(description = "Query, as for /query", required = true) @RequestParam("where") String where) {
+        logger.debug("Request received to count users where: {}", where);
+        return Mono.fromCallable(() -> Map.<String, Object>of("count", userService.countQuery(where)))
+                .subscribeOn(storeScheduler);
+    }
+
+    /**
+     * The export writes to an output stream on a bounded elastic thread; Netty sends each
+     * chunk as the client reads it, and the writer blocks while the client is behind.
+     */
+    @GetMapping("/export")
+    @Operation(summary = "Export all users",
+               description = "Streams every user in id order as CSV, NDJSON or a columnar binary, chunk by chunk, optionally gzip-encoded.")
+    public ResponseEntity<Flux<DataBuffer>> exportUsers(
+            @Parameter(description = "csv, ndjson or parquet-like-binary") @RequestParam(value = "format", defaultValue = "csv") String format,
+            @Parameter(description = "Compress the stream (Content-Encoding: gzip)") @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        logger.debug("Request received to export users as {}", format);
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        Flux<DataBuffer> body = Flux.from(DataBufferUtils.outputStreamPublisher(out -> {
+            try {
+                userExportService.export(exportFormat, gzip, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DefaultDataBufferFactory.sharedInstance, storeScheduler::schedule));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(exportFormat.getFileName()).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    @GetMapping(value = "/near", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Find users near a point",
+               description = "Users whose address lies within radiusKm (great-circle distance) of lat/lng, nearest first.")
+    public Flux<UserResponseDto> findNear(
+            @Parameter(description = "Latitude of the center", required = true) @RequestParam("lat") double latitude,
+            @Parameter(description = "Longitude of the center", required = true) @RequestParam("lng") double longitude,
+            @Parameter(description = "Search radius in kilometers") @RequestParam(value = "radiusKm", defaultValue = "10") double radiusKm,
+            @Parameter(description = "Maximum number of users, 1 to 1000") @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        logger.debug("Request received to find users within {} km of {},{}", radiusKm, latitude, longitude);
+        return many(() -> userService.findNear(latitude, longitude, radiusKm, limit));
+    }
+
+    @GetMapping(value = "/within", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(summary = "Find users in a bounding box",
+               description = "Users whose address lies inside the latitude/longitude box, ordered by id. A minLng greater than maxLng crosses the antimeridian.")
+    public Flux<UserResponseDto> findInBox(
+            @Parameter(description = "Southern edge", required = true) @RequestParam("minLat") double minLatitude,
+            @Parameter(description = "Western edge", required = true) @RequestParam("minLng") double minLongitude,
+            @Parameter(description = "Northern edge", required = true) @RequestParam("maxLat") double maxLatitude,
+            @Parameter(description = "Eastern edge", required = true) @RequestParam("maxLng") double maxLongitude,
+            @Parameter(description = "Maximum number of users, 1 to 1000") @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        logger.debug("Request received to find users in box {},{} to {},{}", minLatitude, minLongitude, maxLatitude, maxLongitude);
+        return many(() -> userService.findInBox(minLatitude, minLongitude, maxLatitude, maxLongitude, limit));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Replace a user", description = "Replace every field of an existing user")
+    public Mono<UserResponseDto> replaceUser(
+            @Parameter(description = "User ID", required = true) @PathVariable Long id,
+            @RequestBody UserRequestDto user) {
+        logger.debug("Request received to replace user {}", id);
+        return one(() -> userWriteService.replace(id, user));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Update a user",
+               description = "JSON merge patch: given fields replace the stored ones, null clears one, others are kept.")
+    public Mono<UserResponseDto> patchUser(
+            @Parameter(description = "User ID", required = true) @PathVariable Long id,
+            @RequestBody JsonNode changes) {
+        logger.debug("Request received to patch user {}", id);
+        return one(() -> userWriteService.patch(id, changes));
+    }
+
+    @DeleteMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @Operation(summary = "Delete a user", description = "Delete a user by their ID")
+    public Mono<Void> deleteUser(
+            @Parameter(description = "User ID", required = true) @PathVariable Long id) {
+        logger.debug("Request received to delete user {}", id);
+        return Mono.fromRunnable(() -> userService.deleteUser(id)).subscribeOn(storeScheduler).then();
+    }
+
+    /**
+     * The body is read as a blocking stream on a bounded elastic thread, a few buffers
+     * ahead, so the client is only asked for more as batches get written.
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Write users in bulk",
+               description = "One user per line (NDJSON): rows with an id replace that user, rows without one are created. Rows are written in batches as they arrive; refused rows are reported by line.")
+    public Mono<UserWriteService.BulkWriteResult> writeUsers(@RequestBody Flux<DataBuffer> body) {
+        logger.debug("Request received to write users in bulk");
+        return Mono.fromCallable(() -> {
+            try (InputStream in = inputStream(body.toIterable(4).iterator())) {
+                return userWriteService.writeAll(in);
+            }
+        }).subscribeOn(storeScheduler);
+    }
+
+    /**
+     * Reads the buffers in order, releasing each once read.
+     */
+    private static InputStream inputStream(Iterator<DataBuffer> buffers) {
+        return new SequenceInputStream(new Enumeration<>() {
+            @Override
+            public boolean hasMoreElements() {
+                return buffers.hasNext();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                return buffers.next().asInputStream(true);
+            }
+        });
+    }
+
+    private Mono<UserResponseDto> one(Callable<UserResponseDto> lookup) {
+        return Mono.fromCallable(lookup).subscribeOn(storeScheduler);
+    }
+
+    /**
+     * Every user in id order; the next page is read once the previous one is taken.
+     */
+    private Flux<UserResponseDto> allUsers() {
+        return page(Long.MIN_VALUE)
+                .expand(users -> users.size() < PAGE_SIZE ? Mono.empty() : page(users.get(users.size() - 1).getId()))
+                .flatMapIterable(users -> users);
+    }
+
+    private Mono<List<UserResponseDto>> page(long afterId) {
+        return Mono.fromCallable(() -> userService.getUserPageAfter(afterId, PAGE_SIZE)).subscribeOn(storeScheduler);
+    }
+
+    private Flux<UserResponseDto> many(Callable<List<UserResponseDto>> lookup) {
+        return Mono.fromCallable(lookup).subscribeOn(storeScheduler).flatMapIterable(users -> users);
+    }
+}
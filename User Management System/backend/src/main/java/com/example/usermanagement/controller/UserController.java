@@ -1,7 +1,12 @@
 package com.example.usermanagement.controller;
 
+import com.example.usermanagement.dto.UserRequestDto;
 import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.service.ExportFormat;
+import com.example.usermanagement.service.UserExportService;
 import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.service.UserWriteService;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,13 +16,22 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Tag(name = "User Management", description = "APIs for managing users")
 @CrossOrigin(origins = {"http://localhost:3000", "http://localhost:3001"})
 public class UserController {
@@ -25,9 +39,14 @@ public class UserController {
     private static final Logger logger = LoggerFactory.getLogger(UserController.class);
 
     private final UserService userService;
+    private final UserExportService userExportService;
+    private final UserWriteService userWriteService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserExportService userExportService,
+                          UserWriteService userWriteService) {
         this.userService = userService;
+        this.userExportService = userExportService;
+        this.userWriteService = userWriteService;
     }
 
     @GetMapping
@@ -35,9 +54,9 @@ public class UserController {
     @ApiResponse(responseCode = "200", description = "Successfully retrieved users",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class)))
     public ResponseEntity<List<UserResponseDto>> getAllUsers() {
-        logger.info("Request received to get all users");
+        logger.debug("Request received to get all users");
         List<UserResponseDto> users = userService.getAllUsers();
-        logger.info("Returning {} users", users.size());
+        logger.debug("Returning {} users", users.size());
         return ResponseEntity.ok(users);
     }
 
@@ -50,7 +69,7 @@ public class UserController {
     })
     public ResponseEntity<UserResponseDto> getUserById(
             @Parameter(description = "User ID", required = true) @PathVariable Long id) {
-        logger.info("Request received to get user by id: {}", id);
+        logger.debug("Request received to get user by id: {}", id);
         UserResponseDto user = userService.getUserById(id);
         return ResponseEntity.ok(user);
     }
@@ -64,14 +83,114 @@ public class UserController {
     })
     public ResponseEntity<UserResponseDto> getUserByEmail(
             @Parameter(description = "User email", required = true) @PathVariable String email) {
-        logger.info("Request received to get user by email: {}", email);
+        logger.debug("Request received to get user by email: {}", email);
         UserResponseDto user = userService.getUserByEmail(email);
         return ResponseEntity.ok(user);
     }
 
+    @GetMapping("/count")
+    @Operation(summary = "Count users",
+               description = "Number of users with the role and within the inclusive age range; both are optional.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Count computed"),
+            @ApiResponse(responseCode = "400", description = "Age out of range")
+    })
+    public ResponseEntity<Map<String, Object>> countUsers(
+            @Parameter(description = "Only users with this role, ignoring case") @RequestParam(value = "role", required = false) String role,
+            @Parameter(description = "Minimum age, inclusive, 0 to 150") @RequestParam(value = "minAge", required = false) Integer minAge,
+            @Parameter(description = "Maximum age, inclusive, 0 to 150") @RequestParam(value = "maxAge", required = false) Integer maxAge) {
+        logger.debug("Request received to count users with role {} aged {} to {}", role, minAge, maxAge);
+        return ResponseEntity.ok(Map.of("count", userService.countUsers(role, minAge, maxAge)));
+    }
+
+    @GetMapping("/query")
+    @Operation(summary = "Query users",
+               description = "Users matching a compound query of search terms and role:, gender:, age:N..M and ssn:123* conditions, combined with AND (also implied between operands), OR and parentheses. Ordered by id.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Query completed successfully",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Malformed query")
+    })
+    public ResponseEntity<List<UserResponseDto>> queryUsers(
+            @Parameter(description = "Query, e.g. (role:admin OR role:moderator) age:30..40 smith", required = true)
+            @RequestParam("where") String where) {
+        logger.debug("Request received to query users where: {}", where);
+        return ResponseEntity.ok(userService.queryUsers(where));
+    }
+
+    @GetMapping("/query/count")
+    @Operation(summary = "Count query matches",
+               description = "Number of users matching a compound query; same syntax as /query.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Count computed"),
+            @ApiResponse(responseCode = "400", description = "Malformed query")
+    })
+    public ResponseEntity<Map<String, Object>> countQuery(
+            @Parameter(description = "Query, as for /query", required = true) @RequestParam("where") String where) {
+        logger.debug("Request received to count users where: {}", where);
+        return ResponseEntity.ok(Map.of("count", userService.countQuery(where)));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all users",
+               description = "Streams every user in id order as CSV, NDJSON or a columnar binary, chunk by chunk, optionally gzip-encoded.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed"),
+            @ApiResponse(responseCode = "400", description = "Unknown format")
+    })
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "csv, ndjson or parquet-like-binary") @RequestParam(value = "format", defaultValue = "csv") String format,
+            @Parameter(description = "Compress the stream (Content-Encoding: gzip)") @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        logger.debug("Request received to export users as {}", format);
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(exportFormat.getFileName()).build().toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(out -> userExportService.export(exportFormat, gzip, out));
+    }
+
+    @GetMapping("/near")
+    @Operation(summary = "Find users near a point",
+               description = "Users whose address lies within radiusKm (great-circle distance) of lat/lng, nearest first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Coordinates, radius or limit out of range")
+    })
+    public ResponseEntity<List<UserResponseDto>> findNear(
+            @Parameter(description = "Latitude of the center", required = true) @RequestParam("lat") double latitude,
+            @Parameter(description = "Longitude of the center", required = true) @RequestParam("lng") double longitude,
+            @Parameter(description = "Search radius in kilometers") @RequestParam(value = "radiusKm", defaultValue = "10") double radiusKm,
+            @Parameter(description = "Maximum number of users, 1 to 1000") @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        logger.debug("Request received to find users within {} km of {},{}", radiusKm, latitude, longitude);
+        return ResponseEntity.ok(userService.findNear(latitude, longitude, radiusKm, limit));
+    }
+
+    @GetMapping("/within")
+    @Operation(summary = "Find users in a bounding box",
+               description = "Users whose address lies inside the latitude/longitude box, ordered by id. A minLng greater than maxLng crosses the antimeridian.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Users found",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Coordinates or limit out of range")
+    })
+    public ResponseEntity<List<UserResponseDto>> findInBox(
+            @Parameter(description = "Southern edge", required = true) @RequestParam("minLat") double minLatitude,
+            @Parameter(description = "Western edge", required = true) @RequestParam("minLng") double minLongitude,
+            @Parameter(description = "Northern edge", required = true) @RequestParam("maxLat") double maxLatitude,
+            @Parameter(description = "Eastern edge", required = true) @RequestParam("maxLng") double maxLongitude,
+            @Parameter(description = "Maximum number of users, 1 to 1000") @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        logger.debug("Request received to find users in box {},{} to {},{}", minLatitude, minLongitude, maxLatitude, maxLongitude);
+        return ResponseEntity.ok(userService.findInBox(minLatitude, minLongitude, maxLatitude, maxLongitude, limit));
+    }
+
     @GetMapping("/search")
     @Operation(summary = "Search users", 
-               description = "Search users by ID, email, firstName, lastName, or SSN. Supports exact ID/email matching and partial matching for names/SSN. Minimum 3 characters for full-text search.")
+               description = "Search users by ID, email, firstName, lastName, or SSN. Supports exact ID/email matching and partial matching for names/SSN. Minimum 3 characters for full-text search. Results can be narrowed by role and age range, with or without a term.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search completed successfully",
                     content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class))),
@@ -79,12 +198,77 @@ public class UserController {
     })
     public ResponseEntity<List<UserResponseDto>> searchUsers(
             @Parameter(description = "Search term for ID, email, firstName, lastName, or SSN", required = false)
-            @RequestParam(value = "q", required = false) String searchTerm) {
+            @RequestParam(value = "q", required = false) String searchTerm,
+            @Parameter(description = "Match first and last names by sound (Double Metaphone) instead of spelling")
+            @RequestParam(value = "phonetic", defaultValue = "false") boolean phonetic,
+            @Parameter(description = "Only users with this role, ignoring case")
+            @RequestParam(value = "role", required = false) String role,
+            @Parameter(description = "Minimum age, inclusive, 0 to 150")
+            @RequestParam(value = "minAge", required = false) Integer minAge,
+            @Parameter(description = "Maximum age, inclusive, 0 to 150")
+            @RequestParam(value = "maxAge", required = false) Integer maxAge) {
         
-        logger.info("Request received to search users with term: '{}'", searchTerm);
-        List<UserResponseDto> users = userService.searchUsers(searchTerm);
-        logger.info("Search returned {} users", users.size());
+        logger.debug("Request received to search users with term: '{}'", searchTerm);
+        List<UserResponseDto> users = phonetic
+                ? userService.phoneticSearch(searchTerm, role, minAge, maxAge)
+                : userService.searchUsers(searchTerm, role, minAge, maxAge);
+        logger.debug("Search returned {} users", users.size());
         
         return ResponseEntity.ok(users);
     }
-}
\ No newline at end of file
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Replace a user", description = "Replace every field of an existing user")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "User replaced",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid user"),
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "409", description = "Email or SSN belongs to another user")
+    })
+    public ResponseEntity<UserResponseDto> replaceUser(
+            @Parameter(description = "User ID", required = true) @PathVariable Long id,
+            @RequestBody UserRequestDto user) {
+        logger.debug("Request received to replace user {}", id);
+        return ResponseEntity.ok(userWriteService.replace(id, user));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(summary = "Update a user",
+               description = "JSON merge patch: given fields replace the stored ones, null clears one, others are kept.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "User updated",
+                    content = @Content(mediaType = "application/json", schema = @Schema(implementation = UserResponseDto.class))),
+            @ApiResponse(responseCode = "400", description = "Patch leaves an invalid user"),
+            @ApiResponse(responseCode = "404", description = "User not found"),
+            @ApiResponse(responseCode = "409", description = "Email or SSN belongs to another user")
+    })
+    public ResponseEntity<UserResponseDto> patchUser(
+            @Parameter(description = "User ID", required = true) @PathVariable Long id,
+            @RequestBody JsonNode changes) {
+        logger.debug("Request received to patch user {}", id);
+        return ResponseEntity.ok(userWriteService.patch(id, changes));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete a user", description = "Delete a user by their ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "User deleted"),
+            @ApiResponse(responseCode = "404", description = "User not found")
+    })
+    public ResponseEntity<Void> deleteUser(
+            @Parameter(description = "User ID", required = true) @PathVariable Long id) {
+        logger.debug("Request received to delete user {}", id);
+        userService.deleteUser(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Write users in bulk",
+               description = "One user per line (NDJSON): rows with an id replace that user, rows without one are created. Rows are written in batches as they arrive; refused rows are reported by line.")
+    @ApiResponse(responseCode = "200", description = "Stream written; see failed and errors for refused rows")
+    public ResponseEntity<UserWriteService.BulkWriteResult> writeUsers(InputStream body) throws IOException {
+        logger.debug("Request received to write users in bulk");
+        return ResponseEntity.ok(userWriteService.writeAll(body));
+    }
+}
@@ -15,6 +15,7 @@ public class DummyJsonUserDto {
     private String username;
     private String birthDate;
     private String gender;
+    private Address address;
 
     public DummyJsonUserDto() {}
 
@@ -50,4 +51,35 @@ public class DummyJsonUserDto {
 
     public String getGender() { return gender; }
     public void setGender(String gender) { this.gender = gender; }
+
+    public Address getAddress() { return address; }
+    public void setAddress(Address address) { this.address = address; }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Address {
+        private String city;
+        private String state;
+        private Coordinates coordinates;
+
+        public String getCity() { return city; }
+        public void setCity(String city) { this.city = city; }
+
+        public String getState() { return state; }
+        public void setState(String state) { this.state = state; }
+
+        public Coordinates getCoordinates() { return coordinates; }
+        public void setCoordinates(Coordinates coordinates) { this.coordinates = coordinates; }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Coordinates {
+        private Double lat;
+        private Double lng;
+
+        public Double getLat() { return lat; }
+        public void setLat(Double lat) { this.lat = lat; }
+
+        public Double getLng() { return lng; }
+        public void setLng(Double lng) { this.lng = lng; }
+    }
 }
\ No newline at end of file
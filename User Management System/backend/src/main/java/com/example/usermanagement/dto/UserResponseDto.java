@@ -12,6 +12,10 @@ public class UserResponseDto {
     private String username;
     private String birthDate;
     private String gender;
+    private String city;
+    private String state;
+    private Double latitude;
+    private Double longitude;
 
     public UserResponseDto() {}
 
@@ -62,4 +66,16 @@ public class UserResponseDto {
 
     public String getGender() { return gender; }
     public void setGender(String gender) { this.gender = gender; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
 }
\ No newline at end of file
@@ -0,0 +1,86 @@
+package com.example.usermanagement.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress marker of a paged upstream load. One row per data source; the offset is
+ * advanced after every page is written so a failed or interrupted load can resume
+ * from the last good page instead of starting over at {@code skip=0}. Kept in the same
+ * database as the users, so it only survives a restart when the datasource does.
+ */
+@Entity
+@Table(name = "load_checkpoints")
+public class LoadCheckpoint {
+
+    public enum Status { IN_PROGRESS, COMPLETED }
+
+    @Id
+    @Column(name = "source")
+    private String source;
+
+    @Column(name = "next_skip")
+    private int nextSkip;
+
+    @Column(name = "page_size")
+    private int pageSize;
+
+    @Column(name = "total_rows")
+    private int totalRows;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private Status status;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public LoadCheckpoint() {}
+
+    public LoadCheckpoint(String source, int pageSize) {
+        this.source = source;
+        this.pageSize = pageSize;
+        this.status = Status.IN_PROGRESS;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(int nextSkip, int totalRows) {
+        this.nextSkip = nextSkip;
+        this.totalRows = totalRows;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void markCompleted() {
+        this.status = Status.COMPLETED;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public boolean isInProgress() {
+        return status == Status.IN_PROGRESS;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public int getNextSkip() {
+        return nextSkip;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
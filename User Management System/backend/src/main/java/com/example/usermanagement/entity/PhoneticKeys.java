@@ -0,0 +1,66 @@
+package com.example.usermanagement.entity;
+
+import org.apache.commons.codec.language.DoubleMetaphone;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Double Metaphone keys of names, so "Smyth" and "Smith" or "Jonsen" and "Johnson" share
+ * a key. Every name has a primary key and, for names with an ambiguous origin, a
+ * different alternate key.
+ */
+public final class PhoneticKeys {
+
+    private static final DoubleMetaphone ENCODER = new DoubleMetaphone();
+
+    private PhoneticKeys() {}
+
+    public static String primary(String name) {
+        if (name == null || name.isBlank()) {
+            return null;
+        }
+        String key = ENCODER.doubleMetaphone(name.trim());
+        return key == null || key.isEmpty() ? null : key;
+    }
+
+    /**
+     * The alternate key, or {@code null} when it is the same as the primary one.
+     */
+    public static String alternate(String name) {
+        String primary = primary(name);
+        if (primary == null) {
+            return null;
+        }
+        String key = ENCODER.doubleMetaphone(name.trim(), true);
+        return key == null || key.isEmpty() || key.equals(primary) ? null : key;
+    }
+
+    /**
+     * Primary and alternate keys of every whitespace-separated word of the term.
+     */
+    public static Set<String> ofWords(String term) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (String word : term.trim().split("\\s+")) {
+            addKeys(keys, word);
+        }
+        return keys;
+    }
+
+    public static Set<String> of(String name) {
+        Set<String> keys = new LinkedHashSet<>(2);
+        addKeys(keys, name);
+        return keys;
+    }
+
+    private static void addKeys(Set<String> keys, String name) {
+        String primary = primary(name);
+        if (primary != null) {
+            keys.add(primary);
+            String alternate = alternate(name);
+            if (alternate != null) {
+                keys.add(alternate);
+            }
+        }
+    }
+}
@@ -4,11 +4,20 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+
+import java.util.Locale;
 // import org.hibernate.search.mapper.pojo.mapping.definition.annotation.FullTextField;
 // import org.hibernate.search.mapper.pojo.mapping.definition.annotation.Indexed;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_first_name_key", columnList = "first_name_key"),
+        @Index(name = "idx_users_first_name_alt_key", columnList = "first_name_alt_key"),
+        @Index(name = "idx_users_last_name_key", columnList = "last_name_key"),
+        @Index(name = "idx_users_last_name_alt_key", columnList = "last_name_alt_key"),
+        @Index(name = "idx_users_location", columnList = "latitude, longitude"),
+        @Index(name = "idx_users_age", columnList = "age")
+})
 // @Indexed
 public class User {
 
@@ -36,6 +45,10 @@ public class User {
     @Column(name = "email", unique = true)
     private String email;
 
+    // Lower-cased email, so emails are unique and looked up for writes ignoring case
+    @Column(name = "email_key", unique = true)
+    private String emailKey;
+
     @NotNull(message = "Age is required")
     @Column(name = "age")
     private Integer age;
@@ -56,6 +69,31 @@ public class User {
     @Column(name = "gender")
     private String gender;
 
+    @Column(name = "city")
+    private String city;
+
+    @Column(name = "state")
+    private String state;
+
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    // Double Metaphone keys of the names for phonetic search, derived on every write
+    @Column(name = "first_name_key", length = 8)
+    private String firstNameKey;
+
+    @Column(name = "first_name_alt_key", length = 8)
+    private String firstNameAltKey;
+
+    @Column(name = "last_name_key", length = 8)
+    private String lastNameKey;
+
+    @Column(name = "last_name_alt_key", length = 8)
+    private String lastNameAltKey;
+
     public User() {}
 
     public User(Long id, String firstName, String lastName, String ssn, String email, Integer age, String role) {
@@ -155,4 +193,46 @@ public class User {
     public void setGender(String gender) {
         this.gender = gender;
     }
-}
\ No newline at end of file
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public void setState(String state) {
+        this.state = state;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateKeys() {
+        emailKey = email == null ? null : email.toLowerCase(Locale.ROOT);
+        firstNameKey = PhoneticKeys.primary(firstName);
+        firstNameAltKey = PhoneticKeys.alternate(firstName);
+        lastNameKey = PhoneticKeys.primary(lastName);
+        lastNameAltKey = PhoneticKeys.alternate(lastName);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.usermanagement.exception;
+
+public class InvalidQueryException extends RuntimeException {
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
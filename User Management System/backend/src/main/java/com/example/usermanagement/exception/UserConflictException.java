@@ -0,0 +1,10 @@
+package com.example.usermanagement.exception;
+
+/**
+ * A write would give a user an email or SSN that belongs to another user.
+ */
+public class UserConflictException extends RuntimeException {
+    public UserConflictException(String message) {
+        super(message);
+    }
+}
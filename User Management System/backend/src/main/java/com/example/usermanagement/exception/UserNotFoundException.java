@@ -1,7 +1,10 @@
 package com.example.usermanagement.exception;
 
+/**
+ * Thrown for every lookup miss, so it skips the stack trace: the handler only needs the message.
+ */
 public class UserNotFoundException extends RuntimeException {
     public UserNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,9 @@
+package com.example.usermanagement.repository;
+
+import com.example.usermanagement.entity.LoadCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LoadCheckpointRepository extends JpaRepository<LoadCheckpoint, String> {
+}
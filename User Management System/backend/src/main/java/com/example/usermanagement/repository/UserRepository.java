@@ -1,11 +1,13 @@
 package com.example.usermanagement.repository;
 
 import com.example.usermanagement.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -23,6 +25,30 @@ public interface UserRepository extends JpaRepository<User, Long> {
            "LOWER(CONCAT(u.lastName, ' ', u.firstName)) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     List<User> findBySearchTerm(@Param("searchTerm") String searchTerm);
 
+    @Query("SELECT u FROM User u WHERE u.firstNameKey IN :keys OR u.firstNameAltKey IN :keys " +
+           "OR u.lastNameKey IN :keys OR u.lastNameAltKey IN :keys ORDER BY u.id")
+    List<User> findByPhoneticKeys(@Param("keys") Collection<String> keys);
+
+    @Query("SELECT u FROM User u WHERE u.latitude BETWEEN :minLatitude AND :maxLatitude " +
+           "AND u.longitude BETWEEN :minLongitude AND :maxLongitude ORDER BY u.id")
+    List<User> findInBox(@Param("minLatitude") double minLatitude, @Param("maxLatitude") double maxLatitude,
+                         @Param("minLongitude") double minLongitude, @Param("maxLongitude") double maxLongitude,
+                         Limit limit);
+
+    @Query("SELECT u FROM User u WHERE u.latitude BETWEEN :minLatitude AND :maxLatitude " +
+           "AND (u.longitude >= :minLongitude OR u.longitude <= :maxLongitude) ORDER BY u.id")
+    List<User> findInBoxAcrossAntimeridian(@Param("minLatitude") double minLatitude,
+                                           @Param("maxLatitude") double maxLatitude,
+                                           @Param("minLongitude") double minLongitude,
+                                           @Param("maxLongitude") double maxLongitude,
+                                           Limit limit);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    List<User> findByEmailKeyIn(Collection<String> emailKeys);
+
+    List<User> findBySsnIn(Collection<String> ssns);
+
     boolean existsByEmail(String email);
 
     boolean existsBySsn(String ssn);
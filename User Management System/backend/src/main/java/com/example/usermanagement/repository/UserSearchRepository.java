@@ -1,23 +1,44 @@
 package com.example.usermanagement.repository;
 
 import com.example.usermanagement.entity.User;
+import com.example.usermanagement.store.UserQuery;
 import jakarta.persistence.EntityManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.TypedQuery;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Repository
 public class UserSearchRepository {
 
+    /**
+     * Values of the {@code branch} tag on {@code users.search.jpa}: which query answered.
+     * Misses on the id and email shortcuts are counted under the query that ran after them.
+     */
+    static final List<String> BRANCHES = List.of("id", "email", "single_word", "multi_word", "name_ssn", "ssn");
+
     private final EntityManager entityManager;
+    private final Map<String, Timer> branchTimers = new HashMap<>();
 
-    public UserSearchRepository(EntityManager entityManager) {
+    public UserSearchRepository(EntityManager entityManager, MeterRegistry meterRegistry) {
         this.entityManager = entityManager;
+        for (String branch : BRANCHES) {
+            branchTimers.put(branch, Timer.builder("users.search.jpa")
+                    .description("Full-text search latency in the database, by query branch")
+                    .tag("branch", branch)
+                    .register(meterRegistry));
+        }
     }
 
     public List<User> fullTextSearch(String searchTerm) {
+        long start = System.nanoTime();
         String cleanTerm = searchTerm.trim();
         String[] searchWords = cleanTerm.split("\\s+");
         
@@ -31,7 +52,7 @@ public class UserSearchRepository {
                     query.setParameter("id", id);
                     List<User> result = query.getResultList();
                     if (!result.isEmpty()) {
-                        return result;
+                        return timed("id", start, result);
                     }
                 } catch (NumberFormatException e) {
                     // Continue with regular search
@@ -45,7 +66,7 @@ public class UserSearchRepository {
                 query.setParameter("email", cleanTerm);
                 List<User> result = query.getResultList();
                 if (!result.isEmpty()) {
-                    return result;
+                    return timed("email", start, result);
                 }
             }
             
@@ -65,7 +86,7 @@ public class UserSearchRepository {
             query.setParameter("searchTerm", searchPattern);
             query.setParameter("searchTermNoDash", searchPattern);
             
-            return query.getResultList();
+            return timed("single_word", start, query.getResultList());
         } else {
             // Multi-word search - analyze what fields are being searched
             List<String> nameWords = new ArrayList<>();
@@ -82,10 +103,12 @@ public class UserSearchRepository {
             
             StringBuilder jpqlBuilder = new StringBuilder("SELECT DISTINCT u FROM User u WHERE ");
             List<String> conditions = new ArrayList<>();
+            String branch = "multi_word";
             
             // Handle different combinations
             if (!nameWords.isEmpty() && !ssnWords.isEmpty()) {
                 // Combination search: names AND SSN
+                branch = "name_ssn";
                 buildNameAndConditions(jpqlBuilder, nameWords);
                 jpqlBuilder.append(" AND (");
                 buildSsnConditions(conditions, ssnWords);
@@ -100,6 +123,7 @@ public class UserSearchRepository {
                 jpqlBuilder.append("(LOWER(u.firstName) LIKE LOWER(:nameWord0) OR LOWER(u.lastName) LIKE LOWER(:nameWord0))");
             } else if (!ssnWords.isEmpty()) {
                 // SSN-only search
+                branch = "ssn";
                 buildSsnConditions(conditions, ssnWords);
                 jpqlBuilder.append(String.join(" OR ", conditions));
             }
@@ -119,10 +143,15 @@ public class UserSearchRepository {
                 query.setParameter("ssnWord" + i, wordPattern);
             }
             
-            return query.getResultList();
+            return timed(branch, start, query.getResultList());
         }
     }
     
+    private List<User> timed(String branch, long startNanos, List<User> result) {
+        branchTimers.get(branch).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
     private void buildNameConditions(List<String> conditions, List<String> nameWords) {
         for (int i = 0; i < nameWords.size(); i++) {
             conditions.add("LOWER(u.firstName) LIKE LOWER(:nameWord" + i + ")");
@@ -150,6 +179,74 @@ public class UserSearchRepository {
         }
     }
 
+    /**
+     * Users matching a query without text terms, ordered by id, as a single JPQL query
+     * with the query tree as its WHERE clause.
+     */
+    public List<User> findMatching(UserQuery query) {
+        Map<String, Object> parameters = new HashMap<>();
+        String where = where(query, parameters);
+        TypedQuery<User> typed = entityManager.createQuery(
+                "SELECT u FROM User u WHERE " + where + " ORDER BY u.id", User.class);
+        parameters.forEach(typed::setParameter);
+        return typed.getResultList();
+    }
+
+    public long countMatching(UserQuery query) {
+        Map<String, Object> parameters = new HashMap<>();
+        String where = where(query, parameters);
+        TypedQuery<Long> typed = entityManager.createQuery("SELECT COUNT(u) FROM User u WHERE " + where, Long.class);
+        parameters.forEach(typed::setParameter);
+        return typed.getSingleResult();
+    }
+
+    /**
+     * JPQL condition for the query; values go into {@code parameters}, never into the text.
+     */
+    private String where(UserQuery query, Map<String, Object> parameters) {
+        if (query instanceof UserQuery.And and) {
+            return join(and.operands(), " AND ", parameters);
+        }
+        if (query instanceof UserQuery.Or or) {
+            return join(or.operands(), " OR ", parameters);
+        }
+        if (query instanceof UserQuery.Role role) {
+            return "LOWER(u.role) = :" + parameter(parameters, role.name().toLowerCase(Locale.ROOT));
+        }
+        if (query instanceof UserQuery.Gender gender) {
+            return "LOWER(u.gender) = :" + parameter(parameters, gender.name().toLowerCase(Locale.ROOT));
+        }
+        if (query instanceof UserQuery.Age age) {
+            List<String> bounds = new ArrayList<>();
+            bounds.add("u.age IS NOT NULL");
+            if (age.min() != null) {
+                bounds.add("u.age >= :" + parameter(parameters, age.min()));
+            }
+            if (age.max() != null) {
+                bounds.add("u.age <= :" + parameter(parameters, age.max()));
+            }
+            return "(" + String.join(" AND ", bounds) + ")";
+        }
+        if (query instanceof UserQuery.SsnPrefix ssn) {
+            return "REPLACE(u.ssn, '-', '') LIKE :" + parameter(parameters, ssn.digits() + "%");
+        }
+        throw new IllegalArgumentException("Text terms are not part of a JPQL condition: " + query);
+    }
+
+    private String join(List<UserQuery> operands, String operator, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        for (UserQuery operand : operands) {
+            conditions.add(where(operand, parameters));
+        }
+        return "(" + String.join(operator, conditions) + ")";
+    }
+
+    private static String parameter(Map<String, Object> parameters, Object value) {
+        String name = "p" + parameters.size();
+        parameters.put(name, value);
+        return name;
+    }
+
     public void indexAllUsers() {
         // No-op implementation since we're using database-based search
         // This method is kept for compatibility with the service layer
@@ -0,0 +1,289 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.entity.User;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.util.concurrent.Queues;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Change log behind {@code /api/data/changes}. Every committed write becomes a run of
+ * {@code upsert} and {@code delete} events closed by a {@code version} event that bumps the
+ * dataset version. The last {@code capacity} events are kept, so a consumer reconnecting
+ * with its last event id is sent exactly what it missed; a new consumer, or one whose id
+ * has been evicted or predates a restart, is sent a {@code reset} and reloads instead.
+ * A commit of more users than the log holds is published as its {@code version} event
+ * alone, marked {@code complete: false}.
+ *
+ * <p>Each subscriber has a buffer of one full log. A subscriber that falls that far behind
+ * is completed rather than slowing down writers; reconnecting resumes it from the log.
+ */
+@Service
+public class DataChangeFeed {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataChangeFeed.class);
+
+    /**
+     * One event. The id is {@code epoch-sequence}; the epoch changes with every start so
+     * ids handed out by an earlier process are never mistaken for current ones.
+     */
+    public record Change(long epoch, long sequence, String type, Object data) {
+
+        public String id() {
+            return epoch + "-" + sequence;
+        }
+    }
+
+    private final int capacity;
+    private final long epoch = System.currentTimeMillis();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Change> log = new ArrayDeque<>();
+    private final List<Sinks.Many<Change>> subscribers = new ArrayList<>();
+    private long lastSequence;
+    private long version;
+    private Batch pending;
+
+    public DataChangeFeed(@Value("${app.changes.log-capacity:10000}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("app.changes.log-capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    public long getVersion() {
+        lock.lock();
+        try {
+            return version;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Events after {@code lastEventId}, then live events as they are committed.
+     *
+     * @param lastEventId id of the last event the consumer has seen, or {@code null}
+     */
+    public Flux<Change> changes(String lastEventId) {
+        return Flux.defer(() -> {
+            Sinks.Many<Change> sink = Sinks.many().unicast()
+                    .onBackpressureBuffer(Queues.<Change>get(capacity + 1).get());
+            List<Change> replay;
+            lock.lock();
+            try {
+                replay = replay(sequenceOf(lastEventId));
+                subscribers.add(sink);
+            } finally {
+                lock.unlock();
+            }
+            return Flux.fromIterable(replay)
+                    .concatWith(sink.asFlux())
+                    .doFinally(signal -> unsubscribe(sink));
+        });
+    }
+
+    /**
+     * Completes every subscriber on shutdown, so consumers reconnect to another instance.
+     */
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            // Completing unsubscribes, so iterate over a copy
+            List.copyOf(subscribers).forEach(Sinks.Many::tryEmitComplete);
+            subscribers.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int subscriberCount() {
+        lock.lock();
+        try {
+            return subscribers.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Publishes a write that is already committed to the store. Unlike a load's, its version
+     * event has no {@code totalUsers}: counting the store would cost more than the write.
+     */
+    void committed(List<UserResponseDto> upserts, List<Long> deletes) {
+        lock.lock();
+        try {
+            append(upserts, deletes, upserts.size(), deletes.size(), null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Staging area for a bulk load whose users are published together. Like a store's
+     * bulk load session, a batch that was neither committed nor discarded is handed out
+     * again so a resumed load adds to it.
+     */
+    Batch openBatch() {
+        lock.lock();
+        try {
+            if (pending == null) {
+                pending = new Batch();
+            }
+            return pending;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    final class Batch {
+
+        private final List<UserResponseDto> upserts = new ArrayList<>();
+        private long staged;
+
+        private Batch() {
+        }
+
+        /**
+         * Stages users; only converted while the whole commit still fits in the log.
+         */
+        void add(List<User> users, Function<User, UserResponseDto> toDto) {
+            lock.lock();
+            try {
+                staged += users.size();
+                if (staged < capacity) {
+                    users.forEach(user -> upserts.add(toDto.apply(user)));
+                } else {
+                    upserts.clear();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void commit(long totalUsers) {
+            lock.lock();
+            try {
+                if (pending == this) {
+                    pending = null;
+                }
+                append(staged < capacity ? upserts : List.of(), List.of(), staged, 0, totalUsers);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void discard() {
+            lock.lock();
+            try {
+                if (pending == this) {
+                    pending = null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void append(List<UserResponseDto> upserts, List<Long> deletes, long upserted, long deleted,
+                        Long totalUsers) {
+        version++;
+        List<Change> changes = new ArrayList<>(upserts.size() + deletes.size() + 1);
+        for (UserResponseDto user : upserts) {
+            changes.add(next("upsert", user));
+        }
+        for (Long id : deletes) {
+            changes.add(next("delete", Map.of("id", id)));
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("version", version);
+        data.put("upserts", upserted);
+        data.put("deletes", deleted);
+        data.put("complete", upserts.size() == upserted && deletes.size() == deleted);
+        if (totalUsers != null) {
+            data.put("totalUsers", totalUsers);
+        }
+        changes.add(next("version", data));
+
+        for (Change change : changes) {
+            if (log.size() == capacity) {
+                log.removeFirst();
+            }
+            log.addLast(change);
+        }
+        // A subscriber may cancel, and so unsubscribe, from inside an emit
+        for (Sinks.Many<Change> sink : List.copyOf(subscribers)) {
+            for (Change change : changes) {
+                Sinks.EmitResult result = sink.tryEmitNext(change);
+                if (result.isFailure()) {
+                    if (result == Sinks.EmitResult.FAIL_OVERFLOW) {
+                        logger.info("Change feed subscriber fell {} events behind, closing its stream", capacity);
+                        sink.tryEmitComplete();
+                    }
+                    subscribers.remove(sink);
+                    break;
+                }
+            }
+        }
+        logger.debug("Published dataset version {} with {} upserts and {} deletes", version, upserted, deleted);
+    }
+
+    private Change next(String type, Object data) {
+        return new Change(epoch, ++lastSequence, type, data);
+    }
+
+    /**
+     * The logged events after the sequence, or a reset if the log no longer connects to it.
+     */
+    private List<Change> replay(long after) {
+        Change oldest = log.peekFirst();
+        boolean resumable = after >= 0 && after <= lastSequence
+                && (after == lastSequence || oldest != null && oldest.sequence() <= after + 1);
+        if (!resumable) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("version", version);
+            return List.of(new Change(epoch, lastSequence, "reset", data));
+        }
+        return log.stream().filter(change -> change.sequence() > after).toList();
+    }
+
+    /**
+     * The sequence of an event id from this process, or -1.
+     */
+    private long sequenceOf(String eventId) {
+        if (eventId == null) {
+            return -1;
+        }
+        int dash = eventId.indexOf('-');
+        try {
+            if (dash < 0 || Long.parseLong(eventId.substring(0, dash)) != epoch) {
+                return -1;
+            }
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void unsubscribe(Sinks.Many<Change> sink) {
+        lock.lock();
+        try {
+            subscribers.remove(sink);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.usermanagement.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a single background load. Counters are updated by the loader thread
+ * and read concurrently by the status endpoint, so everything here is atomic or volatile.
+ */
+public class DataLoadJob {
+
+    public enum Status { QUEUED, RUNNING, COMPLETED, FAILED }
+
+    /**
+     * Sizing figures from a synthetic load: wall time to generate and publish the rows,
+     * time to build the search indexes, and retained heap per user after both.
+     */
+    public record CapacityReport(long loadMillis, long indexBuildMillis, long heapBytesPerUser) {}
+
+    private final String id;
+    private final Instant createdAt = Instant.now();
+    private final AtomicInteger coalescedRequests = new AtomicInteger();
+    private final AtomicInteger pagesFetched = new AtomicInteger();
+    private final AtomicInteger pageRetries = new AtomicInteger();
+    private final AtomicLong rowsFetched = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    private volatile Status status = Status.QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile long totalRows = -1;
+    private volatile long startOffset;
+    private volatile long previousCount;
+    private volatile long currentCount;
+    private volatile String message;
+    private volatile CapacityReport capacityReport;
+
+    public DataLoadJob(String id) {
+        this.id = id;
+    }
+
+    public void markRunning(long previousCount) {
+        this.previousCount = previousCount;
+        this.startedAt = Instant.now();
+        this.status = Status.RUNNING;
+    }
+
+    public void markCompleted(long currentCount, String message) {
+        this.currentCount = currentCount;
+        this.message = message;
+        this.finishedAt = Instant.now();
+        this.status = Status.COMPLETED;
+    }
+
+    public void markFailed(long currentCount, String message) {
+        this.currentCount = currentCount;
+        this.message = message;
+        this.finishedAt = Instant.now();
+        this.status = Status.FAILED;
+    }
+
+    /**
+     * Called when the loader picks the job up. Progress counters describe this run only;
+     * rows loaded by an earlier, interrupted run are reported through the start offset.
+     */
+    public void startAttempt() {
+        startOffset = 0;
+        pagesFetched.set(0);
+        pageRetries.set(0);
+        rowsFetched.set(0);
+        rowsWritten.set(0);
+    }
+
+    /**
+     * Rows already loaded by an earlier attempt when resuming from a checkpoint.
+     */
+    public void recordStartOffset(long offset) {
+        startOffset = offset;
+    }
+
+    public void recordPage(int rows, long total) {
+        pagesFetched.incrementAndGet();
+        rowsFetched.addAndGet(rows);
+        totalRows = total;
+    }
+
+    public void recordPageRetry() {
+        pageRetries.incrementAndGet();
+    }
+
+    public void recordRowsWritten(int rows) {
+        rowsWritten.addAndGet(rows);
+    }
+
+    public void recordCapacityReport(CapacityReport capacityReport) {
+        this.capacityReport = capacityReport;
+    }
+
+    public void recordCoalescedRequest() {
+        coalescedRequests.incrementAndGet();
+    }
+
+    public boolean isFinished() {
+        return status == Status.COMPLETED || status == Status.FAILED;
+    }
+
+    public double getThroughputRowsPerSecond() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0.0;
+        }
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long elapsedMillis = Math.max(1, Duration.between(start, end).toMillis());
+        return rowsFetched.get() * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * Estimated seconds remaining, or {@code null} while the total is still unknown.
+     */
+    public Long getEtaSeconds() {
+        if (isFinished()) {
+            return 0L;
+        }
+        double throughput = getThroughputRowsPerSecond();
+        if (totalRows < 0 || throughput <= 0) {
+            return null;
+        }
+        long remaining = Math.max(0, totalRows - startOffset - rowsFetched.get());
+        return (long) Math.ceil(remaining / throughput);
+    }
+
+    public String getId() { return id; }
+    public Status getStatus() { return status; }
+    public Instant getCreatedAt() { return createdAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public int getCoalescedRequests() { return coalescedRequests.get(); }
+    public int getPagesFetched() { return pagesFetched.get(); }
+    public int getPageRetries() { return pageRetries.get(); }
+    public long getRowsFetched() { return rowsFetched.get(); }
+    public long getRowsWritten() { return rowsWritten.get(); }
+    public long getTotalRows() { return totalRows; }
+    public long getStartOffset() { return startOffset; }
+    public long getPreviousCount() { return previousCount; }
+    public long getCurrentCount() { return currentCount; }
+    public String getMessage() { return message; }
+    public CapacityReport getCapacityReport() { return capacityReport; }
+}
@@ -0,0 +1,111 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.exception.JobNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Service
+public class DataLoadJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataLoadJobService.class);
+
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private final DataLoadService dataLoadService;
+    private final UserService userService;
+    private final Executor dataLoadExecutor;
+
+    private final Map<String, DataLoadJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<String> jobOrder = new ConcurrentLinkedDeque<>();
+    private final AtomicReference<DataLoadJob> activeJob = new AtomicReference<>();
+
+    public DataLoadJobService(DataLoadService dataLoadService, UserService userService,
+                              @Qualifier("dataLoadExecutor") Executor dataLoadExecutor) {
+        this.dataLoadService = dataLoadService;
+        this.userService = userService;
+        this.dataLoadExecutor = dataLoadExecutor;
+    }
+
+    /**
+     * Starts a background load, or returns the job that is already running so that
+     * concurrent requests share one fetch instead of racing on the existing-data check.
+     */
+    public DataLoadJob submitLoad() {
+        DataLoadJob job = new DataLoadJob(UUID.randomUUID().toString());
+        // Findable before it is published, so a coalesced caller never gets a 404 for its id
+        jobs.put(job.getId(), job);
+        DataLoadJob running = activeJob.compareAndExchange(null, job);
+        if (running != null) {
+            jobs.remove(job.getId());
+            running.recordCoalescedRequest();
+            logger.info("Data load already in progress, coalescing request into job {}", running.getId());
+            return running;
+        }
+
+        retain(job);
+        try {
+            dataLoadExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            logger.error("Data load executor rejected job {}", job.getId(), e);
+            job.markFailed(userService.getUserCount(), "Data load executor is saturated");
+            activeJob.compareAndSet(job, null);
+            return job;
+        }
+        logger.info("Submitted data load job {}", job.getId());
+        return job;
+    }
+
+    public DataLoadJob getJob(String id) {
+        DataLoadJob job = jobs.get(id);
+        if (job == null) {
+            throw new JobNotFoundException("Data load job not found with id: " + id);
+        }
+        return job;
+    }
+
+    public Optional<DataLoadJob> getActiveJob() {
+        return Optional.ofNullable(activeJob.get());
+    }
+
+    private void run(DataLoadJob job) {
+        job.markRunning(userService.getUserCount());
+        try {
+            int loaded = dataLoadService.loadUsers(job);
+            String message = loaded > 0
+                    ? "Users data loaded successfully"
+                    : "Users already loaded, nothing to do";
+            job.markCompleted(userService.getUserCount(), message);
+            logger.info("Data load job {} completed: {} rows in {} pages",
+                    job.getId(), job.getRowsWritten(), job.getPagesFetched());
+        } catch (Exception e) {
+            logger.error("Data load job {} failed", job.getId(), e);
+            job.markFailed(userService.getUserCount(), "Error loading users data: " + e.getMessage());
+        } finally {
+            activeJob.compareAndSet(job, null);
+        }
+    }
+
+    /**
+     * Keeps the job among the last {@code MAX_RETAINED_JOBS}, dropping the oldest.
+     */
+    private void retain(DataLoadJob job) {
+        jobOrder.addLast(job.getId());
+        while (jobOrder.size() > MAX_RETAINED_JOBS) {
+            String oldest = jobOrder.pollFirst();
+            if (oldest != null) {
+                jobs.remove(oldest);
+            }
+        }
+    }
+}
@@ -2,18 +2,36 @@ package com.example.usermanagement.service;
 
 import com.example.usermanagement.dto.DummyJsonResponseDto;
 import com.example.usermanagement.dto.DummyJsonUserDto;
+import com.example.usermanagement.entity.LoadCheckpoint;
 import com.example.usermanagement.entity.User;
 import com.example.usermanagement.exception.DataLoadException;
+import com.example.usermanagement.repository.LoadCheckpointRepository;
+import com.example.usermanagement.store.UserStore;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,63 +39,190 @@ public class DataLoadService {
 
     private static final Logger logger = LoggerFactory.getLogger(DataLoadService.class);
 
+    static final String CHECKPOINT_SOURCE = "dummyjson-users";
+    private static final int SYNTHETIC_PAGE_SIZE = 10_000;
+    // Users per page when a snapshot is written or restored
+    private static final int SNAPSHOT_PAGE_SIZE = 10_000;
+
     private final RestTemplate restTemplate;
     private final UserService userService;
+    private final LoadCheckpointRepository checkpointRepository;
+    private final RetryTemplate pageRetryTemplate;
+    private final UpstreamPageCache pageCache;
+    private final ObjectMapper objectMapper;
+    private final DatasetSnapshotService snapshotService;
+    private final WebClient webClient;
+    private final MeterRegistry meterRegistry;
+    private final Counter pageRetries;
+    private final Counter rowsWritten;
 
     @Value("${api.external.dummyjson.base-url}")
     private String baseUrl;
 
-    public DataLoadService(RestTemplate restTemplate, UserService userService) {
+    @Value("${app.data-source.mode:dummyjson}")
+    private DataSourceMode mode = DataSourceMode.DUMMYJSON;
+
+    @Value("${app.data-source.import-file:users.json}")
+    private String importFile;
+
+    @Value("${app.data-source.synthetic.size:1000000}")
+    private int syntheticSize = 1_000_000;
+
+    @Value("${app.data-source.synthetic.seed:42}")
+    private long syntheticSeed = 42;
+
+    @Value("${app.data-source.synthetic.measure-heap:false}")
+    private boolean measureHeap;
+
+    @Value("${api.external.dummyjson.page-size:30}")
+    private int pageSize = 30;
+
+    public DataLoadService(RestTemplate restTemplate, UserService userService,
+                           LoadCheckpointRepository checkpointRepository,
+                           @Qualifier("pageRetryTemplate") RetryTemplate pageRetryTemplate,
+                           UpstreamPageCache pageCache, ObjectMapper objectMapper,
+                           DatasetSnapshotService snapshotService,
+                           ObjectProvider<WebClient> upstreamWebClient,
+                           MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
         this.userService = userService;
+        this.checkpointRepository = checkpointRepository;
+        this.pageRetryTemplate = pageRetryTemplate;
+        this.pageCache = pageCache;
+        this.objectMapper = objectMapper;
+        this.snapshotService = snapshotService;
+        // Only defined on the reactive stack, see WebClientConfig
+        this.webClient = upstreamWebClient.getIfAvailable();
+        this.meterRegistry = meterRegistry;
+        this.pageRetries = Counter.builder("users.load.page.retries")
+                .description("Upstream page fetches retried after a failure")
+                .register(meterRegistry);
+        // rate() of this counter is the ingest throughput in rows per second
+        this.rowsWritten = Counter.builder("users.load.rows")
+                .description("Users written to the store by data loads")
+                .baseUnit("rows")
+                .register(meterRegistry);
     }
 
-    @Retryable(
-        retryFor = {Exception.class},
-        maxAttemptsExpression = "${api.external.dummyjson.retry.max-attempts}",
-        backoff = @Backoff(delayExpression = "${api.external.dummyjson.retry.delay}")
-    )
     public void loadUsersFromExternalAPI() {
+        loadUsersFromExternalAPI(new DataLoadJob("inline"));
+    }
+
+    /**
+     * Loads users from the configured data source, see {@link DataSourceMode}.
+     */
+    public int loadUsers(DataLoadJob job) {
+        if (mode == DataSourceMode.SYNTHETIC) {
+            // Regenerating is cheaper than a snapshot of millions of rows, and just as deterministic
+            return generateSyntheticUsers(job);
+        }
+
+        String source = describeSource();
+        if (snapshotService.isEnabled() && userService.getUserCount() == 0) {
+            Optional<DatasetSnapshotService.Snapshot> snapshot = snapshotService.readCurrent(source);
+            if (snapshot.isPresent()) {
+                return restoreSnapshot(snapshot.get(), job);
+            }
+        }
+
+        int written = mode == DataSourceMode.FILE
+                ? importUsersFromFile(Paths.get(importFile), job)
+                : loadUsersFromExternalAPI(job);
+
+        if (written > 0 && snapshotService.isEnabled()) {
+            snapshotService.write(afterId -> userService.findPageAfter(afterId, SNAPSHOT_PAGE_SIZE), source);
+        }
+        return written;
+    }
+
+    private int restoreSnapshot(DatasetSnapshotService.Snapshot snapshot, DataLoadJob job) {
+        job.startAttempt();
+        UserStore.BulkLoad bulkLoad = userService.openBulkLoad();
+        try {
+            snapshot.forEachPage(SNAPSHOT_PAGE_SIZE, page -> {
+                job.recordPage(page.size(), snapshot.size());
+                bulkLoad.add(page);
+                recordRowsWritten(job, page.size());
+            });
+            bulkLoad.publish();
+        } catch (RuntimeException e) {
+            bulkLoad.abort();
+            throw new DataLoadException("Failed to restore snapshot: " + e.getMessage(), e);
+        }
+        userService.indexAllUsers();
+        return snapshot.size();
+    }
+
+    private String describeSource() {
+        return mode == DataSourceMode.FILE
+                ? "file:" + Paths.get(importFile).toAbsolutePath().normalize()
+                : baseUrl;
+    }
+
+    /**
+     * Loads all users page by page, reporting progress into the given job. Each page is
+     * retried on its own with backoff and added to the store's bulk load as soon as it
+     * arrives; the checkpoint is then advanced, so a failed load resumes from the last good
+     * offset on the next call. The load is published once the last page is in. Returns the
+     * number of users written, 0 if the load was skipped.
+     */
+    public int loadUsersFromExternalAPI(DataLoadJob job) {
         logger.info("Starting to load users from external API");
+        job.startAttempt();
         
         try {
-            long existingUserCount = userService.getUserCount();
-            if (existingUserCount > 0) {
-                logger.info("Users already exist in database ({}). Skipping data load.", existingUserCount);
-                return;
+            LoadCheckpoint checkpoint = checkpointRepository.findById(CHECKPOINT_SOURCE)
+                    .filter(LoadCheckpoint::isInProgress)
+                    .orElse(null);
+
+            if (checkpoint == null) {
+                long existingUserCount = userService.getUserCount();
+                if (existingUserCount > 0) {
+                    logger.info("Users already exist in database ({}). Skipping data load.", existingUserCount);
+                    return 0;
+                }
+                checkpoint = new LoadCheckpoint(CHECKPOINT_SOURCE, pageSize);
+            } else {
+                logger.info("Resuming interrupted load at offset {} of {}", checkpoint.getNextSkip(), checkpoint.getTotalRows());
             }
 
-            List<User> allUsers = new ArrayList<>();
-            int limit = 30;
-            int skip = 0;
-            int totalUsers = 0;
+            int limit = checkpoint.getPageSize();
+            int skip = checkpoint.getNextSkip();
+            int totalUsers;
+            int written = 0;
+            job.recordStartOffset(skip);
+            // A resumed load continues the session its earlier pages were staged in
+            UserStore.BulkLoad bulkLoad = userService.openBulkLoad();
 
             do {
-                String url = String.format("%s/users?limit=%d&skip=%d", baseUrl, limit, skip);
-                logger.debug("Fetching users from: {}", url);
-
-                DummyJsonResponseDto response = restTemplate.getForObject(url, DummyJsonResponseDto.class);
-                
-                if (response == null || response.getUsers() == null) {
-                    throw new DataLoadException("Invalid response from external API");
-                }
-
+                DummyJsonResponseDto response = fetchPage(limit, skip, job);
                 totalUsers = response.getTotal();
                 List<User> users = response.getUsers().stream()
                         .map(this::convertToUser)
                         .collect(Collectors.toList());
+                job.recordPage(users.size(), totalUsers);
+
+                // Saving by upstream id is an upsert, so replaying a page whose checkpoint
+                // update was lost is harmless
+                bulkLoad.add(users);
+                written += users.size();
+                recordRowsWritten(job, users.size());
 
-                allUsers.addAll(users);
                 skip += limit;
+                checkpoint.advance(skip, totalUsers);
+                checkpointRepository.save(checkpoint);
 
-                logger.debug("Loaded {} users, total so far: {}", users.size(), allUsers.size());
+                logger.debug("Loaded {} users, next offset: {}", users.size(), skip);
 
             } while (skip < totalUsers);
 
-            userService.saveAllUsers(allUsers);
+            bulkLoad.publish();
             userService.indexAllUsers();
+            checkpoint.markCompleted();
+            checkpointRepository.save(checkpoint);
 
-            logger.info("Successfully loaded {} users from external API", allUsers.size());
+            logger.info("Successfully loaded {} users from external API", written);
+            return written;
 
         } catch (Exception e) {
             logger.error("Failed to load users from external API", e);
@@ -85,6 +230,171 @@ public class DataLoadService {
         }
     }
 
+    private DummyJsonResponseDto fetchPage(int limit, int skip, DataLoadJob job) {
+        String url = String.format("%s/users?limit=%d&skip=%d", baseUrl, limit, skip);
+        return pageRetryTemplate.execute(context -> {
+            if (context.getRetryCount() > 0) {
+                job.recordPageRetry();
+                pageRetries.increment();
+                logger.warn("Retrying page at offset {} (attempt {})", skip, context.getRetryCount() + 1);
+            }
+            logger.debug("Fetching users from: {}", url);
+            String source = pageCache.isEnabled() ? "cache" : webClient != null ? "webclient" : "upstream";
+            long start = System.nanoTime();
+            String outcome = "failure";
+            DummyJsonResponseDto response;
+            try {
+                if (pageCache.isEnabled()) {
+                    // Revalidates through the same client as below
+                    response = pageCache.fetch(url);
+                } else if (webClient != null) {
+                    // The exchange runs on Netty's event loop; this load job thread only waits for the page
+                    response = webClient.get().uri(url).retrieve().bodyToMono(DummyJsonResponseDto.class).block();
+                } else {
+                    response = restTemplate.getForObject(url, DummyJsonResponseDto.class);
+                }
+                outcome = "success";
+            } finally {
+                Timer.builder("users.load.page")
+                        .description("Latency of a single upstream page fetch attempt")
+                        .tag("source", source)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            if (response == null || response.getUsers() == null || response.getTotal() == null) {
+                throw new DataLoadException("Invalid response from external API");
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Imports a {@code {"users":[...]}} dump from local disk. The file is memory-mapped and
+     * streamed element by element, so dumps larger than the heap can be ingested page by page.
+     */
+    public int importUsersFromFile(Path file, DataLoadJob job) {
+        logger.info("Starting to import users from file {}", file);
+        job.startAttempt();
+
+        long existingUserCount = userService.getUserCount();
+        if (existingUserCount > 0) {
+            logger.info("Users already exist in database ({}). Skipping file import.", existingUserCount);
+            return 0;
+        }
+
+        int written = 0;
+        UserStore.BulkLoad bulkLoad = userService.openBulkLoad();
+        try (InputStream in = MappedFiles.open(file);
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new DataLoadException("Expected a JSON object in " + file);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                if (!"users".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                List<User> page = new ArrayList<>(pageSize);
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    page.add(convertToUser(parser.readValueAs(DummyJsonUserDto.class)));
+                    if (page.size() == pageSize) {
+                        written += writeImportedPage(bulkLoad, page, job);
+                        page = new ArrayList<>(pageSize);
+                    }
+                }
+                written += writeImportedPage(bulkLoad, page, job);
+            }
+        } catch (IOException | RuntimeException e) {
+            // File imports have no checkpoint to resume from, start over next time
+            bulkLoad.abort();
+            if (e instanceof DataLoadException dataLoadException) {
+                throw dataLoadException;
+            }
+            throw new DataLoadException("Failed to import users from " + file + ": " + e.getMessage(), e);
+        }
+
+        bulkLoad.publish();
+        userService.indexAllUsers();
+        logger.info("Successfully imported {} users from {}", written, file);
+        return written;
+    }
+
+    /**
+     * Generates {@code app.data-source.synthetic.size} users and loads them through the
+     * store's bulk load, then records load time and index build time on the job. With
+     * {@code app.data-source.synthetic.measure-heap} the retained heap per user is added,
+     * measured after a full GC on both sides so it includes the store's indexes but not
+     * garbage left over from generation; otherwise it is reported as -1. Generated users
+     * carry their ids, which the in-memory store expects; meant for the memory profile.
+     */
+    public int generateSyntheticUsers(DataLoadJob job) {
+        logger.info("Starting to generate {} synthetic users (seed {})", syntheticSize, syntheticSeed);
+        job.startAttempt();
+
+        long existingUserCount = userService.getUserCount();
+        if (existingUserCount > 0) {
+            logger.info("Users already exist in database ({}). Skipping synthetic load.", existingUserCount);
+            return 0;
+        }
+
+        SyntheticUserGenerator generator = new SyntheticUserGenerator(syntheticSeed);
+        long heapBefore = measureHeap ? usedHeapAfterGc() : 0;
+        long start = System.nanoTime();
+        int written = 0;
+        UserStore.BulkLoad bulkLoad = userService.openBulkLoad();
+        try {
+            while (written < syntheticSize) {
+                int count = Math.min(SYNTHETIC_PAGE_SIZE, syntheticSize - written);
+                List<User> page = generator.users(written + 1L, count);
+                job.recordPage(count, syntheticSize);
+                bulkLoad.add(page);
+                written += count;
+                recordRowsWritten(job, count);
+            }
+            bulkLoad.publish();
+        } catch (RuntimeException e) {
+            bulkLoad.abort();
+            throw new DataLoadException("Failed to load synthetic users: " + e.getMessage(), e);
+        }
+        long loaded = System.nanoTime();
+        userService.indexAllUsers();
+        long indexed = System.nanoTime();
+
+        long heapBytesPerUser = !measureHeap ? -1
+                : written > 0 ? Math.max(0, usedHeapAfterGc() - heapBefore) / written : 0;
+        DataLoadJob.CapacityReport report = new DataLoadJob.CapacityReport(
+                TimeUnit.NANOSECONDS.toMillis(loaded - start),
+                TimeUnit.NANOSECONDS.toMillis(indexed - loaded),
+                heapBytesPerUser);
+        job.recordCapacityReport(report);
+        logger.info("Generated {} synthetic users: load {} ms, index build {} ms, {} heap bytes per user",
+                written, report.loadMillis(), report.indexBuildMillis(), report.heapBytesPerUser());
+        return written;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private int writeImportedPage(UserStore.BulkLoad bulkLoad, List<User> page, DataLoadJob job) {
+        if (page.isEmpty()) {
+            return 0;
+        }
+        job.recordPage(page.size(), -1);
+        bulkLoad.add(page);
+        recordRowsWritten(job, page.size());
+        return page.size();
+    }
+
+    private void recordRowsWritten(DataLoadJob job, int rows) {
+        job.recordRowsWritten(rows);
+        rowsWritten.increment(rows);
+    }
+
     private User convertToUser(DummyJsonUserDto dto) {
         User user = new User();
         user.setId(dto.getId());
@@ -98,6 +408,15 @@ public class DataLoadService {
         user.setUsername(dto.getUsername());
         user.setBirthDate(dto.getBirthDate());
         user.setGender(dto.getGender());
+        DummyJsonUserDto.Address address = dto.getAddress();
+        if (address != null) {
+            user.setCity(address.getCity());
+            user.setState(address.getState());
+            if (address.getCoordinates() != null) {
+                user.setLatitude(address.getCoordinates().getLat());
+                user.setLongitude(address.getCoordinates().getLng());
+            }
+        }
         return user;
     }
 }
\ No newline at end of file
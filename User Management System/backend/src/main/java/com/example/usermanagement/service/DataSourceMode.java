@@ -0,0 +1,13 @@
+package com.example.usermanagement.service;
+
+/**
+ * Where {@link DataLoadService} reads users from, selected with {@code app.data-source.mode}.
+ */
+public enum DataSourceMode {
+    /** Paged fetch from the DummyJSON API, revalidated against the local page cache. */
+    DUMMYJSON,
+    /** Direct import of a {@code users.json}-style dump from local disk. */
+    FILE,
+    /** Deterministic generated users for scale testing, see {@link SyntheticUserGenerator}. */
+    SYNTHETIC
+}
@@ -0,0 +1,322 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the loaded dataset, written after every successful load and restored
+ * on startup so a restart does not have to refetch anything. Both directions go a page at
+ * a time, so the dataset is never held in memory as a whole. Every committed write deletes
+ * the snapshot, so a restart never restores data that has since been changed.
+ *
+ * <pre>
+ * int    magic "UMSS"
+ * int    format version
+ * long   created at (epoch millis)
+ * string data source the rows came from
+ * rows   long id, int age (-1 = null), 11 strings, double latitude, double longitude (NaN = null)
+ * int    row count
+ * long   CRC32 of everything above
+ * </pre>
+ * Strings are a u16 length and UTF-8 bytes, 0xFFFF for null.
+ */
+@Service
+public class DatasetSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatasetSnapshotService.class);
+
+    static final int MAGIC = 0x554D5353;
+    static final int FORMAT_VERSION = 3;
+    // Row count and checksum after the rows
+    private static final int TRAILER_BYTES = Integer.BYTES + Long.BYTES;
+    private static final int NULL_STRING = 0xFFFF;
+
+    private final boolean enabled;
+    private final Path file;
+    private final Duration maxAge;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Bumped by every invalidation; guarded by lock
+    private long generation;
+
+    public DatasetSnapshotService(@Value("${app.snapshot.enabled:true}") boolean enabled,
+                                  @Value("${app.snapshot.file:data/users.snapshot}") String file,
+                                  @Value("${app.snapshot.max-age:24h}") Duration maxAge) {
+        this.enabled = enabled;
+        this.file = Paths.get(file);
+        this.maxAge = maxAge;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Writes the users {@code pageAfter} returns, the users after an id in id order, until
+     * it returns an empty page. The file is replaced only once it is complete, and not at
+     * all if the data was changed while it was being written.
+     */
+    public void write(LongFunction<? extends List<User>> pageAfter, String source) {
+        long start = System.nanoTime();
+        long startGeneration = generation();
+        int rows = 0;
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile(Files.createDirectories(file.toAbsolutePath().getParent()), "snapshot", ".tmp");
+            CRC32 crc = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Files.newOutputStream(tmp), crc), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(System.currentTimeMillis());
+                writeString(out, source);
+                for (List<User> page = pageAfter.apply(Long.MIN_VALUE); !page.isEmpty();
+                     page = pageAfter.apply(page.get(page.size() - 1).getId())) {
+                    for (User user : page) {
+                        writeUser(out, user);
+                    }
+                    rows += page.size();
+                }
+                out.writeInt(rows);
+                out.flush();
+                // The checksum covers the header and rows but not itself
+                out.writeLong(crc.getValue());
+            }
+            lock.lock();
+            try {
+                if (generation != startGeneration) {
+                    logger.info("Discarded snapshot of {} users: the data changed while it was written", rows);
+                    return;
+                }
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                lock.unlock();
+            }
+            logger.info("Wrote snapshot of {} users to {} in {} ms", rows, file, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            // The load it was taken after has already been published, so it still succeeds
+            logger.warn("Could not write dataset snapshot {}", file, e);
+        } finally {
+            deleteTemp(tmp);
+        }
+    }
+
+    /**
+     * Deletes the snapshot, and makes a write in progress discard its file, after the data
+     * was changed.
+     */
+    public void invalidate() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            generation++;
+            if (Files.deleteIfExists(file)) {
+                logger.info("Deleted dataset snapshot {}: the data has changed since", file);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not delete dataset snapshot {}", file, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long generation() {
+        lock.lock();
+        try {
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void deleteTemp(Path tmp) {
+        if (tmp == null) {
+            return;
+        }
+        try {
+            // Already gone once it has been moved into place
+            Files.deleteIfExists(tmp);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary snapshot {}", tmp, e);
+        }
+    }
+
+    /**
+     * Returns the snapshot if the file exists, matches the current format version and data
+     * source, is younger than {@code app.snapshot.max-age} and passes its checksum.
+     */
+    public Optional<Snapshot> readCurrent(String source) {
+        if (!enabled || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try {
+            ByteBuffer buffer = MappedFiles.map(file);
+            if (buffer.remaining() < Integer.BYTES * 2 + Long.BYTES + TRAILER_BYTES || buffer.getInt() != MAGIC) {
+                logger.warn("Ignoring snapshot {}: not a snapshot file", file);
+                return Optional.empty();
+            }
+            int version = buffer.getInt();
+            if (version != FORMAT_VERSION) {
+                logger.info("Ignoring snapshot {}: format version {} is not current ({})", file, version, FORMAT_VERSION);
+                return Optional.empty();
+            }
+            long createdAt = buffer.getLong();
+            if (System.currentTimeMillis() - createdAt > maxAge.toMillis()) {
+                logger.info("Ignoring snapshot {}: older than {}", file, maxAge);
+                return Optional.empty();
+            }
+            String snapshotSource = readString(buffer);
+            if (!source.equals(snapshotSource)) {
+                logger.info("Ignoring snapshot {}: taken from {}, current source is {}", file, snapshotSource, source);
+                return Optional.empty();
+            }
+            if (!checksumMatches(buffer)) {
+                logger.warn("Ignoring snapshot {}: checksum mismatch", file);
+                return Optional.empty();
+            }
+            return Optional.of(new Snapshot(buffer));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Could not read dataset snapshot {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The rows of a current snapshot, decoded from the mapped file as they are taken.
+     */
+    public final class Snapshot {
+
+        private final ByteBuffer rows;
+        private final int size;
+
+        private Snapshot(ByteBuffer buffer) {
+            int rowsEnd = buffer.limit() - TRAILER_BYTES;
+            this.size = buffer.getInt(rowsEnd);
+            this.rows = buffer.slice(buffer.position(), rowsEnd - buffer.position());
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Hands the rows to {@code pages} in id order, up to {@code pageSize} at a time.
+         */
+        public void forEachPage(int pageSize, Consumer<List<User>> pages) {
+            long start = System.nanoTime();
+            ByteBuffer buffer = rows.duplicate();
+            int read = 0;
+            while (buffer.hasRemaining()) {
+                List<User> page = new ArrayList<>(Math.min(pageSize, size - read));
+                while (buffer.hasRemaining() && page.size() < pageSize) {
+                    page.add(readUser(buffer));
+                }
+                read += page.size();
+                pages.accept(page);
+            }
+            if (read != size) {
+                throw new IllegalStateException("Snapshot " + file + " holds " + read + " rows, its trailer says " + size);
+            }
+            logger.info("Restored {} users from snapshot {} in {} ms", read, file, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private static boolean checksumMatches(ByteBuffer buffer) {
+        int end = buffer.limit() - Long.BYTES;
+        ByteBuffer content = buffer.duplicate();
+        content.position(0).limit(end);
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        return crc.getValue() == buffer.getLong(end);
+    }
+
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        out.writeLong(user.getId());
+        out.writeInt(user.getAge() != null ? user.getAge() : -1);
+        writeString(out, user.getFirstName());
+        writeString(out, user.getLastName());
+        writeString(out, user.getSsn());
+        writeString(out, user.getEmail());
+        writeString(out, user.getRole());
+        writeString(out, user.getPhone());
+        writeString(out, user.getUsername());
+        writeString(out, user.getBirthDate());
+        writeString(out, user.getGender());
+        writeString(out, user.getCity());
+        writeString(out, user.getState());
+        out.writeDouble(user.getLatitude() != null ? user.getLatitude() : Double.NaN);
+        out.writeDouble(user.getLongitude() != null ? user.getLongitude() : Double.NaN);
+    }
+
+    private static User readUser(ByteBuffer buffer) {
+        User user = new User();
+        user.setId(buffer.getLong());
+        int age = buffer.getInt();
+        user.setAge(age >= 0 ? age : null);
+        user.setFirstName(readString(buffer));
+        user.setLastName(readString(buffer));
+        user.setSsn(readString(buffer));
+        user.setEmail(readString(buffer));
+        user.setRole(readString(buffer));
+        user.setPhone(readString(buffer));
+        user.setUsername(readString(buffer));
+        user.setBirthDate(readString(buffer));
+        user.setGender(readString(buffer));
+        user.setCity(readString(buffer));
+        user.setState(readString(buffer));
+        user.setLatitude(readCoordinate(buffer));
+        user.setLongitude(readCoordinate(buffer));
+        return user;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeShort(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length >= NULL_STRING) {
+            throw new IOException("Field value too long for snapshot: " + bytes.length + " bytes");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = Short.toUnsignedInt(buffer.getShort());
+        if (length == NULL_STRING) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Double readCoordinate(ByteBuffer buffer) {
+        double value = buffer.getDouble();
+        return Double.isNaN(value) ? null : value;
+    }
+}
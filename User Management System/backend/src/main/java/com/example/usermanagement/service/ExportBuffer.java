@@ -0,0 +1,229 @@
+package com.example.usermanagement.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer an export encodes each chunk into before writing it out in one
+ * call. It is reset, not reallocated, between chunks, and strings and numbers are encoded
+ * straight into it without intermediate byte arrays.
+ */
+final class ExportBuffer {
+
+    private byte[] bytes;
+    private int size;
+
+    ExportBuffer(int initialCapacity) {
+        this.bytes = new byte[initialCapacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    void reset() {
+        size = 0;
+    }
+
+    void writeTo(OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    void append(ExportBuffer other) {
+        ensure(other.size);
+        System.arraycopy(other.bytes, 0, bytes, size, other.size);
+        size += other.size;
+    }
+
+    void writeByte(int value) {
+        ensure(1);
+        bytes[size++] = (byte) value;
+    }
+
+    /**
+     * Appends the characters, which must all be ASCII.
+     */
+    void writeAscii(String value) {
+        ensure(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            bytes[size++] = (byte) value.charAt(i);
+        }
+    }
+
+    /**
+     * Appends one UTF-8 encoded character; {@code next} is the character after it, needed
+     * to decode a surrogate pair. Returns how many characters were consumed.
+     */
+    int writeUtf8(char c, int next) {
+        if (c < 0x80) {
+            writeByte(c);
+            return 1;
+        }
+        ensure(4);
+        if (c < 0x800) {
+            bytes[size++] = (byte) (0xC0 | c >> 6);
+            bytes[size++] = (byte) (0x80 | c & 0x3F);
+            return 1;
+        }
+        if (Character.isHighSurrogate(c) && next >= 0 && Character.isLowSurrogate((char) next)) {
+            int codePoint = Character.toCodePoint(c, (char) next);
+            bytes[size++] = (byte) (0xF0 | codePoint >> 18);
+            bytes[size++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+            bytes[size++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            bytes[size++] = (byte) (0x80 | codePoint & 0x3F);
+            return 2;
+        }
+        if (Character.isSurrogate(c)) {
+            // Unpaired surrogates have no UTF-8 form
+            bytes[size++] = '?';
+            return 1;
+        }
+        bytes[size++] = (byte) (0xE0 | c >> 12);
+        bytes[size++] = (byte) (0x80 | c >> 6 & 0x3F);
+        bytes[size++] = (byte) (0x80 | c & 0x3F);
+        return 1;
+    }
+
+    void writeUtf8(String value) {
+        int length = value.length();
+        ensure(length);
+        // ASCII prefix, usually the whole value, in one tight loop
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            bytes[size++] = (byte) c;
+            i++;
+        }
+        while (i < length) {
+            i += writeUtf8(value.charAt(i), i + 1 < length ? value.charAt(i + 1) : -1);
+        }
+    }
+
+    /**
+     * Appends the value in decimal.
+     */
+    void writeDecimal(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            bytes[size++] = '-';
+            value = -value;
+        }
+        int end = size + digits(value);
+        for (int i = end - 1; i >= size; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size = end;
+    }
+
+    /**
+     * Appends the value in plain decimal with up to six fraction digits when that is exact,
+     * as it is for coordinates; otherwise as {@link Double#toString(double)} would.
+     */
+    void writeDecimal(double value) {
+        if (Math.abs(value) < 1e9) {
+            long micros = Math.round(value * 1e6);
+            if (micros / 1e6 == value) {
+                if (micros < 0) {
+                    writeByte('-');
+                    micros = -micros;
+                }
+                writeDecimal(micros / 1_000_000);
+                int fraction = (int) (micros % 1_000_000);
+                if (fraction != 0) {
+                    int digits = 6;
+                    while (fraction % 10 == 0) {
+                        fraction /= 10;
+                        digits--;
+                    }
+                    ensure(digits + 1);
+                    bytes[size++] = '.';
+                    for (int i = size + digits - 1; i >= size; i--) {
+                        bytes[i] = (byte) ('0' + fraction % 10);
+                        fraction /= 10;
+                    }
+                    size += digits;
+                }
+                return;
+            }
+        }
+        writeAscii(Double.toString(value));
+    }
+
+    void writeInt(int value) {
+        ensure(Integer.BYTES);
+        putInt(size, value);
+        size += Integer.BYTES;
+    }
+
+    void writeLong(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    void writeDouble(double value) {
+        writeLong(Double.doubleToLongBits(value));
+    }
+
+    /**
+     * Overwrites four bytes already written, such as a length reserved before its content.
+     */
+    void putInt(int position, int value) {
+        bytes[position] = (byte) (value >>> 24);
+        bytes[position + 1] = (byte) (value >>> 16);
+        bytes[position + 2] = (byte) (value >>> 8);
+        bytes[position + 3] = (byte) value;
+    }
+
+    /**
+     * Appends the value as a zigzag LEB128 varint: seven bits per byte, small magnitudes
+     * of either sign in few bytes.
+     */
+    void writeVarLong(long value) {
+        long zigzag = value << 1 ^ value >> 63;
+        ensure(10);
+        while ((zigzag & ~0x7FL) != 0) {
+            bytes[size++] = (byte) (zigzag & 0x7F | 0x80);
+            zigzag >>>= 7;
+        }
+        bytes[size++] = (byte) zigzag;
+    }
+
+    /**
+     * Reserves {@code count} zero bytes and returns their position.
+     */
+    int skip(int count) {
+        ensure(count);
+        int position = size;
+        Arrays.fill(bytes, size, size + count, (byte) 0);
+        size += count;
+        return position;
+    }
+
+    void setBit(int position, int bit) {
+        bytes[position + (bit >>> 3)] |= (byte) (1 << (bit & 7));
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+        }
+    }
+
+    private static int digits(long value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.exception.InvalidQueryException;
+
+/**
+ * Formats of {@code /api/users/export}, named by their {@code format} parameter value.
+ */
+public enum ExportFormat {
+
+    CSV("csv", "text/csv", "users.csv"),
+    NDJSON("ndjson", "application/x-ndjson", "users.ndjson"),
+    /** Column-oriented row groups; see {@link UserExportWriter.Columnar} for the layout. */
+    COLUMNAR("parquet-like-binary", "application/octet-stream", "users.umx");
+
+    private final String parameter;
+    private final String mediaType;
+    private final String fileName;
+
+    ExportFormat(String parameter, String mediaType, String fileName) {
+        this.parameter = parameter;
+        this.mediaType = mediaType;
+        this.fileName = fileName;
+    }
+
+    public static ExportFormat fromParameter(String value) {
+        for (ExportFormat format : values()) {
+            if (format.parameter.equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new InvalidQueryException("format must be one of csv, ndjson, parquet-like-binary");
+    }
+
+    public String getParameter() {
+        return parameter;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
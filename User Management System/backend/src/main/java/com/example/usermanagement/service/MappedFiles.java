@@ -0,0 +1,29 @@
+package com.example.usermanagement.service;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only memory mapping of local data files. Mapped reads let the OS page cache serve
+ * warm restarts without copying the file through heap buffers first.
+ */
+final class MappedFiles {
+
+    private MappedFiles() {}
+
+    static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    static InputStream open(Path path) throws IOException {
+        return new ByteBufferBackedInputStream(map(path));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.PhoneticKeys;
+import com.example.usermanagement.entity.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Exact rerank of phonetic search candidates. Every word of the term has to sound like
+ * the first or last name; users are then ordered by the total edit distance between each
+ * word and the closer-sounding name, so "Smyth" lists Smyth before Smith, then by id.
+ */
+final class PhoneticRanker {
+
+    private final List<String> words = new ArrayList<>();
+    private final List<Set<String>> wordKeys = new ArrayList<>();
+
+    PhoneticRanker(String searchTerm) {
+        for (String word : searchTerm.trim().toLowerCase(Locale.ROOT).split("\\s+")) {
+            Set<String> keys = PhoneticKeys.of(word);
+            // Words without letters have no sound to match on
+            if (!keys.isEmpty()) {
+                words.add(word);
+                wordKeys.add(keys);
+            }
+        }
+    }
+
+    /**
+     * Keys of all words, for the index lookup.
+     */
+    Set<String> keys() {
+        Set<String> keys = new LinkedHashSet<>();
+        wordKeys.forEach(keys::addAll);
+        return keys;
+    }
+
+    /**
+     * The candidates that match every word, best first. Candidates must be in id order.
+     */
+    List<User> rank(List<User> candidates) {
+        if (words.isEmpty()) {
+            return List.of();
+        }
+        List<Ranked> ranked = new ArrayList<>();
+        for (User user : candidates) {
+            int distance = distance(user);
+            if (distance >= 0) {
+                ranked.add(new Ranked(user, distance));
+            }
+        }
+        // Stable, so equal distances stay in id order
+        ranked.sort(Comparator.comparingInt(Ranked::distance));
+        List<User> users = new ArrayList<>(ranked.size());
+        ranked.forEach(r -> users.add(r.user()));
+        return Collections.unmodifiableList(users);
+    }
+
+    /**
+     * Sum over the words of the edit distance to the closest matching name, or -1 if a
+     * word sounds like neither name.
+     */
+    private int distance(User user) {
+        Set<String> firstKeys = PhoneticKeys.of(user.getFirstName());
+        Set<String> lastKeys = PhoneticKeys.of(user.getLastName());
+        int total = 0;
+        for (int i = 0; i < words.size(); i++) {
+            String word = words.get(i);
+            int best = Integer.MAX_VALUE;
+            if (!Collections.disjoint(wordKeys.get(i), firstKeys)) {
+                best = editDistance(word, user.getFirstName().toLowerCase(Locale.ROOT));
+            }
+            if (!Collections.disjoint(wordKeys.get(i), lastKeys)) {
+                best = Math.min(best, editDistance(word, user.getLastName().toLowerCase(Locale.ROOT)));
+            }
+            if (best == Integer.MAX_VALUE) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    static int editDistance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private record Ranked(User user, int distance) {}
+}
@@ -0,0 +1,201 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Deterministic, realistic-looking users for scale testing. Every field is derived from
+ * the seed and the user id alone, so any page can be generated on its own and the same
+ * seed always yields the same dataset. Emails, usernames and SSNs are unique per id;
+ * names follow a Zipf distribution, so a few are very common and most are rare, roughly
+ * like real name frequencies. Homes cluster around a Zipf-weighted list of metro areas,
+ * which gives spatial queries the dense and empty regions a real user base has.
+ */
+public final class SyntheticUserGenerator {
+
+    private static final String[] FEMALE_NAMES = {"Emily", "Olivia", "Emma", "Sophia", "Ava", "Isabella", "Mia",
+            "Charlotte", "Amelia", "Harper", "Evelyn", "Abigail", "Ella", "Scarlett", "Grace", "Chloe", "Victoria",
+            "Riley", "Aria", "Lily", "Aubrey", "Zoey", "Penelope", "Lillian", "Addison", "Layla", "Natalie", "Camila",
+            "Hannah", "Brooklyn", "Zoe", "Nora", "Leah", "Savannah", "Audrey", "Claire", "Eleanor", "Skylar", "Ellie",
+            "Samantha", "Stella", "Paisley", "Violet", "Mila", "Allison", "Alexa", "Anna", "Hazel", "Aaliyah", "Ariana"};
+    private static final String[] MALE_NAMES = {"Liam", "Noah", "William", "James", "Oliver", "Benjamin", "Elijah",
+            "Lucas", "Mason", "Logan", "Alexander", "Ethan", "Jacob", "Michael", "Daniel", "Henry", "Jackson",
+            "Sebastian", "Aiden", "Matthew", "Samuel", "David", "Joseph", "Carter", "Owen", "Wyatt", "John", "Jack",
+            "Luke", "Jayden", "Dylan", "Grayson", "Levi", "Isaac", "Gabriel", "Julian", "Mateo", "Anthony", "Jaxon",
+            "Lincoln", "Joshua", "Christopher", "Andrew", "Theodore", "Caleb", "Ryan", "Asher", "Nathan", "Thomas",
+            "Leo"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas",
+            "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark",
+            "Ramirez", "Lewis", "Robinson", "Walker", "Young", "Allen", "King", "Wright", "Scott", "Torres", "Nguyen",
+            "Hill", "Flores", "Green", "Adams", "Nelson", "Baker", "Hall", "Rivera", "Campbell", "Mitchell", "Carter",
+            "Roberts", "Gomez", "Phillips", "Evans", "Turner", "Diaz", "Parker", "Cruz", "Edwards", "Collins",
+            "Reyes", "Stewart", "Morris", "Morales", "Murphy", "Cook", "Rogers", "Gutierrez", "Ortiz", "Morgan",
+            "Cooper", "Peterson", "Bailey", "Reed", "Kelly", "Howard", "Ramos", "Kim", "Cox", "Ward", "Richardson"};
+    private static final String[] DOMAINS = {"example.com", "mail.example.com", "example.org", "example.net",
+            "corp.example.com"};
+
+    private static final Metro[] METROS = {
+            new Metro("New York", "New York", 40.7128, -74.0060),
+            new Metro("Los Angeles", "California", 34.0522, -118.2437),
+            new Metro("Chicago", "Illinois", 41.8781, -87.6298),
+            new Metro("Houston", "Texas", 29.7604, -95.3698),
+            new Metro("Phoenix", "Arizona", 33.4484, -112.0740),
+            new Metro("Philadelphia", "Pennsylvania", 39.9526, -75.1652),
+            new Metro("San Antonio", "Texas", 29.4241, -98.4936),
+            new Metro("San Diego", "California", 32.7157, -117.1611),
+            new Metro("Dallas", "Texas", 32.7767, -96.7970),
+            new Metro("Jacksonville", "Florida", 30.3322, -81.6557),
+            new Metro("Columbus", "Ohio", 39.9612, -82.9988),
+            new Metro("Charlotte", "North Carolina", 35.2271, -80.8431),
+            new Metro("Seattle", "Washington", 47.6062, -122.3321),
+            new Metro("Denver", "Colorado", 39.7392, -104.9903),
+            new Metro("Boston", "Massachusetts", 42.3601, -71.0589),
+            new Metro("Nashville", "Tennessee", 36.1627, -86.7816),
+            new Metro("Portland", "Oregon", 45.5152, -122.6784),
+            new Metro("Atlanta", "Georgia", 33.7490, -84.3880),
+            new Metro("Miami", "Florida", 25.7617, -80.1918),
+            new Metro("Minneapolis", "Minnesota", 44.9778, -93.2650)};
+    /** Homes lie up to this many degrees (about 35 km) from the metro center. */
+    private static final double METRO_SPREAD_DEGREES = 0.32;
+
+    private static final double[] FEMALE_WEIGHTS = zipf(FEMALE_NAMES.length);
+    private static final double[] MALE_WEIGHTS = zipf(MALE_NAMES.length);
+    private static final double[] LAST_NAME_WEIGHTS = zipf(LAST_NAMES.length);
+    private static final double[] DOMAIN_WEIGHTS = zipf(DOMAINS.length);
+    private static final double[] METRO_WEIGHTS = zipf(METROS.length);
+
+    /** Birth dates are computed from this year rather than today, to stay reproducible. */
+    private static final int REFERENCE_YEAR = 2024;
+    /** Odd and not a multiple of 5, so {@code id * SSN_MULTIPLIER mod 10^9} is a bijection. */
+    private static final long SSN_MULTIPLIER = 387_420_489L;
+    private static final long SSN_SPACE = 1_000_000_000L;
+
+    private final long seed;
+
+    public SyntheticUserGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Users with ids {@code firstId} to {@code firstId + count - 1}.
+     */
+    public List<User> users(long firstId, int count) {
+        List<User> users = new ArrayList<>(count);
+        for (long id = firstId; id < firstId + count; id++) {
+            users.add(user(id));
+        }
+        return users;
+    }
+
+    public User user(long id) {
+        long state = mix(seed ^ id * 0x9e3779b97f4a7c15L);
+        boolean female = (state & 1) == 0;
+        state = mix(state);
+        String firstName = female ? FEMALE_NAMES[pick(FEMALE_WEIGHTS, state)] : MALE_NAMES[pick(MALE_WEIGHTS, state)];
+        state = mix(state);
+        String lastName = LAST_NAMES[pick(LAST_NAME_WEIGHTS, state)];
+        state = mix(state);
+        String domain = DOMAINS[pick(DOMAIN_WEIGHTS, state)];
+        state = mix(state);
+        // Sum of two uniforms: ages cluster in the middle of 18-79 like a working population
+        int age = 18 + (int) (((state & 0xffff) + ((state >>> 16) & 0xffff)) * 61 / (2 * 0xffff));
+        int month = 1 + (int) ((state >>> 32) % 12);
+        int day = 1 + (int) ((state >>> 40) % 28);
+        int roll = (int) ((state >>> 48) % 100);
+        state = mix(state);
+
+        String lowerFirst = firstName.toLowerCase(Locale.ROOT);
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setSsn(ssn(id));
+        user.setEmail(lowerFirst + '.' + lastName.toLowerCase(Locale.ROOT) + id + '@' + domain);
+        user.setAge(age);
+        user.setRole(roll < 3 ? "admin" : roll < 15 ? "moderator" : "user");
+        user.setPhone("+1 " + digits(200 + (state & 0x3ff) % 800, 3) + '-' + digits((state >>> 10) % 1000, 3)
+                + '-' + digits((state >>> 20) % 10_000, 4));
+        user.setUsername(lowerFirst + lastName.charAt(0) + id);
+        user.setBirthDate((REFERENCE_YEAR - age) + "-" + month + "-" + day);
+        user.setGender(female ? "female" : "male");
+
+        state = mix(state);
+        Metro metro = METROS[pick(METRO_WEIGHTS, state)];
+        state = mix(state);
+        // Sums of two uniforms again: denser toward the center, thinning out to the suburbs
+        double dLat = ((state & 0xffff) + ((state >>> 16) & 0xffff)) / (double) 0xffff - 1;
+        double dLng = (((state >>> 32) & 0xffff) + ((state >>> 48) & 0xffff)) / (double) 0xffff - 1;
+        user.setCity(metro.city());
+        user.setState(metro.state());
+        // Six decimals, like the upstream API
+        user.setLatitude(Math.round((metro.latitude() + dLat * METRO_SPREAD_DEGREES) * 1e6) / 1e6);
+        user.setLongitude(Math.round((metro.longitude() + dLng * METRO_SPREAD_DEGREES) * 1e6) / 1e6);
+        return user;
+    }
+
+    private String ssn(long id) {
+        long n = Math.floorMod(id * SSN_MULTIPLIER + seed, SSN_SPACE);
+        return digits(n / 1_000_000, 3) + '-' + digits(n / 10_000 % 100, 2) + '-' + digits(n % 10_000, 4);
+    }
+
+    /**
+     * Zero-padded decimal, without going through {@code String.format}.
+     */
+    private static String digits(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Index into {@code cumulative} for a uniform draw taken from the top 53 bits of {@code state}.
+     */
+    private static int pick(double[] cumulative, long state) {
+        double u = (state >>> 11) * 0x1.0p-53;
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] <= u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Cumulative Zipf weights with exponent 1 over {@code n} ranks.
+     */
+    private static double[] zipf(int n) {
+        double[] cumulative = new double[n];
+        double total = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            total += 1.0 / rank;
+            cumulative[rank - 1] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= total;
+        }
+        return cumulative;
+    }
+
+    /**
+     * SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Metro(String city, String state, double latitude, double longitude) {}
+}
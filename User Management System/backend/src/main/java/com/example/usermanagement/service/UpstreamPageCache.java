@@ -0,0 +1,229 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.DummyJsonResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Disk-backed cache of upstream user pages. Each page is stored as the raw response body
+ * next to a small properties file holding its ETag, Last-Modified and SHA-256. Fetches are
+ * conditional requests, so an unchanged upstream answers {@code 304} and the page is served
+ * from the mapped local file; an unreachable upstream falls back to the local copy as well.
+ * Requests go through the reactive stack's {@link WebClient} where one is defined, and
+ * through {@link RestTemplate} otherwise.
+ */
+@Component
+public class UpstreamPageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamPageCache.class);
+
+    private final RestTemplate restTemplate;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final long offlineBackoffMillis;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile long upstreamDownUntil;
+
+    public UpstreamPageCache(RestTemplate restTemplate, ObjectProvider<WebClient> upstreamWebClient,
+                             ObjectMapper objectMapper,
+                             @Value("${api.external.dummyjson.cache.enabled:true}") boolean enabled,
+                             @Value("${api.external.dummyjson.cache.dir:data/upstream-cache}") String directory,
+                             @Value("${api.external.dummyjson.cache.offline-backoff:30000}") long offlineBackoffMillis) {
+        this.restTemplate = restTemplate;
+        // Only defined on the reactive stack, see WebClientConfig
+        this.webClient = upstreamWebClient.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.offlineBackoffMillis = offlineBackoffMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public DummyJsonResponseDto fetch(String url) {
+        String key = keyFor(url);
+        Path bodyFile = directory.resolve(key + ".json");
+        Path metaFile = directory.resolve(key + ".meta");
+        Properties meta = readMeta(metaFile);
+
+        if (meta != null && System.currentTimeMillis() < upstreamDownUntil) {
+            logger.debug("Upstream marked unavailable, serving {} from cache", url);
+            return readCached(bodyFile, metaFile, meta);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        if (meta != null) {
+            String etag = meta.getProperty("etag");
+            String lastModified = meta.getProperty("lastModified");
+            if (etag != null) {
+                headers.setIfNoneMatch(etag);
+            }
+            if (lastModified != null) {
+                headers.set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+        }
+
+        ResponseEntity<byte[]> response;
+        try {
+            response = exchange(url, headers);
+        } catch (RestClientException | WebClientException e) {
+            if (meta == null) {
+                throw e;
+            }
+            upstreamDownUntil = System.currentTimeMillis() + offlineBackoffMillis;
+            logger.warn("Upstream unavailable ({}), serving {} from local cache", e.getMessage(), url);
+            return readCached(bodyFile, metaFile, meta);
+        }
+
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && meta != null) {
+            logger.debug("Upstream page unchanged (304): {}", url);
+            return readCached(bodyFile, metaFile, meta);
+        }
+
+        byte[] body = response.getBody();
+        if (body == null) {
+            throw new RestClientException("Empty response body from " + url);
+        }
+        misses.incrementAndGet();
+        String hash = sha256(ByteBuffer.wrap(body));
+        try {
+            if (meta == null || !hash.equals(meta.getProperty("sha256"))) {
+                writeAtomically(bodyFile, body);
+            }
+            writeMeta(metaFile, url, response.getHeaders(), hash);
+        } catch (IOException e) {
+            logger.warn("Could not write upstream page cache for {}", url, e);
+        }
+        return parse(body);
+    }
+
+    private ResponseEntity<byte[]> exchange(String url, HttpHeaders headers) {
+        if (webClient != null) {
+            // The exchange runs on Netty's event loop; the load job thread only waits for the page
+            return webClient.get().uri(url).headers(requestHeaders -> requestHeaders.addAll(headers))
+                    .retrieve().toEntity(byte[].class).block();
+        }
+        return restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private DummyJsonResponseDto readCached(Path bodyFile, Path metaFile, Properties meta) {
+        try {
+            ByteBuffer buffer = MappedFiles.map(bodyFile);
+            if (!sha256(buffer.duplicate()).equals(meta.getProperty("sha256"))) {
+                // Drop the corrupt entry so the retry performs an unconditional fetch
+                Files.deleteIfExists(metaFile);
+                throw new IllegalStateException("Cached page " + bodyFile + " does not match its recorded hash");
+            }
+            hits.incrementAndGet();
+            return objectMapper.readValue(new ByteBufferBackedInputStream(buffer), DummyJsonResponseDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read cached page " + bodyFile, e);
+        }
+    }
+
+    private DummyJsonResponseDto parse(byte[] body) {
+        try {
+            return objectMapper.readValue(body, DummyJsonResponseDto.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid response from external API", e);
+        }
+    }
+
+    private Properties readMeta(Path metaFile) {
+        if (!enabled || !Files.isRegularFile(metaFile)) {
+            return null;
+        }
+        Properties meta = new Properties();
+        try (InputStream in = Files.newInputStream(metaFile)) {
+            meta.load(in);
+            return meta;
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable cache metadata {}", metaFile, e);
+            return null;
+        }
+    }
+
+    private void writeMeta(Path metaFile, String url, HttpHeaders responseHeaders, String hash) throws IOException {
+        Properties meta = new Properties();
+        meta.setProperty("url", url);
+        meta.setProperty("sha256", hash);
+        meta.setProperty("fetchedAt", Instant.now().toString());
+        if (responseHeaders.getETag() != null) {
+            meta.setProperty("etag", responseHeaders.getETag());
+        }
+        String lastModified = responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED);
+        if (lastModified != null) {
+            meta.setProperty("lastModified", lastModified);
+        }
+        Path tmp = Files.createTempFile(Files.createDirectories(directory), "meta", ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            meta.store(out, null);
+        }
+        Files.move(tmp, metaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void writeAtomically(Path target, byte[] body) throws IOException {
+        Path tmp = Files.createTempFile(Files.createDirectories(directory), "page", ".tmp");
+        Files.write(tmp, body);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String keyFor(String url) {
+        return "page-" + sha256(ByteBuffer.wrap(url.getBytes(StandardCharsets.UTF_8))).substring(0, 16);
+    }
+
+    private static String sha256(ByteBuffer data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Encodes users for {@link UserExportService} one chunk at a time into a single reused
+ * {@link ExportBuffer}. Every format has the same columns in the same order.
+ */
+abstract sealed class UserExportWriter
+        permits UserExportWriter.Csv, UserExportWriter.Ndjson, UserExportWriter.Columnar {
+
+    enum Type { INT64, INT32, DOUBLE, STRING }
+
+    record Column(String name, Type type, Function<User, Object> value) {
+    }
+
+    static final List<Column> COLUMNS = List.of(
+            new Column("id", Type.INT64, User::getId),
+            new Column("firstName", Type.STRING, User::getFirstName),
+            new Column("lastName", Type.STRING, User::getLastName),
+            new Column("ssn", Type.STRING, User::getSsn),
+            new Column("email", Type.STRING, User::getEmail),
+            new Column("age", Type.INT32, User::getAge),
+            new Column("role", Type.STRING, User::getRole),
+            new Column("phone", Type.STRING, User::getPhone),
+            new Column("username", Type.STRING, User::getUsername),
+            new Column("birthDate", Type.STRING, User::getBirthDate),
+            new Column("gender", Type.STRING, User::getGender),
+            new Column("city", Type.STRING, User::getCity),
+            new Column("state", Type.STRING, User::getState),
+            new Column("latitude", Type.DOUBLE, User::getLatitude),
+            new Column("longitude", Type.DOUBLE, User::getLongitude));
+
+    final ExportBuffer buffer = new ExportBuffer(1 << 16);
+    private long flushed;
+
+    static UserExportWriter of(ExportFormat format) {
+        return switch (format) {
+            case CSV -> new Csv();
+            case NDJSON -> new Ndjson();
+            case COLUMNAR -> new Columnar();
+        };
+    }
+
+    void header() {
+    }
+
+    abstract void rows(List<User> users);
+
+    void footer() {
+    }
+
+    /**
+     * Writes out everything encoded since the last flush and reuses the buffer.
+     */
+    void flush(OutputStream out) throws IOException {
+        buffer.writeTo(out);
+        flushed += buffer.size();
+        buffer.reset();
+    }
+
+    /**
+     * Bytes encoded so far, flushed or not.
+     */
+    long position() {
+        return flushed + buffer.size();
+    }
+
+    void writeNumber(Object value) {
+        if (value instanceof Double number) {
+            buffer.writeDecimal(number.doubleValue());
+        } else {
+            buffer.writeDecimal(((Number) value).longValue());
+        }
+    }
+
+    /**
+     * RFC 4180: a header line, CRLF line ends, and fields holding a comma, quote or line
+     * break quoted with inner quotes doubled. Nulls are empty fields.
+     */
+    static final class Csv extends UserExportWriter {
+
+        @Override
+        void header() {
+            for (int c = 0; c < COLUMNS.size(); c++) {
+                if (c > 0) {
+                    buffer.writeByte(',');
+                }
+                buffer.writeAscii(COLUMNS.get(c).name());
+            }
+            buffer.writeAscii("\r\n");
+        }
+
+        @Override
+        void rows(List<User> users) {
+            for (User user : users) {
+                for (int c = 0; c < COLUMNS.size(); c++) {
+                    if (c > 0) {
+                        buffer.writeByte(',');
+                    }
+                    Object value = COLUMNS.get(c).value().apply(user);
+                    if (value instanceof String text) {
+                        writeField(text);
+                    } else if (value != null) {
+                        writeNumber(value);
+                    }
+                }
+                buffer.writeAscii("\r\n");
+            }
+        }
+
+        private void writeField(String text) {
+            if (!needsQuotes(text)) {
+                buffer.writeUtf8(text);
+                return;
+            }
+            buffer.writeByte('"');
+            for (int i = 0; i < text.length(); ) {
+                char c = text.charAt(i);
+                if (c == '"') {
+                    buffer.writeByte('"');
+                }
+                i += buffer.writeUtf8(c, i + 1 < text.length() ? text.charAt(i + 1) : -1);
+            }
+            buffer.writeByte('"');
+        }
+
+        private static boolean needsQuotes(String text) {
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * One JSON object per line with every column present, null where the user has no value.
+     */
+    static final class Ndjson extends UserExportWriter {
+
+        @Override
+        void rows(List<User> users) {
+            for (User user : users) {
+                buffer.writeByte('{');
+                for (int c = 0; c < COLUMNS.size(); c++) {
+                    Column column = COLUMNS.get(c);
+                    buffer.writeAscii(c == 0 ? "\"" : ",\"");
+                    buffer.writeAscii(column.name());
+                    buffer.writeAscii("\":");
+                    Object value = column.value().apply(user);
+                    if (value == null) {
+                        buffer.writeAscii("null");
+                    } else if (value instanceof String text) {
+                        writeString(text);
+                    } else {
+                        writeNumber(value);
+                    }
+                }
+                buffer.writeAscii("}\n");
+            }
+        }
+
+        private void writeString(String text) {
+            buffer.writeByte('"');
+            for (int i = 0; i < text.length(); ) {
+                char c = text.charAt(i);
+                if (c == '"' || c == '\\') {
+                    buffer.writeByte('\\');
+                    buffer.writeByte(c);
+                    i++;
+                } else if (c < 0x20) {
+                    buffer.writeAscii(switch (c) {
+                        case '\n' -> "\\n";
+                        case '\r' -> "\\r";
+                        case '\t' -> "\\t";
+                        default -> String.format("\\u%04x", (int) c);
+                    });
+                    i++;
+                } else {
+                    i += buffer.writeUtf8(c, i + 1 < text.length() ? text.charAt(i + 1) : -1);
+                }
+            }
+            buffer.writeByte('"');
+        }
+    }
+
+    /**
+     * Column-oriented layout in the spirit of Parquet: each chunk of rows is a row group
+     * that stores its columns one after another, and a footer at the end indexes the
+     * groups. Fixed-width integers are big-endian and varints are zigzag LEB128 (see
+     * {@link ExportBuffer#writeVarLong}).
+     *
+     * <pre>
+     * bytes    magic "UMX1"
+     * groups   int row count, then per column: int chunk length, null bitmap of
+     *          ceil(rows / 8) bytes (bit set = value present, least significant bit first),
+     *          and the present values:
+     *            INT64  id as varint delta from the previous id in the group
+     *            INT32  varint
+     *            DOUBLE 8-byte IEEE 754
+     *            STRING varint UTF-8 length, UTF-8 bytes
+     * footer   int column count, per column: byte type (INT64, INT32, DOUBLE, STRING =
+     *          0..3), varint name length, ASCII name; int group count, per group: long
+     *          offset from the start of the file, int row count; long total rows
+     * int      footer length
+     * bytes    magic "UMX1"
+     * </pre>
+     *
+     * A reader seeks to the end, reads the footer and can then skip straight to any group
+     * and, using the chunk lengths, to any column within it.
+     */
+    static final class Columnar extends UserExportWriter {
+
+        static final String MAGIC = "UMX1";
+
+        private final ExportBuffer groups = new ExportBuffer(1024);
+        private int groupCount;
+        private long rows;
+
+        @Override
+        void header() {
+            buffer.writeAscii(MAGIC);
+        }
+
+        @Override
+        void rows(List<User> users) {
+            groups.writeLong(position());
+            groups.writeInt(users.size());
+            groupCount++;
+            rows += users.size();
+
+            buffer.writeInt(users.size());
+            for (Column column : COLUMNS) {
+                int length = buffer.skip(Integer.BYTES);
+                int bitmap = buffer.skip((users.size() + 7) / 8);
+                long previousId = 0;
+                for (int i = 0; i < users.size(); i++) {
+                    Object value = column.value().apply(users.get(i));
+                    if (value == null) {
+                        continue;
+                    }
+                    buffer.setBit(bitmap, i);
+                    switch (column.type()) {
+                        case INT64 -> {
+                            long id = (Long) value;
+                            buffer.writeVarLong(id - previousId);
+                            previousId = id;
+                        }
+                        case INT32 -> buffer.writeVarLong((Integer) value);
+                        case DOUBLE -> buffer.writeDouble((Double) value);
+                        case STRING -> {
+                            String text = (String) value;
+                            buffer.writeVarLong(utf8Length(text));
+                            buffer.writeUtf8(text);
+                        }
+                    }
+                }
+                buffer.putInt(length, buffer.size() - length - Integer.BYTES);
+            }
+        }
+
+        @Override
+        void footer() {
+            int start = buffer.size();
+            buffer.writeInt(COLUMNS.size());
+            for (Column column : COLUMNS) {
+                buffer.writeByte(column.type().ordinal());
+                buffer.writeVarLong(column.name().length());
+                buffer.writeAscii(column.name());
+            }
+            buffer.writeInt(groupCount);
+            buffer.append(groups);
+            buffer.writeLong(rows);
+            buffer.writeInt(buffer.size() - start);
+            buffer.writeAscii(MAGIC);
+        }
+
+        private static int utf8Length(String text) {
+            int length = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    length++;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                        && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    length += 4;
+                    i++;
+                } else {
+                    length += Character.isSurrogate(c) ? 1 : 3;
+                }
+            }
+            return length;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Bloom filters over the ids and lower-cased emails of stored users, so lookups of keys
+ * that do not exist can be answered without going to the store. A {@code false} from
+ * {@link #mightContainId} or {@link #mightContainEmail} is definite; {@code true} may be
+ * a false positive (about 1% at the sized capacity). Until the first {@link #rebuild}
+ * every key "might" exist.
+ *
+ * <p>Writers must add keys no later than the rows become readable. A rebuild reads the
+ * store page by page without blocking additions; keys added since the last rebuild are
+ * remembered and go into the new filters when they replace the old ones, so none is
+ * dropped. Deleted users' keys stay in until the next rebuild, as false positives.
+ */
+final class UserKeyFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASHES = 7;
+    private static final int MIN_CAPACITY = 1024;
+
+    private volatile Bloom ids;
+    private volatile Bloom emails;
+    private final HashList recentIds = new HashList();
+    private final HashList recentEmails = new HashList();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private long capacity;
+    private long keys;
+    private boolean rebuilding;
+
+    boolean isReady() {
+        return ids != null;
+    }
+
+    boolean mightContainId(long id) {
+        Bloom bloom = ids;
+        return bloom == null || bloom.mightContain(mix(id));
+    }
+
+    boolean mightContainEmail(String email) {
+        Bloom bloom = emails;
+        return bloom == null || email == null || bloom.mightContain(hashLowerCase(email));
+    }
+
+    /**
+     * Adds the keys of users written directly, after the write. Their hashes are also
+     * remembered until the next rebuild, in case its read of the store ran before they were
+     * committed.
+     */
+    synchronized void add(Collection<User> users) {
+        if (ids == null && !rebuilding) {
+            return;
+        }
+        if (ids != null) {
+            put(ids, emails, users);
+        }
+        remember(users);
+        keys += users.size();
+    }
+
+    /**
+     * True once more keys were added since the last rebuild than the filters were sized
+     * for, so false positives are climbing above the sized rate and a rebuild is due.
+     */
+    synchronized boolean isSaturated() {
+        return ids != null && keys > capacity;
+    }
+
+    /**
+     * Adds the keys of a bulk-load page before it is published. They are remembered like
+     * direct additions, since a rebuild running meanwhile cannot read unpublished pages;
+     * the rebuild that follows the publish lets them go.
+     */
+    synchronized void addStaged(Collection<User> users) {
+        if (ids == null && !rebuilding) {
+            return;
+        }
+        if (ids != null) {
+            put(ids, emails, users);
+        }
+        remember(users);
+    }
+
+    private void remember(Collection<User> users) {
+        for (User user : users) {
+            if (user.getId() != null) {
+                recentIds.add(mix(user.getId()));
+            }
+            if (user.getEmail() != null) {
+                recentEmails.add(hashLowerCase(user.getEmail()));
+            }
+        }
+    }
+
+    /**
+     * Replaces both filters with ones sized for about {@code expectedUsers} plus headroom
+     * for later additions, reading the stored users a page at a time: {@code pageAfter}
+     * returns the users after an id in id order, and an empty page ends the walk. Writes
+     * carry on while the pages are read; their keys are added to the new filters before
+     * they are swapped in. Rebuilds run one at a time.
+     */
+    void rebuild(long expectedUsers, LongFunction<? extends List<User>> pageAfter) {
+        rebuildLock.lock();
+        try {
+            int capacity = (int) Math.min(Integer.MAX_VALUE, Math.max(MIN_CAPACITY, expectedUsers + expectedUsers / 2));
+            Bloom idBloom = new Bloom(capacity);
+            Bloom emailBloom = new Bloom(capacity);
+            long keysBefore;
+            synchronized (this) {
+                keysBefore = keys;
+                rebuilding = true;
+            }
+            long scanned = 0;
+            long afterId = Long.MIN_VALUE;
+            for (List<User> page = pageAfter.apply(afterId); !page.isEmpty(); page = pageAfter.apply(afterId)) {
+                put(idBloom, emailBloom, page);
+                scanned += page.size();
+                afterId = page.get(page.size() - 1).getId();
+            }
+            synchronized (this) {
+                recentIds.putAll(idBloom);
+                recentEmails.putAll(emailBloom);
+                this.capacity = capacity;
+                // Keys added during the walk may or may not have been read; count them once more
+                this.keys = scanned + (keys - keysBefore);
+                emails = emailBloom;
+                ids = idBloom;
+            }
+        } finally {
+            synchronized (this) {
+                rebuilding = false;
+            }
+            rebuildLock.unlock();
+        }
+    }
+
+    private static void put(Bloom idBloom, Bloom emailBloom, Collection<User> users) {
+        for (User user : users) {
+            if (user.getId() != null) {
+                idBloom.put(mix(user.getId()));
+            }
+            if (user.getEmail() != null) {
+                emailBloom.put(hashLowerCase(user.getEmail()));
+            }
+        }
+    }
+
+    /**
+     * FNV-1a over the lower-cased chars, without building the lower-cased string.
+     */
+    private static long hashLowerCase(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= Character.toLowerCase(value.charAt(i));
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * MurmurHash3 finalizer.
+     */
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Growable list of key hashes, emptied into a filter by {@link #putAll}.
+     */
+    private static final class HashList {
+
+        private long[] hashes = new long[16];
+        private int size;
+
+        void add(long hash) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+            }
+            hashes[size++] = hash;
+        }
+
+        void putAll(Bloom bloom) {
+            for (int i = 0; i < size; i++) {
+                bloom.put(hashes[i]);
+            }
+            hashes = new long[16];
+            size = 0;
+        }
+    }
+
+    private static final class Bloom {
+
+        private final AtomicLongArray words;
+        private final long bitCount;
+
+        Bloom(int capacity) {
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, ((long) capacity * BITS_PER_KEY + 63) / 64);
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = (long) wordCount * 64;
+        }
+
+        void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= HASHES; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = words.get(word);
+                while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                    current = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= HASHES; i++) {
+                long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
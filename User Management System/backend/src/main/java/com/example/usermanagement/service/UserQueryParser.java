@@ -0,0 +1,193 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.exception.InvalidQueryException;
+import com.example.usermanagement.store.UserQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Parses the {@code where} parameter of {@code /api/users/query} into a {@link UserQuery}:
+ *
+ * <pre>
+ * query     = and { "OR" and }
+ * and       = primary { ["AND"] primary }
+ * primary   = "(" query ")" | condition | term
+ * condition = "role:" value | "gender:" value | "age:" range | "ssn:" digits ["*"]
+ * range     = n | n ".." m | n ".." | ".." m
+ * term      = word | '"' words '"'
+ * </pre>
+ *
+ * Adjacent operands are ANDed and AND binds tighter than OR. {@code AND} and {@code OR}
+ * are operators only in upper case. SSN digits may contain dashes, which are ignored.
+ */
+final class UserQueryParser {
+
+    static final int MAX_CONDITIONS = 32;
+
+    private final List<String> tokens;
+    private int position;
+    private int conditions;
+
+    private UserQueryParser(List<String> tokens) {
+        this.tokens = tokens;
+    }
+
+    static UserQuery parse(String where) {
+        if (where == null || where.isBlank()) {
+            throw new InvalidQueryException("where must not be empty");
+        }
+        UserQueryParser parser = new UserQueryParser(tokenize(where));
+        UserQuery query = parser.or();
+        if (parser.position < parser.tokens.size()) {
+            throw new InvalidQueryException("Unexpected '" + parser.tokens.get(parser.position) + "' in query");
+        }
+        return query;
+    }
+
+    private UserQuery or() {
+        List<UserQuery> operands = new ArrayList<>();
+        operands.add(and());
+        while (accept("OR")) {
+            operands.add(and());
+        }
+        return UserQuery.anyOf(operands);
+    }
+
+    private UserQuery and() {
+        List<UserQuery> operands = new ArrayList<>();
+        operands.add(primary());
+        while (position < tokens.size() && !peek("OR") && !peek(")")) {
+            accept("AND");
+            operands.add(primary());
+        }
+        return UserQuery.allOf(operands);
+    }
+
+    private UserQuery primary() {
+        if (position == tokens.size()) {
+            throw new InvalidQueryException("Query ends where a condition was expected");
+        }
+        String token = tokens.get(position++);
+        if (token.equals("(")) {
+            UserQuery query = or();
+            if (!accept(")")) {
+                throw new InvalidQueryException("Missing ')' in query");
+            }
+            return query;
+        }
+        if (token.equals(")") || token.equals("AND") || token.equals("OR")) {
+            throw new InvalidQueryException("Unexpected '" + token + "' in query");
+        }
+        if (++conditions > MAX_CONDITIONS) {
+            throw new InvalidQueryException("Query must not have more than " + MAX_CONDITIONS + " conditions");
+        }
+        if (token.startsWith("\"")) {
+            return term(token.substring(1));
+        }
+        int colon = token.indexOf(':');
+        String field = colon < 0 ? "" : token.substring(0, colon).toLowerCase(Locale.ROOT);
+        String value = token.substring(colon + 1);
+        return switch (field) {
+            case "role" -> new UserQuery.Role(required(field, value));
+            case "gender" -> new UserQuery.Gender(required(field, value));
+            case "age" -> age(required(field, value));
+            case "ssn" -> ssn(required(field, value));
+            default -> term(token);
+        };
+    }
+
+    private static UserQuery term(String text) {
+        if (text.isBlank()) {
+            throw new InvalidQueryException("Search terms must not be empty");
+        }
+        return UserQuery.Term.of(text);
+    }
+
+    private static UserQuery age(String range) {
+        int dots = range.indexOf("..");
+        if (dots < 0) {
+            int age = age(range, range);
+            return new UserQuery.Age(age, age);
+        }
+        String from = range.substring(0, dots);
+        String to = range.substring(dots + 2);
+        Integer min = from.isEmpty() ? null : age(from, range);
+        Integer max = to.isEmpty() ? null : age(to, range);
+        if (min == null && max == null) {
+            throw new InvalidQueryException("age range '" + range + "' needs at least one bound");
+        }
+        if (min != null && max != null && min > max) {
+            throw new InvalidQueryException("age range '" + range + "' has its bounds reversed");
+        }
+        return new UserQuery.Age(min, max);
+    }
+
+    private static int age(String value, String range) {
+        if (!value.matches("\\d{1,3}") || Integer.parseInt(value) > UserService.MAX_AGE) {
+            throw new InvalidQueryException("age '" + range + "' must use ages between 0 and " + UserService.MAX_AGE);
+        }
+        return Integer.parseInt(value);
+    }
+
+    private static UserQuery ssn(String value) {
+        String digits = (value.endsWith("*") ? value.substring(0, value.length() - 1) : value).replace("-", "");
+        if (!digits.matches("\\d{1,9}")) {
+            throw new InvalidQueryException("ssn '" + value + "' must be a prefix of up to 9 digits");
+        }
+        return new UserQuery.SsnPrefix(digits);
+    }
+
+    private static String required(String field, String value) {
+        if (value.isEmpty()) {
+            throw new InvalidQueryException(field + ": needs a value");
+        }
+        return value;
+    }
+
+    private boolean peek(String token) {
+        return position < tokens.size() && tokens.get(position).equals(token);
+    }
+
+    private boolean accept(String token) {
+        if (peek(token)) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Splits into parentheses, words and quoted phrases; a phrase token keeps its opening
+     * quote so it is never read as an operator or a condition.
+     */
+    private static List<String> tokenize(String where) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < where.length()) {
+            char c = where.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else if (c == '"') {
+                int end = where.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new InvalidQueryException("Unterminated quote in query");
+                }
+                tokens.add(where.substring(i, end));
+                i = end + 1;
+            } else {
+                int start = i;
+                while (i < where.length() && !Character.isWhitespace(where.charAt(i))
+                        && where.charAt(i) != '(' && where.charAt(i) != ')' && where.charAt(i) != '"') {
+                    i++;
+                }
+                tokens.add(where.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+}
@@ -2,96 +2,649 @@ package com.example.usermanagement.service;
 
 import com.example.usermanagement.dto.UserResponseDto;
 import com.example.usermanagement.entity.User;
+import com.example.usermanagement.exception.InvalidQueryException;
+import com.example.usermanagement.exception.UserConflictException;
 import com.example.usermanagement.exception.UserNotFoundException;
-import com.example.usermanagement.repository.UserRepository;
-import com.example.usermanagement.repository.UserSearchRepository;
+import com.example.usermanagement.store.UserQuery;
+import com.example.usermanagement.store.UserStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Reads join a caller's transaction but never start one: the JPA store opens its own, and
+ * the in-memory store must not check out a database connection just to read.
+ */
 @Service
 @Transactional
 public class UserService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    /** Half the earth's circumference: every point is within this distance. */
+    static final double MAX_RADIUS_KM = 20_015;
+    static final int MAX_SPATIAL_LIMIT = 1000;
+    static final int MAX_AGE = 150;
+    // Users read per page when the key filter is rebuilt
+    static final int KEY_FILTER_PAGE_SIZE = 10_000;
     
-    private final UserRepository userRepository;
-    private final UserSearchRepository userSearchRepository;
+    private final UserStore userStore;
+    private final SearchMetrics allMetrics;
+    private final SearchMetrics basicMetrics;
+    private final SearchMetrics fullTextMetrics;
+    private final SearchMetrics phoneticMetrics;
+    private final SearchMetrics nearMetrics;
+    private final SearchMetrics boxMetrics;
+    private final SearchMetrics filterMetrics;
+    private final SearchMetrics queryMetrics;
+    private final UserKeyFilter keyFilter = new UserKeyFilter();
+    private final AtomicBoolean keyFilterRebuildPending = new AtomicBoolean();
+    private final Executor keyFilterExecutor;
+    private final DataChangeFeed changeFeed;
+    private final DatasetSnapshotService snapshots;
+    private final Counter filteredIdLookups;
+    private final Counter filteredEmailLookups;
+    // Transactions of the locked writes, begun and committed while the write lock is held
+    private final TransactionOperations transactions;
+    // Serializes the checks and writes of writeUsers; a lock, so waiting writers do not pin virtual threads
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    /**
+     * What {@link #writeUsers} did with one user: the user as stored, or which field
+     * refused it and why.
+     */
+    public record WriteOutcome(Status status, UserResponseDto user, String field, String message) {
 
-    public UserService(UserRepository userRepository, UserSearchRepository userSearchRepository) {
-        this.userRepository = userRepository;
-        this.userSearchRepository = userSearchRepository;
+        public enum Status { CREATED, UPDATED, NOT_FOUND, CONFLICT }
+
+        static WriteOutcome refused(Status status, String field, String message) {
+            return new WriteOutcome(status, null, field, message);
+        }
     }
 
-    @Transactional(readOnly = true)
+    public UserService(UserStore userStore, DataChangeFeed changeFeed, DatasetSnapshotService snapshots,
+                       TransactionOperations transactions, MeterRegistry meterRegistry,
+                       @Qualifier("keyFilterExecutor") Executor keyFilterExecutor) {
+        this.userStore = userStore;
+        this.changeFeed = changeFeed;
+        this.snapshots = snapshots;
+        this.transactions = transactions;
+        this.keyFilterExecutor = keyFilterExecutor;
+        this.filteredIdLookups = filteredLookups(meterRegistry, "id");
+        this.filteredEmailLookups = filteredLookups(meterRegistry, "email");
+        this.allMetrics = new SearchMetrics(meterRegistry, "all");
+        this.basicMetrics = new SearchMetrics(meterRegistry, "basic");
+        this.fullTextMetrics = new SearchMetrics(meterRegistry, "full_text");
+        this.phoneticMetrics = new SearchMetrics(meterRegistry, "phonetic");
+        this.nearMetrics = new SearchMetrics(meterRegistry, "near");
+        this.boxMetrics = new SearchMetrics(meterRegistry, "box");
+        this.filterMetrics = new SearchMetrics(meterRegistry, "filter");
+        this.queryMetrics = new SearchMetrics(meterRegistry, "query");
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<UserResponseDto> getAllUsers() {
         logger.debug("Fetching all users");
-        return userRepository.findAll().stream()
+        return userStore.findAll().stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<User> getAllUserEntities() {
+        return userStore.findAll();
+    }
+
+    /**
+     * One page of a walk over all users in id order; each page is its own short read, so
+     * nothing stays open between pages.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<User> findPageAfter(long afterId, int limit) {
+        return userStore.findPageAfter(afterId, limit);
+    }
+
+    /**
+     * {@link #findPageAfter} as the API returns users.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<UserResponseDto> getUserPageAfter(long afterId, int limit) {
+        return userStore.findPageAfter(afterId, limit).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
-    @Transactional(readOnly = true)
+    /**
+     * Ids that are definitely not stored are rejected by the key filter before a
+     * transaction or connection is opened; the same holds for {@link #getUserByEmail}.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public UserResponseDto getUserById(Long id) {
         logger.debug("Fetching user by id: {}", id);
-        User user = userRepository.findById(id)
+        if (id != null && !keyFilter.mightContainId(id)) {
+            filteredIdLookups.increment();
+            throw new UserNotFoundException("User not found with id: " + id);
+        }
+        User user = userStore.findById(id)
                 .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
         return convertToDto(user);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public UserResponseDto getUserByEmail(String email) {
         logger.debug("Fetching user by email: {}", email);
-        User user = userRepository.findByEmail(email)
+        if (!keyFilter.mightContainEmail(email)) {
+            filteredEmailLookups.increment();
+            throw new UserNotFoundException("User not found with email: " + email);
+        }
+        User user = userStore.findByEmail(email)
                 .orElseThrow(() -> new UserNotFoundException("User not found with email: " + email));
         return convertToDto(user);
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<UserResponseDto> searchUsers(String searchTerm) {
+        return searchUsers(searchTerm, null, null, null);
+    }
+
+    /**
+     * Search narrowed by role and an inclusive age range; any of them may be null. Without
+     * a term the filter alone selects the users.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<UserResponseDto> searchUsers(String searchTerm, String role, Integer minAge, Integer maxAge) {
         logger.debug("Searching users with term: {}", searchTerm);
         
+        List<UserQuery> conditions = conditions(role, minAge, maxAge);
+        long start = System.nanoTime();
         if (searchTerm == null || searchTerm.trim().isEmpty()) {
-            return getAllUsers();
+            if (conditions.isEmpty()) {
+                return allMetrics.record(start, getAllUsers());
+            }
+            return filterMetrics.record(start, userStore.query(UserQuery.allOf(conditions)).stream()
+                    .map(this::convertToDto)
+                    .collect(Collectors.toList()));
         }
 
         List<User> users;
-        if (searchTerm.length() >= 3) {
-            users = userSearchRepository.fullTextSearch(searchTerm.trim());
+        String term = searchTerm.trim();
+        boolean fullText = searchTerm.length() >= 3;
+        if (!conditions.isEmpty()) {
+            conditions.add(new UserQuery.Term(term, fullText));
+            users = userStore.query(UserQuery.allOf(conditions));
         } else {
-            users = userRepository.findBySearchTerm(searchTerm.trim());
+            users = fullText ? userStore.fullTextSearch(term) : userStore.findBySearchTerm(term);
         }
 
-        return users.stream()
+        SearchMetrics metrics = fullText ? fullTextMetrics : basicMetrics;
+        return metrics.record(start, users.stream()
                 .map(this::convertToDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<UserResponseDto> phoneticSearch(String searchTerm) {
+        return phoneticSearch(searchTerm, null, null, null);
+    }
+
+    /**
+     * Users whose names sound like the words of the term ("Smyth", "Jonsen"). Candidates
+     * come from the store's precomputed Double Metaphone keys and are reranked by
+     * {@link PhoneticRanker}, closest spelling first, then narrowed by role and age.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<UserResponseDto> phoneticSearch(String searchTerm, String role, Integer minAge, Integer maxAge) {
+        logger.debug("Phonetic search with term: {}", searchTerm);
+        List<UserQuery> conditions = conditions(role, minAge, maxAge);
+        long start = System.nanoTime();
+        if (searchTerm == null || searchTerm.isBlank()) {
+            return phoneticMetrics.record(start, List.of());
+        }
+        PhoneticRanker ranker = new PhoneticRanker(searchTerm);
+        Set<String> keys = ranker.keys();
+        List<User> candidates = keys.isEmpty() ? List.of() : userStore.phoneticSearch(keys);
+        return phoneticMetrics.record(start, ranker.rank(candidates).stream()
+                .filter(user -> conditions.stream().allMatch(condition -> condition.matches(user)))
+                .map(this::convertToDto)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Number of users with the role and within the inclusive age range, either of which
+     * may be null. The in-memory store answers a single condition from its histograms.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public long countUsers(String role, Integer minAge, Integer maxAge) {
+        List<UserQuery> conditions = conditions(role, minAge, maxAge);
+        return conditions.isEmpty() ? userStore.count() : userStore.count(UserQuery.allOf(conditions));
+    }
+
+    /**
+     * Users matching a compound query such as {@code (role:admin OR role:moderator) AND
+     * age:30..40 AND smith}; see {@link UserQueryParser} for the syntax.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<UserResponseDto> queryUsers(String where) {
+        logger.debug("Query users where: {}", where);
+        UserQuery query = UserQueryParser.parse(where);
+        long start = System.nanoTime();
+        return queryMetrics.record(start, userStore.query(query).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList()));
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public long countQuery(String where) {
+        return userStore.count(UserQueryParser.parse(where));
+    }
+
+    /**
+     * The role and age conditions that were given, validated; an empty list if none were.
+     */
+    private static List<UserQuery> conditions(String role, Integer minAge, Integer maxAge) {
+        requireAge("minAge", minAge);
+        requireAge("maxAge", maxAge);
+        if (minAge != null && maxAge != null && minAge > maxAge) {
+            throw new InvalidQueryException("minAge must not be greater than maxAge");
+        }
+        List<UserQuery> conditions = new ArrayList<>();
+        if (role != null && !role.isBlank()) {
+            conditions.add(new UserQuery.Role(role.trim()));
+        }
+        if (minAge != null || maxAge != null) {
+            conditions.add(new UserQuery.Age(minAge, maxAge));
+        }
+        return conditions;
+    }
+
+    private static void requireAge(String name, Integer age) {
+        if (age != null && (age < 0 || age > MAX_AGE)) {
+            throw new InvalidQueryException(name + " must be between 0 and " + MAX_AGE);
+        }
+    }
+
+    /**
+     * Users within {@code radiusKm} of the point, nearest first and then by id.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<UserResponseDto> findNear(double latitude, double longitude, double radiusKm, int limit) {
+        logger.debug("Finding users within {} km of {},{}", radiusKm, latitude, longitude);
+        long start = System.nanoTime();
+        requireCoordinate("lat", latitude, 90);
+        requireCoordinate("lng", longitude, 180);
+        if (!(radiusKm > 0 && radiusKm <= MAX_RADIUS_KM)) {
+            throw new InvalidQueryException("radiusKm must be greater than 0 and at most " + MAX_RADIUS_KM);
+        }
+        requireLimit(limit);
+        return nearMetrics.record(start, userStore.findNear(latitude, longitude, radiusKm, limit).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Users inside the box, by id. {@code minLongitude > maxLongitude} selects a box across
+     * the antimeridian.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<UserResponseDto> findInBox(double minLatitude, double minLongitude,
+                                           double maxLatitude, double maxLongitude, int limit) {
+        logger.debug("Finding users in box {},{} to {},{}", minLatitude, minLongitude, maxLatitude, maxLongitude);
+        long start = System.nanoTime();
+        requireCoordinate("minLat", minLatitude, 90);
+        requireCoordinate("maxLat", maxLatitude, 90);
+        requireCoordinate("minLng", minLongitude, 180);
+        requireCoordinate("maxLng", maxLongitude, 180);
+        if (minLatitude > maxLatitude) {
+            throw new InvalidQueryException("minLat must not be greater than maxLat");
+        }
+        requireLimit(limit);
+        return boxMetrics.record(start, userStore.findInBox(minLatitude, minLongitude, maxLatitude, maxLongitude, limit)
+                .stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList()));
+    }
+
+    private static void requireCoordinate(String name, double value, double bound) {
+        if (!(value >= -bound && value <= bound)) {
+            throw new InvalidQueryException(name + " must be between -" + (int) bound + " and " + (int) bound);
+        }
+    }
+
+    private static void requireLimit(int limit) {
+        if (limit < 1 || limit > MAX_SPATIAL_LIMIT) {
+            throw new InvalidQueryException("limit must be between 1 and " + MAX_SPATIAL_LIMIT);
+        }
     }
 
     public void saveUser(User user) {
         logger.debug("Saving user: {}", user.getEmail());
-        userRepository.save(user);
+        userStore.save(user);
+        addKeys(List.of(user));
+        publishChanges(List.of(convertToDto(user)), List.of());
     }
 
     public void saveAllUsers(List<User> users) {
         logger.debug("Saving {} users", users.size());
-        userRepository.saveAll(users);
+        userStore.saveAll(users);
+        addKeys(users);
+        publishChanges(users.stream().map(this::convertToDto).toList(), List.of());
     }
 
+    /**
+     * Writes a batch of users in one transaction through {@link #saveAllUsers}: a user with
+     * an id replaces that user, one without is created. A user is refused, and the rest of
+     * the batch still written, when its id is not stored or its email, ignoring case, or
+     * its SSN belongs to another user, stored or earlier in the batch. The write lock is
+     * taken before the transaction begins and released after it commits, so two batches
+     * cannot both claim a key; called inside a caller's transaction, the lock ends before
+     * that commits.
+     *
+     * @return one outcome per user, in order
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<WriteOutcome> writeUsers(List<User> users) {
+        writeLock.lock();
+        try {
+            return transactions.execute(status -> checkAndWrite(users));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private List<WriteOutcome> checkAndWrite(List<User> users) {
+        Set<Long> ids = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        Set<String> ssns = new HashSet<>();
+        for (User user : users) {
+            if (user.getId() != null) {
+                ids.add(user.getId());
+            }
+            if (user.getEmail() != null) {
+                emails.add(user.getEmail());
+            }
+            if (user.getSsn() != null) {
+                ssns.add(user.getSsn());
+            }
+        }
+        Set<Long> stored = userStore.findAllById(ids).stream().map(User::getId).collect(Collectors.toSet());
+        Map<String, Long> emailOwners = new HashMap<>();
+        Map<String, Long> ssnOwners = new HashMap<>();
+        for (User owner : userStore.findByEmailInOrSsnIn(emails, ssns)) {
+            emailOwners.put(emailKey(owner.getEmail()), owner.getId());
+            ssnOwners.put(owner.getSsn(), owner.getId());
+        }
+
+        WriteOutcome[] outcomes = new WriteOutcome[users.size()];
+        boolean[] created = new boolean[users.size()];
+        List<User> accepted = new ArrayList<>();
+        Map<String, User> emailClaims = new HashMap<>();
+        Map<String, User> ssnClaims = new HashMap<>();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            if (user.getId() != null && !stored.contains(user.getId())) {
+                outcomes[i] = WriteOutcome.refused(WriteOutcome.Status.NOT_FOUND, "id",
+                        "User not found with id: " + user.getId());
+                continue;
+            }
+            String field = conflict(user, "email", emailKey(user.getEmail()), emailOwners, emailClaims);
+            if (field == null) {
+                field = conflict(user, "ssn", user.getSsn(), ssnOwners, ssnClaims);
+            }
+            if (field != null) {
+                outcomes[i] = WriteOutcome.refused(WriteOutcome.Status.CONFLICT, field,
+                        field + " already belongs to another user");
+                continue;
+            }
+            emailClaims.put(emailKey(user.getEmail()), user);
+            ssnClaims.put(user.getSsn(), user);
+            created[i] = user.getId() == null;
+            accepted.add(user);
+        }
+
+        if (!accepted.isEmpty()) {
+            saveAllUsers(accepted);
+        }
+        // The accepted users now have their ids
+        for (int i = 0; i < users.size(); i++) {
+            if (outcomes[i] == null) {
+                outcomes[i] = new WriteOutcome(created[i] ? WriteOutcome.Status.CREATED : WriteOutcome.Status.UPDATED,
+                        convertToDto(users.get(i)), null, null);
+            }
+        }
+        return List.of(outcomes);
+    }
+
+    /**
+     * Emails are unique ignoring case, as the stores index them.
+     */
+    private static String emailKey(String email) {
+        return email == null ? null : email.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The field named if {@code value} is already someone else's: a stored user's with
+     * another id, or a user's earlier in the batch unless both are the same stored user.
+     */
+    private static String conflict(User user, String field, String value, Map<String, Long> owners,
+                                   Map<String, User> claims) {
+        if (value == null) {
+            return null;
+        }
+        Long owner = owners.get(value);
+        if (owner != null && !owner.equals(user.getId())) {
+            return field;
+        }
+        User claimant = claims.get(value);
+        if (claimant != null && (user.getId() == null || !user.getId().equals(claimant.getId()))) {
+            return field;
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the stored user with {@code id}.
+     *
+     * @throws UserNotFoundException if there is none
+     * @throws UserConflictException if the email or SSN belongs to another user
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public UserResponseDto updateUser(Long id, User user) {
+        logger.debug("Updating user: {}", id);
+        user.setId(id);
+        return written(writeUsers(List.of(user)).get(0));
+    }
+
+    /**
+     * Writes what {@code patch} makes of the stored user, given as the API returns it. The
+     * read and the write are one transaction inside the write lock, so concurrent patches
+     * of one user each see the other's changes.
+     *
+     * @throws UserNotFoundException if there is none
+     * @throws UserConflictException if the email or SSN belongs to another user
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public UserResponseDto patchUser(Long id, Function<UserResponseDto, User> patch) {
+        logger.debug("Patching user: {}", id);
+        writeLock.lock();
+        try {
+            return transactions.execute(status -> {
+                User current = userStore.findById(id)
+                        .orElseThrow(() -> new UserNotFoundException("User not found with id: " + id));
+                User user = patch.apply(convertToDto(current));
+                user.setId(id);
+                return written(checkAndWrite(List.of(user)).get(0));
+            });
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private static UserResponseDto written(WriteOutcome outcome) {
+        return switch (outcome.status()) {
+            case NOT_FOUND -> throw new UserNotFoundException(outcome.message());
+            case CONFLICT -> throw new UserConflictException(outcome.message());
+            case CREATED, UPDATED -> outcome.user();
+        };
+    }
+
+    /**
+     * Deletes the stored users among the ids in one transaction, committed inside the write
+     * lock, and returns their ids.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Long> deleteUsers(Collection<Long> ids) {
+        writeLock.lock();
+        try {
+            return transactions.execute(status -> {
+                List<Long> deleted = userStore.findAllById(ids).stream().map(User::getId).toList();
+                if (!deleted.isEmpty()) {
+                    userStore.deleteAllById(deleted);
+                    publishChanges(List.of(), deleted);
+                }
+                return deleted;
+            });
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * @throws UserNotFoundException if there is no user with {@code id}
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void deleteUser(Long id) {
+        logger.debug("Deleting user: {}", id);
+        if (deleteUsers(List.of(id)).isEmpty()) {
+            throw new UserNotFoundException("User not found with id: " + id);
+        }
+    }
+
+    /**
+     * Adds written keys to the key filter. Once writes have outgrown it a rebuild is
+     * handed to the key filter executor, outside the write lock and transaction; until it
+     * finishes the filter only lets more false positives through. At most one rebuild is
+     * pending at a time.
+     */
+    private void addKeys(List<User> users) {
+        keyFilter.add(users);
+        if (keyFilter.isSaturated() && keyFilterRebuildPending.compareAndSet(false, true)) {
+            try {
+                keyFilterExecutor.execute(() -> {
+                    try {
+                        rebuildKeyFilter();
+                    } catch (RuntimeException e) {
+                        logger.warn("Key filter rebuild failed, retrying after the next write", e);
+                    } finally {
+                        keyFilterRebuildPending.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                keyFilterRebuildPending.set(false);
+                logger.warn("Key filter rebuild rejected, retrying after the next write", e);
+            }
+        }
+    }
+
+    private void rebuildKeyFilter() {
+        keyFilter.rebuild(userStore.count(), afterId -> userStore.findPageAfter(afterId, KEY_FILTER_PAGE_SIZE));
+    }
+
+    /**
+     * Hands a write to the change feed once its transaction commits, so a rolled back
+     * write is never announced.
+     */
+    private void publishChanges(List<UserResponseDto> upserts, List<Long> deletes) {
+        // Before the commit: a crash right after it must not leave the old snapshot to restore
+        snapshots.invalidate();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            changeFeed.committed(upserts, deletes);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                changeFeed.committed(upserts, deletes);
+            }
+        });
+    }
+
+    /**
+     * Bulk load session for {@link DataLoadService}; see {@link UserStore#openBulkLoad()}.
+     * Each page's keys go into the key filter before the store sees the page, and the
+     * loaded users reach the change feed as one version once the load is published.
+     */
+    public UserStore.BulkLoad openBulkLoad() {
+        UserStore.BulkLoad bulkLoad = userStore.openBulkLoad();
+        DataChangeFeed.Batch changes = changeFeed.openBatch();
+        return new UserStore.BulkLoad() {
+            @Override
+            public void add(List<User> users) {
+                keyFilter.addStaged(users);
+                bulkLoad.add(users);
+                changes.add(users, UserService.this::convertToDto);
+            }
+
+            @Override
+            public void publish() {
+                // Not invalidated: a load either restores the snapshot or writes a new one
+                bulkLoad.publish();
+                changes.commit(userStore.count());
+            }
+
+            @Override
+            public void abort() {
+                bulkLoad.abort();
+                changes.discard();
+            }
+        };
+    }
+
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public long getUserCount() {
-        return userRepository.count();
+        return userStore.count();
     }
 
     public void indexAllUsers() {
         logger.debug("Indexing all users for search");
-        userSearchRepository.indexAllUsers();
+        userStore.reindex();
+        rebuildKeyFilter();
     }
 
-    private UserResponseDto convertToDto(User user) {
-        return new UserResponseDto(
+    private static Counter filteredLookups(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("users.lookup.filtered")
+                .description("Lookups answered as not found by the key filter without reading the store")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    UserResponseDto convertToDto(User user) {
+        UserResponseDto dto = new UserResponseDto(
                 user.getId(),
                 user.getFirstName(),
                 user.getLastName(),
@@ -104,5 +657,37 @@ public class UserService {
                 user.getBirthDate(),
                 user.getGender()
         );
+        dto.setCity(user.getCity());
+        dto.setState(user.getState());
+        dto.setLatitude(user.getLatitude());
+        dto.setLongitude(user.getLongitude());
+        return dto;
+    }
+
+    /**
+     * {@code users.search} latency and {@code users.search.results} sizes for one kind of search.
+     */
+    private static final class SearchMetrics {
+
+        private final Timer latency;
+        private final DistributionSummary results;
+
+        SearchMetrics(MeterRegistry meterRegistry, String type) {
+            this.latency = Timer.builder("users.search")
+                    .description("User search latency, including DTO mapping")
+                    .tag("type", type)
+                    .register(meterRegistry);
+            this.results = DistributionSummary.builder("users.search.results")
+                    .description("Number of users returned by a search")
+                    .baseUnit("users")
+                    .tag("type", type)
+                    .register(meterRegistry);
+        }
+
+        <T> List<T> record(long startNanos, List<T> users) {
+            latency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+            results.record(users.size());
+            return users;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,298 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserRequestDto;
+import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.entity.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request side of the write endpoints: validates users, applies PATCH bodies and reads
+ * the NDJSON stream of {@code POST /api/users/bulk}, handing the writes to
+ * {@link UserService}. Bulk rows are written in transactions of {@code app.bulk.batch-size}
+ * as they arrive, so a request of any length holds one batch in memory.
+ */
+@Service
+public class UserWriteService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserWriteService.class);
+
+    private static final String CREATED = "created";
+    private static final String UPDATED = "updated";
+    private static final String INVALID = "invalid";
+    private static final String NOT_FOUND = "not_found";
+    private static final String CONFLICT = "conflict";
+
+    /**
+     * Totals of one bulk write; {@code errors} lists the first refused rows by line.
+     */
+    public record BulkWriteResult(long rows, long created, long updated, long failed, List<RowError> errors) {
+    }
+
+    /**
+     * A refused bulk row: {@code error} is {@code invalid}, {@code not_found} or
+     * {@code conflict}, and {@code field} the field at fault where there is one.
+     */
+    public record RowError(long line, Long id, String error, String field, String message) {
+    }
+
+    private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchSize;
+    private final int maxErrors;
+    private final Timer batchTimer;
+    private final Map<String, Counter> rowCounters = new HashMap<>();
+
+    public UserWriteService(UserService userService, ObjectMapper objectMapper, Validator validator,
+                            @Value("${app.bulk.batch-size:500}") int batchSize,
+                            @Value("${app.bulk.max-errors:1000}") int maxErrors,
+                            MeterRegistry meterRegistry) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("app.bulk.batch-size must be positive");
+        }
+        this.userService = userService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        this.batchTimer = Timer.builder("users.write.batch")
+                .description("Time to check and write one batch of a bulk write")
+                .register(meterRegistry);
+        for (String outcome : List.of(CREATED, UPDATED, INVALID, NOT_FOUND, CONFLICT)) {
+            rowCounters.put(outcome, Counter.builder("users.write.rows")
+                    .description("Bulk write rows by outcome")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * A bulk row: the writable fields and, to update a stored user, its id.
+     */
+    static final class BulkRow extends UserRequestDto {
+        private Long id;
+
+        public Long getId() { return id; }
+        public void setId(Long id) { this.id = id; }
+    }
+
+    /**
+     * {@code PUT /api/users/{id}}: replaces the user with the one given.
+     */
+    public UserResponseDto replace(Long id, UserRequestDto request) {
+        User user = toUser(id, request);
+        validate(user);
+        return userService.updateUser(id, user);
+    }
+
+    /**
+     * {@code PATCH /api/users/{id}}: a JSON merge patch (RFC 7396) of the user as the API
+     * returns it. Fields in {@code changes} replace the stored ones, an explicit
+     * {@code null} clears one, and fields left out keep their value; {@code id} is ignored.
+     */
+    public UserResponseDto patch(Long id, JsonNode changes) {
+        if (!(changes instanceof ObjectNode object)) {
+            throw new ConstraintViolationException("Patch must be a JSON object", Set.of());
+        }
+        ObjectNode fields = object.deepCopy();
+        fields.remove("id");
+        return userService.patchUser(id, current -> {
+            ObjectNode merged = objectMapper.valueToTree(current);
+            merged.remove("id");
+            merged.setAll(fields);
+            User user;
+            try {
+                user = toUser(id, objectMapper.convertValue(merged, UserRequestDto.class));
+            } catch (IllegalArgumentException e) {
+                throw new ConstraintViolationException("Patch does not fit a user: " + e.getMessage(), Set.of());
+            }
+            validate(user);
+            return user;
+        });
+    }
+
+    /**
+     * {@code POST /api/users/bulk}: one user per line, written like {@link #replace} when it
+     * has an id and created when it has none. Blank lines are skipped. Each batch commits
+     * on its own, so rows before a failure that ends the stream stay written.
+     */
+    public BulkWriteResult writeAll(InputStream ndjson) throws IOException {
+        long start = System.nanoTime();
+        Tally tally = new Tally();
+        List<User> batch = new ArrayList<>(batchSize);
+        List<Long> lines = new ArrayList<>(batchSize);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(ndjson, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            tally.rows++;
+            BulkRow row;
+            try {
+                row = objectMapper.readValue(line, BulkRow.class);
+            } catch (JsonProcessingException e) {
+                tally.refuse(new RowError(lineNumber, null, INVALID, null, "Malformed JSON: " + e.getOriginalMessage()));
+                continue;
+            }
+            if (row == null) {
+                tally.refuse(new RowError(lineNumber, null, INVALID, null, "Expected a JSON object"));
+                continue;
+            }
+            User user = toUser(row.getId(), row);
+            ConstraintViolation<User> violation = firstViolation(user);
+            if (violation != null) {
+                tally.refuse(new RowError(lineNumber, user.getId(), INVALID,
+                        violation.getPropertyPath().toString(), violation.getMessage()));
+                continue;
+            }
+            batch.add(user);
+            lines.add(lineNumber);
+            if (batch.size() == batchSize) {
+                write(batch, lines, tally);
+                batch.clear();
+                lines.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, lines, tally);
+        }
+
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Bulk write of {} rows in {} ms: {} created, {} updated, {} failed",
+                tally.rows, millis, tally.created, tally.updated, tally.failed);
+        return new BulkWriteResult(tally.rows, tally.created, tally.updated, tally.failed, tally.errors);
+    }
+
+    /**
+     * Writes one batch. If the store itself rejects a key, which only happens when a write
+     * outside {@link UserService}'s checks claimed it meanwhile, the batch has been rolled
+     * back and its rows are retried one per transaction so the refusal lands on the right row.
+     */
+    private void write(List<User> batch, List<Long> lines, Tally tally) {
+        List<Long> ids = batch.stream().map(User::getId).toList();
+        List<UserService.WriteOutcome> outcomes;
+        long start = System.nanoTime();
+        try {
+            outcomes = userService.writeUsers(batch);
+        } catch (DataIntegrityViolationException e) {
+            // Users created by the rolled back transaction may have been given ids
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(ids.get(i));
+            }
+            if (batch.size() == 1) {
+                tally.refuse(new RowError(lines.get(0), ids.get(0), CONFLICT, null,
+                        "email or ssn already belongs to another user"));
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                write(List.of(batch.get(i)), List.of(lines.get(i)), tally);
+            }
+            return;
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        for (int i = 0; i < outcomes.size(); i++) {
+            UserService.WriteOutcome outcome = outcomes.get(i);
+            switch (outcome.status()) {
+                case CREATED -> tally.count(CREATED);
+                case UPDATED -> tally.count(UPDATED);
+                case NOT_FOUND -> tally.refuse(new RowError(lines.get(i), ids.get(i), NOT_FOUND,
+                        outcome.field(), outcome.message()));
+                case CONFLICT -> tally.refuse(new RowError(lines.get(i), ids.get(i), CONFLICT,
+                        outcome.field(), outcome.message()));
+            }
+        }
+    }
+
+    private static User toUser(Long id, UserRequestDto request) {
+        User user = new User();
+        user.setId(id);
+        user.setFirstName(request.getFirstName());
+        user.setLastName(request.getLastName());
+        user.setSsn(request.getSsn());
+        user.setEmail(request.getEmail());
+        user.setAge(request.getAge());
+        user.setRole(request.getRole());
+        user.setPhone(request.getPhone());
+        user.setUsername(request.getUsername());
+        user.setBirthDate(request.getBirthDate());
+        user.setGender(request.getGender());
+        user.setCity(request.getCity());
+        user.setState(request.getState());
+        user.setLatitude(request.getLatitude());
+        user.setLongitude(request.getLongitude());
+        return user;
+    }
+
+    private void validate(User user) {
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+
+    /**
+     * The violation of the first field in name order, so a row reports the same one every time.
+     */
+    private ConstraintViolation<User> firstViolation(User user) {
+        return validator.validate(user).stream()
+                .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .orElse(null);
+    }
+
+    private final class Tally {
+
+        long rows;
+        long created;
+        long updated;
+        long failed;
+        final List<RowError> errors = new ArrayList<>();
+
+        void count(String outcome) {
+            if (outcome.equals(CREATED)) {
+                created++;
+            } else {
+                updated++;
+            }
+            rowCounters.get(outcome).increment();
+        }
+
+        void refuse(RowError error) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+            rowCounters.get(error.error()).increment();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.usermanagement.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rows by age: one {@link RowBitmap} per year from 0 to {@link #MAX_AGE}, built with a
+ * single counting pass. A range is the union of its years' bitmaps, so it costs the size of
+ * the result, and cumulative counts per year form a histogram that counts any range with a
+ * subtraction. The rare ages outside the buckets are kept aside and checked one by one.
+ */
+final class AgeIndex {
+
+    static final int MAX_AGE = 150;
+
+    private final int[] ages;
+    private final RowBitmap[] rowsByAge = new RowBitmap[MAX_AGE + 1];
+    private final int[] cumulative = new int[MAX_AGE + 2];
+    private final int[] outliers;
+
+    /**
+     * @param ages per-row age, {@link ColumnarUserTable#NULL_AGE} if unknown; kept by
+     *             reference, not copied
+     */
+    AgeIndex(int[] ages) {
+        this.ages = ages;
+        RowBitmap.Builder[] builders = new RowBitmap.Builder[MAX_AGE + 1];
+        for (int age = 0; age <= MAX_AGE; age++) {
+            builders[age] = new RowBitmap.Builder();
+        }
+        IntList outside = new IntList();
+        for (int row = 0; row < ages.length; row++) {
+            int age = ages[row];
+            if (age >= 0 && age <= MAX_AGE) {
+                builders[age].add(row);
+            } else if (age != ColumnarUserTable.NULL_AGE) {
+                outside.add(row);
+            }
+        }
+        for (int age = 0; age <= MAX_AGE; age++) {
+            rowsByAge[age] = builders[age].build();
+            cumulative[age + 1] = cumulative[age] + rowsByAge[age].cardinality();
+        }
+        outliers = outside.toArray();
+    }
+
+    /**
+     * Number of rows aged {@code minAge} to {@code maxAge} inclusive, from the histogram;
+     * a null bound is open.
+     */
+    int count(Integer minAge, Integer maxAge) {
+        int from = from(minAge);
+        int to = to(maxAge);
+        int count = from <= to ? cumulative[to + 1] - cumulative[from] : 0;
+        for (int row : outliers) {
+            if (within(ages[row], minAge, maxAge)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Rows aged {@code minAge} to {@code maxAge} inclusive; a null bound is open.
+     */
+    RowBitmap rows(Integer minAge, Integer maxAge) {
+        List<RowBitmap> bitmaps = new ArrayList<>();
+        for (int age = from(minAge); age <= to(maxAge); age++) {
+            bitmaps.add(rowsByAge[age]);
+        }
+        IntList outside = new IntList();
+        for (int row : outliers) {
+            if (within(ages[row], minAge, maxAge)) {
+                outside.add(row);
+            }
+        }
+        if (outside.size() > 0) {
+            bitmaps.add(RowBitmap.of(outside.toArray()));
+        }
+        return RowBitmap.union(bitmaps);
+    }
+
+    long memoryBytes() {
+        long bytes = (long) (cumulative.length + outliers.length) * Integer.BYTES;
+        for (RowBitmap rows : rowsByAge) {
+            bytes += rows.memoryBytes();
+        }
+        return bytes;
+    }
+
+    static boolean within(int age, Integer minAge, Integer maxAge) {
+        return (minAge == null || age >= minAge) && (maxAge == null || age <= maxAge);
+    }
+
+    private static int from(Integer minAge) {
+        return minAge == null ? 0 : Math.max(0, minAge);
+    }
+
+    private static int to(Integer maxAge) {
+        return maxAge == null ? MAX_AGE : Math.min(MAX_AGE, maxAge);
+    }
+}
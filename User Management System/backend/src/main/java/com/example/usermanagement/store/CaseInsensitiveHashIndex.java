@@ -0,0 +1,71 @@
+package com.example.usermanagement.store;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Open-addressing hash map from the lower-cased values of a {@link Latin1Column} to row
+ * numbers. Only row numbers and hashes are stored; keys are compared against the column's
+ * bytes, so the index keeps no {@code String} per row. When two rows share a value the one
+ * put last wins.
+ */
+final class CaseInsensitiveHashIndex {
+
+    static final int MISSING = -1;
+
+    private final Latin1Column column;
+    private final int[] hashes;
+    private final int[] rows;
+    private final int mask;
+
+    CaseInsensitiveHashIndex(Latin1Column column) {
+        this.column = column;
+        int capacity = Integer.highestOneBit(Math.max(4, column.cardinality() * 2 - 1)) << 1;
+        this.hashes = new int[capacity];
+        this.rows = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(rows, MISSING);
+        for (int row = 0; row < column.cardinality(); row++) {
+            if (column.code(row) != DictionaryColumn.NULL_CODE) {
+                put(row);
+            }
+        }
+    }
+
+    /**
+     * Row whose value equals {@code lowerValue} after lower-casing, or {@link #MISSING}.
+     */
+    int get(String lowerValue) {
+        int hash = lowerValue.hashCode();
+        int slot = mix(hash) & mask;
+        while (rows[slot] != MISSING) {
+            if (hashes[slot] == hash && column.equalsLowerCase(rows[slot], lowerValue)) {
+                return rows[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    long memoryBytes() {
+        return (long) hashes.length * Integer.BYTES + (long) rows.length * Integer.BYTES;
+    }
+
+    private void put(int row) {
+        int hash = column.lowerCaseHash(row);
+        int slot = mix(hash) & mask;
+        while (rows[slot] != MISSING) {
+            if (hashes[slot] == hash && column.equalsLowerCase(rows[slot], column.get(row).toLowerCase(Locale.ROOT))) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        hashes[slot] = hash;
+        rows[slot] = row;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
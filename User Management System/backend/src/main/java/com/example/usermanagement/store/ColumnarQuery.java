@@ -0,0 +1,166 @@
+package com.example.usermanagement.store;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+import static com.example.usermanagement.store.DictionaryColumn.hit;
+
+/**
+ * Evaluates a {@link UserQuery} on one {@link ColumnarUserTable} as {@link RowBitmap}s.
+ * Every condition is an index lookup; AND intersects, OR unions. The operands of an AND
+ * run smallest first and each one only sees the rows the previous ones left: once those
+ * are far fewer than a condition's own rows, the condition checks them one by one instead
+ * of materializing its posting lists, and text terms scan just those rows. A compound
+ * query therefore costs about the size of its most selective condition.
+ */
+final class ColumnarQuery {
+
+    /**
+     * A condition probes the surviving rows rather than build its bitmap once they are at
+     * least this many times fewer than its own rows.
+     */
+    private static final int PROBE_RATIO = 8;
+
+    private final ColumnarUserTable table;
+    private final Map<UserQuery.Term, Long> exactIds;
+
+    /**
+     * @param exactIds ids of the users full-text terms name exactly by id or email, across
+     *                 all shards; such a term matches that user and nobody else
+     */
+    ColumnarQuery(ColumnarUserTable table, Map<UserQuery.Term, Long> exactIds) {
+        this.table = table;
+        this.exactIds = exactIds;
+    }
+
+    /**
+     * Rows matching the query, in id order.
+     */
+    RowBitmap evaluate(UserQuery query) {
+        return evaluate(query, null);
+    }
+
+    /**
+     * Number of rows matching the query. A single role, gender or age range is counted
+     * from its index without building the rows.
+     */
+    int count(UserQuery query) {
+        if (query instanceof UserQuery.Role || query instanceof UserQuery.Gender
+                || query instanceof UserQuery.Age) {
+            return (int) estimate(query);
+        }
+        return evaluate(query).cardinality();
+    }
+
+    /**
+     * @param candidates rows the result is restricted to, or {@code null} for all rows
+     */
+    private RowBitmap evaluate(UserQuery query, RowBitmap candidates) {
+        if (query instanceof UserQuery.And and) {
+            return and(and.operands(), candidates);
+        }
+        if (query instanceof UserQuery.Or or) {
+            List<RowBitmap> rows = new ArrayList<>(or.operands().size());
+            for (UserQuery operand : or.operands()) {
+                rows.add(evaluate(operand, candidates));
+            }
+            return RowBitmap.union(rows);
+        }
+        if (query instanceof UserQuery.Term term) {
+            return term(term, candidates);
+        }
+        if (candidates != null && (long) candidates.cardinality() * PROBE_RATIO < estimate(query)) {
+            return candidates.filter(test(query));
+        }
+        RowBitmap rows = lookup(query);
+        return candidates == null ? rows : candidates.and(rows);
+    }
+
+    private RowBitmap and(List<UserQuery> operands, RowBitmap candidates) {
+        List<UserQuery> ordered = new ArrayList<>(operands);
+        // Terms scan rows, so they go last and see as few as possible
+        ordered.sort(Comparator.comparing(UserQuery::containsTerm).thenComparingLong(this::estimate));
+        RowBitmap rows = candidates;
+        for (UserQuery operand : ordered) {
+            rows = evaluate(operand, rows);
+            if (rows.isEmpty()) {
+                break;
+            }
+        }
+        return rows;
+    }
+
+    private RowBitmap term(UserQuery.Term term, RowBitmap candidates) {
+        Long exactId = term.fullText() ? exactIds.get(term) : null;
+        if (exactId != null) {
+            int row = table.rowOfId(exactId);
+            boolean hit = row >= 0 && (candidates == null || candidates.contains(row));
+            return hit ? RowBitmap.of(new int[] {row}) : RowBitmap.EMPTY;
+        }
+        int[] rows = candidates == null ? null : candidates.toArray();
+        return RowBitmap.of(term.fullText()
+                ? ColumnarSearch.scanFullText(table, term.text(), rows)
+                : ColumnarSearch.basicSearch(table, term.text(), rows));
+    }
+
+    /**
+     * Rows the query matches, or an upper bound on them, from index counts alone.
+     */
+    private long estimate(UserQuery query) {
+        if (query instanceof UserQuery.Role role) {
+            return table.rolePostings.count(table.role.match(role.name()::equalsIgnoreCase));
+        }
+        if (query instanceof UserQuery.Gender gender) {
+            return table.genderPostings.count(table.gender.match(gender.name()::equalsIgnoreCase));
+        }
+        if (query instanceof UserQuery.Age age) {
+            return table.ageIndex.count(age.min(), age.max());
+        }
+        if (query instanceof UserQuery.SsnPrefix ssn) {
+            return table.ssnIndex.estimate(ssn.digits());
+        }
+        if (query instanceof UserQuery.And and) {
+            return and.operands().stream().mapToLong(this::estimate).min().orElse(0);
+        }
+        if (query instanceof UserQuery.Or or) {
+            return Math.min(table.size, or.operands().stream().mapToLong(this::estimate).sum());
+        }
+        return table.size;
+    }
+
+    private RowBitmap lookup(UserQuery query) {
+        if (query instanceof UserQuery.Role role) {
+            return table.rolePostings.rows(table.role.match(role.name()::equalsIgnoreCase));
+        }
+        if (query instanceof UserQuery.Gender gender) {
+            return table.genderPostings.rows(table.gender.match(gender.name()::equalsIgnoreCase));
+        }
+        if (query instanceof UserQuery.Age age) {
+            return table.ageIndex.rows(age.min(), age.max());
+        }
+        return table.ssnIndex.rows(((UserQuery.SsnPrefix) query).digits());
+    }
+
+    /**
+     * The condition checked against a single row's column values.
+     */
+    private IntPredicate test(UserQuery query) {
+        if (query instanceof UserQuery.Role role) {
+            boolean[] codes = table.role.match(role.name()::equalsIgnoreCase);
+            return row -> hit(codes, table.role.code(row));
+        }
+        if (query instanceof UserQuery.Gender gender) {
+            boolean[] codes = table.gender.match(gender.name()::equalsIgnoreCase);
+            return row -> hit(codes, table.gender.code(row));
+        }
+        if (query instanceof UserQuery.Age age) {
+            return row -> table.ages[row] != ColumnarUserTable.NULL_AGE
+                    && AgeIndex.within(table.ages[row], age.min(), age.max());
+        }
+        String digits = ((UserQuery.SsnPrefix) query).digits();
+        return row -> table.ssn.startsWithIgnoringDashes(row, digits);
+    }
+}
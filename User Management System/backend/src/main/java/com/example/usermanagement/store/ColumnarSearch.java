@@ -0,0 +1,250 @@
+package com.example.usermanagement.store;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static com.example.usermanagement.store.DictionaryColumn.hit;
+
+/**
+ * Search over a {@link ColumnarUserTable} with the same matching rules as the JPQL in
+ * {@link com.example.usermanagement.repository.UserSearchRepository} and
+ * {@link com.example.usermanagement.repository.UserRepository#findBySearchTerm(String)}.
+ * Substring predicates are evaluated once per dictionary entry, or once per row on the
+ * byte arenas of {@link Latin1Column}s; the row scan then only reads {@code int} codes.
+ * Scans take an optional ascending list of candidate rows, as left by the other conditions
+ * of a {@link ColumnarQuery}, and then read only those rows; {@code null} means all rows.
+ */
+final class ColumnarSearch {
+
+    private ColumnarSearch() {}
+
+    /**
+     * Returns matching rows in id order.
+     */
+    static int[] fullTextSearch(ColumnarUserTable table, String searchTerm) {
+        int exact = exactMatch(table, searchTerm);
+        return exact >= 0 ? new int[] {exact} : scanFullText(table, searchTerm, null);
+    }
+
+    /**
+     * Row of the user a single-word term names by id or email, or {@code -1}. Such a hit
+     * is the whole result of a full-text search.
+     */
+    static int exactMatch(ColumnarUserTable table, String searchTerm) {
+        String term = searchTerm.trim();
+        if (term.split("\\s+").length != 1) {
+            return -1;
+        }
+        if (term.matches("^\\d+$")) {
+            try {
+                int row = table.rowOfId(Long.parseLong(term));
+                if (row >= 0) {
+                    return row;
+                }
+            } catch (NumberFormatException e) {
+                // Continue with regular search
+            }
+        }
+        if (term.contains("@")) {
+            return table.rowOfEmailIgnoreCase(term);
+        }
+        return -1;
+    }
+
+    /**
+     * The substring part of {@link #fullTextSearch}, without the id and email shortcuts.
+     * Returns matching rows in id order.
+     */
+    static int[] scanFullText(ColumnarUserTable table, String searchTerm, int[] candidates) {
+        String cleanTerm = searchTerm.trim();
+        String[] searchWords = cleanTerm.split("\\s+");
+        if (searchWords.length == 1) {
+            return singleWordScan(table, cleanTerm, candidates);
+        }
+
+        List<String> nameWords = new ArrayList<>();
+        List<String> ssnWords = new ArrayList<>();
+        for (String word : searchWords) {
+            if (word.matches(".*\\d.*")) {
+                ssnWords.add(word);
+            } else {
+                nameWords.add(word.toLowerCase(Locale.ROOT));
+            }
+        }
+
+        NameMatcher names = nameWords.isEmpty() ? null : new NameMatcher(table, nameWords);
+        SsnMatcher ssns = ssnWords.isEmpty() ? null : new SsnMatcher(table, ssnWords, candidates);
+
+        IntList rows = new IntList();
+        for (int i = 0; i < count(table, candidates); i++) {
+            int row = row(candidates, i);
+            boolean matches;
+            if (names != null && ssns != null) {
+                matches = names.matchesAll(row) && ssns.matchesAny(row);
+            } else if (nameWords.size() > 1) {
+                matches = names.matchesAll(row);
+            } else if (names != null) {
+                matches = names.matchesWord(0, row);
+            } else {
+                matches = ssns.matchesAny(row);
+            }
+            if (matches) {
+                rows.add(row);
+            }
+        }
+        return rows.toArray();
+    }
+
+    /**
+     * Basic search used for short terms; returns matching rows in id order.
+     */
+    static int[] basicSearch(ColumnarUserTable table, String searchTerm, int[] candidates) {
+        String lowerTerm = searchTerm.toLowerCase(Locale.ROOT);
+        String digitsTerm = searchTerm.replace("-", "");
+        boolean[] firstNames = table.firstName.matchNormalized(value -> value.contains(lowerTerm));
+        boolean[] lastNames = table.lastName.matchNormalized(value -> value.contains(lowerTerm));
+        boolean[] ssns = or(table.ssn.matchContains(searchTerm, candidates),
+                table.ssn.matchContainsIgnoringDashes(digitsTerm, candidates));
+
+        IntList rows = new IntList();
+        for (int i = 0; i < count(table, candidates); i++) {
+            int row = row(candidates, i);
+            if (hit(firstNames, table.firstName.code(row))
+                    || hit(lastNames, table.lastName.code(row))
+                    || hit(ssns, table.ssn.code(row))
+                    || fullNameContains(table, row, lowerTerm)) {
+                rows.add(row);
+            }
+        }
+        return rows.toArray();
+    }
+
+    private static int[] singleWordScan(ColumnarUserTable table, String term, int[] candidates) {
+        String lowerTerm = term.toLowerCase(Locale.ROOT);
+        String digitsTerm = term.replace("-", "");
+        boolean[] firstNames = table.firstName.matchNormalized(value -> value.contains(lowerTerm));
+        boolean[] lastNames = table.lastName.matchNormalized(value -> value.contains(lowerTerm));
+        boolean[] emails = table.email.matchContainsIgnoreCase(lowerTerm, candidates);
+        boolean[] ssns = or(table.ssn.matchContains(term, candidates),
+                table.ssn.matchContainsIgnoringDashes(digitsTerm, candidates));
+
+        IntList rows = new IntList();
+        for (int i = 0; i < count(table, candidates); i++) {
+            int row = row(candidates, i);
+            if (hit(firstNames, table.firstName.code(row))
+                    || hit(lastNames, table.lastName.code(row))
+                    || hit(emails, table.email.code(row))
+                    || hit(ssns, table.ssn.code(row))) {
+                rows.add(row);
+            }
+        }
+        return rows.toArray();
+    }
+
+    private static int count(ColumnarUserTable table, int[] candidates) {
+        return candidates == null ? table.size : candidates.length;
+    }
+
+    private static int row(int[] candidates, int index) {
+        return candidates == null ? index : candidates[index];
+    }
+
+    private static boolean fullNameContains(ColumnarUserTable table, int row, String lowerTerm) {
+        String first = nullToEmpty(table.firstName.normalized(row));
+        String last = nullToEmpty(table.lastName.normalized(row));
+        return containsJoined(first, last, lowerTerm) || containsJoined(last, first, lowerTerm);
+    }
+
+    /**
+     * {@code (a + " " + b).contains(needle)} without building the concatenated string.
+     */
+    static boolean containsJoined(String a, String b, String needle) {
+        int total = a.length() + 1 + b.length();
+        outer:
+        for (int start = 0; start + needle.length() <= total; start++) {
+            for (int k = 0; k < needle.length(); k++) {
+                if (charAtJoined(a, b, start + k) != needle.charAt(k)) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static char charAtJoined(String a, String b, int index) {
+        if (index < a.length()) {
+            return a.charAt(index);
+        }
+        return index == a.length() ? ' ' : b.charAt(index - a.length() - 1);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    private static boolean[] or(boolean[] left, boolean[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] |= right[i];
+        }
+        return left;
+    }
+
+    /**
+     * Every name word must match first or last name, or the words joined by spaces must
+     * appear in the full name in either order.
+     */
+    private static final class NameMatcher {
+
+        private final ColumnarUserTable table;
+        private final String fullName;
+        private final boolean[][] firstNames;
+        private final boolean[][] lastNames;
+
+        NameMatcher(ColumnarUserTable table, List<String> lowerWords) {
+            this.table = table;
+            this.fullName = String.join(" ", lowerWords);
+            this.firstNames = new boolean[lowerWords.size()][];
+            this.lastNames = new boolean[lowerWords.size()][];
+            for (int i = 0; i < lowerWords.size(); i++) {
+                String word = lowerWords.get(i);
+                firstNames[i] = table.firstName.matchNormalized(value -> value.contains(word));
+                lastNames[i] = table.lastName.matchNormalized(value -> value.contains(word));
+            }
+        }
+
+        boolean matchesWord(int word, int row) {
+            return hit(firstNames[word], table.firstName.code(row)) || hit(lastNames[word], table.lastName.code(row));
+        }
+
+        boolean matchesAll(int row) {
+            boolean all = true;
+            for (int word = 0; word < firstNames.length && all; word++) {
+                all = matchesWord(word, row);
+            }
+            return all || fullNameContains(table, row, fullName);
+        }
+    }
+
+    private static final class SsnMatcher {
+
+        private final ColumnarUserTable table;
+        private final boolean[] matches;
+
+        SsnMatcher(ColumnarUserTable table, List<String> words, int[] candidates) {
+            this.table = table;
+            boolean[] any = new boolean[table.ssn.cardinality()];
+            for (String word : words) {
+                String digits = word.replace("-", "");
+                or(any, table.ssn.matchContains(word, candidates));
+                or(any, table.ssn.matchContainsIgnoringDashes(digits, candidates));
+            }
+            this.matches = any;
+        }
+
+        boolean matchesAny(int row) {
+            return hit(matches, table.ssn.code(row));
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.example.usermanagement.store;
+
+import com.example.usermanagement.entity.User;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.function.LongPredicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Immutable column-wise user table. Ids and ages live in primitive arrays, low-cardinality
+ * strings are dictionary-encoded, per-user strings sit in Latin-1 byte arenas and birth
+ * dates are packed into an {@code int}. Rows are kept in id order so scans return results
+ * the way the JPA queries do ({@code ORDER BY u.id}). Point lookups go through
+ * open-addressing hash indexes on id and lower-cased email; coordinates are held in
+ * microdegrees (exact for the six decimals DummyJSON sends) and indexed by a
+ * {@link GeoGridIndex}. Names, role and gender have a {@link PostingIndex}, ages an
+ * {@link AgeIndex} and SSNs a {@link SsnPrefixIndex}; each yields the matching rows as a
+ * {@link RowBitmap} for {@link ColumnarQuery} to combine.
+ */
+final class ColumnarUserTable {
+
+    static final int NULL_AGE = Integer.MIN_VALUE;
+    static final int NULL_COORDINATE = Integer.MIN_VALUE;
+
+
+    private static final UnaryOperator<String> LOWER = value -> value.toLowerCase(Locale.ROOT);
+
+    private static final ColumnarUserTable EMPTY = builder(0).build();
+
+    final int size;
+    final long[] ids;
+    final int[] ages;
+    final DictionaryColumn firstName;
+    final DictionaryColumn lastName;
+    final Latin1Column ssn;
+    final Latin1Column email;
+    final DictionaryColumn role;
+    final Latin1Column phone;
+    final Latin1Column username;
+    final PackedDateColumn birthDate;
+    final DictionaryColumn gender;
+    final DictionaryColumn city;
+    final DictionaryColumn state;
+    final int[] latitudes;
+    final int[] longitudes;
+    final GeoGridIndex geoIndex;
+    final PostingIndex rolePostings;
+    final PostingIndex genderPostings;
+    final AgeIndex ageIndex;
+    final SsnPrefixIndex ssnIndex;
+
+    private final IdHashIndex idIndex;
+    private final CaseInsensitiveHashIndex emailIndex;
+    private final PostingIndex firstNamePostings;
+    private final PostingIndex lastNamePostings;
+    private final PhoneticIndex firstNamePhonetic;
+    private final PhoneticIndex lastNamePhonetic;
+
+    private ColumnarUserTable(long[] ids, int[] ages, DictionaryColumn firstName, DictionaryColumn lastName,
+                              Latin1Column ssn, Latin1Column email, DictionaryColumn role,
+                              Latin1Column phone, Latin1Column username, PackedDateColumn birthDate,
+                              DictionaryColumn gender, DictionaryColumn city, DictionaryColumn state,
+                              int[] latitudes, int[] longitudes) {
+        this.size = ids.length;
+        this.ids = ids;
+        this.ages = ages;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.ssn = ssn;
+        this.email = email;
+        this.role = role;
+        this.phone = phone;
+        this.username = username;
+        this.birthDate = birthDate;
+        this.gender = gender;
+        this.city = city;
+        this.state = state;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+
+        this.idIndex = new IdHashIndex(ids);
+        this.emailIndex = new CaseInsensitiveHashIndex(email);
+        this.firstNamePostings = new PostingIndex(firstName, size);
+        this.lastNamePostings = new PostingIndex(lastName, size);
+        this.firstNamePhonetic = new PhoneticIndex(firstName, firstNamePostings);
+        this.lastNamePhonetic = new PhoneticIndex(lastName, lastNamePostings);
+        this.geoIndex = new GeoGridIndex(latitudes, longitudes);
+        this.rolePostings = new PostingIndex(role, size);
+        this.genderPostings = new PostingIndex(gender, size);
+        this.ageIndex = new AgeIndex(ages);
+        this.ssnIndex = new SsnPrefixIndex(ssn);
+    }
+
+    static ColumnarUserTable empty() {
+        return EMPTY;
+    }
+
+    static Builder builder(int expectedRows) {
+        return new Builder(expectedRows);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int rowOfId(long id) {
+        return idIndex.get(id);
+    }
+
+    /**
+     * Row of the user whose email equals the given one ignoring case, or {@code -1}.
+     */
+    int rowOfEmailIgnoreCase(String value) {
+        return emailIndex.get(value.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Row of the user whose SSN equals the given one, or {@code -1}; only the candidates of
+     * the prefix index are compared.
+     */
+    int rowOfSsn(String value) {
+        for (int row : ssnIndex.candidates(value)) {
+            if (value.equals(ssn.get(row))) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rows whose first or last name has one of the given Double Metaphone keys, in id order.
+     */
+    int[] rowsWithPhoneticKey(Collection<String> keys) {
+        return firstNamePhonetic.rows(keys).or(lastNamePhonetic.rows(keys)).toArray();
+    }
+
+    /**
+     * Rows located inside the box, in id order.
+     */
+    int[] rowsInBox(GeoMath.Box box) {
+        IntList candidates = new IntList();
+        geoIndex.collect(floorMicro(box.minLatitude()), floorMicro(box.minLongitude()),
+                ceilMicro(box.maxLatitude()), ceilMicro(box.maxLongitude()), candidates);
+        IntList rows = new IntList(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            int row = candidates.get(i);
+            if (box.contains(latitude(row), longitude(row))) {
+                rows.add(row);
+            }
+        }
+        int[] sorted = rows.toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    static int floorMicro(double degrees) {
+        return (int) Math.floor(degrees * 1e6);
+    }
+
+    static int ceilMicro(double degrees) {
+        return (int) Math.ceil(degrees * 1e6);
+    }
+
+    double latitude(int row) {
+        return latitudes[row] / 1e6;
+    }
+
+    double longitude(int row) {
+        return longitudes[row] / 1e6;
+    }
+
+    /**
+     * Estimated heap held by the columns and indexes, excluding object headers of the
+     * arrays themselves.
+     */
+    long memoryBytes() {
+        return (long) size * (Long.BYTES + 3 * Integer.BYTES)
+                + firstName.memoryBytes() + lastName.memoryBytes() + ssn.memoryBytes() + email.memoryBytes()
+                + role.memoryBytes() + phone.memoryBytes() + username.memoryBytes() + birthDate.memoryBytes()
+                + gender.memoryBytes() + idIndex.memoryBytes() + emailIndex.memoryBytes()
+                + firstNamePostings.memoryBytes() + lastNamePostings.memoryBytes()
+                + firstNamePhonetic.memoryBytes() + lastNamePhonetic.memoryBytes()
+                + city.memoryBytes() + state.memoryBytes() + geoIndex.memoryBytes()
+                + rolePostings.memoryBytes() + genderPostings.memoryBytes()
+                + ageIndex.memoryBytes() + ssnIndex.memoryBytes();
+    }
+
+    User toUser(int row) {
+        User user = new User();
+        user.setId(ids[row]);
+        user.setFirstName(firstName.get(row));
+        user.setLastName(lastName.get(row));
+        user.setSsn(ssn.get(row));
+        user.setEmail(email.get(row));
+        user.setAge(ages[row] == NULL_AGE ? null : ages[row]);
+        user.setRole(role.get(row));
+        user.setPhone(phone.get(row));
+        user.setUsername(username.get(row));
+        user.setBirthDate(birthDate.get(row));
+        user.setGender(gender.get(row));
+        user.setCity(city.get(row));
+        user.setState(state.get(row));
+        if (latitudes[row] != NULL_COORDINATE) {
+            user.setLatitude(latitude(row));
+            user.setLongitude(longitude(row));
+        }
+        return user;
+    }
+
+    static final class Builder {
+
+        private final LongList ids;
+        private final IntList ages;
+        private final DictionaryColumn.Builder firstName;
+        private final DictionaryColumn.Builder lastName;
+        private final Latin1Column.Builder ssn;
+        private final Latin1Column.Builder email;
+        private final DictionaryColumn.Builder role;
+        private final Latin1Column.Builder phone;
+        private final Latin1Column.Builder username;
+        private final PackedDateColumn.Builder birthDate;
+        private final DictionaryColumn.Builder gender;
+        private final DictionaryColumn.Builder city;
+        private final DictionaryColumn.Builder state;
+        private final IntList latitudes;
+        private final IntList longitudes;
+
+        private Builder(int expectedRows) {
+            ids = new LongList(expectedRows);
+            ages = new IntList(expectedRows);
+            firstName = new DictionaryColumn.Builder(expectedRows, LOWER);
+            lastName = new DictionaryColumn.Builder(expectedRows, LOWER);
+            ssn = new Latin1Column.Builder(expectedRows);
+            email = new Latin1Column.Builder(expectedRows);
+            role = new DictionaryColumn.Builder(expectedRows, null);
+            phone = new Latin1Column.Builder(expectedRows);
+            username = new Latin1Column.Builder(expectedRows);
+            birthDate = new PackedDateColumn.Builder(expectedRows);
+            gender = new DictionaryColumn.Builder(expectedRows, null);
+            city = new DictionaryColumn.Builder(expectedRows, null);
+            state = new DictionaryColumn.Builder(expectedRows, null);
+            latitudes = new IntList(expectedRows);
+            longitudes = new IntList(expectedRows);
+        }
+
+        Builder add(User user) {
+            if (user.getId() == null) {
+                throw new IllegalArgumentException("In-memory store requires users with an id");
+            }
+            ids.add(user.getId());
+            ages.add(user.getAge() == null ? NULL_AGE : user.getAge());
+            firstName.add(user.getFirstName());
+            lastName.add(user.getLastName());
+            ssn.add(user.getSsn());
+            email.add(user.getEmail());
+            role.add(user.getRole());
+            phone.add(user.getPhone());
+            username.add(user.getUsername());
+            birthDate.add(user.getBirthDate());
+            gender.add(user.getGender());
+            city.add(user.getCity());
+            state.add(user.getState());
+            // Coordinates off the globe are treated as unknown rather than indexed
+            if (isCoordinate(user.getLatitude(), 90) && isCoordinate(user.getLongitude(), 180)) {
+                latitudes.add((int) Math.round(user.getLatitude() * 1e6));
+                longitudes.add((int) Math.round(user.getLongitude() * 1e6));
+            } else {
+                latitudes.add(NULL_COORDINATE);
+                longitudes.add(NULL_COORDINATE);
+            }
+            return this;
+        }
+
+        /**
+         * Copies the rows of an existing table whose id passes the filter.
+         */
+        Builder addRows(ColumnarUserTable table, LongPredicate keep) {
+            for (int row = 0; row < table.size; row++) {
+                if (keep.test(table.ids[row])) {
+                    add(table.toUser(row));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Sorts rows by id; when an id was added more than once the last one wins.
+         */
+        ColumnarUserTable build() {
+            long[] added = ids.toArray();
+            LongIntHashIndex lastPosition = new LongIntHashIndex(added.length);
+            for (int i = 0; i < added.length; i++) {
+                lastPosition.put(added[i], i);
+            }
+            long[] sorted = added.clone();
+            Arrays.sort(sorted);
+            int unique = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {
+                    sorted[unique++] = sorted[i];
+                }
+            }
+            long[] rowIds = Arrays.copyOf(sorted, unique);
+            int[] order = new int[unique];
+            int[] rowAges = new int[unique];
+            int[] rowLatitudes = new int[unique];
+            int[] rowLongitudes = new int[unique];
+            for (int row = 0; row < unique; row++) {
+                order[row] = lastPosition.get(rowIds[row]);
+                rowAges[row] = ages.get(order[row]);
+                rowLatitudes[row] = latitudes.get(order[row]);
+                rowLongitudes[row] = longitudes.get(order[row]);
+            }
+            return new ColumnarUserTable(rowIds, rowAges,
+                    firstName.build(order), lastName.build(order), ssn.build(order), email.build(order),
+                    role.build(order), phone.build(order), username.build(order), birthDate.build(order),
+                    gender.build(order), city.build(order), state.build(order), rowLatitudes, rowLongitudes);
+        }
+
+        private static boolean isCoordinate(Double value, double bound) {
+            return value != null && value >= -bound && value <= bound;
+        }
+    }
+}
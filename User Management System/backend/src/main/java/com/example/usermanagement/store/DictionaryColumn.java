@@ -0,0 +1,143 @@
+package com.example.usermanagement.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Dictionary-encoded string column: every distinct value is stored once and rows hold an
+ * {@code int} code into the dictionary. Predicates are evaluated once per distinct value
+ * rather than once per row, which is what makes scans over low-cardinality columns cheap.
+ * An optional normalized copy of the dictionary (e.g. lower case) is kept for searching.
+ */
+final class DictionaryColumn {
+
+    static final int NULL_CODE = -1;
+
+    private final String[] dictionary;
+    private final String[] normalized;
+    private final int[] codes;
+
+    private DictionaryColumn(String[] dictionary, String[] normalized, int[] codes) {
+        this.dictionary = dictionary;
+        this.normalized = normalized;
+        this.codes = codes;
+    }
+
+    String get(int row) {
+        int code = codes[row];
+        return code == NULL_CODE ? null : dictionary[code];
+    }
+
+    String normalized(int row) {
+        int code = codes[row];
+        return code == NULL_CODE ? null : normalized[code];
+    }
+
+    /**
+     * The raw value behind a dictionary code.
+     */
+    String value(int code) {
+        return dictionary[code];
+    }
+
+    int code(int row) {
+        return codes[row];
+    }
+
+    int cardinality() {
+        return dictionary.length;
+    }
+
+    /**
+     * Evaluates the predicate against each distinct raw value; index the result by {@link #code(int)}.
+     */
+    boolean[] match(Predicate<String> predicate) {
+        return evaluate(dictionary, predicate);
+    }
+
+    /**
+     * Evaluates the predicate against each distinct normalized value.
+     */
+    boolean[] matchNormalized(Predicate<String> predicate) {
+        return evaluate(normalized, predicate);
+    }
+
+    static boolean hit(boolean[] matches, int code) {
+        return code != NULL_CODE && matches[code];
+    }
+
+    long memoryBytes() {
+        long bytes = (long) codes.length * Integer.BYTES;
+        for (int i = 0; i < dictionary.length; i++) {
+            bytes += estimateStringBytes(dictionary[i]);
+            if (normalized != dictionary && normalized[i] != dictionary[i]) {
+                bytes += estimateStringBytes(normalized[i]);
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateStringBytes(String value) {
+        // String header + byte[] header + Latin-1 payload, rounded to 8 bytes
+        return 24 + ((16 + value.length() + 7) & ~7);
+    }
+
+    private static boolean[] evaluate(String[] values, Predicate<String> predicate) {
+        boolean[] matches = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            matches[i] = predicate.test(values[i]);
+        }
+        return matches;
+    }
+
+    static final class Builder {
+
+        private final UnaryOperator<String> normalizer;
+        private final Map<String, Integer> codesByValue = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final IntList rowCodes;
+
+        Builder(int expectedRows, UnaryOperator<String> normalizer) {
+            this.normalizer = normalizer;
+            this.rowCodes = new IntList(expectedRows);
+        }
+
+        void add(String value) {
+            if (value == null) {
+                rowCodes.add(NULL_CODE);
+                return;
+            }
+            Integer code = codesByValue.get(value);
+            if (code == null) {
+                code = values.size();
+                codesByValue.put(value, code);
+                values.add(value);
+            }
+            rowCodes.add(code);
+        }
+
+        /**
+         * Builds the column with rows rearranged so that row {@code i} is the
+         * {@code order[i]}-th value that was added.
+         */
+        DictionaryColumn build(int[] order) {
+            String[] dictionary = values.toArray(new String[0]);
+            String[] normalizedValues = dictionary;
+            if (normalizer != null) {
+                normalizedValues = new String[dictionary.length];
+                for (int i = 0; i < dictionary.length; i++) {
+                    normalizedValues[i] = normalizer.apply(dictionary[i]);
+                }
+            }
+            int[] codes = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                codes[i] = rowCodes.get(order[i]);
+            }
+            return new DictionaryColumn(dictionary, normalizedValues, codes);
+        }
+    }
+}
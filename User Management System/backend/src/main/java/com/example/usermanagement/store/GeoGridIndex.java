@@ -0,0 +1,167 @@
+package com.example.usermanagement.store;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over latitude and longitude in cells of 0.05 degrees (about 5.5 km north to
+ * south). Only occupied cells are stored: their keys are sorted, row-major by latitude band,
+ * and point to a slice of a single row array, so the index costs one {@code int} per located
+ * row plus two per occupied cell. A box is walked band by band with one binary search each,
+ * touching only occupied cells. Within a cell rows are sorted by latitude, so a query that
+ * only needs a thin latitude strip of a crowded cell can binary-search into it.
+ *
+ * <p>Longitude cells wrap around the antimeridian; 180 and -180 share a cell.
+ */
+final class GeoGridIndex {
+
+    static final int MICRODEGREES_PER_CELL = 50_000;
+    private static final int LATITUDE_BANDS = 180_000_000 / MICRODEGREES_PER_CELL + 1;
+    private static final int LONGITUDE_CELLS = 360_000_000 / MICRODEGREES_PER_CELL;
+
+    private final int[] latitudes;
+    private final int[] cellKeys;
+    private final int[] cellStarts;
+    private final int[] rows;
+
+    /**
+     * @param latitudes  per-row latitude in microdegrees, {@link ColumnarUserTable#NULL_COORDINATE}
+     *                   if unknown; kept by reference, not copied
+     * @param longitudes per-row longitude in microdegrees
+     */
+    GeoGridIndex(int[] latitudes, int[] longitudes) {
+        this.latitudes = latitudes;
+        // Sorting cell << 32 | row groups rows by cell; each cell is then sorted by latitude
+        long[] entries = new long[latitudes.length];
+        int located = 0;
+        for (int row = 0; row < latitudes.length; row++) {
+            if (latitudes[row] != ColumnarUserTable.NULL_COORDINATE) {
+                int key = band(latitudes[row]) * LONGITUDE_CELLS + cell(longitudes[row]);
+                entries[located++] = (long) key << 32 | row;
+            }
+        }
+        Arrays.sort(entries, 0, located);
+
+        rows = new int[located];
+        IntList keys = new IntList();
+        IntList starts = new IntList();
+        for (int i = 0; i < located; i++) {
+            int key = (int) (entries[i] >>> 32);
+            if (i == 0 || key != keys.get(keys.size() - 1)) {
+                keys.add(key);
+                starts.add(i);
+            }
+            int row = (int) entries[i];
+            entries[i] = (long) latitudes[row] << 32 | row;
+        }
+        starts.add(located);
+        cellKeys = keys.toArray();
+        cellStarts = starts.toArray();
+        for (int cell = 0; cell < cellKeys.length; cell++) {
+            Arrays.sort(entries, cellStarts[cell], cellStarts[cell + 1]);
+            for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                rows[i] = (int) entries[i];
+            }
+        }
+    }
+
+    /**
+     * Adds every row in a cell that overlaps the box, a superset of the rows inside it.
+     * A box with {@code minLongitude > maxLongitude} crosses the antimeridian.
+     */
+    void collect(int minLatitude, int minLongitude, int maxLatitude, int maxLongitude, IntList candidates) {
+        IntList cells = new IntList();
+        occupiedCells(minLatitude, minLongitude, maxLatitude, maxLongitude, cells);
+        for (int i = 0; i < cells.size(); i++) {
+            int cell = cells.get(i);
+            // Cells are sorted by latitude inside, so only the band edges need trimming
+            int from = firstAtOrAbove(cell, minLatitude);
+            for (int k = from; k < cellStarts[cell + 1] && latitudes[rows[k]] <= maxLatitude; k++) {
+                candidates.add(rows[k]);
+            }
+        }
+    }
+
+    /**
+     * Adds the index of every occupied cell that overlaps the box.
+     */
+    void occupiedCells(int minLatitude, int minLongitude, int maxLatitude, int maxLongitude, IntList cells) {
+        int span = maxLongitude - minLongitude + (minLongitude > maxLongitude ? 360_000_000 : 0);
+        boolean allLongitudes = span >= 360_000_000 - MICRODEGREES_PER_CELL;
+        int from = allLongitudes ? 0 : cell(minLongitude);
+        int to = allLongitudes ? LONGITUDE_CELLS - 1 : cell(maxLongitude);
+        for (int band = band(minLatitude); band <= band(maxLatitude); band++) {
+            if (from <= to) {
+                walk(band, from, to, cells);
+            } else {
+                walk(band, from, LONGITUDE_CELLS - 1, cells);
+                walk(band, 0, to, cells);
+            }
+        }
+    }
+
+    /**
+     * Southern edge of the cell, in microdegrees.
+     */
+    int minLatitude(int cell) {
+        return cellKeys[cell] / LONGITUDE_CELLS * MICRODEGREES_PER_CELL - 90_000_000;
+    }
+
+    /**
+     * Western edge of the cell, in microdegrees.
+     */
+    int minLongitude(int cell) {
+        return cellKeys[cell] % LONGITUDE_CELLS * MICRODEGREES_PER_CELL - 180_000_000;
+    }
+
+    int start(int cell) {
+        return cellStarts[cell];
+    }
+
+    int end(int cell) {
+        return cellStarts[cell + 1];
+    }
+
+    /**
+     * Row at a position of the latitude-sorted row array.
+     */
+    int row(int position) {
+        return rows[position];
+    }
+
+    /**
+     * First position in the cell whose row lies at or north of {@code latitude}.
+     */
+    int firstAtOrAbove(int cell, int latitude) {
+        int low = cellStarts[cell];
+        int high = cellStarts[cell + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (latitudes[rows[mid]] < latitude) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    long memoryBytes() {
+        return (long) (cellKeys.length + cellStarts.length + rows.length) * Integer.BYTES;
+    }
+
+    private void walk(int band, int from, int to, IntList cells) {
+        int last = band * LONGITUDE_CELLS + to;
+        int cell = Arrays.binarySearch(cellKeys, band * LONGITUDE_CELLS + from);
+        for (cell = cell < 0 ? -cell - 1 : cell; cell < cellKeys.length && cellKeys[cell] <= last; cell++) {
+            cells.add(cell);
+        }
+    }
+
+    private static int band(int latitude) {
+        return (latitude + 90_000_000) / MICRODEGREES_PER_CELL;
+    }
+
+    private static int cell(int longitude) {
+        return (longitude + 180_000_000) / MICRODEGREES_PER_CELL % LONGITUDE_CELLS;
+    }
+}
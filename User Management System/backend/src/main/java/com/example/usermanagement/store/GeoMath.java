@@ -0,0 +1,92 @@
+package com.example.usermanagement.store;
+
+/**
+ * Great-circle geometry for the spatial queries of both stores. Distances use the
+ * haversine formula on a spherical earth, which is within 0.5% of the ellipsoid.
+ */
+final class GeoMath {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GeoMath() {}
+
+    /**
+     * Haversine of the central angle between two points. It grows with the distance, so
+     * candidates can be compared and filtered on it without the {@code asin}.
+     */
+    static double haversine(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double sinLat = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double sinLng = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        return sinLat * sinLat
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * sinLng * sinLng;
+    }
+
+    /**
+     * The haversine of a {@code distanceKm} separation, the largest value that is still in range.
+     */
+    static double haversineOf(double distanceKm) {
+        double angle = Math.min(Math.PI, distanceKm / EARTH_RADIUS_KM);
+        double sin = Math.sin(angle / 2);
+        return sin * sin;
+    }
+
+    /**
+     * Haversine of an angle in degrees, saturating at 180.
+     */
+    static double haversineOfDegrees(double degrees) {
+        double sin = Math.sin(Math.toRadians(Math.min(180, degrees)) / 2);
+        return sin * sin;
+    }
+
+    static double distanceKm(double haversine) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, haversine)));
+    }
+
+    /**
+     * Smallest latitude/longitude box containing every point within {@code radiusKm} of the
+     * center. Near a pole the box spans all longitudes; across the antimeridian it wraps.
+     */
+    static Box around(double latitude, double longitude, double radiusKm) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double latitudeDelta = Math.toDegrees(angle);
+        double minLatitude = latitude - latitudeDelta;
+        double maxLatitude = latitude + latitudeDelta;
+        if (minLatitude <= -90 || maxLatitude >= 90) {
+            return new Box(Math.max(-90, minLatitude), -180, Math.min(90, maxLatitude), 180);
+        }
+        double sinRatio = Math.sin(angle) / Math.cos(Math.toRadians(latitude));
+        if (angle >= Math.PI / 2 || sinRatio >= 1) {
+            return new Box(minLatitude, -180, maxLatitude, 180);
+        }
+        double longitudeDelta = Math.toDegrees(Math.asin(sinRatio));
+        return new Box(minLatitude, normalizeLongitude(longitude - longitudeDelta),
+                maxLatitude, normalizeLongitude(longitude + longitudeDelta));
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        return longitude > 180 ? longitude - 360 : longitude;
+    }
+
+    /**
+     * Latitude/longitude box; when {@code minLongitude > maxLongitude} it crosses the
+     * antimeridian and covers {@code [minLongitude, 180]} and {@code [-180, maxLongitude]}.
+     */
+    record Box(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+
+        boolean wrapsAntimeridian() {
+            return minLongitude > maxLongitude;
+        }
+
+        boolean contains(double latitude, double longitude) {
+            if (latitude < minLatitude || latitude > maxLatitude) {
+                return false;
+            }
+            return wrapsAntimeridian()
+                    ? longitude >= minLongitude || longitude <= maxLongitude
+                    : longitude >= minLongitude && longitude <= maxLongitude;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.usermanagement.store;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from the ids of a table to their rows. Only row numbers are
+ * stored; keys are compared against the table's id column, so a slot costs an {@code int}
+ * rather than the {@code long} and {@code int} of a {@link LongIntHashIndex}. Ids must be
+ * unique, which {@link ColumnarUserTable.Builder#build()} guarantees.
+ */
+final class IdHashIndex {
+
+    static final int MISSING = -1;
+
+    private final long[] ids;
+    private final int[] rows;
+    private final int mask;
+
+    /**
+     * @param ids the id column, kept by reference, not copied
+     */
+    IdHashIndex(long[] ids) {
+        this.ids = ids;
+        int capacity = Integer.highestOneBit(Math.max(4, ids.length * 2 - 1)) << 1;
+        this.rows = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(rows, MISSING);
+        for (int row = 0; row < ids.length; row++) {
+            int slot = LongIntHashIndex.mix(ids[row]) & mask;
+            while (rows[slot] != MISSING) {
+                slot = (slot + 1) & mask;
+            }
+            rows[slot] = row;
+        }
+    }
+
+    int get(long id) {
+        int slot = LongIntHashIndex.mix(id) & mask;
+        while (rows[slot] != MISSING) {
+            if (ids[rows[slot]] == id) {
+                return rows[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    long memoryBytes() {
+        return (long) rows.length * Integer.BYTES;
+    }
+}
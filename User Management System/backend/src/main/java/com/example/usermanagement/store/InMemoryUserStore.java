@@ -0,0 +1,304 @@
+package com.example.usermanagement.store;
+
+import com.example.usermanagement.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Columnar in-memory engine, enabled with the {@code memory} profile. Reads never touch
+ * the ORM: point lookups are hash probes on primitive arrays and searches scan
+ * dictionary codes.
+ *
+ * <p>Every table is an immutable snapshot: row arrays and the indexes built with them are
+ * published together through a single {@link AtomicReference}. Readers take one reference
+ * per call and never block; writers build the next table off to the side and swap it in,
+ * so a read sees either the old dataset or the new one, never a mix. Bulk loads stage all
+ * of their pages first and become visible in one swap on {@link BulkLoad#publish()}.
+ *
+ * <p>With {@code app.user-store.memory.shards} above 1 rows are partitioned by id hash.
+ * Searches on large tables are scattered across the shards on the common fork-join pool
+ * and the per-shard results, each in id order, are merged back into one id-ordered list.
+ *
+ * <p>Spatial queries look up a {@link GeoGridIndex} per shard, so they touch only the rows
+ * in grid cells the query area overlaps. Compound queries are evaluated per shard by a
+ * {@link ColumnarQuery} on the row bitmaps of the table's indexes.
+ *
+ * <p>Individual writes and deletes cost the size of the write plus a small delta table
+ * rather than a rebuild of the shards; see {@link ShardedUserTable}.
+ */
+@Component
+@Profile("memory")
+public class InMemoryUserStore implements UserStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryUserStore.class);
+
+    private final AtomicReference<ShardedUserTable> table;
+    private final ForkJoinPool searchPool;
+    private final int parallelThreshold;
+    // A lock rather than a monitor: writers waiting on it do not pin virtual threads
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private StagedLoad pendingLoad;
+    private long lastAssignedId;
+
+    /**
+     * @param shards            number of id-hash partitions; searches on tables of at least
+     *                          {@code parallelThreshold} rows scan them in parallel
+     * @param parallelThreshold table size below which searches stay on the calling thread
+     */
+    public InMemoryUserStore(@Value("${app.user-store.memory.shards:1}") int shards,
+                             @Value("${app.user-store.memory.parallel-threshold:50000}") int parallelThreshold) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("app.user-store.memory.shards must be at least 1");
+        }
+        this.table = new AtomicReference<>(ShardedUserTable.empty(shards));
+        this.searchPool = ForkJoinPool.commonPool();
+        this.parallelThreshold = parallelThreshold;
+        logger.info("In-memory user store with {} shard(s), parallel search from {} rows", shards, parallelThreshold);
+    }
+
+    @Override
+    public List<User> findAll() {
+        return table.get().findAll();
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return Optional.ofNullable(table.get().findById(id));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        User user = table.get().findByEmailIgnoreCase(email);
+        // The index is case-insensitive, findByEmail is an exact match like the JPA query
+        if (user == null || !email.equals(user.getEmail())) {
+            return Optional.empty();
+        }
+        return Optional.of(user);
+    }
+
+    @Override
+    public List<User> fullTextSearch(String searchTerm) {
+        return table.get().fullTextSearch(searchTerm, searchPool, parallelThreshold);
+    }
+
+    @Override
+    public List<User> findBySearchTerm(String searchTerm) {
+        return table.get().basicSearch(searchTerm, searchPool, parallelThreshold);
+    }
+
+    @Override
+    public List<User> query(UserQuery query) {
+        return table.get().query(query, searchPool, parallelThreshold);
+    }
+
+    @Override
+    public List<User> phoneticSearch(Collection<String> keys) {
+        return table.get().phoneticSearch(keys);
+    }
+
+    @Override
+    public List<User> findNear(double latitude, double longitude, double radiusKm, int limit) {
+        return table.get().findNear(latitude, longitude, radiusKm, limit);
+    }
+
+    @Override
+    public List<User> findInBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                                int limit) {
+        return table.get().findInBox(new GeoMath.Box(minLatitude, minLongitude, maxLatitude, maxLongitude), limit);
+    }
+
+    @Override
+    public List<User> findPageAfter(long afterId, int limit) {
+        return table.get().pageAfter(afterId, limit);
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        ShardedUserTable current = table.get();
+        List<User> users = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User user = current.findById(id);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> findByEmailInOrSsnIn(Collection<String> emails, Collection<String> ssns) {
+        ShardedUserTable current = table.get();
+        Map<Long, User> byId = new LinkedHashMap<>();
+        for (String email : emails) {
+            User user = current.findByEmailIgnoreCase(email);
+            if (user != null) {
+                byId.putIfAbsent(user.getId(), user);
+            }
+        }
+        for (String ssn : ssns) {
+            User user = current.findBySsn(ssn);
+            if (user != null) {
+                byId.putIfAbsent(user.getId(), user);
+            }
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    @Override
+    public void save(User user) {
+        saveAll(List.of(user));
+    }
+
+    /**
+     * Users without an id get the next one above every id seen so far, so ids of deleted
+     * users are not handed out again.
+     */
+    @Override
+    public void saveAll(List<User> users) {
+        write(users, List.of());
+    }
+
+    @Override
+    public void deleteAllById(Collection<Long> ids) {
+        write(List.of(), ids);
+    }
+
+    private void write(List<User> users, Collection<Long> deletes) {
+        writeLock.lock();
+        try {
+            long start = System.nanoTime();
+            ShardedUserTable current = table.get();
+            lastAssignedId = Math.max(lastAssignedId, current.maxId());
+            for (User user : users) {
+                if (user.getId() == null) {
+                    user.setId(++lastAssignedId);
+                }
+            }
+            ShardedUserTable next = current.withChanges(users, deletes);
+            table.set(next);
+            logger.debug("Wrote {} and deleted {} users in {} ms, {} rows with {} in the delta",
+                    users.size(), deletes.size(), (System.nanoTime() - start) / 1_000_000,
+                    next.size(), next.deltaSize());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public long count() {
+        return table.get().size();
+    }
+
+    @Override
+    public long count(UserQuery query) {
+        return table.get().count(query);
+    }
+
+    /**
+     * Estimated heap held by the current table's columns and indexes.
+     */
+    public long memoryBytes() {
+        return table.get().memoryBytes();
+    }
+
+    @Override
+    public void reindex() {
+        // Indexes are built together with each table, nothing to refresh
+    }
+
+    @Override
+    public BulkLoad openBulkLoad() {
+        writeLock.lock();
+        try {
+            if (pendingLoad == null) {
+                pendingLoad = new StagedLoad();
+            }
+            return pendingLoad;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Swaps in the staged rows merged over the current table, partitioned into its shards.
+     */
+    private void publish(StagedLoad load, ColumnarUserTable staged) {
+        writeLock.lock();
+        try {
+            ShardedUserTable next = table.get().withTable(staged);
+            table.set(next);
+            if (pendingLoad == load) {
+                pendingLoad = null;
+            }
+            logger.info("Published in-memory user table with {} rows ({} loaded), {} bytes per user",
+                    next.size(), staged.size(), next.size() == 0 ? 0 : next.memoryBytes() / next.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void discard(StagedLoad load) {
+        writeLock.lock();
+        try {
+            if (pendingLoad == load) {
+                pendingLoad = null;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private final class StagedLoad implements BulkLoad {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private ColumnarUserTable.Builder builder = ColumnarUserTable.builder(1024);
+
+        @Override
+        public void add(List<User> users) {
+            lock.lock();
+            try {
+                users.forEach(builder::add);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void publish() {
+            ColumnarUserTable staged;
+            lock.lock();
+            try {
+                // Sorting and dictionary building happen here, outside the write lock
+                staged = builder.build();
+                builder = ColumnarUserTable.builder(1024);
+            } finally {
+                lock.unlock();
+            }
+            InMemoryUserStore.this.publish(this, staged);
+        }
+
+        @Override
+        public void abort() {
+            lock.lock();
+            try {
+                builder = ColumnarUserTable.builder(1024);
+                discard(this);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
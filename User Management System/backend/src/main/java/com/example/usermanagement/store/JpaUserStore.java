@@ -0,0 +1,230 @@
+package com.example.usermanagement.store;
+
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.repository.UserRepository;
+import com.example.usermanagement.repository.UserSearchRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Owns its transactions, so callers only start one when several calls must commit together.
+ */
+@Component
+@Profile("!memory")
+@Transactional(readOnly = true)
+public class JpaUserStore implements UserStore {
+
+    private final UserRepository userRepository;
+    private final UserSearchRepository userSearchRepository;
+
+    public JpaUserStore(UserRepository userRepository, UserSearchRepository userSearchRepository) {
+        this.userRepository = userRepository;
+        this.userSearchRepository = userSearchRepository;
+    }
+
+    @Override
+    public List<User> findAll() {
+        return userRepository.findAll();
+    }
+
+    @Override
+    public Optional<User> findById(Long id) {
+        return userRepository.findById(id);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return userRepository.findByEmail(email);
+    }
+
+    @Override
+    public List<User> fullTextSearch(String searchTerm) {
+        return userSearchRepository.fullTextSearch(searchTerm);
+    }
+
+    @Override
+    public List<User> findBySearchTerm(String searchTerm) {
+        return userRepository.findBySearchTerm(searchTerm);
+    }
+
+    /**
+     * Conditions without text terms become one dynamic JPQL query. Text terms run their
+     * usual search; within an AND the other conditions are then checked on that result in
+     * memory and further terms intersect it by id, and an OR unions its operands by id.
+     */
+    @Override
+    public List<User> query(UserQuery query) {
+        if (!query.containsTerm()) {
+            return userSearchRepository.findMatching(query);
+        }
+        if (query instanceof UserQuery.Term term) {
+            return term.fullText() ? fullTextSearch(term.text()) : findBySearchTerm(term.text());
+        }
+        if (query instanceof UserQuery.Or or) {
+            Map<Long, User> byId = new TreeMap<>();
+            for (UserQuery operand : or.operands()) {
+                query(operand).forEach(user -> byId.putIfAbsent(user.getId(), user));
+            }
+            return new ArrayList<>(byId.values());
+        }
+        List<UserQuery> withTerms = new ArrayList<>();
+        List<UserQuery> conditions = new ArrayList<>();
+        for (UserQuery operand : ((UserQuery.And) query).operands()) {
+            (operand.containsTerm() ? withTerms : conditions).add(operand);
+        }
+        List<User> users = query(withTerms.get(0));
+        for (UserQuery operand : withTerms.subList(1, withTerms.size())) {
+            Set<Long> ids = query(operand).stream().map(User::getId).collect(Collectors.toSet());
+            users = users.stream().filter(user -> ids.contains(user.getId())).toList();
+        }
+        return users.stream().filter(user -> conditions.stream().allMatch(c -> c.matches(user))).toList();
+    }
+
+    @Override
+    public List<User> phoneticSearch(Collection<String> keys) {
+        return keys.isEmpty() ? List.of() : userRepository.findByPhoneticKeys(keys);
+    }
+
+    /**
+     * Range scan of the bounding box of the circle on the {@code (latitude, longitude)}
+     * index, then an exact distance check and sort in memory.
+     */
+    @Override
+    public List<User> findNear(double latitude, double longitude, double radiusKm, int limit) {
+        GeoMath.Box box = GeoMath.around(latitude, longitude, radiusKm);
+        double maxHaversine = GeoMath.haversineOf(radiusKm);
+        List<Located> located = new ArrayList<>();
+        for (User user : inBox(box, Limit.unlimited())) {
+            double haversine = GeoMath.haversine(latitude, longitude, user.getLatitude(), user.getLongitude());
+            if (haversine <= maxHaversine) {
+                located.add(new Located(user, haversine));
+            }
+        }
+        // The box query returns id order and the sort is stable, so ties stay in id order
+        located.sort(Comparator.comparingDouble(Located::haversine));
+        return located.stream().limit(limit).map(Located::user).toList();
+    }
+
+    @Override
+    public List<User> findInBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude,
+                                int limit) {
+        return inBox(new GeoMath.Box(minLatitude, minLongitude, maxLatitude, maxLongitude), Limit.of(limit));
+    }
+
+    private List<User> inBox(GeoMath.Box box, Limit limit) {
+        if (box.wrapsAntimeridian()) {
+            return userRepository.findInBoxAcrossAntimeridian(box.minLatitude(), box.maxLatitude(),
+                    box.minLongitude(), box.maxLongitude(), limit);
+        }
+        return userRepository.findInBox(box.minLatitude(), box.maxLatitude(),
+                box.minLongitude(), box.maxLongitude(), limit);
+    }
+
+    @Override
+    public List<User> findPageAfter(long afterId, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit));
+    }
+
+    @Override
+    public List<User> findAllById(Collection<Long> ids) {
+        return userRepository.findAllById(ids);
+    }
+
+    /**
+     * Two queries rather than one {@code OR}, which H2 answers with a full table scan
+     * instead of using either unique index.
+     */
+    @Override
+    public List<User> findByEmailInOrSsnIn(Collection<String> emails, Collection<String> ssns) {
+        Map<Long, User> byId = new LinkedHashMap<>();
+        if (!emails.isEmpty()) {
+            List<String> emailKeys = emails.stream().map(email -> email.toLowerCase(Locale.ROOT)).toList();
+            userRepository.findByEmailKeyIn(emailKeys).forEach(user -> byId.put(user.getId(), user));
+        }
+        if (!ssns.isEmpty()) {
+            userRepository.findBySsnIn(ssns).forEach(user -> byId.putIfAbsent(user.getId(), user));
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    @Override
+    @Transactional
+    public void save(User user) {
+        userRepository.save(user);
+    }
+
+    @Override
+    @Transactional
+    public void saveAll(List<User> users) {
+        userRepository.saveAll(users);
+    }
+
+    /**
+     * One {@code DELETE ... WHERE id IN} statement rather than a load and delete per user.
+     */
+    @Override
+    @Transactional
+    public void deleteAllById(Collection<Long> ids) {
+        if (!ids.isEmpty()) {
+            userRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    @Override
+    public long count() {
+        return userRepository.count();
+    }
+
+    @Override
+    public long count(UserQuery query) {
+        return query.containsTerm() ? query(query).size() : userSearchRepository.countMatching(query);
+    }
+
+    @Override
+    @Transactional
+    public void reindex() {
+        userSearchRepository.indexAllUsers();
+    }
+
+    /**
+     * Pages are committed as they are added; the database has no side table to stage
+     * them in, so readers can see a load in progress. Use the {@code memory} profile
+     * when reads must only ever see complete datasets.
+     */
+    @Override
+    public BulkLoad openBulkLoad() {
+        return new BulkLoad() {
+            @Override
+            public void add(List<User> users) {
+                userRepository.saveAll(users);
+            }
+
+            @Override
+            public void publish() {
+                // Already visible
+            }
+
+            @Override
+            public void abort() {
+                // Committed pages stay; the load checkpoint resumes after them
+            }
+        };
+    }
+
+    private record Located(User user, double haversine) {}
+}
@@ -0,0 +1,328 @@
+package com.example.usermanagement.store;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * String column for high-cardinality values (emails, SSNs, phones, usernames), where a
+ * dictionary would hold one {@code String} per row anyway. Values are stored back to back
+ * in a single Latin-1 {@code byte[]} arena with an {@code int} end offset per row, about
+ * {@code length + 4} bytes per value instead of roughly {@code length + 48}. The rare value
+ * with a character above U+00FF is kept as a {@code String} on the side.
+ *
+ * <p>Substring matching runs on the bytes, so scans do not materialize a {@code String}
+ * per row. {@link #code(int)} is the row itself, which lets searches treat this column
+ * like a {@link DictionaryColumn} whose every value is distinct.
+ */
+final class Latin1Column {
+
+    private static final char[] LOWER = new char[256];
+
+    static {
+        for (int c = 0; c < LOWER.length; c++) {
+            LOWER[c] = Character.toLowerCase((char) c);
+        }
+    }
+
+    private final byte[] arena;
+    private final int[] ends;
+    private final BitSet nulls;
+    private final int[] wideRows;
+    private final String[] wideValues;
+
+    private Latin1Column(byte[] arena, int[] ends, BitSet nulls, int[] wideRows, String[] wideValues) {
+        this.arena = arena;
+        this.ends = ends;
+        this.nulls = nulls;
+        this.wideRows = wideRows;
+        this.wideValues = wideValues;
+    }
+
+    String get(int row) {
+        if (nulls.get(row)) {
+            return null;
+        }
+        String wide = wide(row);
+        if (wide != null) {
+            return wide;
+        }
+        int start = start(row);
+        return new String(arena, start, ends[row] - start, StandardCharsets.ISO_8859_1);
+    }
+
+    int code(int row) {
+        return nulls.get(row) ? DictionaryColumn.NULL_CODE : row;
+    }
+
+    int cardinality() {
+        return ends.length;
+    }
+
+    /**
+     * {@code value.contains(term)} for the given rows, or every row if {@code rows} is null;
+     * index the result by {@link #code(int)}. Rows left out are {@code false}.
+     */
+    boolean[] matchContains(String term, int[] rows) {
+        return scan(term, false, false, rows);
+    }
+
+    /**
+     * {@code value.toLowerCase(Locale.ROOT).contains(lowerTerm)} for the given rows.
+     */
+    boolean[] matchContainsIgnoreCase(String lowerTerm, int[] rows) {
+        return scan(lowerTerm, true, false, rows);
+    }
+
+    /**
+     * {@code value.replace("-", "").contains(term)} for the given rows.
+     */
+    boolean[] matchContainsIgnoringDashes(String term, int[] rows) {
+        return scan(term, false, true, rows);
+    }
+
+    /**
+     * {@code value.replace("-", "").startsWith(digits)}.
+     */
+    boolean startsWithIgnoringDashes(int row, String digits) {
+        if (nulls.get(row)) {
+            return false;
+        }
+        String wide = wide(row);
+        if (wide != null) {
+            return wide.replace("-", "").startsWith(digits);
+        }
+        int k = 0;
+        for (int i = start(row); i < ends[row] && k < digits.length(); i++) {
+            char c = (char) (arena[i] & 0xff);
+            if (c == '-') {
+                continue;
+            }
+            if (c != digits.charAt(k++)) {
+                return false;
+            }
+        }
+        return k == digits.length();
+    }
+
+    /**
+     * The first {@code count} characters of the value, dashes skipped, read as a decimal
+     * number; {@code -1} for null values and values not starting with that many digits.
+     */
+    int leadingDigits(int row, int count) {
+        if (nulls.get(row) || wide(row) != null) {
+            return -1;
+        }
+        int value = 0;
+        int k = 0;
+        for (int i = start(row); i < ends[row] && k < count; i++) {
+            char c = (char) (arena[i] & 0xff);
+            if (c == '-') {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+            k++;
+        }
+        return k == count ? value : -1;
+    }
+
+    /**
+     * {@code String.hashCode()} of the lower-cased value, computed on the bytes.
+     */
+    int lowerCaseHash(int row) {
+        String wide = wide(row);
+        if (wide != null) {
+            return wide.toLowerCase(Locale.ROOT).hashCode();
+        }
+        int hash = 0;
+        for (int i = start(row); i < ends[row]; i++) {
+            hash = 31 * hash + LOWER[arena[i] & 0xff];
+        }
+        return hash;
+    }
+
+    /**
+     * Whether the lower-cased value of the row equals {@code lowerValue}.
+     */
+    boolean equalsLowerCase(int row, String lowerValue) {
+        if (nulls.get(row)) {
+            return false;
+        }
+        String wide = wide(row);
+        if (wide != null) {
+            return wide.toLowerCase(Locale.ROOT).equals(lowerValue);
+        }
+        int start = start(row);
+        if (ends[row] - start != lowerValue.length()) {
+            return false;
+        }
+        for (int i = 0; i < lowerValue.length(); i++) {
+            if (LOWER[arena[start + i] & 0xff] != lowerValue.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long memoryBytes() {
+        long bytes = arena.length + (long) ends.length * Integer.BYTES + nulls.size() / 8
+                + (long) wideRows.length * Integer.BYTES;
+        for (String value : wideValues) {
+            bytes += 24 + 16 + 2L * value.length();
+        }
+        return bytes;
+    }
+
+    private int start(int row) {
+        return row == 0 ? 0 : ends[row - 1];
+    }
+
+    private String wide(int row) {
+        if (wideRows.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(wideRows, row);
+        return index < 0 ? null : wideValues[index];
+    }
+
+    private boolean[] scan(String term, boolean foldCase, boolean skipDashes, int[] rows) {
+        boolean[] matches = new boolean[ends.length];
+        boolean latin1Term = term.chars().allMatch(c -> c <= 0xff);
+        int count = rows == null ? ends.length : rows.length;
+        for (int i = 0; i < count; i++) {
+            int row = rows == null ? i : rows[i];
+            if (nulls.get(row)) {
+                continue;
+            }
+            String wide = wide(row);
+            if (wide != null) {
+                String value = foldCase ? wide.toLowerCase(Locale.ROOT) : wide;
+                matches[row] = (skipDashes ? value.replace("-", "") : value).contains(term);
+            } else {
+                matches[row] = latin1Term && contains(start(row), ends[row], term, foldCase, skipDashes);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Naive substring search over {@code arena[from, to)}, optionally folding case and
+     * skipping {@code '-'} in the value. Values are short, so this beats anything fancier.
+     */
+    private boolean contains(int from, int to, String term, boolean foldCase, boolean skipDashes) {
+        int length = term.length();
+        if (length == 0) {
+            return true;
+        }
+        for (int start = from; start < to; start++) {
+            if (skipDashes && arena[start] == '-') {
+                continue;
+            }
+            int i = start;
+            int k = 0;
+            while (k < length && i < to) {
+                int b = arena[i++] & 0xff;
+                if (skipDashes && b == '-') {
+                    continue;
+                }
+                char c = foldCase ? LOWER[b] : (char) b;
+                if (c != term.charAt(k)) {
+                    break;
+                }
+                k++;
+            }
+            if (k == length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static final class Builder {
+
+        private byte[] arena;
+        private int length;
+        private final IntList ends;
+        private final BitSet nulls = new BitSet();
+        private final IntList wideRows = new IntList();
+        private final List<String> wideValues = new ArrayList<>();
+
+        Builder(int expectedRows) {
+            this.arena = new byte[Math.max(16, expectedRows * 16)];
+            this.ends = new IntList(expectedRows);
+        }
+
+        void add(String value) {
+            int row = ends.size();
+            if (value == null) {
+                nulls.set(row);
+            } else if (isLatin1(value)) {
+                if (length + value.length() > arena.length) {
+                    arena = Arrays.copyOf(arena, Math.max(arena.length * 2, length + value.length()));
+                }
+                for (int i = 0; i < value.length(); i++) {
+                    arena[length++] = (byte) value.charAt(i);
+                }
+            } else {
+                wideRows.add(row);
+                wideValues.add(value);
+            }
+            ends.add(length);
+        }
+
+        /**
+         * Builds the column with rows rearranged so that row {@code i} is the
+         * {@code order[i]}-th value that was added.
+         */
+        Latin1Column build(int[] order) {
+            int total = 0;
+            for (int source : order) {
+                total += ends.get(source) - start(source);
+            }
+            byte[] packed = new byte[total];
+            int[] rowEnds = new int[order.length];
+            BitSet rowNulls = new BitSet(order.length);
+            int[] addedWideRows = wideRows.toArray();
+            IntList rows = new IntList();
+            List<String> values = new ArrayList<>();
+            int offset = 0;
+            for (int row = 0; row < order.length; row++) {
+                int source = order[row];
+                int start = start(source);
+                int valueLength = ends.get(source) - start;
+                System.arraycopy(arena, start, packed, offset, valueLength);
+                offset += valueLength;
+                rowEnds[row] = offset;
+                if (nulls.get(source)) {
+                    rowNulls.set(row);
+                } else if (addedWideRows.length > 0) {
+                    int wide = Arrays.binarySearch(addedWideRows, source);
+                    if (wide >= 0) {
+                        rows.add(row);
+                        values.add(wideValues.get(wide));
+                    }
+                }
+            }
+            return new Latin1Column(packed, rowEnds, rowNulls, rows.toArray(), values.toArray(new String[0]));
+        }
+
+        private int start(int source) {
+            return source == 0 ? 0 : ends.get(source - 1);
+        }
+
+        private static boolean isLatin1(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) > 0xff) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
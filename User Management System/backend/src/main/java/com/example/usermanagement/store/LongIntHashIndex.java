@@ -0,0 +1,54 @@
+package com.example.usermanagement.store;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} keys to non-negative {@code int} row numbers.
+ * Linear probing over parallel primitive arrays: no entry objects and no boxing on lookup.
+ * Filled once while a table is built and read-only afterwards.
+ */
+final class LongIntHashIndex {
+
+    static final int MISSING = -1;
+
+    private final long[] keys;
+    private final int[] rows;
+    private final int mask;
+
+    LongIntHashIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.rows = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(rows, MISSING);
+    }
+
+    void put(long key, int row) {
+        int slot = mix(key) & mask;
+        while (rows[slot] != MISSING && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        rows[slot] = row;
+    }
+
+    int get(long key) {
+        int slot = mix(key) & mask;
+        while (rows[slot] != MISSING) {
+            if (keys[slot] == key) {
+                return rows[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    long memoryBytes() {
+        return (long) keys.length * Long.BYTES + (long) rows.length * Integer.BYTES;
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
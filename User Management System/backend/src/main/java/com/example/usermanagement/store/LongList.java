@@ -0,0 +1,35 @@
+package com.example.usermanagement.store;
+
+import java.util.Arrays;
+
+/**
+ * Growable {@code long} array, the {@code long} counterpart of {@link IntList}.
+ */
+final class LongList {
+
+    private long[] values;
+    private int size;
+
+    LongList(int initialCapacity) {
+        this.values = new long[Math.max(1, initialCapacity)];
+    }
+
+    void add(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[size++] = value;
+    }
+
+    long get(int index) {
+        return values[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
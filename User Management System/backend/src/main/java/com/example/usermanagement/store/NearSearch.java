@@ -0,0 +1,192 @@
+package com.example.usermanagement.store;
+
+/**
+ * Nearest-neighbour search over the {@link GeoGridIndex} of one shard. Occupied cells in the
+ * query box are visited best-first by a lower bound on their distance from the point, and
+ * each cell is read outwards from the point's latitude; both stop once nothing farther out
+ * can beat the rows kept. The 20 nearest users in a crowded city centre therefore read a
+ * thin strip of one or two cells, and a point far from everyone reads the closest cells of
+ * the nearest cluster rather than the whole radius.
+ */
+final class NearSearch {
+
+    private final ColumnarUserTable table;
+    private final int shard;
+    private final RowMask masked;
+    private final double latitude;
+    private final double longitude;
+    private final int pointLatitude;
+    private final double maxHaversine;
+    private final NearestRows nearest;
+    /** Haversine a row has to beat, tightening as {@link #nearest} fills. */
+    private double limit;
+    /** Latitude difference in microdegrees beyond which no row can beat {@link #limit}. */
+    private int maxLatitudeDelta;
+
+    private NearSearch(ColumnarUserTable table, int shard, RowMask masked, double latitude, double longitude,
+                       double maxHaversine, NearestRows nearest) {
+        this.table = table;
+        this.shard = shard;
+        this.masked = masked;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.pointLatitude = (int) Math.round(latitude * 1e6);
+        this.maxHaversine = maxHaversine;
+        this.nearest = nearest;
+        narrow();
+    }
+
+    /**
+     * Offers every row of the shard within {@code maxHaversine} of the point that can still
+     * make it into {@code nearest}, except {@code masked} ones (null for none). The box must
+     * contain that circle.
+     */
+    static void collect(ColumnarUserTable table, int shard, RowMask masked, double latitude, double longitude,
+                        GeoMath.Box box, double maxHaversine, NearestRows nearest) {
+        new NearSearch(table, shard, masked, latitude, longitude, maxHaversine, nearest).run(box);
+    }
+
+    private void run(GeoMath.Box box) {
+        GeoGridIndex index = table.geoIndex;
+        IntList cells = new IntList();
+        index.occupiedCells(ColumnarUserTable.floorMicro(box.minLatitude()),
+                ColumnarUserTable.floorMicro(box.minLongitude()),
+                ColumnarUserTable.ceilMicro(box.maxLatitude()),
+                ColumnarUserTable.ceilMicro(box.maxLongitude()), cells);
+
+        long[] heap = new long[cells.size()];
+        int size = 0;
+        double cosLatitude = Math.cos(Math.toRadians(latitude));
+        double cellDegrees = GeoGridIndex.MICRODEGREES_PER_CELL / 1e6;
+        int cachedBand = Integer.MIN_VALUE;
+        double bandHaversine = 0;
+        double bandFactor = 0;
+        for (int i = 0; i < cells.size(); i++) {
+            int cell = cells.get(i);
+            // Cells arrive band by band, so the latitude terms are computed once per band
+            int south = index.minLatitude(cell);
+            if (south != cachedBand) {
+                cachedBand = south;
+                double southDegrees = south / 1e6;
+                double northDegrees = Math.min(90, southDegrees + cellDegrees);
+                bandHaversine = GeoMath.haversineOfDegrees(
+                        Math.max(0, Math.max(southDegrees - latitude, latitude - northDegrees)));
+                bandFactor = cosLatitude * Math.max(0, Math.min(Math.cos(Math.toRadians(southDegrees)),
+                        Math.cos(Math.toRadians(northDegrees))));
+            }
+            if (bandHaversine > maxHaversine) {
+                continue;
+            }
+            double west = index.minLongitude(cell) / 1e6;
+            double bound = bandHaversine + bandFactor * haversineLowerBound(longitudeGap(west, west + cellDegrees));
+            if (bound <= maxHaversine) {
+                heap[size++] = key(bound, cell);
+            }
+        }
+
+        // Heapify is linear; only the cells actually visited pay for ordering
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(heap, i, size);
+        }
+        while (size > 0) {
+            long top = heap[0];
+            if (Float.intBitsToFloat((int) (top >>> 32)) > limit) {
+                return;
+            }
+            heap[0] = heap[--size];
+            siftDown(heap, 0, size);
+
+            int cell = (int) top;
+            int middle = index.firstAtOrAbove(cell, pointLatitude);
+            for (int k = middle; k < index.end(cell) && offer(index.row(k)); k++) {
+                // Northwards until rows are too far north to qualify
+            }
+            for (int k = middle - 1; k >= index.start(cell) && offer(index.row(k)); k--) {
+                // Southwards likewise
+            }
+        }
+    }
+
+    /**
+     * Offers the row, or returns false if it lies too far north or south for it, or any
+     * row beyond it on that side of the point, to qualify.
+     */
+    private boolean offer(int row) {
+        if (Math.abs(table.latitudes[row] - pointLatitude) > maxLatitudeDelta) {
+            return false;
+        }
+        if (masked != null && masked.contains(row)) {
+            return true;
+        }
+        double haversine = GeoMath.haversine(latitude, longitude, table.latitude(row), table.longitude(row));
+        if (haversine <= limit) {
+            nearest.offer(haversine, table.ids[row], shard, row);
+            if (nearest.isFull()) {
+                narrow();
+            }
+        }
+        return true;
+    }
+
+    private void narrow() {
+        limit = nearest.isFull() ? nearest.worstHaversine() : maxHaversine;
+        // The latitude difference alone never exceeds the distance; a microdegree of slack
+        // covers rounding
+        maxLatitudeDelta = (int) Math.min(Integer.MAX_VALUE,
+                Math.ceil(Math.toDegrees(2 * Math.asin(Math.sqrt(Math.min(1, limit)))) * 1e6) + 1);
+    }
+
+    /**
+     * Degrees of longitude from the point to the nearer edge of {@code [west, east]}, going
+     * around the antimeridian if that is shorter.
+     */
+    private double longitudeGap(double west, double east) {
+        if (longitude >= west && longitude <= east) {
+            return 0;
+        }
+        double toWest = west - longitude;
+        double fromEast = longitude - east;
+        return Math.min(toWest < 0 ? toWest + 360 : toWest, fromEast < 0 ? fromEast + 360 : fromEast);
+    }
+
+    /**
+     * Lower bound on the haversine of an angle in degrees without trigonometry, from
+     * {@code sin x >= x - x^3 / 6}; tight for the short gaps that decide the search order.
+     */
+    private static double haversineLowerBound(double degrees) {
+        double x = Math.toRadians(degrees) / 2;
+        double sin = Math.max(0, x - x * x * x / 6);
+        return sin * sin;
+    }
+
+    /**
+     * Heap key ordering cells by bound. Positive floats order like their bits; rounding down
+     * keeps the key a lower bound.
+     */
+    private static long key(double bound, int cell) {
+        float key = (float) bound;
+        if (key > bound) {
+            key = Math.nextDown(key);
+        }
+        return (long) Float.floatToIntBits(key) << 32 | cell;
+    }
+
+    private static void siftDown(long[] heap, int index, int size) {
+        long value = heap[index];
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= value) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.usermanagement.store;
+
+/**
+ * The {@code limit} closest rows offered so far, across shards, kept in a bounded max-heap
+ * keyed by haversine and then id. Offering is {@code O(log limit)}, so a query with many
+ * candidates never sorts all of them.
+ */
+final class NearestRows {
+
+    private final double[] haversines;
+    private final long[] ids;
+    private final int[] shards;
+    private final int[] rows;
+    private int size;
+
+    NearestRows(int limit) {
+        haversines = new double[limit];
+        ids = new long[limit];
+        shards = new int[limit];
+        rows = new int[limit];
+    }
+
+    void offer(double haversine, long id, int shard, int row) {
+        if (size < haversines.length) {
+            set(size, haversine, id, shard, row);
+            siftUp(size++);
+        } else if (size > 0 && before(haversine, id, 0)) {
+            set(0, haversine, id, shard, row);
+            siftDown(0, size);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == haversines.length;
+    }
+
+    /**
+     * Haversine of the farthest row kept; only meaningful once {@link #isFull()}.
+     */
+    double worstHaversine() {
+        return haversines[0];
+    }
+
+    /**
+     * Sorts the kept rows closest first, ties by id; read them with {@link #shard(int)}
+     * and {@link #row(int)}. Nothing may be offered afterwards.
+     */
+    void sort() {
+        for (int end = size - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+
+    int shard(int index) {
+        return shards[index];
+    }
+
+    int row(int index) {
+        return rows[index];
+    }
+
+    /**
+     * Whether the candidate orders before the entry at {@code index}.
+     */
+    private boolean before(double haversine, long id, int index) {
+        return haversine < haversines[index] || haversine == haversines[index] && id < ids[index];
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!before(haversines[parent], ids[parent], index)) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index, int end) {
+        while (true) {
+            int largest = index;
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < end; child++) {
+                if (before(haversines[largest], ids[largest], child)) {
+                    largest = child;
+                }
+            }
+            if (largest == index) {
+                return;
+            }
+            swap(index, largest);
+            index = largest;
+        }
+    }
+
+    private void set(int index, double haversine, long id, int shard, int row) {
+        haversines[index] = haversine;
+        ids[index] = id;
+        shards[index] = shard;
+        rows[index] = row;
+    }
+
+    private void swap(int a, int b) {
+        double haversine = haversines[a];
+        long id = ids[a];
+        int shard = shards[a];
+        int row = rows[a];
+        set(a, haversines[b], ids[b], shards[b], rows[b]);
+        set(b, haversine, id, shard, row);
+    }
+}
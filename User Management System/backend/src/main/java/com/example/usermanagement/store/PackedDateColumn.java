@@ -0,0 +1,152 @@
+package com.example.usermanagement.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code birthDate} column. Dates in DummyJSON's {@code yyyy-M-d} form (zero-padded or not)
+ * are packed into one {@code int} per row: year, month, day and whether month and day
+ * were written with a leading zero, so {@link #get(int)} returns the original text.
+ * Anything else is dictionary-encoded on the side and referenced by a negative value.
+ */
+final class PackedDateColumn {
+
+    private static final int NULL = 0;
+    private static final int PAD_MONTH = 1;
+    private static final int PAD_DAY = 2;
+
+    private final int[] values;
+    private final String[] unparsed;
+
+    private PackedDateColumn(int[] values, String[] unparsed) {
+        this.values = values;
+        this.unparsed = unparsed;
+    }
+
+    String get(int row) {
+        int value = values[row];
+        if (value == NULL) {
+            return null;
+        }
+        if (value < 0) {
+            return unparsed[-value - 1];
+        }
+        int flags = value & 3;
+        int day = (value >>> 2) & 31;
+        int month = (value >>> 7) & 15;
+        int year = value >>> 11;
+        char[] chars = new char[10];
+        int length = 0;
+        for (int divisor = 1000; divisor > 0; divisor /= 10) {
+            chars[length++] = (char) ('0' + year / divisor % 10);
+        }
+        chars[length++] = '-';
+        length = appendTwoDigits(chars, length, month, (flags & PAD_MONTH) != 0);
+        chars[length++] = '-';
+        length = appendTwoDigits(chars, length, day, (flags & PAD_DAY) != 0);
+        return new String(chars, 0, length);
+    }
+
+    long memoryBytes() {
+        long bytes = (long) values.length * Integer.BYTES;
+        for (String value : unparsed) {
+            bytes += 24 + ((16 + value.length() + 7) & ~7);
+        }
+        return bytes;
+    }
+
+    private static int appendTwoDigits(char[] chars, int length, int value, boolean pad) {
+        if (value >= 10 || pad) {
+            chars[length++] = (char) ('0' + value / 10);
+        }
+        chars[length++] = (char) ('0' + value % 10);
+        return length;
+    }
+
+    /**
+     * Packed form of {@code yyyy-M-d}, or {@link #NULL} if the text has any other shape.
+     */
+    static int pack(String text) {
+        int firstDash = text.indexOf('-');
+        int secondDash = text.indexOf('-', firstDash + 1);
+        if (firstDash != 4 || secondDash < 0) {
+            return NULL;
+        }
+        int year = parseDigits(text, 0, 4);
+        int month = parseDigits(text, 5, secondDash);
+        int day = parseDigits(text, secondDash + 1, text.length());
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31) {
+            return NULL;
+        }
+        int flags = 0;
+        if (secondDash - 5 == 2 && month < 10) {
+            flags |= PAD_MONTH;
+        }
+        if (text.length() - secondDash - 1 == 2 && day < 10) {
+            flags |= PAD_DAY;
+        }
+        return year << 11 | month << 7 | day << 2 | flags;
+    }
+
+    /**
+     * Value of the one- or two-digit (four for the year) number in {@code text[from, to)}, or -1.
+     */
+    private static int parseDigits(String text, int from, int to) {
+        int length = to - from;
+        if (length < 1 || length > 4 || (from > 0 && length > 2)) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    static final class Builder {
+
+        private final IntList rowValues;
+        private final Map<String, Integer> codesByValue = new HashMap<>();
+        private final List<String> unparsed = new ArrayList<>();
+
+        Builder(int expectedRows) {
+            this.rowValues = new IntList(expectedRows);
+        }
+
+        void add(String value) {
+            if (value == null) {
+                rowValues.add(NULL);
+                return;
+            }
+            int packed = pack(value);
+            if (packed == NULL) {
+                Integer code = codesByValue.get(value);
+                if (code == null) {
+                    code = unparsed.size();
+                    codesByValue.put(value, code);
+                    unparsed.add(value);
+                }
+                packed = -code - 1;
+            }
+            rowValues.add(packed);
+        }
+
+        /**
+         * Builds the column with rows rearranged so that row {@code i} is the
+         * {@code order[i]}-th value that was added.
+         */
+        PackedDateColumn build(int[] order) {
+            int[] values = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                values[i] = rowValues.get(order[i]);
+            }
+            return new PackedDateColumn(values, unparsed.toArray(new String[0]));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.usermanagement.store;
+
+import com.example.usermanagement.entity.PhoneticKeys;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Double Metaphone index over a {@link DictionaryColumn}. Keys are computed once per
+ * distinct name when the table is built, and map to dictionary codes; the rows of each
+ * code come from the column's {@link PostingIndex}. A lookup therefore touches only the
+ * matching rows and never encodes anything per row.
+ */
+final class PhoneticIndex {
+
+    private static final int[] NO_CODES = new int[0];
+
+    private final Map<String, int[]> codesByKey = new HashMap<>();
+    private final PostingIndex postings;
+
+    PhoneticIndex(DictionaryColumn column, PostingIndex postings) {
+        this.postings = postings;
+        Map<String, IntList> codes = new HashMap<>();
+        for (int code = 0; code < column.cardinality(); code++) {
+            for (String key : PhoneticKeys.of(column.value(code))) {
+                codes.computeIfAbsent(key, k -> new IntList(2)).add(code);
+            }
+        }
+        codes.forEach((key, list) -> codesByKey.put(key, list.toArray()));
+    }
+
+    /**
+     * Rows whose value has one of the given keys.
+     */
+    RowBitmap rows(Collection<String> keys) {
+        List<RowBitmap> bitmaps = new ArrayList<>();
+        for (String key : keys) {
+            for (int code : codesByKey.getOrDefault(key, NO_CODES)) {
+                bitmaps.add(postings.rows(code));
+            }
+        }
+        return RowBitmap.union(bitmaps);
+    }
+
+    long memoryBytes() {
+        return codesByKey.size() * 64L;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.usermanagement.store;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One {@link RowBitmap} per dictionary code of a {@link DictionaryColumn}: the rows holding
+ * each distinct value. Rows matching a predicate on the values are the union of the
+ * bitmaps of the matching codes, so they cost the size of the result rather than a scan.
+ */
+final class PostingIndex {
+
+    private final RowBitmap[] rowsByCode;
+
+    PostingIndex(DictionaryColumn column, int rows) {
+        RowBitmap.Builder[] builders = new RowBitmap.Builder[column.cardinality()];
+        for (int code = 0; code < builders.length; code++) {
+            builders[code] = new RowBitmap.Builder();
+        }
+        for (int row = 0; row < rows; row++) {
+            int code = column.code(row);
+            if (code != DictionaryColumn.NULL_CODE) {
+                builders[code].add(row);
+            }
+        }
+        rowsByCode = new RowBitmap[builders.length];
+        for (int code = 0; code < builders.length; code++) {
+            rowsByCode[code] = builders[code].build();
+        }
+    }
+
+    RowBitmap rows(int code) {
+        return rowsByCode[code];
+    }
+
+    /**
+     * Rows whose code is set in {@code matches}, as from {@link DictionaryColumn#match}.
+     */
+    RowBitmap rows(boolean[] matches) {
+        List<RowBitmap> bitmaps = new ArrayList<>();
+        for (int code = 0; code < matches.length; code++) {
+            if (matches[code]) {
+                bitmaps.add(rowsByCode[code]);
+            }
+        }
+        return RowBitmap.union(bitmaps);
+    }
+
+    /**
+     * Number of rows whose code is set in {@code matches}, without building the union.
+     */
+    int count(boolean[] matches) {
+        int count = 0;
+        for (int code = 0; code < matches.length; code++) {
+            if (matches[code]) {
+                count += rowsByCode[code].cardinality();
+            }
+        }
+        return count;
+    }
+
+    long memoryBytes() {
+        long bytes = 16 + 4L * rowsByCode.length;
+        for (RowBitmap rows : rowsByCode) {
+            bytes += rows.memoryBytes();
+        }
+        return bytes;
+    }
+}
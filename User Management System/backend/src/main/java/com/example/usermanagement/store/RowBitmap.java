@@ -0,0 +1,371 @@
+package com.example.usermanagement.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable compressed set of row numbers in the layout of a Roaring bitmap. Rows are
+ * split by their high 16 bits into chunks of 65536; a chunk with at most 4096 rows is a
+ * sorted {@code char[]} of its low bits, a denser one a {@code long[1024]} bitmap. A set
+ * therefore never costs more than two bytes per row, or one bit per row of a dense chunk,
+ * and intersections walk the smaller side of each chunk.
+ *
+ * <p>Containers are held as bare arrays rather than wrapper objects to keep posting
+ * lists of rare values small; {@code instanceof} tells the two kinds apart.
+ */
+final class RowBitmap {
+
+    static final RowBitmap EMPTY = new RowBitmap(new char[0], new Object[0], 0);
+
+    /** Largest chunk kept as a sorted array; beyond this a bitmap is smaller. */
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private final char[] keys;
+    private final Object[] containers;
+    private final int cardinality;
+
+    private RowBitmap(char[] keys, Object[] containers, int cardinality) {
+        this.keys = keys;
+        this.containers = containers;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Bitmap of rows given in ascending order without duplicates.
+     */
+    static RowBitmap of(int[] sortedRows) {
+        Builder builder = new Builder();
+        for (int row : sortedRows) {
+            builder.add(row);
+        }
+        return builder.build();
+    }
+
+    int cardinality() {
+        return cardinality;
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    boolean contains(int row) {
+        int index = Arrays.binarySearch(keys, (char) (row >>> 16));
+        if (index < 0) {
+            return false;
+        }
+        Object container = containers[index];
+        char low = (char) row;
+        if (container instanceof char[] array) {
+            return Arrays.binarySearch(array, low) >= 0;
+        }
+        return (((long[]) container)[low >>> 6] & (1L << low)) != 0;
+    }
+
+    /**
+     * The rows in ascending order.
+     */
+    int[] toArray() {
+        int[] rows = new int[cardinality];
+        int n = 0;
+        for (int i = 0; i < keys.length; i++) {
+            int high = keys[i] << 16;
+            if (containers[i] instanceof char[] array) {
+                for (char low : array) {
+                    rows[n++] = high | low;
+                }
+            } else {
+                long[] words = (long[]) containers[i];
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    for (long word = words[w]; word != 0; word &= word - 1) {
+                        rows[n++] = high | (w << 6) | Long.numberOfTrailingZeros(word);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * The rows that pass the test.
+     */
+    RowBitmap filter(IntPredicate test) {
+        Builder builder = new Builder();
+        for (int row : toArray()) {
+            if (test.test(row)) {
+                builder.add(row);
+            }
+        }
+        return builder.build();
+    }
+
+    RowBitmap and(RowBitmap other) {
+        char[] outKeys = new char[Math.min(keys.length, other.keys.length)];
+        Object[] outContainers = new Object[outKeys.length];
+        int n = 0;
+        int total = 0;
+        for (int i = 0, j = 0; i < keys.length && j < other.keys.length; ) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Object container = and(containers[i], other.containers[j]);
+                int count = cardinality(container);
+                if (count > 0) {
+                    outKeys[n] = keys[i];
+                    outContainers[n++] = container;
+                    total += count;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new RowBitmap(Arrays.copyOf(outKeys, n), Arrays.copyOf(outContainers, n), total);
+    }
+
+    RowBitmap or(RowBitmap other) {
+        return union(List.of(this, other));
+    }
+
+    /**
+     * Union of any number of bitmaps in one pass over their chunks, rather than a chain of
+     * pairwise unions that would copy the growing result each time.
+     */
+    static RowBitmap union(List<RowBitmap> bitmaps) {
+        List<RowBitmap> nonEmpty = new ArrayList<>(bitmaps.size());
+        for (RowBitmap bitmap : bitmaps) {
+            if (!bitmap.isEmpty()) {
+                nonEmpty.add(bitmap);
+            }
+        }
+        if (nonEmpty.size() <= 1) {
+            return nonEmpty.isEmpty() ? EMPTY : nonEmpty.get(0);
+        }
+        // Every chunk as key << 47 | bitmap << 16 | container, sorted so chunks group by key
+        int chunks = 0;
+        for (RowBitmap bitmap : nonEmpty) {
+            chunks += bitmap.keys.length;
+        }
+        long[] refs = new long[chunks];
+        int r = 0;
+        for (int b = 0; b < nonEmpty.size(); b++) {
+            RowBitmap bitmap = nonEmpty.get(b);
+            for (int i = 0; i < bitmap.keys.length; i++) {
+                refs[r++] = (long) bitmap.keys[i] << 47 | (long) b << 16 | i;
+            }
+        }
+        Arrays.sort(refs);
+
+        char[] outKeys = new char[chunks];
+        Object[] outContainers = new Object[chunks];
+        int n = 0;
+        int total = 0;
+        long[] scratch = new long[BITMAP_WORDS];
+        for (int from = 0; from < refs.length; ) {
+            char key = (char) (refs[from] >>> 47);
+            int to = from;
+            while (to < refs.length && (char) (refs[to] >>> 47) == key) {
+                to++;
+            }
+            Object container;
+            if (to - from == 1) {
+                container = containerOf(nonEmpty, refs[from]);
+            } else {
+                Arrays.fill(scratch, 0);
+                for (int k = from; k < to; k++) {
+                    orInto(scratch, containerOf(nonEmpty, refs[k]));
+                }
+                container = compact(scratch);
+            }
+            outKeys[n] = key;
+            outContainers[n++] = container;
+            total += cardinality(container);
+            from = to;
+        }
+        return new RowBitmap(Arrays.copyOf(outKeys, n), Arrays.copyOf(outContainers, n), total);
+    }
+
+    long memoryBytes() {
+        long bytes = 16 + 2L * keys.length + 16 + 4L * containers.length;
+        for (Object container : containers) {
+            bytes += container instanceof char[] array ? 16 + 2L * array.length : 16 + 8L * BITMAP_WORDS;
+        }
+        return bytes;
+    }
+
+    private static Object containerOf(List<RowBitmap> bitmaps, long ref) {
+        return bitmaps.get((int) ((ref >>> 16) & 0x7fffffff)).containers[(int) ref & 0xffff];
+    }
+
+    private static Object and(Object left, Object right) {
+        if (left instanceof char[] a) {
+            return right instanceof char[] b ? intersect(a, b) : select(a, (long[]) right);
+        }
+        if (right instanceof char[] b) {
+            return select(b, (long[]) left);
+        }
+        long[] a = (long[]) left;
+        long[] b = (long[]) right;
+        long[] words = new long[BITMAP_WORDS];
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            words[w] = a[w] & b[w];
+        }
+        return compact(words);
+    }
+
+    /**
+     * Sorted intersection; gallops through the longer array when the sizes differ a lot.
+     */
+    private static char[] intersect(char[] a, char[] b) {
+        if (a.length > b.length) {
+            char[] swap = a;
+            a = b;
+            b = swap;
+        }
+        char[] out = new char[a.length];
+        int n = 0;
+        if (b.length > 32 * a.length) {
+            int from = 0;
+            for (char value : a) {
+                int index = Arrays.binarySearch(b, from, b.length, value);
+                if (index >= 0) {
+                    out[n++] = value;
+                    from = index + 1;
+                } else {
+                    from = -index - 1;
+                }
+            }
+        } else {
+            for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+                if (a[i] < b[j]) {
+                    i++;
+                } else if (a[i] > b[j]) {
+                    j++;
+                } else {
+                    out[n++] = a[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static char[] select(char[] array, long[] words) {
+        char[] out = new char[array.length];
+        int n = 0;
+        for (char value : array) {
+            if ((words[value >>> 6] & (1L << value)) != 0) {
+                out[n++] = value;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static void orInto(long[] words, Object container) {
+        if (container instanceof char[] array) {
+            for (char value : array) {
+                words[value >>> 6] |= 1L << value;
+            }
+        } else {
+            long[] other = (long[]) container;
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                words[w] |= other[w];
+            }
+        }
+    }
+
+    /**
+     * The smaller container for the bits set in {@code words}; copies, never keeps the array.
+     */
+    private static Object compact(long[] words) {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        if (count > ARRAY_LIMIT) {
+            return words.clone();
+        }
+        char[] array = new char[count];
+        int n = 0;
+        for (int w = 0; w < BITMAP_WORDS; w++) {
+            for (long word = words[w]; word != 0; word &= word - 1) {
+                array[n++] = (char) ((w << 6) | Long.numberOfTrailingZeros(word));
+            }
+        }
+        return array;
+    }
+
+    private static int cardinality(Object container) {
+        if (container instanceof char[] array) {
+            return array.length;
+        }
+        int count = 0;
+        for (long word : (long[]) container) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Collects rows added in ascending order.
+     */
+    static final class Builder {
+
+        private final List<Character> keys = new ArrayList<>();
+        private final List<Object> containers = new ArrayList<>();
+        private int cardinality;
+        private int currentKey = -1;
+        private char[] values = new char[16];
+        private long[] words;
+        private int count;
+
+        void add(int row) {
+            int key = row >>> 16;
+            if (key != currentKey) {
+                flush();
+                currentKey = key;
+            }
+            char low = (char) row;
+            if (words != null) {
+                words[low >>> 6] |= 1L << low;
+            } else if (count == ARRAY_LIMIT) {
+                words = new long[BITMAP_WORDS];
+                for (int i = 0; i < count; i++) {
+                    words[values[i] >>> 6] |= 1L << values[i];
+                }
+                words[low >>> 6] |= 1L << low;
+            } else {
+                if (count == values.length) {
+                    values = Arrays.copyOf(values, count * 2);
+                }
+                values[count] = low;
+            }
+            count++;
+        }
+
+        RowBitmap build() {
+            flush();
+            char[] keyArray = new char[keys.size()];
+            for (int i = 0; i < keyArray.length; i++) {
+                keyArray[i] = keys.get(i);
+            }
+            return keyArray.length == 0 ? EMPTY : new RowBitmap(keyArray, containers.toArray(), cardinality);
+        }
+
+        private void flush() {
+            if (count == 0) {
+                return;
+            }
+            keys.add((char) currentKey);
+            containers.add(words != null ? words : Arrays.copyOf(values, count));
+            cardinality += count;
+            words = null;
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.usermanagement.store;
+
+import java.util.Arrays;
+
+/**
+ * Immutable set of rows of one shard that writes have replaced or deleted since the shard
+ * was built, as a plain bitset. Adding rows copies it, so tables sharing a mask never see
+ * each other's writes.
+ */
+final class RowMask {
+
+    private final long[] words;
+    private final int count;
+
+    private RowMask(long[] words, int count) {
+        this.words = words;
+        this.count = count;
+    }
+
+    /**
+     * Returns {@code mask} with the rows added; {@code mask} may be null for no rows.
+     */
+    static RowMask with(RowMask mask, int rowCount, IntList rows) {
+        long[] words = mask == null ? new long[(rowCount + 63) >>> 6] : mask.words.clone();
+        int count = mask == null ? 0 : mask.count;
+        for (int i = 0; i < rows.size(); i++) {
+            int row = rows.get(i);
+            long bit = 1L << row;
+            if ((words[row >>> 6] & bit) == 0) {
+                words[row >>> 6] |= bit;
+                count++;
+            }
+        }
+        return new RowMask(words, count);
+    }
+
+    boolean contains(int row) {
+        return (words[row >>> 6] & 1L << row) != 0;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * The given rows, in their order, without the masked ones.
+     */
+    int[] remove(int[] rows) {
+        int kept = 0;
+        int[] result = new int[rows.length];
+        for (int row : rows) {
+            if (!contains(row)) {
+                result[kept++] = row;
+            }
+        }
+        return kept == rows.length ? rows : Arrays.copyOf(result, kept);
+    }
+
+    long memoryBytes() {
+        return (long) words.length * Long.BYTES;
+    }
+}
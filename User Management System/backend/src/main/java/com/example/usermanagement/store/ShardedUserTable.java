@@ -0,0 +1,406 @@
+package com.example.usermanagement.store;
+
+import com.example.usermanagement.entity.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Immutable set of {@link ColumnarUserTable} shards, partitioned by a hash of the user id.
+ * Point lookups probe one shard; scans run per shard, in parallel on a fork-join pool once
+ * the table is large enough, and are merged back into id order. Spatial queries are grid
+ * lookups and stay on the calling thread.
+ *
+ * <p>Writes do not rebuild the shards. Written users go into a small delta table, read
+ * alongside the shards as one more partition, and the shard rows they replace or delete
+ * are masked out of every result. Once the rows copied into successive deltas add up to
+ * the size of the table, the delta is folded into the shards it touches: a full rebuild
+ * then costs no more than the deltas already have, which keeps both single-row writes and
+ * large batches within about twice the cost of the best folding schedule.
+ */
+final class ShardedUserTable {
+
+    private final ColumnarUserTable[] shards;
+    /** Users written since the shards were built, of every shard; they win over the shards. */
+    private final ColumnarUserTable delta;
+    /** The shards followed by the delta: the tables every read goes through. */
+    private final ColumnarUserTable[] tables;
+    /** Per table, rows replaced or deleted by later writes, or null where there are none. */
+    private final RowMask[] masks;
+    /** Rows built into delta tables since the shards were last rebuilt. */
+    private final long deltaWork;
+    private final int size;
+
+    private ShardedUserTable(ColumnarUserTable[] shards) {
+        this(shards, ColumnarUserTable.empty(), new RowMask[shards.length + 1], 0);
+    }
+
+    private ShardedUserTable(ColumnarUserTable[] shards, ColumnarUserTable delta, RowMask[] masks, long deltaWork) {
+        this.shards = shards;
+        this.delta = delta;
+        this.tables = Arrays.copyOf(shards, shards.length + 1);
+        this.tables[shards.length] = delta;
+        this.masks = masks;
+        this.deltaWork = deltaWork;
+        int total = 0;
+        for (int i = 0; i < tables.length; i++) {
+            total += tables[i].size() - (masks[i] == null ? 0 : masks[i].count());
+        }
+        this.size = total;
+    }
+
+    static ShardedUserTable empty(int shardCount) {
+        ColumnarUserTable[] shards = new ColumnarUserTable[shardCount];
+        Arrays.fill(shards, ColumnarUserTable.empty());
+        return new ShardedUserTable(shards);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long memoryBytes() {
+        long bytes = 0;
+        for (int i = 0; i < tables.length; i++) {
+            bytes += tables[i].memoryBytes() + (masks[i] == null ? 0 : masks[i].memoryBytes());
+        }
+        return bytes;
+    }
+
+    /**
+     * Rows of the delta table, not yet folded into the shards.
+     */
+    int deltaSize() {
+        return delta.size();
+    }
+
+    /**
+     * The highest id held, or 0 when empty; rows deleted since the last fold still count.
+     */
+    long maxId() {
+        long max = 0;
+        for (ColumnarUserTable table : tables) {
+            if (table.size() > 0) {
+                max = Math.max(max, table.ids[table.size() - 1]);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Uses different bits of the id than {@link IdHashIndex}, so the rows of one shard
+     * still spread over all slots of that shard's id index.
+     */
+    int shardOf(long id) {
+        return shards.length == 1 ? 0 : Math.floorMod((int) ((id * 0xC2B2AE3D27D4EB4FL) >>> 33), shards.length);
+    }
+
+    User findById(long id) {
+        int row = delta.rowOfId(id);
+        if (row >= 0) {
+            return delta.toUser(row);
+        }
+        int shard = shardOf(id);
+        row = shards[shard].rowOfId(id);
+        return row < 0 || !isVisible(shard, row) ? null : shards[shard].toUser(row);
+    }
+
+    /**
+     * The user whose email equals the given one ignoring case, or {@code null}. Emails are
+     * not the partition key, so every shard is probed.
+     */
+    User findByEmailIgnoreCase(String email) {
+        for (int i = 0; i < tables.length; i++) {
+            int row = tables[i].rowOfEmailIgnoreCase(email);
+            if (row >= 0 && isVisible(i, row)) {
+                return tables[i].toUser(row);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The user whose SSN equals the given one, or {@code null}.
+     */
+    User findBySsn(String ssn) {
+        for (int i = 0; i < tables.length; i++) {
+            int row = tables[i].rowOfSsn(ssn);
+            if (row >= 0 && isVisible(i, row)) {
+                return tables[i].toUser(row);
+            }
+        }
+        return null;
+    }
+
+    List<User> findAll() {
+        return scatter(shard -> allRows(shard.size()), null, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    List<User> fullTextSearch(String searchTerm, ForkJoinPool pool, int parallelThreshold) {
+        // An id or email hit is the whole answer and lives in exactly one shard
+        for (int i = 0; i < tables.length; i++) {
+            int row = ColumnarSearch.exactMatch(tables[i], searchTerm);
+            if (row >= 0 && isVisible(i, row)) {
+                return List.of(tables[i].toUser(row));
+            }
+        }
+        return scatter(shard -> ColumnarSearch.scanFullText(shard, searchTerm, null), pool, parallelThreshold,
+                Integer.MAX_VALUE);
+    }
+
+    List<User> basicSearch(String searchTerm, ForkJoinPool pool, int parallelThreshold) {
+        return scatter(shard -> ColumnarSearch.basicSearch(shard, searchTerm, null), pool, parallelThreshold,
+                Integer.MAX_VALUE);
+    }
+
+    /**
+     * Users matching the query, in id order. Full-text terms naming a user by id or email
+     * are resolved across all shards first, as in {@link #fullTextSearch}.
+     */
+    List<User> query(UserQuery query, ForkJoinPool pool, int parallelThreshold) {
+        Map<UserQuery.Term, Long> exactIds = exactIds(query);
+        // Without text terms the query is bitmap work on index lookups, not worth fanning out
+        return scatter(shard -> new ColumnarQuery(shard, exactIds).evaluate(query).toArray(),
+                query.containsTerm() ? pool : null, parallelThreshold, Integer.MAX_VALUE);
+    }
+
+    long count(UserQuery query) {
+        Map<UserQuery.Term, Long> exactIds = exactIds(query);
+        long count = 0;
+        for (int i = 0; i < tables.length; i++) {
+            ColumnarQuery columnarQuery = new ColumnarQuery(tables[i], exactIds);
+            // Histogram counts cannot leave out masked rows, so those shards count the rows
+            count += masks[i] == null ? columnarQuery.count(query)
+                    : masks[i].remove(columnarQuery.evaluate(query).toArray()).length;
+        }
+        return count;
+    }
+
+    List<User> phoneticSearch(Collection<String> keys) {
+        // Index lookups touch only matching rows, no need to fan out to the pool
+        return scatter(shard -> shard.rowsWithPhoneticKey(keys), null, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * The {@code limit} users closest to the point within {@code radiusKm}, nearest first
+     * and then by id.
+     */
+    List<User> findNear(double latitude, double longitude, double radiusKm, int limit) {
+        GeoMath.Box box = GeoMath.around(latitude, longitude, radiusKm);
+        double maxHaversine = GeoMath.haversineOf(radiusKm);
+        NearestRows nearest = new NearestRows(limit);
+        for (int i = 0; i < tables.length; i++) {
+            NearSearch.collect(tables[i], i, masks[i], latitude, longitude, box, maxHaversine, nearest);
+        }
+        nearest.sort();
+        List<User> users = new ArrayList<>(nearest.size());
+        for (int i = 0; i < nearest.size(); i++) {
+            users.add(tables[nearest.shard(i)].toUser(nearest.row(i)));
+        }
+        return users;
+    }
+
+    /**
+     * The first {@code limit} users inside the box, in id order.
+     */
+    List<User> findInBox(GeoMath.Box box, int limit) {
+        return scatter(shard -> shard.rowsInBox(box), null, Integer.MAX_VALUE, limit);
+    }
+
+    /**
+     * The first {@code limit} users with ids above {@code afterId}, in id order. Rows are
+     * stored in id order, so each table contributes a run found by binary search.
+     */
+    List<User> pageAfter(long afterId, int limit) {
+        int[][] rows = new int[tables.length][];
+        for (int i = 0; i < tables.length; i++) {
+            long[] ids = tables[i].ids;
+            int found = Arrays.binarySearch(ids, afterId);
+            IntList run = new IntList(Math.min(limit, ids.length));
+            for (int row = found >= 0 ? found + 1 : -found - 1; row < ids.length && run.size() < limit; row++) {
+                if (isVisible(i, row)) {
+                    run.add(row);
+                }
+            }
+            rows[i] = run.toArray();
+        }
+        return merge(rows, limit);
+    }
+
+    /**
+     * Returns a table with {@code upserts} written by id and the users with the
+     * {@code deletes} ids removed. The rows go into a new delta table and the shards are
+     * shared, until the delta is due to be folded in.
+     */
+    ShardedUserTable withChanges(Collection<User> upserts, Collection<Long> deletes) {
+        LongIntHashIndex written = new LongIntHashIndex(upserts.size() + deletes.size());
+        List<Long> ids = new ArrayList<>(upserts.size() + deletes.size());
+        for (User user : upserts) {
+            if (user.getId() == null) {
+                throw new IllegalArgumentException("In-memory store requires users with an id");
+            }
+            ids.add(user.getId());
+        }
+        ids.addAll(deletes);
+
+        IntList[] replaced = new IntList[shards.length];
+        for (long id : ids) {
+            written.put(id, 0);
+            int shard = shardOf(id);
+            int row = shards[shard].rowOfId(id);
+            if (row >= 0) {
+                if (replaced[shard] == null) {
+                    replaced[shard] = new IntList();
+                }
+                replaced[shard].add(row);
+            }
+        }
+        RowMask[] nextMasks = masks.clone();
+        for (int i = 0; i < shards.length; i++) {
+            if (replaced[i] != null) {
+                nextMasks[i] = RowMask.with(masks[i], shards[i].size(), replaced[i]);
+            }
+        }
+
+        ColumnarUserTable.Builder builder = ColumnarUserTable.builder(delta.size() + upserts.size())
+                .addRows(delta, id -> written.get(id) == LongIntHashIndex.MISSING);
+        upserts.forEach(builder::add);
+        ColumnarUserTable nextDelta = builder.build();
+        ShardedUserTable next = new ShardedUserTable(shards, nextDelta, nextMasks, deltaWork + nextDelta.size());
+        return next.deltaWork >= next.size ? next.fold(ColumnarUserTable.empty()) : next;
+    }
+
+    /**
+     * Returns a table with every row of {@code staged} upserted by id.
+     */
+    ShardedUserTable withTable(ColumnarUserTable staged) {
+        return fold(staged);
+    }
+
+    /**
+     * Rebuilds the shards with the delta and then {@code incoming} written over them. Shards
+     * that neither touches and that have no masked rows are shared with this table.
+     */
+    private ShardedUserTable fold(ColumnarUserTable incoming) {
+        boolean[] touched = new boolean[shards.length];
+        for (long id : delta.ids) {
+            touched[shardOf(id)] = true;
+        }
+        for (long id : incoming.ids) {
+            touched[shardOf(id)] = true;
+        }
+        ColumnarUserTable[] next = shards.clone();
+        for (int i = 0; i < shards.length; i++) {
+            if (!touched[i] && masks[i] == null) {
+                continue;
+            }
+            int shard = i;
+            ColumnarUserTable base = shards[i];
+            ColumnarUserTable.Builder builder = ColumnarUserTable.builder(
+                    base.size() + (delta.size() + incoming.size()) / shards.length);
+            for (int row = 0; row < base.size(); row++) {
+                if (isVisible(i, row) && incoming.rowOfId(base.ids[row]) < 0) {
+                    builder.add(base.toUser(row));
+                }
+            }
+            // The builder keeps the last row added per id, so incoming rows win over the delta
+            builder.addRows(delta, id -> shardOf(id) == shard);
+            next[i] = builder.addRows(incoming, id -> shardOf(id) == shard).build();
+        }
+        return new ShardedUserTable(next);
+    }
+
+    private boolean isVisible(int table, int row) {
+        return masks[table] == null || !masks[table].contains(row);
+    }
+
+    private Map<UserQuery.Term, Long> exactIds(UserQuery query) {
+        Map<UserQuery.Term, Long> exactIds = new HashMap<>();
+        collectExactIds(query, exactIds);
+        return exactIds;
+    }
+
+    private void collectExactIds(UserQuery query, Map<UserQuery.Term, Long> exactIds) {
+        if (query instanceof UserQuery.And and) {
+            and.operands().forEach(operand -> collectExactIds(operand, exactIds));
+        } else if (query instanceof UserQuery.Or or) {
+            or.operands().forEach(operand -> collectExactIds(operand, exactIds));
+        } else if (query instanceof UserQuery.Term term && term.fullText() && !exactIds.containsKey(term)) {
+            for (int i = 0; i < tables.length; i++) {
+                int row = ColumnarSearch.exactMatch(tables[i], term.text());
+                if (row >= 0 && isVisible(i, row)) {
+                    exactIds.put(term, tables[i].ids[row]);
+                    break;
+                }
+            }
+        }
+    }
+
+    private List<User> scatter(Function<ColumnarUserTable, int[]> search, ForkJoinPool pool, int parallelThreshold,
+                               int limit) {
+        int[][] rows = new int[tables.length][];
+        if (shards.length == 1 || pool == null || size < parallelThreshold) {
+            for (int i = 0; i < tables.length; i++) {
+                rows[i] = search.apply(tables[i]);
+            }
+        } else {
+            List<ForkJoinTask<int[]>> tasks = new ArrayList<>(tables.length);
+            for (ColumnarUserTable table : tables) {
+                tasks.add(pool.submit(() -> search.apply(table)));
+            }
+            for (int i = 0; i < tables.length; i++) {
+                rows[i] = tasks.get(i).join();
+            }
+        }
+        for (int i = 0; i < tables.length; i++) {
+            if (masks[i] != null) {
+                rows[i] = masks[i].remove(rows[i]);
+            }
+        }
+        return merge(rows, limit);
+    }
+
+    /**
+     * K-way merge of the first {@code limit} per-table results, each already in id order.
+     * Tables never share an id once masked rows are left out.
+     */
+    private List<User> merge(int[][] rows, int limit) {
+        int total = 0;
+        for (int[] shardRows : rows) {
+            total += shardRows.length;
+        }
+        total = Math.min(total, limit);
+        List<User> users = new ArrayList<>(total);
+        int[] heads = new int[rows.length];
+        for (int n = 0; n < total; n++) {
+            int best = -1;
+            long bestId = Long.MAX_VALUE;
+            for (int i = 0; i < rows.length; i++) {
+                if (heads[i] < rows[i].length) {
+                    long id = tables[i].ids[rows[i][heads[i]]];
+                    if (best < 0 || id < bestId) {
+                        best = i;
+                        bestId = id;
+                    }
+                }
+            }
+            users.add(tables[best].toUser(rows[best][heads[best]++]));
+        }
+        return users;
+    }
+
+    private static int[] allRows(int count) {
+        int[] rows = new int[count];
+        for (int row = 0; row < count; row++) {
+            rows[row] = row;
+        }
+        return rows;
+    }
+}
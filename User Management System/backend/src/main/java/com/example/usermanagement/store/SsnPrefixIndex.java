@@ -0,0 +1,162 @@
+package com.example.usermanagement.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rows by the first three digits of the SSN, dashes ignored: the area number of a
+ * {@code 123-45-6789} SSN. A prefix of up to three digits is the union of the areas it
+ * covers; a longer one takes its area's rows and checks the rest of the digits on those
+ * rows only. SSNs that do not start with three digits are kept aside and checked one by one,
+ * with their hashes sorted so an exact SSN among them is found by binary search.
+ */
+final class SsnPrefixIndex {
+
+    static final int KEY_DIGITS = 3;
+    private static final int KEYS = 1000;
+
+    private final Latin1Column ssn;
+    private final RowBitmap[] rowsByKey = new RowBitmap[KEYS];
+    private final int[] outliers;
+    private final int[] outlierHashes;
+    private final int[] outliersByHash;
+
+    /**
+     * @param ssn the SSN column, kept by reference, not copied
+     */
+    SsnPrefixIndex(Latin1Column ssn) {
+        this.ssn = ssn;
+        RowBitmap.Builder[] builders = new RowBitmap.Builder[KEYS];
+        for (int key = 0; key < KEYS; key++) {
+            builders[key] = new RowBitmap.Builder();
+        }
+        IntList outside = new IntList();
+        for (int row = 0; row < ssn.cardinality(); row++) {
+            int key = ssn.leadingDigits(row, KEY_DIGITS);
+            if (key >= 0) {
+                builders[key].add(row);
+            } else if (ssn.code(row) != DictionaryColumn.NULL_CODE) {
+                outside.add(row);
+            }
+        }
+        for (int key = 0; key < KEYS; key++) {
+            rowsByKey[key] = builders[key].build();
+        }
+        outliers = outside.toArray();
+        long[] byHash = new long[outliers.length];
+        for (int i = 0; i < outliers.length; i++) {
+            byHash[i] = (long) ssn.lowerCaseHash(outliers[i]) << 32 | outliers[i];
+        }
+        Arrays.sort(byHash);
+        outlierHashes = new int[byHash.length];
+        outliersByHash = new int[byHash.length];
+        for (int i = 0; i < byHash.length; i++) {
+            outlierHashes[i] = (int) (byHash[i] >> 32);
+            outliersByHash[i] = (int) byHash[i];
+        }
+    }
+
+    /**
+     * Rows that may hold exactly {@code value}: its area's rows when it starts with three
+     * digits, dashes ignored, otherwise the rows kept aside whose hash matches.
+     */
+    int[] candidates(String value) {
+        int key = 0;
+        int digits = 0;
+        for (int i = 0; i < value.length() && digits < KEY_DIGITS; i++) {
+            char c = value.charAt(i);
+            if (c == '-') {
+                continue;
+            }
+            if (c < '0' || c > '9') {
+                break;
+            }
+            key = key * 10 + (c - '0');
+            digits++;
+        }
+        // Values a Latin-1 column cannot hold as bytes are kept aside whatever they start with
+        if (digits == KEY_DIGITS && value.chars().allMatch(c -> c <= 0xff)) {
+            return rowsByKey[key].toArray();
+        }
+        int hash = value.toLowerCase(Locale.ROOT).hashCode();
+        int from = Arrays.binarySearch(outlierHashes, hash);
+        if (from < 0) {
+            return new int[0];
+        }
+        while (from > 0 && outlierHashes[from - 1] == hash) {
+            from--;
+        }
+        int to = from;
+        while (to < outlierHashes.length && outlierHashes[to] == hash) {
+            to++;
+        }
+        return Arrays.copyOfRange(outliersByHash, from, to);
+    }
+
+    /**
+     * Rows whose SSN without dashes starts with {@code digits}, which must be non-empty and
+     * all digits.
+     */
+    RowBitmap rows(String digits) {
+        List<RowBitmap> bitmaps = new ArrayList<>();
+        if (digits.length() > KEY_DIGITS) {
+            bitmaps.add(rowsByKey[key(digits)].filter(row -> ssn.startsWithIgnoringDashes(row, digits)));
+        } else {
+            int span = span(digits);
+            for (int key = key(digits) * span; key < (key(digits) + 1) * span; key++) {
+                bitmaps.add(rowsByKey[key]);
+            }
+        }
+        IntList outside = new IntList();
+        for (int row : outliers) {
+            if (ssn.startsWithIgnoringDashes(row, digits)) {
+                outside.add(row);
+            }
+        }
+        if (outside.size() > 0) {
+            bitmaps.add(RowBitmap.of(outside.toArray()));
+        }
+        return RowBitmap.union(bitmaps);
+    }
+
+    /**
+     * Upper bound on the number of rows {@link #rows(String)} returns, without building them.
+     */
+    int estimate(String digits) {
+        int count = outliers.length;
+        int span = digits.length() > KEY_DIGITS ? 1 : span(digits);
+        int from = key(digits) * span;
+        for (int key = from; key < from + span; key++) {
+            count += rowsByKey[key].cardinality();
+        }
+        return count;
+    }
+
+    long memoryBytes() {
+        long bytes = (long) outliers.length * 3 * Integer.BYTES;
+        for (RowBitmap rows : rowsByKey) {
+            bytes += rows.memoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * The leading digits that fall within the key, as a number.
+     */
+    private static int key(String digits) {
+        return Integer.parseInt(digits.substring(0, Math.min(KEY_DIGITS, digits.length())));
+    }
+
+    /**
+     * Number of keys sharing a prefix of this many digits.
+     */
+    private static int span(String digits) {
+        int span = 1;
+        for (int i = digits.length(); i < KEY_DIGITS; i++) {
+            span *= 10;
+        }
+        return span;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.usermanagement.store;
+
+import com.example.usermanagement.entity.User;
+
+import java.util.List;
+
+/**
+ * Compound search: text terms and attribute conditions combined with AND and OR. Leaves
+ * match the way the single-purpose searches do; a role or gender compares ignoring case,
+ * age bounds are inclusive and a user without an age or SSN fails any condition on it.
+ */
+public sealed interface UserQuery
+        permits UserQuery.Term, UserQuery.Role, UserQuery.Gender, UserQuery.Age, UserQuery.SsnPrefix,
+                UserQuery.And, UserQuery.Or {
+
+    /**
+     * Whether the user satisfies the query. Terms are only answered by a store, so this is
+     * defined for queries without them.
+     */
+    boolean matches(User user);
+
+    default boolean containsTerm() {
+        return false;
+    }
+
+    /**
+     * The single operand itself, otherwise their conjunction.
+     */
+    static UserQuery allOf(List<UserQuery> operands) {
+        return operands.size() == 1 ? operands.get(0) : new And(operands);
+    }
+
+    /**
+     * The single operand itself, otherwise their disjunction.
+     */
+    static UserQuery anyOf(List<UserQuery> operands) {
+        return operands.size() == 1 ? operands.get(0) : new Or(operands);
+    }
+
+    /**
+     * Text search: the full-text rules of {@link UserStore#fullTextSearch(String)} when
+     * {@code fullText} is set, those of {@link UserStore#findBySearchTerm(String)} otherwise.
+     */
+    record Term(String text, boolean fullText) implements UserQuery {
+
+        /**
+         * The term as the search endpoint runs it: full text from three characters on.
+         */
+        public static Term of(String text) {
+            String trimmed = text.trim();
+            return new Term(trimmed, trimmed.length() >= 3);
+        }
+
+        @Override
+        public boolean matches(User user) {
+            throw new UnsupportedOperationException("Text terms are evaluated by the store");
+        }
+
+        @Override
+        public boolean containsTerm() {
+            return true;
+        }
+    }
+
+    record Role(String name) implements UserQuery {
+
+        @Override
+        public boolean matches(User user) {
+            return name.equalsIgnoreCase(user.getRole());
+        }
+    }
+
+    record Gender(String name) implements UserQuery {
+
+        @Override
+        public boolean matches(User user) {
+            return name.equalsIgnoreCase(user.getGender());
+        }
+    }
+
+    /**
+     * Inclusive age range; a null bound is open, so with both null any known age matches.
+     */
+    record Age(Integer min, Integer max) implements UserQuery {
+
+        @Override
+        public boolean matches(User user) {
+            return user.getAge() != null && AgeIndex.within(user.getAge(), min, max);
+        }
+    }
+
+    /**
+     * SSNs that start with the digits once dashes are removed.
+     */
+    record SsnPrefix(String digits) implements UserQuery {
+
+        public SsnPrefix {
+            if (digits.isEmpty() || !digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                throw new IllegalArgumentException("SSN prefix must be one or more digits");
+            }
+        }
+
+        @Override
+        public boolean matches(User user) {
+            return user.getSsn() != null && user.getSsn().replace("-", "").startsWith(digits);
+        }
+    }
+
+    record And(List<UserQuery> operands) implements UserQuery {
+
+        public And {
+            operands = List.copyOf(operands);
+            if (operands.isEmpty()) {
+                throw new IllegalArgumentException("AND needs at least one operand");
+            }
+        }
+
+        @Override
+        public boolean matches(User user) {
+            return operands.stream().allMatch(operand -> operand.matches(user));
+        }
+
+        @Override
+        public boolean containsTerm() {
+            return operands.stream().anyMatch(UserQuery::containsTerm);
+        }
+    }
+
+    record Or(List<UserQuery> operands) implements UserQuery {
+
+        public Or {
+            operands = List.copyOf(operands);
+            if (operands.isEmpty()) {
+                throw new IllegalArgumentException("OR needs at least one operand");
+            }
+        }
+
+        @Override
+        public boolean matches(User user) {
+            return operands.stream().anyMatch(operand -> operand.matches(user));
+        }
+
+        @Override
+        public boolean containsTerm() {
+            return operands.stream().anyMatch(UserQuery::containsTerm);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.usermanagement.store;
+
+import com.example.usermanagement.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Storage engine behind {@link com.example.usermanagement.service.UserService}.
+ * The default implementation goes through JPA/H2; the {@code memory} profile swaps in
+ * a columnar in-memory engine for the read-mostly workload.
+ */
+public interface UserStore {
+
+    List<User> findAll();
+
+    Optional<User> findById(Long id);
+
+    Optional<User> findByEmail(String email);
+
+    /**
+     * Search for terms of three or more characters: exact id and email hits first,
+     * then substring matching on names, email and SSN, ordered by id.
+     */
+    List<User> fullTextSearch(String searchTerm);
+
+    /**
+     * Basic substring search on names and SSN used for short terms.
+     */
+    List<User> findBySearchTerm(String searchTerm);
+
+    /**
+     * Users matching the compound query, ordered by id.
+     */
+    List<User> query(UserQuery query);
+
+    /**
+     * Users whose first or last name has one of the given Double Metaphone keys (see
+     * {@link com.example.usermanagement.entity.PhoneticKeys}), ordered by id. Keys are
+     * precomputed at write time, so this is an index lookup rather than a scan.
+     */
+    List<User> phoneticSearch(Collection<String> keys);
+
+    /**
+     * At most {@code limit} users located within {@code radiusKm} (great-circle distance)
+     * of the point, nearest first and then by id.
+     */
+    List<User> findNear(double latitude, double longitude, double radiusKm, int limit);
+
+    /**
+     * The first {@code limit} users, by id, located inside the box. A box whose
+     * {@code minLongitude} exceeds its {@code maxLongitude} crosses the antimeridian.
+     */
+    List<User> findInBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude, int limit);
+
+    /**
+     * The first {@code limit} users with ids above {@code afterId}, in id order: one page
+     * of a keyset walk, so the whole table can be read without holding all of it at once.
+     */
+    List<User> findPageAfter(long afterId, int limit);
+
+    /**
+     * The stored users among the given ids, in no particular order.
+     */
+    List<User> findAllById(Collection<Long> ids);
+
+    /**
+     * Users whose email is one of {@code emails}, ignoring case, or whose SSN is one of
+     * {@code ssns}: the rows a write of those keys could collide with.
+     */
+    List<User> findByEmailInOrSsnIn(Collection<String> emails, Collection<String> ssns);
+
+    /**
+     * Writes the user, replacing any stored user with its id. A user without an id is
+     * created and given one.
+     */
+    void save(User user);
+
+    /**
+     * {@link #save} for each user, as one write.
+     */
+    void saveAll(List<User> users);
+
+    /**
+     * Removes the users with these ids; ids that are not stored are ignored.
+     */
+    void deleteAllById(Collection<Long> ids);
+
+    long count();
+
+    /**
+     * Number of users matching the compound query.
+     */
+    long count(UserQuery query);
+
+    void reindex();
+
+    /**
+     * Returns the open bulk load, starting a new one if none is pending. Rows added to it
+     * may stay invisible to readers until {@link BulkLoad#publish()}; a session that was
+     * neither published nor aborted is handed out again, so a resumed load continues it.
+     */
+    BulkLoad openBulkLoad();
+
+    interface BulkLoad {
+
+        void add(List<User> users);
+
+        /**
+         * Makes every added row visible at once, upserting by id over the current data.
+         */
+        void publish();
+
+        /**
+         * Drops rows that were added but not yet published.
+         */
+        void abort();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.usermanagement.config;
+
+import com.example.usermanagement.service.DataLoadJob;
+import com.example.usermanagement.service.DataLoadJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * The warm-up is submitted once the application is ready, and the readiness probe only
+ * passes once it has finished. The load itself is stubbed, so the test decides when.
+ */
+@SpringBootTest(properties = {
+        "app.warmup.enabled=true",
+        "app.snapshot.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:data-initializer"
+})
+@AutoConfigureMockMvc
+class DataInitializerTest {
+
+    private static final DataLoadJob WARMUP = new DataLoadJob("warmup");
+
+    @TestConfiguration
+    static class StubbedLoads {
+
+        /** Stubbed when created, the warm-up is submitted before any test method runs. */
+        @Bean
+        @Primary
+        DataLoadJobService stubbedDataLoadJobService() {
+            DataLoadJobService dataLoadJobService = mock(DataLoadJobService.class);
+            when(dataLoadJobService.submitLoad()).thenReturn(WARMUP);
+            return dataLoadJobService;
+        }
+    }
+
+    @Autowired
+    private DataLoadJobService dataLoadJobService;
+
+    @Autowired
+    private DataInitializer dataInitializer;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void readiness_ShouldBeOutOfServiceWhileTheWarmupRunsAndUpOnceItFinishes() throws Exception {
+        verify(dataLoadJobService).submitLoad();
+        assertSame(WARMUP, dataInitializer.getWarmupJob());
+
+        WARMUP.markRunning(0);
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value("OUT_OF_SERVICE"))
+                .andExpect(jsonPath("$.components.dataWarmup.details.warmup").value("RUNNING"));
+
+        WARMUP.markFailed(0, "Upstream unavailable");
+        mockMvc.perform(get("/actuator/health/readiness"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components.dataWarmup.details.warmup").value("FAILED"));
+    }
+}
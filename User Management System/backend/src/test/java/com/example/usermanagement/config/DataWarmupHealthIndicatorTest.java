@@ -0,0 +1,65 @@
+package com.example.usermanagement.config;
+
+import com.example.usermanagement.service.DataLoadJob;
+import com.example.usermanagement.service.DataLoadJobService;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DataWarmupHealthIndicatorTest {
+
+    private final DataLoadJobService dataLoadJobService = mock(DataLoadJobService.class);
+
+    @Test
+    void health_ShouldBeOutOfServiceUntilTheWarmupFinishes() {
+        DataLoadJob job = new DataLoadJob("warmup");
+        when(dataLoadJobService.submitLoad()).thenReturn(job);
+        DataInitializer initializer = new DataInitializer(dataLoadJobService, true);
+        DataWarmupHealthIndicator indicator = new DataWarmupHealthIndicator(initializer);
+
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        assertEquals("not started", indicator.health().getDetails().get("warmup"));
+
+        initializer.startWarmup();
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+        job.markRunning(0);
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+
+        job.markCompleted(30, "Loaded 30 users");
+        Health health = indicator.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(DataLoadJob.Status.COMPLETED, health.getDetails().get("warmup"));
+        assertEquals("warmup", health.getDetails().get("jobId"));
+    }
+
+    @Test
+    void health_WhenTheWarmupFails_ShouldStillBeUp() {
+        DataLoadJob job = new DataLoadJob("warmup");
+        when(dataLoadJobService.submitLoad()).thenReturn(job);
+        DataInitializer initializer = new DataInitializer(dataLoadJobService, true);
+        DataWarmupHealthIndicator indicator = new DataWarmupHealthIndicator(initializer);
+
+        initializer.startWarmup();
+        job.markRunning(0);
+        job.markFailed(0, "Upstream unavailable");
+
+        Health health = indicator.health();
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals(DataLoadJob.Status.FAILED, health.getDetails().get("warmup"));
+    }
+
+    @Test
+    void health_WhenWarmupIsDisabled_ShouldBeUpWithoutLoading() {
+        DataInitializer initializer = new DataInitializer(dataLoadJobService, false);
+        DataWarmupHealthIndicator indicator = new DataWarmupHealthIndicator(initializer);
+
+        initializer.startWarmup();
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertEquals("disabled", indicator.health().getDetails().get("warmup"));
+        verifyNoInteractions(dataLoadJobService);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.usermanagement.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestLoggingFilterTest {
+
+    private final Logger filterLogger = (Logger) LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private final ListAppender<ILoggingEvent> events = new ListAppender<>();
+
+    @BeforeEach
+    void setUp() {
+        events.start();
+        filterLogger.addAppender(events);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filterLogger.detachAppender(events);
+    }
+
+    @Test
+    void fastGet_WhenNotSampled_ShouldNotLog() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(true, 0.0, Duration.ofSeconds(10));
+
+        filter.doFilter(get("/api/users/1"), new MockHttpServletResponse(), respondWith(200));
+
+        assertTrue(events.list.isEmpty());
+    }
+
+    @Test
+    void fastGet_WhenSampled_ShouldLogRouteNotPath() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(true, 1.0, Duration.ofSeconds(10));
+        MockHttpServletRequest request = get("/api/users/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/users/{id}");
+
+        filter.doFilter(request, new MockHttpServletResponse(), respondWith(200));
+
+        assertEquals(1, events.list.size());
+        ILoggingEvent event = events.list.get(0);
+        assertEquals(Level.INFO, event.getLevel());
+        assertTrue(event.getFormattedMessage().startsWith("method=GET route=/api/users/{id} status=200 durationUs="));
+    }
+
+    @Test
+    void serverError_ShouldAlwaysLog() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(true, 0.0, Duration.ofSeconds(10));
+
+        filter.doFilter(get("/api/users"), new MockHttpServletResponse(), respondWith(503));
+
+        assertEquals(1, events.list.size());
+        assertEquals(Level.ERROR, events.list.get(0).getLevel());
+    }
+
+    @Test
+    void slowRequest_ShouldAlwaysLog() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(true, 0.0, Duration.ZERO);
+
+        filter.doFilter(get("/api/users/search"), new MockHttpServletResponse(), respondWith(200));
+
+        assertEquals(1, events.list.size());
+        assertEquals(Level.WARN, events.list.get(0).getLevel());
+        assertTrue(events.list.get(0).getFormattedMessage().endsWith("slow=true"));
+    }
+
+    @Test
+    void post_ShouldNotBeSampled() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(true, 0.0, Duration.ofSeconds(10));
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/data/load");
+
+        filter.doFilter(request, new MockHttpServletResponse(), respondWith(202));
+
+        assertEquals(1, events.list.size());
+    }
+
+    @Test
+    void nonApiPath_ShouldNotLog() throws Exception {
+        RequestLoggingFilter filter = new RequestLoggingFilter(true, 1.0, Duration.ZERO);
+
+        filter.doFilter(get("/actuator/health"), new MockHttpServletResponse(), respondWith(200));
+
+        assertTrue(events.list.isEmpty());
+    }
+
+    private static MockHttpServletRequest get(String uri) {
+        return new MockHttpServletRequest("GET", uri);
+    }
+
+    private static FilterChain respondWith(int status) {
+        return (request, response) -> ((MockHttpServletResponse) response).setStatus(status);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.service.DataChangeFeed;
+import com.example.usermanagement.service.DataLoadJobService;
+import com.example.usermanagement.service.DatasetSnapshotService;
+import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.store.InMemoryUserStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.Mockito.mock;
+
+class DataLoadControllerTest {
+
+    private DataChangeFeed changeFeed;
+
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        // Buffers hold capacity + 1 events, 8 here
+        changeFeed = new DataChangeFeed(7);
+        userService = new UserService(new InMemoryUserStore(1, 50000), changeFeed,
+                new DatasetSnapshotService(false, "unused", Duration.ZERO),
+                TransactionOperations.withoutTransaction(), new SimpleMeterRegistry(), Runnable::run);
+    }
+
+    @Test
+    void streamChanges_WhenTheFeedCutsOffASlowConsumer_ShouldCompleteDespiteHeartbeats() {
+        // Heartbeats never tick here, but would keep the stream open forever if not bound to the changes
+        DataLoadController controller = controller(Duration.ofHours(1));
+
+        StepVerifier.create(controller.streamChanges(null, null), 1)
+                .expectNextMatches(event -> "reset".equals(event.event()))
+                .then(() -> {
+                    for (long id = 1; id <= 10; id++) {
+                        userService.saveUser(new User(id, "Slow", "Reader", "555-00-" + (1000 + id),
+                                "reader" + id + "@example.com", 30, "user"));
+                    }
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(event -> true)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void streamChanges_WhenTheFeedCloses_ShouldComplete() {
+        DataLoadController controller = controller(Duration.ofMillis(10));
+
+        StepVerifier.create(controller.streamChanges(null, null))
+                .expectNextMatches(event -> "reset".equals(event.event()))
+                .expectNextMatches(event -> "heartbeat".equals(event.comment()))
+                .then(changeFeed::close)
+                .thenConsumeWhile(event -> true)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private DataLoadController controller(Duration heartbeat) {
+        return new DataLoadController(mock(DataLoadJobService.class), userService, changeFeed, heartbeat);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reads of the in-memory store, through the reactive API and the service, must not check
+ * out a database connection: the pool would otherwise cap how many run at once.
+ */
+@SpringBootTest(properties = {
+        "app.warmup.enabled=false",
+        "app.snapshot.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:memory-reads"
+})
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class MemoryProfileReadTest {
+
+    private static final AtomicInteger CONNECTIONS = new AtomicInteger();
+
+    @TestConfiguration
+    static class CountingDataSource {
+
+        @Bean
+        static BeanPostProcessor countingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource) || bean instanceof Counting) {
+                        return bean;
+                    }
+                    return new Counting(dataSource);
+                }
+            };
+        }
+
+        static final class Counting extends DelegatingDataSource {
+
+            Counting(DataSource target) {
+                super(target);
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                CONNECTIONS.incrementAndGet();
+                return super.getConnection();
+            }
+        }
+    }
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        if (userService.getUserCount() == 0) {
+            userService.saveAllUsers(List.of(
+                    new User(1L, "John", "Doe", "123-45-6789", "john@example.com", 30, "admin"),
+                    new User(2L, "Jane", "Smith", "987-65-4321", "jane@example.com", 25, "user")));
+        }
+    }
+
+    @Test
+    void reads_ShouldNotCheckOutAConnection() {
+        int before = CONNECTIONS.get();
+
+        webTestClient.get().uri("/api/users").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserResponseDto.class).hasSize(2);
+        webTestClient.get().uri("/api/users/1").exchange().expectStatus().isOk();
+        webTestClient.get().uri("/api/users/search?q=Jane").accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserResponseDto.class).hasSize(1);
+        assertEquals(2, userService.getUserCount());
+        assertEquals(1, userService.countUsers("admin", null, null));
+        assertEquals(1, userService.queryUsers("age:26..").size());
+        assertEquals("jane@example.com", userService.getUserByEmail("jane@example.com").getEmail());
+        assertEquals(2, userService.findPageAfter(Long.MIN_VALUE, 10).size());
+
+        assertEquals(before, CONNECTIONS.get());
+    }
+}
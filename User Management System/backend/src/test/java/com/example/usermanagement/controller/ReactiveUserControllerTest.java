@@ -0,0 +1,166 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.exception.UserNotFoundException;
+import com.example.usermanagement.service.ExportFormat;
+import com.example.usermanagement.service.UserExportService;
+import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.service.UserWriteService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveUserController.class)
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private UserService userService;
+
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private UserWriteService userWriteService;
+
+    private final UserResponseDto john = new UserResponseDto(1L, "John", "Doe", "123-45-6789", "john@example.com", 30, "admin", "123-456-7890", "johnd", "1993-01-01", "male");
+    private final UserResponseDto jane = new UserResponseDto(2L, "Jane", "Smith", "987-65-4321", "jane@example.com", 25, "user", "098-765-4321", "janes", "1998-05-15", "female");
+
+    @Test
+    void getAllUsers_ShouldReturnJsonArray() {
+        when(userService.getUserPageAfter(Long.MIN_VALUE, ReactiveUserController.PAGE_SIZE)).thenReturn(List.of(john, jane));
+
+        webTestClient.get().uri("/api/users")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].firstName").isEqualTo("John")
+                .jsonPath("$[1].firstName").isEqualTo("Jane");
+    }
+
+    @Test
+    void searchWithoutTermOrFilters_ShouldStreamAllUsersPageByPage() {
+        List<UserResponseDto> firstPage = new ArrayList<>();
+        for (long id = 1; id <= ReactiveUserController.PAGE_SIZE; id++) {
+            firstPage.add(new UserResponseDto(id, "User", "Number" + id, "000-00-0000", "user" + id + "@example.com", 30, "user", null, null, null, null));
+        }
+        UserResponseDto last = new UserResponseDto(5000L, "Last", "User", "999-99-9999", "last@example.com", 40, "user", null, null, null, null);
+        when(userService.getUserPageAfter(Long.MIN_VALUE, ReactiveUserController.PAGE_SIZE)).thenReturn(firstPage);
+        when(userService.getUserPageAfter((long) ReactiveUserController.PAGE_SIZE, ReactiveUserController.PAGE_SIZE))
+                .thenReturn(List.of(last));
+
+        webTestClient.get().uri("/api/users/search")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(UserResponseDto.class)
+                .hasSize(ReactiveUserController.PAGE_SIZE + 1)
+                .value(users -> assertEquals(5000L, users.get(users.size() - 1).getId()));
+        verify(userService, never()).getAllUsers();
+        verify(userService, never()).searchUsers(any(), any(), any(), any());
+    }
+
+    @Test
+    void getUserById_WhenUserDoesNotExist_ShouldReturnNotFound() {
+        when(userService.getUserById(999L)).thenThrow(new UserNotFoundException("User not found with id: 999"));
+
+        webTestClient.get().uri("/api/users/999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("User Not Found");
+    }
+
+    @Test
+    void getUserByEmail_ShouldReturnUser() {
+        when(userService.getUserByEmail("john@example.com")).thenReturn(john);
+
+        webTestClient.get().uri("/api/users/email/john@example.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    void searchUsers_WithNdjson_ShouldStreamOneUserPerLine() {
+        when(userService.searchUsers("doe", null, null, null)).thenReturn(List.of(john));
+
+        webTestClient.get().uri("/api/users/search?q=doe")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(UserResponseDto.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void exportUsers_ShouldStreamWhatTheExportWrites() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("id\r\n1\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userExportService).export(eq(ExportFormat.CSV), eq(false), any());
+
+        webTestClient.get().uri("/api/users/export?format=csv")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType("text/csv")
+                .expectBody(String.class).isEqualTo("id\r\n1\r\n");
+    }
+
+    @Test
+    void deleteUser_ShouldReturnNoContentOrNotFound() {
+        doThrow(new UserNotFoundException("User not found with id: 999")).when(userService).deleteUser(999L);
+
+        webTestClient.delete().uri("/api/users/1")
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.delete().uri("/api/users/999")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void writeUsers_ShouldReadTheWholeNdjsonBody() throws Exception {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            body.append("{\"firstName\":\"User").append(i).append("\"}\n");
+        }
+        when(userWriteService.writeAll(any(InputStream.class))).thenAnswer(invocation -> {
+            assertEquals(body.toString(), new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8));
+            return new UserWriteService.BulkWriteResult(2000, 2000, 0, 0, List.of());
+        });
+
+        webTestClient.post().uri("/api/users/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body.toString())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.rows").isEqualTo(2000)
+                .jsonPath("$.failed").isEqualTo(0);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.config.SqlStatsHeadersAdvice;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * MockMvc matcher for the number of SQL statements a request may issue. Needs
+ * {@code app.sql-tracking.headers=true} so the count is on the response.
+ */
+final class SqlBudget {
+
+    private SqlBudget() {}
+
+    static ResultMatcher statementsAtMost(int budget) {
+        return result -> {
+            String header = result.getResponse().getHeader(SqlStatsHeadersAdvice.STATEMENTS_HEADER);
+            assertNotNull(header, "No " + SqlStatsHeadersAdvice.STATEMENTS_HEADER + " header on "
+                    + result.getRequest().getRequestURI());
+            int statements = Integer.parseInt(header);
+            assertTrue(statements <= budget, result.getRequest().getRequestURI() + "?"
+                    + result.getRequest().getQueryString() + " issued " + statements
+                    + " SQL statements, budget is " + budget);
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.usermanagement.controller;
+
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.service.UserService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.example.usermanagement.controller.SqlBudget.statementsAtMost;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * SQL statements per endpoint against the JPA store. A budget that starts failing means a
+ * change added queries to that request path.
+ */
+@SpringBootTest(properties = {
+        "app.warmup.enabled=false",
+        "app.snapshot.enabled=false",
+        "app.sql-tracking.headers=true",
+        "spring.datasource.url=jdbc:h2:mem:sql-budget"
+})
+@AutoConfigureMockMvc
+class SqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private long johnId;
+
+    @BeforeEach
+    void setUp() {
+        if (userService.getUserCount() == 0) {
+            userService.saveAllUsers(List.of(
+                    new User(null, "John", "Doe", "123-45-6789", "john@example.com", 30, "admin"),
+                    new User(null, "Jane", "Smith", "987-65-4321", "jane@example.com", 25, "user")));
+        }
+        johnId = userService.getAllUserEntities().get(0).getId();
+    }
+
+    @Test
+    void pointLookups_ShouldIssueOneStatement() throws Exception {
+        mockMvc.perform(get("/api/users/" + johnId))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+        mockMvc.perform(get("/api/users/email/jane@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+        mockMvc.perform(get("/api/users/999999"))
+                .andExpect(status().isNotFound())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void searches_ShouldStayWithinBudget() throws Exception {
+        mockMvc.perform(get("/api/users/search").param("q", String.valueOf(johnId)))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+        // Not an id: the id query falls through to the LIKE query
+        mockMvc.perform(get("/api/users/search").param("q", "6789"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].firstName").value("John"))
+                .andExpect(statementsAtMost(2));
+        mockMvc.perform(get("/api/users/search").param("q", "jane@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+        mockMvc.perform(get("/api/users/search").param("q", "John Doe"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+        mockMvc.perform(get("/api/users/search").param("q", "Jo"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+        mockMvc.perform(get("/api/users"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void dataStatus_ShouldIssueOneStatement() throws Exception {
+        mockMvc.perform(get("/api/data/status"))
+                .andExpect(status().isOk())
+                .andExpect(statementsAtMost(1));
+    }
+
+    @Test
+    void request_ShouldRecordSqlMetricsPerRoute() throws Exception {
+        mockMvc.perform(get("/api/users/" + johnId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-SQL-Rows", "1"))
+                .andExpect(header().exists("X-SQL-Time-Ms"));
+
+        DistributionSummary statements = meterRegistry.find("sql.request.statements")
+                .tags("method", "GET", "uri", "/api/users/{id}")
+                .summary();
+        assertNotNull(statements);
+        assertTrue(statements.count() >= 1);
+        assertEquals(1.0, statements.max());
+        assertNotNull(meterRegistry.find("sql.request.time").tags("uri", "/api/users/{id}").timer());
+        assertNotNull(meterRegistry.find("hibernate.statements").meter());
+        assertNotNull(meterRegistry.find("hikaricp.connections").meter());
+    }
+}
@@ -1,8 +1,16 @@
 package com.example.usermanagement.controller;
 
+import com.example.usermanagement.dto.UserRequestDto;
 import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.exception.InvalidQueryException;
+import com.example.usermanagement.exception.UserConflictException;
 import com.example.usermanagement.exception.UserNotFoundException;
+import com.example.usermanagement.service.ExportFormat;
+import com.example.usermanagement.service.UserExportService;
 import com.example.usermanagement.service.UserService;
+import com.example.usermanagement.service.UserWriteService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,14 +18,33 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
@@ -29,6 +56,12 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private UserWriteService userWriteService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -87,7 +120,7 @@ class UserControllerTest {
         UserResponseDto user = new UserResponseDto(1L, "John", "Doe", "123-45-6789", "john@example.com", 30, "admin", "123-456-7890", "johnd", "1993-01-01", "male");
         List<UserResponseDto> users = List.of(user);
 
-        when(userService.searchUsers("John")).thenReturn(users);
+        when(userService.searchUsers("John", null, null, null)).thenReturn(users);
 
         mockMvc.perform(get("/api/users/search").param("q", "John"))
                 .andExpect(status().isOk())
@@ -102,10 +135,156 @@ class UserControllerTest {
         UserResponseDto user2 = new UserResponseDto(2L, "Jane", "Smith", "987-65-4321", "jane@example.com", 25, "user", "098-765-4321", "janes", "1998-05-15", "female");
         List<UserResponseDto> users = Arrays.asList(user1, user2);
 
-        when(userService.searchUsers(any())).thenReturn(users);
+        when(userService.searchUsers(any(), any(), any(), any())).thenReturn(users);
 
         mockMvc.perform(get("/api/users/search"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(2));
     }
-}
\ No newline at end of file
+
+    @Test
+    void searchUsers_WithRoleAndAgeRange_ShouldPassFilter() throws Exception {
+        UserResponseDto user = new UserResponseDto(1L, "John", "Doe", "123-45-6789", "john@example.com", 30, "admin", "123-456-7890", "johnd", "1993-01-01", "male");
+        when(userService.searchUsers(null, "admin", 25, 35)).thenReturn(List.of(user));
+
+        mockMvc.perform(get("/api/users/search").param("role", "admin").param("minAge", "25").param("maxAge", "35"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].age").value(30));
+    }
+
+    @Test
+    void countUsers_ShouldReturnCount() throws Exception {
+        when(userService.countUsers(null, 60, null)).thenReturn(1234L);
+
+        mockMvc.perform(get("/api/users/count").param("minAge", "60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1234));
+    }
+
+    @Test
+    void queryUsers_ShouldPassWhereAndReturnUsersAndCount() throws Exception {
+        UserResponseDto user = new UserResponseDto(1L, "John", "Doe", "123-45-6789", "john@example.com", 30, "admin", "123-456-7890", "johnd", "1993-01-01", "male");
+        String where = "(role:admin OR role:moderator) age:30..40";
+        when(userService.queryUsers(where)).thenReturn(List.of(user));
+        when(userService.countQuery(where)).thenReturn(1L);
+
+        mockMvc.perform(get("/api/users/query").param("where", where))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+        mockMvc.perform(get("/api/users/query/count").param("where", where))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(1));
+    }
+
+    @Test
+    void exportUsers_ShouldStreamTheChosenFormatAsAnAttachment() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(userExportService).export(eq(ExportFormat.NDJSON), eq(true), any());
+
+        MvcResult result = mockMvc.perform(get("/api/users/export").param("format", "ndjson").param("gzip", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"users.ndjson\""))
+                .andExpect(content().string("{\"id\":1}\n"));
+        mockMvc.perform(get("/api/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findNear_ShouldPassDefaultsAndReturnLocatedUsers() throws Exception {
+        UserResponseDto user = new UserResponseDto(2L, "Jane", "Smith", "987-65-4321", "jane@example.com", 25, "user", "098-765-4321", "janes", "1998-05-15", "female");
+        user.setCity("Phoenix");
+        user.setLatitude(33.45);
+        user.setLongitude(-112.07);
+        when(userService.findNear(33.4, -112.1, 10, 20)).thenReturn(List.of(user));
+
+        mockMvc.perform(get("/api/users/near").param("lat", "33.4").param("lng", "-112.1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].city").value("Phoenix"))
+                .andExpect(jsonPath("$[0].latitude").value(33.45));
+    }
+
+    @Test
+    void findNear_WithInvalidQuery_ShouldReturnBadRequest() throws Exception {
+        when(userService.findNear(anyDouble(), anyDouble(), anyDouble(), anyInt()))
+                .thenThrow(new InvalidQueryException("lat must be between -90 and 90"));
+
+        mockMvc.perform(get("/api/users/near").param("lat", "95").param("lng", "0"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("lat must be between -90 and 90"));
+    }
+
+    @Test
+    void searchUsers_WithPhoneticFlag_ShouldUsePhoneticSearch() throws Exception {
+        UserResponseDto user = new UserResponseDto(2L, "Jane", "Smith", "987-65-4321", "jane@example.com", 25, "user", "098-765-4321", "janes", "1998-05-15", "female");
+        when(userService.phoneticSearch("Smyth", null, null, null)).thenReturn(List.of(user));
+
+        mockMvc.perform(get("/api/users/search").param("q", "Smyth").param("phonetic", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lastName").value("Smith"));
+        verify(userService, never()).searchUsers(any(), any(), any(), any());
+    }
+
+    @Test
+    void replaceUser_WhenEmailIsTaken_ShouldReturnConflict() throws Exception {
+        when(userWriteService.replace(eq(1L), any(UserRequestDto.class)))
+                .thenThrow(new UserConflictException("email jane@example.com belongs to user 2"));
+
+        mockMvc.perform(put("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"firstName\":\"John\",\"lastName\":\"Doe\",\"email\":\"jane@example.com\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("email jane@example.com belongs to user 2"));
+    }
+
+    @Test
+    void patchUser_ShouldPassTheMergePatchThrough() throws Exception {
+        UserResponseDto user = new UserResponseDto(1L, "John", "Doe", "123-45-6789", "john@example.com", 31, "admin", "123-456-7890", "johnd", "1993-01-01", "male");
+        when(userWriteService.patch(eq(1L), any(JsonNode.class))).thenAnswer(invocation -> {
+            JsonNode changes = invocation.getArgument(1);
+            assertEquals(31, changes.get("age").asInt());
+            assertTrue(changes.get("phone").isNull());
+            return user;
+        });
+
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"age\":31,\"phone\":null}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.age").value(31));
+    }
+
+    @Test
+    void deleteUser_ShouldReturnNoContentOrNotFound() throws Exception {
+        doThrow(new UserNotFoundException("User not found with id: 999")).when(userService).deleteUser(999L);
+
+        mockMvc.perform(delete("/api/users/1"))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/users/999"))
+                .andExpect(status().isNotFound());
+        verify(userService).deleteUser(1L);
+    }
+
+    @Test
+    void writeUsers_ShouldHandTheNdjsonBodyToTheWriteService() throws Exception {
+        String body = "{\"firstName\":\"A\"}\n{\"firstName\":\"B\"}\n";
+        when(userWriteService.writeAll(any(InputStream.class))).thenAnswer(invocation -> {
+            assertEquals(body, new String(invocation.<InputStream>getArgument(0).readAllBytes(), StandardCharsets.UTF_8));
+            return new UserWriteService.BulkWriteResult(2, 1, 0, 1,
+                    List.of(new UserWriteService.RowError(2, null, "invalid", "lastName", "Last name is required")));
+        });
+
+        mockMvc.perform(post("/api/users/bulk").contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2))
+                .andExpect(jsonPath("$.errors[0].field").value("lastName"));
+    }
+}
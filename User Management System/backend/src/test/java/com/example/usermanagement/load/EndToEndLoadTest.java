@@ -0,0 +1,352 @@
+package com.example.usermanagement.load;
+
+import com.example.usermanagement.UserManagementApplication;
+import com.example.usermanagement.dto.DummyJsonResponseDto;
+import com.example.usermanagement.dto.DummyJsonUserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application against a WireMock stand-in of dummyjson, waits for the warm-up
+ * load, then sends a mix of searches, id and email lookups, list calls and reloads at a
+ * fixed arrival rate. Reports throughput and p50/p99/p999 latency per endpoint and fails
+ * when p50 or p99 regress against {@code src/test/resources/load/end-to-end-baseline.properties}.
+ *
+ * <p>Runs only with {@code mvn test -Pload-test}. Sizes can be changed with
+ * {@code -Dload.dataset}, {@code -Dload.rate} (requests per second), {@code -Dload.duration}
+ * (seconds) and {@code -Dload.tolerance} (allowed increase, 1.0 = twice the baseline). The
+ * baseline is machine-specific: {@code -Dload.baseline.update=true} stores the measured
+ * percentiles as the new baseline instead of comparing.
+ */
+@Tag("load")
+class EndToEndLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(EndToEndLoadTest.class);
+
+    private static final int DATASET = Integer.getInteger("load.dataset", 2000);
+    private static final int RATE = Integer.getInteger("load.rate", 40);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 5);
+    private static final int PAGE_SIZE = 100;
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("load.tolerance", "1.0"));
+    private static final boolean UPDATE_BASELINE = Boolean.getBoolean("load.baseline.update");
+    private static final Path BASELINE = Paths.get("src/test/resources/load/end-to-end-baseline.properties");
+
+    private static final String[] FIRST_NAMES = {"Emily", "Michael", "Sophia", "James", "Emma", "Oliver", "Ava",
+            "Liam", "Isabella", "Noah", "Mia", "Ethan", "Charlotte", "Lucas", "Amelia", "Mason"};
+    private static final String[] LAST_NAMES = {"Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller",
+            "Davis", "Rodriguez", "Martinez", "Wilson", "Anderson", "Taylor", "Moore", "Jackson", "Lee"};
+
+    private final Random random = new Random(42);
+
+    @Test
+    void mixedTrafficStaysWithinBaseline() throws Exception {
+        WireMockServer upstream = new WireMockServer(wireMockConfig().dynamicPort());
+        upstream.start();
+        try {
+            stubUpstream(upstream);
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserManagementApplication.class)
+                    .run("--server.port=0",
+                            "--spring.datasource.url=jdbc:h2:mem:load-e2e",
+                            "--api.external.dummyjson.base-url=" + upstream.baseUrl(),
+                            "--api.external.dummyjson.page-size=" + PAGE_SIZE,
+                            "--api.external.dummyjson.cache.enabled=false",
+                            "--app.snapshot.enabled=false",
+                            "--logging.level.com.example.usermanagement=WARN",
+                            "--logging.level.com.example.usermanagement.load=INFO",
+                            "--logging.file.name=target/load-test.log")) {
+                int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+                HttpClient client = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .connectTimeout(Duration.ofSeconds(5))
+                        .build();
+                awaitReady(client, port);
+
+                drive(client, port, WARMUP_SECONDS);
+                Map<String, Stats> results = drive(client, port, DURATION_SECONDS);
+                report(results);
+                results.values().forEach(stats ->
+                        assertEquals(0, stats.errors, stats.endpoint + " had failed requests"));
+                if (UPDATE_BASELINE) {
+                    storeBaseline(results);
+                } else {
+                    assertWithinBaseline(results);
+                }
+            }
+        } finally {
+            upstream.stop();
+        }
+    }
+
+    private static void stubUpstream(WireMockServer upstream) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (int skip = 0; skip < DATASET; skip += PAGE_SIZE) {
+            DummyJsonResponseDto page = new DummyJsonResponseDto();
+            List<DummyJsonUserDto> users = new ArrayList<>();
+            for (long id = skip + 1; id <= Math.min(skip + PAGE_SIZE, DATASET); id++) {
+                users.add(upstreamUser(id));
+            }
+            page.setUsers(users);
+            page.setTotal(DATASET);
+            page.setSkip(skip);
+            page.setLimit(PAGE_SIZE);
+            upstream.stubFor(get(urlPathEqualTo("/users"))
+                    .withQueryParam("skip", equalTo(String.valueOf(skip)))
+                    .willReturn(okJson(objectMapper.writeValueAsString(page))));
+        }
+    }
+
+    private static DummyJsonUserDto upstreamUser(long id) {
+        DummyJsonUserDto user = new DummyJsonUserDto();
+        user.setId(id);
+        user.setFirstName(firstName(id));
+        user.setLastName(lastName(id));
+        user.setSsn(String.format("%03d-%02d-%04d", id * 7 % 1000, id / 10000 % 100, id % 10000));
+        user.setEmail(email(id));
+        user.setAge(18 + (int) (id % 60));
+        user.setRole(id % 10 == 0 ? "admin" : "user");
+        user.setPhone(String.format("+1 %03d-%03d-%04d", id % 1000, id * 3 % 1000, id % 10000));
+        user.setUsername(firstName(id).toLowerCase(Locale.ROOT) + id);
+        user.setBirthDate((1950 + id % 55) + "-" + (1 + id % 12) + "-" + (1 + id % 28));
+        user.setGender(id % 2 == 0 ? "female" : "male");
+        return user;
+    }
+
+    private static String firstName(long id) {
+        return FIRST_NAMES[(int) (id % FIRST_NAMES.length)];
+    }
+
+    private static String lastName(long id) {
+        return LAST_NAMES[(int) (id * 7 % LAST_NAMES.length)];
+    }
+
+    private static String email(long id) {
+        return (firstName(id) + "." + lastName(id)).toLowerCase(Locale.ROOT) + id + "@x.dummyjson.com";
+    }
+
+    private static void awaitReady(HttpClient client, int port) throws Exception {
+        HttpRequest readiness = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/actuator/health/readiness")).build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (client.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+            assertTrue(System.nanoTime() < deadline, "Warm-up load from the WireMock upstream did not finish");
+            Thread.sleep(200);
+        }
+    }
+
+    /**
+     * Sends requests at {@code RATE} per second for the given time. Latency is measured
+     * from when a request was due rather than when it was sent, so a stalled server is
+     * not hidden by the client slowing down with it.
+     */
+    private Map<String, Stats> drive(HttpClient client, int port, int seconds) throws Exception {
+        int count = RATE * seconds;
+        long interval = TimeUnit.SECONDS.toNanos(1) / RATE;
+        String[] endpoints = new String[count];
+        long[] latencies = new long[count];
+        List<CompletableFuture<?>> inFlight = new ArrayList<>(count);
+
+        long start = System.nanoTime();
+        for (int n = 0; n < count; n++) {
+            long due = start + n * interval;
+            LockSupport.parkNanos(due - System.nanoTime());
+            Call call = nextCall(port);
+            int index = n;
+            endpoints[index] = call.endpoint;
+            inFlight.add(client.sendAsync(call.request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, failure) -> {
+                        boolean ok = failure == null && call.accepts(response.statusCode());
+                        latencies[index] = ok ? System.nanoTime() - due : -1;
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        Map<String, List<Long>> byEndpoint = new LinkedHashMap<>();
+        for (int n = 0; n < count; n++) {
+            byEndpoint.computeIfAbsent(endpoints[n], key -> new ArrayList<>()).add(latencies[n]);
+        }
+        Map<String, Stats> results = new LinkedHashMap<>();
+        byEndpoint.forEach((endpoint, values) -> results.put(endpoint, Stats.of(endpoint, values, elapsed)));
+        return results;
+    }
+
+    /**
+     * Mostly searches, with terms drawn from a Zipf distribution so a few popular terms
+     * dominate as they do in real traffic, then point lookups and the odd list or reload.
+     */
+    private Call nextCall(int port) {
+        String base = "http://localhost:" + port;
+        int roll = random.nextInt(100);
+        if (roll < 55) {
+            String term = SearchTerms.INSTANCE.next(random);
+            return new Call("search", request(base + "/api/users/search?q=" + term.replace(" ", "%20")), 200);
+        }
+        if (roll < 77) {
+            // A few ids past the end of the dataset exercise the 404 path
+            long id = 1 + random.nextInt(DATASET + DATASET / 50);
+            return new Call("byId", request(base + "/api/users/" + id), 200, 404);
+        }
+        if (roll < 98) {
+            return new Call("byEmail", request(base + "/api/users/email/" + email(1 + random.nextInt(DATASET))), 200);
+        }
+        if (roll < 99) {
+            return new Call("list", request(base + "/api/users"), 200);
+        }
+        HttpRequest reload = HttpRequest.newBuilder(URI.create(base + "/api/data/load"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build();
+        return new Call("reload", reload, 202);
+    }
+
+    private static HttpRequest request(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private static void report(Map<String, Stats> results) {
+        logger.info("{} users, {} req/s target for {} s", DATASET, RATE, DURATION_SECONDS);
+        logger.info(String.format("%-8s %8s %10s %10s %10s %10s %8s", "endpoint", "count", "req/s",
+                "p50 ms", "p99 ms", "p999 ms", "errors"));
+        for (Stats stats : results.values()) {
+            logger.info(String.format("%-8s %8d %10.1f %10.2f %10.2f %10.2f %8d", stats.endpoint, stats.count,
+                    stats.throughput, stats.p50Millis, stats.p99Millis, stats.p999Millis, stats.errors));
+        }
+    }
+
+    private static void assertWithinBaseline(Map<String, Stats> results) throws IOException {
+        if (!Files.isRegularFile(BASELINE)) {
+            fail("No baseline at " + BASELINE + ", record one with -Dload.baseline.update=true");
+        }
+        Properties baseline = new Properties();
+        try (Reader reader = Files.newBufferedReader(BASELINE)) {
+            baseline.load(reader);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (Stats stats : results.values()) {
+            checkRegression(regressions, baseline, stats.endpoint + ".p50", stats.p50Millis);
+            checkRegression(regressions, baseline, stats.endpoint + ".p99", stats.p99Millis);
+        }
+        assertTrue(regressions.isEmpty(), "Latency regressed against " + BASELINE + ": " + regressions);
+    }
+
+    private static void checkRegression(List<String> regressions, Properties baseline, String key, double measured) {
+        String stored = baseline.getProperty(key);
+        if (stored == null) {
+            return;
+        }
+        double limit = Double.parseDouble(stored) * (1 + TOLERANCE);
+        if (measured > limit) {
+            regressions.add(String.format(Locale.ROOT, "%s %.2f ms > %.2f ms", key, measured, limit));
+        }
+    }
+
+    private static void storeBaseline(Map<String, Stats> results) throws IOException {
+        Properties baseline = new Properties();
+        for (Stats stats : results.values()) {
+            baseline.setProperty(stats.endpoint + ".p50", String.format(Locale.ROOT, "%.2f", stats.p50Millis));
+            baseline.setProperty(stats.endpoint + ".p99", String.format(Locale.ROOT, "%.2f", stats.p99Millis));
+        }
+        Files.createDirectories(BASELINE.getParent());
+        try (Writer writer = Files.newBufferedWriter(BASELINE)) {
+            baseline.store(writer, "Latency in ms with " + DATASET + " users at " + RATE + " req/s");
+        }
+        logger.info("Stored new baseline in {}", BASELINE);
+    }
+
+    private static final class SearchTerms {
+
+        static final SearchTerms INSTANCE = new SearchTerms();
+
+        private final String[] terms;
+        private final double[] cumulative;
+
+        /**
+         * Full names first, as the most popular terms, then single names, SSN fragments and
+         * short terms that take the basic search path.
+         */
+        private SearchTerms() {
+            List<String> catalog = new ArrayList<>();
+            for (int i = 0; i < FIRST_NAMES.length; i++) {
+                catalog.add(FIRST_NAMES[i] + " " + LAST_NAMES[i % LAST_NAMES.length]);
+            }
+            catalog.addAll(Arrays.asList(LAST_NAMES));
+            catalog.addAll(Arrays.asList(FIRST_NAMES));
+            for (int i = 0; i < 20; i++) {
+                catalog.add(String.format("00-%04d", i * 379 % 10000));
+            }
+            catalog.addAll(List.of("em", "li", "so", "ja"));
+            terms = catalog.toArray(new String[0]);
+            cumulative = new double[terms.length];
+            double sum = 0;
+            for (int rank = 0; rank < terms.length; rank++) {
+                sum += 1 / Math.pow(rank + 1, 1.1);
+                cumulative[rank] = sum;
+            }
+        }
+
+        String next(Random random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            return terms[index >= 0 ? index : -index - 1];
+        }
+    }
+
+    private record Call(String endpoint, HttpRequest request, int... acceptedStatuses) {
+
+        boolean accepts(int status) {
+            return Arrays.stream(acceptedStatuses).anyMatch(accepted -> accepted == status);
+        }
+    }
+
+    private record Stats(String endpoint, int count, double throughput, double p50Millis, double p99Millis,
+                         double p999Millis, long errors) {
+
+        static Stats of(String endpoint, List<Long> latencies, double elapsedSeconds) {
+            long errors = latencies.stream().filter(latency -> latency < 0).count();
+            long[] sorted = latencies.stream().mapToLong(Long::longValue).filter(latency -> latency >= 0).sorted().toArray();
+            return new Stats(endpoint, latencies.size(), latencies.size() / elapsedSeconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999), errors);
+        }
+
+        private static double percentile(long[] sortedNanos, double quantile) {
+            if (sortedNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.usermanagement.load;
+
+import com.example.usermanagement.UserManagementApplication;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.service.UserService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares search throughput and p99 latency with Tomcat on platform threads against
+ * virtual threads, at a client concurrency well above Tomcat's 200 worker threads.
+ * Runs only with {@code mvn test -Pload-test}; the virtual-thread run needs Java 21.
+ * Sizes can be changed with {@code -Dload.requests}, {@code -Dload.concurrency} and
+ * {@code -Dload.users}.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+    private static final int REQUESTS = Integer.getInteger("load.requests", 20000);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 500);
+    private static final int USERS = Integer.getInteger("load.users", 2000);
+    // Id, email, full-name and SSN searches with small result sets, so the run measures
+    // request handling rather than response serialization
+    private static final String[] TERMS = {"42", "1999", "emily.williams8@x.com", "Emma Garcia", "123-4"};
+
+    @Test
+    void compareThroughputAndTailLatency() throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(run(false));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run(true));
+        } else {
+            logger.warn("Java {} has no virtual threads, only the platform-thread run was measured", Runtime.version().feature());
+        }
+
+        logger.info("{} requests at concurrency {} over {} users", REQUESTS, CONCURRENCY, USERS);
+        logger.info(String.format("%-10s %12s %10s %10s %8s", "threads", "req/s", "p50 ms", "p99 ms", "errors"));
+        for (Result result : results) {
+            logger.info(String.format("%-10s %12.0f %10.2f %10.2f %8d", result.mode, result.throughput,
+                    result.p50Millis, result.p99Millis, result.errors));
+        }
+        results.forEach(result -> assertEquals(0, result.errors, result.mode + " run had failed requests"));
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserManagementApplication.class)
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                        "--app.warmup.enabled=false",
+                        "--app.snapshot.enabled=false",
+                        "--logging.level.com.example.usermanagement=WARN",
+                        "--logging.level.com.example.usermanagement.load=INFO",
+                        "--logging.file.name=target/load-test.log")) {
+            UserService userService = context.getBean(UserService.class);
+            userService.saveAllUsers(generateUsers());
+            userService.indexAllUsers();
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            drive(client, port, Math.min(REQUESTS, 1000));
+            long start = System.nanoTime();
+            long[] latencies = drive(client, port, REQUESTS);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            long errors = Arrays.stream(latencies).filter(latency -> latency < 0).count();
+            long[] sorted = Arrays.stream(latencies).filter(latency -> latency >= 0).sorted().toArray();
+            return new Result(mode, REQUESTS / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99), errors);
+        }
+    }
+
+    /**
+     * Sends {@code count} searches from {@code CONCURRENCY} client threads. Returns each
+     * request's latency in nanoseconds, negative for a failed request.
+     */
+    private static long[] drive(HttpClient client, int port, int count) throws InterruptedException {
+        long[] latencies = new long[count];
+        AtomicInteger next = new AtomicInteger();
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            clients.execute(() -> {
+                for (int n = next.getAndIncrement(); n < count; n = next.getAndIncrement()) {
+                    String term = TERMS[n % TERMS.length].replace(" ", "%20");
+                    HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + "/api/users/search?q=" + term)).build();
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[n] = response.statusCode() == 200 ? System.nanoTime() - start : -1;
+                    } catch (Exception e) {
+                        latencies[n] = -1;
+                    }
+                }
+            });
+        }
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(10, TimeUnit.MINUTES), "Load run timed out");
+        return latencies;
+    }
+
+    private static List<User> generateUsers() {
+        String[] firstNames = {"Emily", "Michael", "Sophia", "Emma", "John", "Olivia", "Noah", "Ava"};
+        String[] lastNames = {"Johnson", "Williams", "Brown", "Miller", "Smith", "Garcia", "Wilson"};
+        List<User> users = new ArrayList<>(USERS);
+        for (long id = 1; id <= USERS; id++) {
+            String first = firstNames[(int) (id % firstNames.length)];
+            String last = lastNames[(int) (id % lastNames.length)];
+            users.add(new User(id, first, last, String.format("%03d-%02d-%04d", id % 1000, id % 100, id),
+                    first.toLowerCase() + "." + last.toLowerCase() + id + "@x.com", 20 + (int) (id % 50), "user"));
+        }
+        return users;
+    }
+
+    private static double percentile(long[] sortedNanos, double quantile) {
+        if (sortedNanos.length == 0) {
+            return Double.NaN;
+        }
+        int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1e6;
+    }
+
+    private record Result(String mode, double throughput, double p50Millis, double p99Millis, long errors) {}
+}
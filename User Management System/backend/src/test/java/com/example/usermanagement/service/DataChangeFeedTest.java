@@ -0,0 +1,122 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.entity.User;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataChangeFeedTest {
+
+    private static final Function<User, UserResponseDto> TO_DTO = user -> {
+        UserResponseDto dto = new UserResponseDto();
+        dto.setId(user.getId());
+        return dto;
+    };
+
+    @Test
+    void changes_ShouldResumeAfterLastEventIdFromTheLog() {
+        DataChangeFeed feed = new DataChangeFeed(10);
+        feed.committed(List.of(dto(1L)), List.of());
+        String firstVersion = feed.changes(null).blockFirst().id();
+        feed.committed(List.of(dto(2L)), List.of(7L));
+
+        StepVerifier.create(feed.changes(firstVersion).take(3))
+                .assertNext(change -> assertEquals(2L, ((UserResponseDto) change.data()).getId()))
+                .assertNext(change -> assertEquals(Map.of("id", 7L), change.data()))
+                .assertNext(change -> {
+                    assertEquals("version", change.type());
+                    assertEquals(2L, ((Map<?, ?>) change.data()).get("version"));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void changes_ShouldResetWhenTheLogNoLongerReachesBack() {
+        DataChangeFeed feed = new DataChangeFeed(3);
+        feed.committed(List.of(dto(1L)), List.of());
+        DataChangeFeed.Change reset = feed.changes(null).blockFirst();
+        assertEquals("reset", reset.type());
+        String afterFirst = reset.id();
+        feed.committed(List.of(dto(2L), dto(3L), dto(4L)), List.of());
+
+        // The log of 3 now starts two events after the first version; ids of another process never resume
+        for (String lastEventId : List.of(afterFirst, "1-1", "garbage", reset.epoch() + "-99")) {
+            StepVerifier.create(feed.changes(lastEventId).take(1))
+                    .assertNext(change -> {
+                        assertEquals("reset", change.type());
+                        assertEquals(Map.of("version", 2L), change.data());
+                    })
+                    .verifyComplete();
+        }
+    }
+
+    @Test
+    void batch_ShouldPublishOnCommitAndOnlyAnnounceLoadsLargerThanTheLog() {
+        DataChangeFeed feed = new DataChangeFeed(4);
+        DataChangeFeed.Batch small = feed.openBatch();
+        small.add(List.of(user(1L)), TO_DTO);
+        // A load that was neither committed nor discarded is resumed
+        assertSame(small, feed.openBatch());
+        feed.openBatch().add(List.of(user(2L)), TO_DTO);
+
+        StepVerifier.create(feed.changes(null).skip(1).take(6))
+                .then(() -> small.commit(2))
+                .expectNextMatches(change -> change.type().equals("upsert"))
+                .expectNextMatches(change -> change.type().equals("upsert"))
+                .assertNext(change -> assertEquals(true, ((Map<?, ?>) change.data()).get("complete")))
+                .then(() -> {
+                    DataChangeFeed.Batch large = feed.openBatch();
+                    assertNotSame(small, large);
+                    large.add(List.of(user(3L), user(4L), user(5L), user(6L)), TO_DTO);
+                    large.commit(6);
+                })
+                .assertNext(change -> {
+                    assertEquals("version", change.type());
+                    assertEquals(Map.of("version", 2L, "upserts", 4L, "deletes", 0L, "complete", false,
+                            "totalUsers", 6L), change.data());
+                })
+                .then(() -> {
+                    DataChangeFeed.Batch aborted = feed.openBatch();
+                    aborted.add(List.of(user(7L)), TO_DTO);
+                    aborted.discard();
+                    feed.committed(List.of(), List.of(8L));
+                })
+                .assertNext(change -> assertEquals(Map.of("id", 8L), change.data()))
+                // Only loads count the store for totalUsers
+                .assertNext(change -> assertEquals(Map.of("version", 3L, "upserts", 0L, "deletes", 1L,
+                        "complete", true), change.data()))
+                .verifyComplete();
+    }
+
+    @Test
+    void changes_ShouldCloseSubscribersThatFallAFullLogBehind() {
+        // Buffers hold capacity + 1 events, 8 here
+        DataChangeFeed feed = new DataChangeFeed(7);
+
+        StepVerifier.create(feed.changes(null), 1)
+                .expectNextMatches(change -> change.type().equals("reset"))
+                .then(() -> {
+                    for (long id = 1; id <= 5; id++) {
+                        feed.committed(List.of(dto(id)), List.of());
+                    }
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(8)
+                .verifyComplete();
+        assertEquals(0, feed.subscriberCount());
+    }
+
+    private static UserResponseDto dto(long id) {
+        return TO_DTO.apply(user(id));
+    }
+
+    private static User user(long id) {
+        return new User(id, "First" + id, "Last" + id, null, "user" + id + "@example.com", 30, "user");
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.exception.DataLoadException;
+import com.example.usermanagement.exception.JobNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataLoadJobServiceTest {
+
+    @Mock
+    private DataLoadService dataLoadService;
+
+    @Mock
+    private UserService userService;
+
+    private final List<Runnable> queuedTasks = new ArrayList<>();
+
+    private DataLoadJobService dataLoadJobService;
+
+    @BeforeEach
+    void setUp() {
+        dataLoadJobService = new DataLoadJobService(dataLoadService, userService, queuedTasks::add);
+    }
+
+    @Test
+    void submitLoad_WhenJobAlreadyRunning_ShouldCoalesceIntoRunningJob() {
+        DataLoadJob first = dataLoadJobService.submitLoad();
+        DataLoadJob second = dataLoadJobService.submitLoad();
+
+        assertSame(first, second);
+        assertEquals(1, first.getCoalescedRequests());
+        assertEquals(1, queuedTasks.size());
+    }
+
+    @Test
+    void submitLoad_WhenJobSucceeds_ShouldReportCompletedWithCounts() {
+        when(userService.getUserCount()).thenReturn(0L, 30L);
+        when(dataLoadService.loadUsers(any(DataLoadJob.class))).thenReturn(30);
+
+        DataLoadJob job = dataLoadJobService.submitLoad();
+        assertEquals(DataLoadJob.Status.QUEUED, job.getStatus());
+        queuedTasks.forEach(Runnable::run);
+
+        assertEquals(DataLoadJob.Status.COMPLETED, job.getStatus());
+        assertEquals(0L, job.getPreviousCount());
+        assertEquals(30L, job.getCurrentCount());
+        assertTrue(dataLoadJobService.getActiveJob().isEmpty());
+    }
+
+    @Test
+    void submitLoad_AfterJobFinished_ShouldStartNewJob() {
+        when(dataLoadService.loadUsers(any(DataLoadJob.class)))
+                .thenThrow(new DataLoadException("API Error"));
+
+        DataLoadJob first = dataLoadJobService.submitLoad();
+        queuedTasks.forEach(Runnable::run);
+        DataLoadJob second = dataLoadJobService.submitLoad();
+
+        assertEquals(DataLoadJob.Status.FAILED, first.getStatus());
+        assertNotSame(first, second);
+        assertSame(second, dataLoadJobService.getJob(second.getId()));
+    }
+
+    @Test
+    void submitLoad_WhenExecutorRejects_ShouldReturnAFailedJobThatCanBeLookedUp() {
+        dataLoadJobService = new DataLoadJobService(dataLoadService, userService, task -> {
+            throw new RejectedExecutionException("saturated");
+        });
+
+        DataLoadJob job = dataLoadJobService.submitLoad();
+
+        assertEquals(DataLoadJob.Status.FAILED, job.getStatus());
+        assertSame(job, dataLoadJobService.getJob(job.getId()));
+        assertTrue(dataLoadJobService.getActiveJob().isEmpty());
+    }
+
+    @Test
+    void submitLoad_WhenCoalesced_ShouldOnlyKeepTheRunningJob() {
+        DataLoadJob first = dataLoadJobService.submitLoad();
+        for (int i = 0; i < 30; i++) {
+            assertSame(first, dataLoadJobService.submitLoad());
+        }
+
+        // The jobs of coalesced callers were never retained, so they did not push the running one out
+        assertSame(first, dataLoadJobService.getJob(first.getId()));
+    }
+
+    @Test
+    void getJob_WhenUnknown_ShouldThrowException() {
+        assertThrows(JobNotFoundException.class, () -> dataLoadJobService.getJob("missing"));
+    }
+}
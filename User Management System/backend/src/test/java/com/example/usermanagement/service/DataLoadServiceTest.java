@@ -2,19 +2,40 @@ package com.example.usermanagement.service;
 
 import com.example.usermanagement.dto.DummyJsonResponseDto;
 import com.example.usermanagement.dto.DummyJsonUserDto;
+import com.example.usermanagement.entity.LoadCheckpoint;
 import com.example.usermanagement.entity.User;
 import com.example.usermanagement.exception.DataLoadException;
+import com.example.usermanagement.repository.LoadCheckpointRepository;
+import com.example.usermanagement.store.UserStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.retry.support.RetryTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.LongFunction;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -29,7 +50,26 @@ class DataLoadServiceTest {
     @Mock
     private UserService userService;
 
-    @InjectMocks
+    @Mock
+    private LoadCheckpointRepository checkpointRepository;
+
+    @Mock
+    private UpstreamPageCache pageCache;
+
+    @Mock
+    private DatasetSnapshotService snapshotService;
+
+    @Mock
+    private UserStore.BulkLoad bulkLoad;
+
+    @Mock
+    private ObjectProvider<WebClient> webClientProvider;
+
+    @Captor
+    private ArgumentCaptor<LongFunction<? extends List<User>>> snapshotPages;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     private DataLoadService dataLoadService;
 
     private DummyJsonResponseDto mockResponse;
@@ -37,7 +77,11 @@ class DataLoadServiceTest {
 
     @BeforeEach
     void setUp() {
+        RetryTemplate retryTemplate = RetryTemplate.builder().maxAttempts(3).noBackoff().build();
+        dataLoadService = new DataLoadService(restTemplate, userService, checkpointRepository, retryTemplate,
+                pageCache, new ObjectMapper(), snapshotService, webClientProvider, meterRegistry);
         ReflectionTestUtils.setField(dataLoadService, "baseUrl", "https://dummyjson.com");
+        lenient().when(userService.openBulkLoad()).thenReturn(bulkLoad);
         
         mockUserDto = new DummyJsonUserDto();
         mockUserDto.setId(1L);
@@ -63,7 +107,7 @@ class DataLoadServiceTest {
 
         verify(userService).getUserCount();
         verify(restTemplate, never()).getForObject(anyString(), eq(DummyJsonResponseDto.class));
-        verify(userService, never()).saveAllUsers(anyList());
+        verify(bulkLoad, never()).add(anyList());
     }
 
     @Test
@@ -76,7 +120,8 @@ class DataLoadServiceTest {
 
         verify(userService).getUserCount();
         verify(restTemplate).getForObject(anyString(), eq(DummyJsonResponseDto.class));
-        verify(userService).saveAllUsers(anyList());
+        verify(bulkLoad).add(anyList());
+        verify(bulkLoad).publish();
         verify(userService).indexAllUsers();
     }
 
@@ -88,7 +133,9 @@ class DataLoadServiceTest {
 
         assertThrows(DataLoadException.class, () -> dataLoadService.loadUsersFromExternalAPI());
         
-        verify(userService, never()).saveAllUsers(anyList());
+        verify(bulkLoad, never()).add(anyList());
+        verify(bulkLoad, never()).publish();
+        verify(bulkLoad, never()).abort();
         verify(userService, never()).indexAllUsers();
     }
 
@@ -100,7 +147,7 @@ class DataLoadServiceTest {
 
         assertThrows(DataLoadException.class, () -> dataLoadService.loadUsersFromExternalAPI());
         
-        verify(userService, never()).saveAllUsers(anyList());
+        verify(bulkLoad, never()).add(anyList());
         verify(userService, never()).indexAllUsers();
     }
 
@@ -119,13 +166,13 @@ class DataLoadServiceTest {
 
         DummyJsonResponseDto firstResponse = new DummyJsonResponseDto();
         firstResponse.setUsers(List.of(mockUserDto));
-        firstResponse.setTotal(2);
+        firstResponse.setTotal(31);
         firstResponse.setSkip(0);
         firstResponse.setLimit(30);
 
         DummyJsonResponseDto secondResponse = new DummyJsonResponseDto();
         secondResponse.setUsers(List.of(user2));
-        secondResponse.setTotal(2);
+        secondResponse.setTotal(31);
         secondResponse.setSkip(30);
         secondResponse.setLimit(30);
 
@@ -137,7 +184,185 @@ class DataLoadServiceTest {
         dataLoadService.loadUsersFromExternalAPI();
 
         verify(restTemplate, times(2)).getForObject(anyString(), eq(DummyJsonResponseDto.class));
-        verify(userService).saveAllUsers(argThat(users -> users.size() == 2));
+        verify(bulkLoad, times(2)).add(argThat(users -> users.size() == 1));
         verify(userService).indexAllUsers();
     }
-}
\ No newline at end of file
+
+    @Test
+    void loadUsersFromExternalAPI_WhenPageFailsTransiently_ShouldRetryOnlyThatPage() {
+        when(userService.getUserCount()).thenReturn(0L);
+
+        DummyJsonResponseDto firstResponse = new DummyJsonResponseDto();
+        firstResponse.setUsers(List.of(mockUserDto));
+        firstResponse.setTotal(31);
+
+        when(restTemplate.getForObject(contains("skip=0"), eq(DummyJsonResponseDto.class)))
+                .thenReturn(firstResponse);
+        when(restTemplate.getForObject(contains("skip=30"), eq(DummyJsonResponseDto.class)))
+                .thenThrow(new RuntimeException("Timeout"))
+                .thenReturn(firstResponse);
+
+        DataLoadJob job = new DataLoadJob("test");
+        dataLoadService.loadUsersFromExternalAPI(job);
+
+        verify(restTemplate, times(1)).getForObject(contains("skip=0"), eq(DummyJsonResponseDto.class));
+        verify(restTemplate, times(2)).getForObject(contains("skip=30"), eq(DummyJsonResponseDto.class));
+        assertEquals(1, job.getPageRetries());
+        assertEquals(2, job.getPagesFetched());
+        assertEquals(1.0, meterRegistry.get("users.load.page.retries").counter().count());
+        assertEquals(1, meterRegistry.get("users.load.page").tag("outcome", "failure").timer().count());
+        assertEquals(2, meterRegistry.get("users.load.page").tag("outcome", "success").timer().count());
+        assertEquals(2.0, meterRegistry.get("users.load.rows").counter().count());
+    }
+
+    @Test
+    void loadUsersFromExternalAPI_WhenCheckpointInProgress_ShouldResumeFromLastGoodOffset() {
+        LoadCheckpoint checkpoint = new LoadCheckpoint(DataLoadService.CHECKPOINT_SOURCE, 30);
+        checkpoint.advance(30, 31);
+        when(checkpointRepository.findById(DataLoadService.CHECKPOINT_SOURCE)).thenReturn(Optional.of(checkpoint));
+
+        mockResponse.setTotal(31);
+        when(restTemplate.getForObject(contains("skip=30"), eq(DummyJsonResponseDto.class)))
+                .thenReturn(mockResponse);
+
+        dataLoadService.loadUsersFromExternalAPI();
+
+        verify(userService, never()).getUserCount();
+        verify(restTemplate, never()).getForObject(contains("skip=0"), eq(DummyJsonResponseDto.class));
+        verify(bulkLoad).add(anyList());
+        assertEquals(LoadCheckpoint.Status.COMPLETED, checkpoint.getStatus());
+    }
+
+    @Test
+    void loadUsersFromExternalAPI_WhenPageCacheEnabled_ShouldFetchThroughCache() {
+        when(userService.getUserCount()).thenReturn(0L);
+        when(pageCache.isEnabled()).thenReturn(true);
+        when(pageCache.fetch(anyString())).thenReturn(mockResponse);
+
+        dataLoadService.loadUsersFromExternalAPI();
+
+        verify(pageCache).fetch(contains("skip=0"));
+        verify(restTemplate, never()).getForObject(anyString(), eq(DummyJsonResponseDto.class));
+        verify(bulkLoad).add(anyList());
+    }
+
+    @Test
+    void loadUsersFromExternalAPI_WhenWebClientAvailable_ShouldFetchPagesWithIt() {
+        List<String> requestedUrls = new ArrayList<>();
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requestedUrls.add(request.url().toString());
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("{\"users\":[{\"id\":1,\"firstName\":\"Emily\"}],\"total\":1,\"skip\":0,\"limit\":30}")
+                            .build());
+                })
+                .build();
+        when(webClientProvider.getIfAvailable()).thenReturn(webClient);
+        DataLoadService webClientLoader = new DataLoadService(restTemplate, userService, checkpointRepository,
+                RetryTemplate.builder().maxAttempts(1).build(), pageCache, new ObjectMapper(), snapshotService,
+                webClientProvider, meterRegistry);
+        ReflectionTestUtils.setField(webClientLoader, "baseUrl", "https://dummyjson.com");
+        when(userService.getUserCount()).thenReturn(0L);
+
+        int written = webClientLoader.loadUsersFromExternalAPI(new DataLoadJob("test"));
+
+        assertEquals(1, written);
+        assertEquals(List.of("https://dummyjson.com/users?limit=30&skip=0"), requestedUrls);
+        verify(bulkLoad).add(argThat(users -> users.get(0).getFirstName().equals("Emily")));
+        // The cache is disabled here; with it enabled it makes the request, see UpstreamPageCacheTest
+        verify(pageCache, never()).fetch(anyString());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void importUsersFromFile_ShouldStreamUsersInPages(@TempDir Path tempDir) throws IOException {
+        Path dump = tempDir.resolve("users.json");
+        Files.writeString(dump, """
+                {"users":[
+                  {"id":1,"firstName":"Emily","lastName":"Johnson","ssn":"900-590-289","email":"emily@x.com","age":28,"role":"admin","hair":{"color":"Brown"}},
+                  {"id":2,"firstName":"Michael","lastName":"Williams","ssn":"108-953-962","email":"michael@x.com","age":35,"role":"admin"},
+                  {"id":3,"firstName":"Sophia","lastName":"Brown","ssn":"618-379-463","email":"sophia@x.com","age":42,"role":"user"}
+                ],"total":3,"skip":0,"limit":3}
+                """);
+        ReflectionTestUtils.setField(dataLoadService, "pageSize", 2);
+        when(userService.getUserCount()).thenReturn(0L);
+
+        int imported = dataLoadService.importUsersFromFile(dump, new DataLoadJob("test"));
+
+        assertEquals(3, imported);
+        verify(bulkLoad).add(argThat(users -> users.size() == 2));
+        verify(bulkLoad).add(argThat(users -> users.size() == 1 && users.get(0).getFirstName().equals("Sophia")));
+        verify(userService).indexAllUsers();
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void loadUsers_WhenSnapshotIsCurrent_ShouldRestoreWithoutCallingUpstream(@TempDir Path tempDir) {
+        User restored = new User(1L, "John", "Doe", "123-45-6789", "john@example.com", 30, "admin");
+        DatasetSnapshotService snapshots = new DatasetSnapshotService(true, tempDir.resolve("users.snapshot").toString(),
+                Duration.ofHours(1));
+        snapshots.write(afterId -> afterId < 1 ? List.of(restored) : List.of(), "https://dummyjson.com");
+        when(snapshotService.isEnabled()).thenReturn(true);
+        when(userService.getUserCount()).thenReturn(0L);
+        when(snapshotService.readCurrent("https://dummyjson.com")).thenReturn(snapshots.readCurrent("https://dummyjson.com"));
+
+        int loaded = dataLoadService.loadUsers(new DataLoadJob("test"));
+
+        assertEquals(1, loaded);
+        verify(bulkLoad).add(argThat(users -> users.size() == 1 && users.get(0).getEmail().equals("john@example.com")));
+        verify(bulkLoad).publish();
+        verifyNoInteractions(restTemplate);
+        verify(snapshotService, never()).write(any(), anyString());
+    }
+
+    @Test
+    void loadUsers_AfterSuccessfulLoad_ShouldWriteSnapshot() {
+        when(snapshotService.isEnabled()).thenReturn(true);
+        when(userService.getUserCount()).thenReturn(0L);
+        when(snapshotService.readCurrent(anyString())).thenReturn(Optional.empty());
+        when(restTemplate.getForObject(anyString(), eq(DummyJsonResponseDto.class))).thenReturn(mockResponse);
+
+        dataLoadService.loadUsers(new DataLoadJob("test"));
+
+        // The snapshot reads the loaded users back a page at a time
+        verify(snapshotService).write(snapshotPages.capture(), eq("https://dummyjson.com"));
+        snapshotPages.getValue().apply(Long.MIN_VALUE);
+        verify(userService).findPageAfter(eq(Long.MIN_VALUE), anyInt());
+        verify(userService, never()).getAllUserEntities();
+    }
+
+    @Test
+    void loadUsers_InSyntheticMode_ShouldGenerateInPagesAndReportCapacity() {
+        ReflectionTestUtils.setField(dataLoadService, "mode", DataSourceMode.SYNTHETIC);
+        ReflectionTestUtils.setField(dataLoadService, "syntheticSize", 12_000);
+        when(userService.getUserCount()).thenReturn(0L);
+        DataLoadJob job = new DataLoadJob("test");
+
+        int loaded = dataLoadService.loadUsers(job);
+
+        assertEquals(12_000, loaded);
+        verify(bulkLoad).add(argThat(users -> users.size() == 10_000 && users.get(0).getId() == 1L));
+        verify(bulkLoad).add(argThat(users -> users.size() == 2_000 && users.get(0).getId() == 10_001L));
+        verify(bulkLoad).publish();
+        verify(userService).indexAllUsers();
+        assertNotNull(job.getCapacityReport());
+        // Heap is only measured on request, it takes two full GCs
+        assertEquals(-1, job.getCapacityReport().heapBytesPerUser());
+        assertEquals(12_000, job.getRowsWritten());
+        verifyNoInteractions(restTemplate, snapshotService);
+    }
+
+    @Test
+    void loadUsers_InSyntheticModeWithHeapMeasurement_ShouldReportHeapPerUser() {
+        ReflectionTestUtils.setField(dataLoadService, "mode", DataSourceMode.SYNTHETIC);
+        ReflectionTestUtils.setField(dataLoadService, "syntheticSize", 100);
+        ReflectionTestUtils.setField(dataLoadService, "measureHeap", true);
+        when(userService.getUserCount()).thenReturn(0L);
+        DataLoadJob job = new DataLoadJob("test");
+
+        dataLoadService.loadUsers(job);
+
+        assertTrue(job.getCapacityReport().heapBytesPerUser() >= 0);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetSnapshotServiceTest {
+
+    private static final String SOURCE = "https://dummyjson.com";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readCurrent_AfterWrite_ShouldRestoreAllFields() {
+        DatasetSnapshotService snapshotService = newService(Duration.ofHours(1));
+        User user = new User(1L, "Émily", "Johnson", "900-590-289", "emily@x.com", 28, "admin");
+        user.setBirthDate("1996-5-30");
+        user.setCity("Phoenix");
+        user.setState("Mississippi");
+        user.setLatitude(-77.16213);
+        user.setLongitude(-92.084824);
+        User withNulls = new User(2L, "Michael", "Williams", "108-953-962", "michael@x.com", null, "user");
+
+        snapshotService.write(pages(List.of(user, withNulls), 1), "file:/data/😀.json");
+        Optional<DatasetSnapshotService.Snapshot> snapshot = snapshotService.readCurrent("file:/data/😀.json");
+
+        assertTrue(snapshot.isPresent());
+        assertEquals(2, snapshot.get().size());
+        List<List<User>> pages = new ArrayList<>();
+        snapshot.get().forEachPage(10, pages::add);
+        assertEquals(1, pages.size());
+        List<User> restored = pages.get(0);
+        assertEquals(2, restored.size());
+        User first = restored.get(0);
+        assertEquals(1L, first.getId());
+        assertEquals("Émily", first.getFirstName());
+        assertEquals("1996-5-30", first.getBirthDate());
+        assertNull(first.getPhone());
+        assertEquals("Phoenix", first.getCity());
+        assertEquals(-77.16213, first.getLatitude());
+        assertEquals(-92.084824, first.getLongitude());
+        assertNull(restored.get(1).getLatitude());
+        assertNull(restored.get(1).getAge());
+    }
+
+    @Test
+    void forEachPage_ShouldHandOutRowsInPagesOfTheGivenSize() {
+        DatasetSnapshotService snapshotService = newService(Duration.ofHours(1));
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            users.add(new User(id, "User", "Number" + id, "000-00-" + id, "user" + id + "@x.com", 30, "user"));
+        }
+        snapshotService.write(pages(users, 7), SOURCE);
+
+        List<Integer> sizes = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        snapshotService.readCurrent(SOURCE).orElseThrow().forEachPage(10, page -> {
+            sizes.add(page.size());
+            page.forEach(user -> ids.add(user.getId()));
+        });
+
+        assertEquals(List.of(10, 10, 5), sizes);
+        assertEquals(users.stream().map(User::getId).toList(), ids);
+    }
+
+    @Test
+    void readCurrent_WhenSourceDiffers_ShouldIgnoreSnapshot() {
+        DatasetSnapshotService snapshotService = newService(Duration.ofHours(1));
+        snapshotService.write(pages(List.of(new User(1L, "John", "Doe", "1", "j@x.com", 30, "admin")), 10), SOURCE);
+
+        assertTrue(snapshotService.readCurrent("file:/tmp/users.json").isEmpty());
+    }
+
+    @Test
+    void readCurrent_WhenFileCorrupted_ShouldIgnoreSnapshot() throws IOException {
+        DatasetSnapshotService snapshotService = newService(Duration.ofHours(1));
+        snapshotService.write(pages(List.of(new User(1L, "John", "Doe", "1", "j@x.com", 30, "admin")), 10), SOURCE);
+        Path file = tempDir.resolve("users.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 12] ^= 0x7F;
+        Files.write(file, bytes);
+
+        assertTrue(snapshotService.readCurrent(SOURCE).isEmpty());
+    }
+
+    @Test
+    void readCurrent_WhenSnapshotTooOld_ShouldIgnoreSnapshot() {
+        DatasetSnapshotService snapshotService = newService(Duration.ZERO.minusMillis(1));
+        snapshotService.write(pages(List.of(new User(1L, "John", "Doe", "1", "j@x.com", 30, "admin")), 10), SOURCE);
+
+        assertTrue(snapshotService.readCurrent(SOURCE).isEmpty());
+    }
+
+    @Test
+    void write_WhenReadingPagesFails_ShouldNotThrowOrLeaveFilesBehind() throws IOException {
+        DatasetSnapshotService snapshotService = newService(Duration.ofHours(1));
+
+        snapshotService.write(afterId -> {
+            throw new IllegalStateException("store closed");
+        }, SOURCE);
+
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    @Test
+    void invalidate_ShouldDeleteTheSnapshotAndDiscardAWriteInProgress() throws IOException {
+        DatasetSnapshotService snapshotService = newService(Duration.ofHours(1));
+        List<User> users = List.of(new User(1L, "John", "Doe", "1", "j@x.com", 30, "admin"));
+        snapshotService.write(pages(users, 10), SOURCE);
+
+        snapshotService.invalidate();
+        assertTrue(snapshotService.readCurrent(SOURCE).isEmpty());
+
+        LongFunction<List<User>> pages = pages(users, 10);
+        snapshotService.write(afterId -> {
+            // A write commits while the snapshot is being taken
+            snapshotService.invalidate();
+            return pages.apply(afterId);
+        }, SOURCE);
+        assertTrue(snapshotService.readCurrent(SOURCE).isEmpty());
+        try (var files = Files.list(tempDir)) {
+            assertEquals(List.of(), files.toList());
+        }
+    }
+
+    /**
+     * Serves {@code users}, in id order, as pages of up to {@code size}.
+     */
+    private static LongFunction<List<User>> pages(List<User> users, int size) {
+        return afterId -> users.stream().filter(user -> user.getId() > afterId).limit(size).toList();
+    }
+
+    private DatasetSnapshotService newService(Duration maxAge) {
+        return new DatasetSnapshotService(true, tempDir.resolve("users.snapshot").toString(), maxAge);
+    }
+}
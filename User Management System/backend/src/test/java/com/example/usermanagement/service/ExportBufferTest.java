@@ -0,0 +1,49 @@
+package com.example.usermanagement.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExportBufferTest {
+
+    @Test
+    void writeDecimal_ShouldWriteDoublesThatParseBackExactly() throws IOException {
+        Random random = new Random(7);
+        List<Double> values = new ArrayList<>(List.of(0.0, -0.5, 0.000001, -77.16213, 151.5, 1e-7, 1e12, 0.1 + 0.2));
+        for (int i = 0; i < 1000; i++) {
+            values.add(Math.round((random.nextDouble() * 360 - 180) * 1e6) / 1e6);
+        }
+        ExportBuffer buffer = new ExportBuffer(16);
+        for (double value : values) {
+            buffer.reset();
+            buffer.writeDecimal(value);
+            assertEquals(value, Double.parseDouble(text(buffer)), text(buffer));
+        }
+        buffer.reset();
+        buffer.writeDecimal(-0.5);
+        assertEquals("-0.5", text(buffer));
+    }
+
+    @Test
+    void writeUtf8_ShouldEncodeLikeTheJdk() throws IOException {
+        ExportBuffer buffer = new ExportBuffer(4);
+        for (String value : List.of("", "plain ascii", "Zoë", "日本語", "emoji 😀 end", "x\uD800y")) {
+            buffer.reset();
+            buffer.writeUtf8(value);
+            assertEquals(value.replace('\uD800', '?'), text(buffer));
+        }
+    }
+
+    private static String text(ExportBuffer buffer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        buffer.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
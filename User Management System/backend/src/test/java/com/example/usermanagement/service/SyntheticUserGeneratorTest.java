@@ -0,0 +1,46 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticUserGeneratorTest {
+
+    @Test
+    void users_ShouldBeDeterministicPerSeedAndId() {
+        User first = new SyntheticUserGenerator(7).user(1234);
+        User again = new SyntheticUserGenerator(7).users(1230, 10).get(4);
+
+        assertEquals(1234L, again.getId());
+        assertEquals(first.getEmail(), again.getEmail());
+        assertEquals(first.getSsn(), again.getSsn());
+        assertEquals(first.getBirthDate(), again.getBirthDate());
+        assertNotEquals(first.getSsn(), new SyntheticUserGenerator(8).user(1234).getSsn());
+    }
+
+    @Test
+    void users_ShouldHaveUniqueKeysAndSkewedNames() {
+        List<User> users = new SyntheticUserGenerator(42).users(1, 100_000);
+        Set<String> emails = new HashSet<>();
+        Set<String> ssns = new HashSet<>();
+        Map<String, Integer> lastNames = new HashMap<>();
+        for (User user : users) {
+            assertTrue(emails.add(user.getEmail()), user.getEmail());
+            assertTrue(ssns.add(user.getSsn()), user.getSsn());
+            assertTrue(user.getSsn().matches("\\d{3}-\\d{2}-\\d{4}"), user.getSsn());
+            assertTrue(user.getAge() >= 18 && user.getAge() <= 79);
+            lastNames.merge(user.getLastName(), 1, Integer::sum);
+        }
+
+        int mostCommon = lastNames.values().stream().mapToInt(Integer::intValue).max().orElseThrow();
+        int leastCommon = lastNames.values().stream().mapToInt(Integer::intValue).min().orElseThrow();
+        assertTrue(mostCommon > 20 * leastCommon, "expected a skewed distribution: " + lastNames);
+    }
+}
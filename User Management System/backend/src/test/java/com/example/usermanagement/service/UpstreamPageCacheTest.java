@@ -0,0 +1,113 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.DummyJsonResponseDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.nio.file.Path;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamPageCacheTest {
+
+    private static final String PAGE_BODY =
+            "{\"users\":[{\"id\":1,\"firstName\":\"Emily\",\"lastName\":\"Johnson\"}],\"total\":1,\"skip\":0,\"limit\":30}";
+
+    @TempDir
+    Path cacheDir;
+
+    private WireMockServer upstream;
+    private UpstreamPageCache pageCache;
+    private String url;
+
+    @BeforeEach
+    void setUp() {
+        upstream = new WireMockServer(wireMockConfig().dynamicPort());
+        upstream.start();
+        url = upstream.baseUrl() + "/users?limit=30&skip=0";
+        pageCache = pageCache(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstream.stop();
+    }
+
+    @Test
+    void fetch_WhenUpstreamReturnsNotModified_ShouldServeCachedPage() {
+        upstream.stubFor(get(urlPathEqualTo("/users")).withHeader("If-None-Match", absent())
+                .willReturn(okJson(PAGE_BODY).withHeader("ETag", "\"v1\"")));
+        upstream.stubFor(get(urlPathEqualTo("/users")).withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304)));
+
+        DummyJsonResponseDto first = pageCache.fetch(url);
+        DummyJsonResponseDto second = pageCache.fetch(url);
+
+        assertEquals("Emily", first.getUsers().get(0).getFirstName());
+        assertEquals("Emily", second.getUsers().get(0).getFirstName());
+        assertEquals(1, pageCache.getMisses());
+        assertEquals(1, pageCache.getHits());
+        upstream.verify(1, getRequestedFor(urlPathEqualTo("/users")).withHeader("If-None-Match", equalTo("\"v1\"")));
+    }
+
+    @Test
+    void fetch_WhenUpstreamUnavailable_ShouldFallBackToCachedPage() {
+        upstream.stubFor(get(urlPathEqualTo("/users")).willReturn(okJson(PAGE_BODY)));
+        pageCache.fetch(url);
+        upstream.stop();
+
+        DummyJsonResponseDto cached = pageCache.fetch(url);
+
+        assertEquals(1, cached.getTotal());
+        assertEquals(1, pageCache.getHits());
+    }
+
+    @Test
+    void fetch_ThroughWebClient_ShouldRevalidateAndFallBackToCachedPage() {
+        pageCache = pageCache(WebClient.create());
+        upstream.stubFor(get(urlPathEqualTo("/users")).withHeader("If-None-Match", absent())
+                .willReturn(okJson(PAGE_BODY).withHeader("ETag", "\"v1\"")));
+        upstream.stubFor(get(urlPathEqualTo("/users")).withHeader("If-None-Match", equalTo("\"v1\""))
+                .willReturn(aResponse().withStatus(304)));
+
+        pageCache.fetch(url);
+        DummyJsonResponseDto revalidated = pageCache.fetch(url);
+        upstream.stop();
+        DummyJsonResponseDto offline = pageCache.fetch(url);
+
+        assertEquals("Emily", revalidated.getUsers().get(0).getFirstName());
+        assertEquals(1, offline.getTotal());
+        assertEquals(1, pageCache.getMisses());
+        assertEquals(2, pageCache.getHits());
+    }
+
+    @Test
+    void fetch_WhenUpstreamUnavailableAndNothingCached_ShouldThrow() {
+        upstream.stop();
+
+        assertThrows(ResourceAccessException.class, () -> pageCache.fetch(url));
+    }
+
+    /**
+     * A cache on {@link RestTemplate}, or on {@code webClient} where one is given, as the
+     * reactive stack defines it.
+     */
+    private UpstreamPageCache pageCache(WebClient webClient) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        if (webClient != null) {
+            beanFactory.registerSingleton("upstreamWebClient", webClient);
+        }
+        return new UpstreamPageCache(new RestTemplate(), beanFactory.getBeanProvider(WebClient.class),
+                new ObjectMapper(), true, cacheDir.toString(), 30000);
+    }
+}
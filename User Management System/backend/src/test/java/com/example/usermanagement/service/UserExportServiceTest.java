@@ -0,0 +1,206 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserExportServiceTest {
+
+    private static final int CHUNK_SIZE = 4;
+
+    @Mock
+    private UserService userService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private UserExportService exportService;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        exportService = new UserExportService(userService, CHUNK_SIZE, meterRegistry);
+        User quoted = new User(-5L, "Seán \"Jr\"", "O'Brien, III", "900-590-289", "sean@x.com", 41, "admin");
+        quoted.setCity("Line\nBreak");
+        quoted.setLatitude(-77.16213);
+        quoted.setLongitude(151.5);
+        users.add(quoted);
+        users.add(new User(3L, "Zoë 😀", "Back\\slash", null, "zoe@x.com", null, "user"));
+        for (long id = 10; id < 17; id++) {
+            users.add(new User(id, "First" + id, "Last" + id, "123-45-" + id, "user" + id + "@x.com", (int) id, "user"));
+        }
+        when(userService.findPageAfter(anyLong(), anyInt())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            int limit = invocation.getArgument(1);
+            return users.stream().filter(user -> user.getId() > afterId).limit(limit).toList();
+        });
+    }
+
+    @Test
+    void export_Csv_ShouldQuoteFieldsThatNeedItAndLeaveNullsEmpty() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        UserExportService.ExportResult result = exportService.export(ExportFormat.CSV, false, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        String[] lines = csv.split("\r\n");
+        assertEquals("id,firstName,lastName,ssn,email,age,role,phone,username,birthDate,gender,city,state,latitude,longitude",
+                lines[0]);
+        assertEquals("-5,\"Seán \"\"Jr\"\"\",\"O'Brien, III\",900-590-289,sean@x.com,41,admin,,,,,\"Line\nBreak\",,-77.16213,151.5",
+                lines[1]);
+        assertEquals("3,Zoë 😀,Back\\slash,,zoe@x.com,,user,,,,,,,,", lines[2]);
+        assertEquals(users.size() + 1, lines.length);
+        assertEquals(users.size(), result.rows());
+        assertEquals(out.size(), result.bytes());
+        // Pages of CHUNK_SIZE: after -5 and 3 came 10 and 11, and the last page was short
+        verify(userService).findPageAfter(Long.MIN_VALUE, CHUNK_SIZE);
+        verify(userService).findPageAfter(11L, CHUNK_SIZE);
+        verify(userService).findPageAfter(15L, CHUNK_SIZE);
+    }
+
+    @Test
+    void export_Ndjson_ShouldWriteOneParsableObjectPerUser() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ExportFormat.NDJSON, false, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(users.size(), lines.length);
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals(-5, first.get("id").asLong());
+        assertEquals("Seán \"Jr\"", first.get("firstName").asText());
+        assertEquals("Line\nBreak", first.get("city").asText());
+        assertEquals(-77.16213, first.get("latitude").asDouble());
+        assertTrue(first.get("phone").isNull());
+        JsonNode second = objectMapper.readTree(lines[1]);
+        assertEquals("Zoë 😀", second.get("firstName").asText());
+        assertEquals("Back\\slash", second.get("lastName").asText());
+        assertTrue(second.get("age").isNull());
+    }
+
+    @Test
+    void export_Columnar_ShouldRoundTripThroughFooterAndRowGroups() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ExportFormat.COLUMNAR, false, out);
+
+        List<Object[]> rows = readColumnar(out.toByteArray());
+        assertEquals(users.size(), rows.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            Object[] expected = UserExportWriter.COLUMNS.stream().map(column -> column.value().apply(user)).toArray();
+            assertArrayEquals(expected, rows.get(i), "row " + i);
+        }
+    }
+
+    @Test
+    void export_WithGzip_ShouldCompressTheSameBytesAndRecordThroughput() throws IOException {
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        exportService.export(ExportFormat.NDJSON, false, plain);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        UserExportService.ExportResult result = exportService.export(ExportFormat.NDJSON, true, compressed);
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            assertArrayEquals(plain.toByteArray(), in.readAllBytes());
+        }
+        assertEquals(plain.size(), result.bytes());
+        assertEquals(compressed.size(), result.compressedBytes());
+        assertEquals(1, meterRegistry.get("users.export.throughput").tag("format", "ndjson").tag("gzip", "true")
+                .summary().count());
+    }
+
+    /**
+     * Reads the file the way the format is documented: footer first, then each row group.
+     */
+    private static List<Object[]> readColumnar(byte[] file) {
+        ByteBuffer buffer = ByteBuffer.wrap(file);
+        assertEquals("UMX1", new String(file, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals("UMX1", new String(file, file.length - 4, 4, StandardCharsets.US_ASCII));
+        int footerLength = buffer.getInt(file.length - 8);
+        buffer.position(file.length - 8 - footerLength);
+        int columnCount = buffer.getInt();
+        List<UserExportWriter.Type> types = new ArrayList<>();
+        for (int c = 0; c < columnCount; c++) {
+            types.add(UserExportWriter.Type.values()[buffer.get()]);
+            byte[] name = new byte[(int) readVarLong(buffer)];
+            buffer.get(name);
+            assertEquals(UserExportWriter.COLUMNS.get(c).name(), new String(name, StandardCharsets.US_ASCII));
+        }
+        int groupCount = buffer.getInt();
+        long[] offsets = new long[groupCount];
+        for (int g = 0; g < groupCount; g++) {
+            offsets[g] = buffer.getLong();
+            buffer.getInt();
+        }
+        long totalRows = buffer.getLong();
+
+        List<Object[]> rows = new ArrayList<>();
+        for (long offset : offsets) {
+            buffer.position((int) offset);
+            int groupRows = buffer.getInt();
+            Object[][] group = new Object[groupRows][columnCount];
+            for (int c = 0; c < columnCount; c++) {
+                int end = buffer.getInt() + buffer.position();
+                byte[] bitmap = new byte[(groupRows + 7) / 8];
+                buffer.get(bitmap);
+                long previousId = 0;
+                for (int r = 0; r < groupRows; r++) {
+                    if ((bitmap[r >>> 3] & 1 << (r & 7)) == 0) {
+                        continue;
+                    }
+                    group[r][c] = switch (types.get(c)) {
+                        case INT64 -> previousId += readVarLong(buffer);
+                        case INT32 -> (int) readVarLong(buffer);
+                        case DOUBLE -> buffer.getDouble();
+                        case STRING -> {
+                            byte[] bytes = new byte[(int) readVarLong(buffer)];
+                            buffer.get(bytes);
+                            yield new String(bytes, StandardCharsets.UTF_8);
+                        }
+                    };
+                }
+                assertEquals(end, buffer.position());
+            }
+            rows.addAll(Arrays.asList(group));
+        }
+        assertEquals(totalRows, rows.size());
+        return rows;
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long zigzag = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            zigzag |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return zigzag >>> 1 ^ -(zigzag & 1);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserKeyFilterTest {
+
+    @Test
+    void beforeRebuild_ShouldAllowEveryKey() {
+        UserKeyFilter filter = new UserKeyFilter();
+
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContainId(1L));
+        assertTrue(filter.mightContainEmail("anyone@example.com"));
+    }
+
+    @Test
+    void rebuild_ShouldHaveNoFalseNegativesAndFewFalsePositives() {
+        UserKeyFilter filter = new UserKeyFilter();
+        rebuild(filter, 1, 50_000);
+        filter.add(users(50_001, 60_000));
+
+        for (long id = 1; id <= 60_000; id++) {
+            assertTrue(filter.mightContainId(id));
+            assertTrue(filter.mightContainEmail("USER" + id + "@example.com"));
+        }
+        int falsePositives = 0;
+        for (long id = 1_000_001; id <= 1_100_000; id++) {
+            if (filter.mightContainId(id)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 3_000, "false positive rate too high: " + falsePositives);
+    }
+
+    @Test
+    void rebuild_ShouldKeepKeysAddedSinceTheLastRebuild() {
+        UserKeyFilter filter = new UserKeyFilter();
+        rebuild(filter, 1, 10);
+        filter.add(users(11, 11));
+
+        rebuild(filter, 1, 10);
+
+        assertTrue(filter.mightContainId(11L));
+        assertTrue(filter.mightContainEmail("user11@example.com"));
+    }
+
+    @Test
+    void isSaturated_ShouldTurnTrueOnceAddedKeysOutgrowTheFilterUntilRebuilt() {
+        UserKeyFilter filter = new UserKeyFilter();
+        assertFalse(filter.isSaturated());
+        rebuild(filter, 1, 10);
+
+        filter.add(users(11, 1024));
+        assertFalse(filter.isSaturated());
+        filter.add(users(1025, 1025));
+        assertTrue(filter.isSaturated());
+
+        rebuild(filter, 1, 1025);
+        assertFalse(filter.isSaturated());
+        assertTrue(filter.mightContainId(1025L));
+    }
+
+    @Test
+    void rebuild_ShouldKeepKeysWrittenWhileItReadsThePages() {
+        UserKeyFilter filter = new UserKeyFilter();
+        List<User> stored = users(1, 2_000);
+
+        // The first page is read before user 2001 is stored, the rest after; 2002 is a
+        // staged bulk-load page that is not readable yet
+        filter.rebuild(2_000, afterId -> {
+            if (afterId == Long.MIN_VALUE) {
+                filter.add(users(2_001, 2_001));
+                filter.addStaged(users(2_002, 2_002));
+            }
+            return page(stored, afterId);
+        });
+
+        assertTrue(filter.mightContainId(2_001L));
+        assertTrue(filter.mightContainEmail("user2002@example.com"));
+        assertTrue(filter.mightContainId(2_000L));
+        assertFalse(filter.isSaturated());
+    }
+
+    private static void rebuild(UserKeyFilter filter, long from, long to) {
+        List<User> stored = users(from, to);
+        filter.rebuild(stored.size(), afterId -> page(stored, afterId));
+    }
+
+    /**
+     * Up to 1000 users after {@code afterId}, like {@link UserService#findPageAfter}.
+     */
+    private static List<User> page(List<User> users, long afterId) {
+        return users.stream().filter(user -> user.getId() > afterId).limit(1000).toList();
+    }
+
+    private static List<User> users(long from, long to) {
+        List<User> users = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            users.add(new User(id, "First", "Last", "000-00-0000", "user" + id + "@example.com", 30, "user"));
+        }
+        return users;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.exception.InvalidQueryException;
+import com.example.usermanagement.store.UserQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserQueryParserTest {
+
+    @Test
+    void parse_ShouldBindAndTighterThanOr() {
+        UserQuery expected = new UserQuery.Or(List.of(
+                new UserQuery.And(List.of(new UserQuery.Role("admin"), new UserQuery.Age(30, 40))),
+                new UserQuery.And(List.of(UserQuery.Term.of("smith"), new UserQuery.Gender("female")))));
+
+        assertEquals(expected, UserQueryParser.parse("role:admin AND age:30..40 OR smith gender:female"));
+    }
+
+    @Test
+    void parse_ShouldHonorParenthesesAndQuotedPhrases() {
+        UserQuery expected = new UserQuery.And(List.of(
+                new UserQuery.Or(List.of(new UserQuery.Role("admin"), new UserQuery.Role("moderator"))),
+                new UserQuery.Term("Emma Brown", true),
+                new UserQuery.Term("jo", false)));
+
+        assertEquals(expected, UserQueryParser.parse("(role:admin OR role:moderator) \"Emma Brown\" jo"));
+        // Operators are upper case only; in lower case they are search terms
+        assertEquals(new UserQuery.And(List.of(UserQuery.Term.of("emma"), UserQuery.Term.of("or"),
+                UserQuery.Term.of("liam"))), UserQueryParser.parse("emma or liam"));
+    }
+
+    @Test
+    void parse_ShouldReadAgeRangesAndSsnPrefixes() {
+        assertEquals(new UserQuery.Age(30, 30), UserQueryParser.parse("age:30"));
+        assertEquals(new UserQuery.Age(65, null), UserQueryParser.parse("age:65.."));
+        assertEquals(new UserQuery.Age(null, 17), UserQueryParser.parse("AGE:..17"));
+        assertEquals(new UserQuery.SsnPrefix("12345"), UserQueryParser.parse("ssn:123-45*"));
+        assertEquals(new UserQuery.SsnPrefix("9"), UserQueryParser.parse("ssn:9"));
+    }
+
+    @Test
+    void parse_ShouldRejectMalformedQueries() {
+        for (String where : List.of("", "(role:admin", "role:admin)", "role:admin OR", "AND smith", "role:",
+                "age:..", "age:40..30", "age:151", "age:-1", "ssn:12a*", "ssn:1234567890", "\"unterminated", "\"\"")) {
+            assertThrows(InvalidQueryException.class, () -> UserQueryParser.parse(where), where);
+        }
+    }
+
+    @Test
+    void parse_ShouldCapTheNumberOfConditions() {
+        String where = String.join(" OR ", Collections.nCopies(UserQueryParser.MAX_CONDITIONS, "role:a"));
+        assertInstanceOf(UserQuery.Or.class, UserQueryParser.parse(where));
+        assertThrows(InvalidQueryException.class, () -> UserQueryParser.parse(where + " OR role:b"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent writes against the JPA store: the write lock has to cover the commit, or a
+ * second writer passes the checks before the first one's rows are visible.
+ */
+@SpringBootTest(properties = {
+        "app.warmup.enabled=false",
+        "app.snapshot.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:concurrent-writes"
+})
+class UserServiceConcurrencyTest {
+
+    private static final int WRITERS = 8;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void writeUsers_ClaimingTheSameEmailConcurrently_ShouldCreateOneAndRefuseTheRest() throws Exception {
+        List<UserService.WriteOutcome> outcomes = concurrently(writer -> userService.writeUsers(List.of(
+                new User(null, "Racer", "Number" + writer, "555-00-" + (1000 + writer), "race@example.com", 30, "user")))
+                .get(0));
+
+        assertEquals(1, outcomes.stream().filter(outcome -> outcome.status() == UserService.WriteOutcome.Status.CREATED).count());
+        assertEquals(WRITERS - 1, outcomes.stream()
+                .filter(outcome -> outcome.status() == UserService.WriteOutcome.Status.CONFLICT)
+                .filter(outcome -> "email".equals(outcome.field()))
+                .count());
+    }
+
+    @Test
+    void patchUser_Concurrently_ShouldNotLoseUpdates() throws Exception {
+        User counter = new User(null, "Count", "Er", "555-99-0000", "counter@example.com", 0, "user");
+        userService.writeUsers(List.of(counter));
+
+        concurrently(writer -> userService.patchUser(counter.getId(), current -> new User(current.getId(),
+                current.getFirstName(), current.getLastName(), current.getSsn(), current.getEmail(),
+                current.getAge() + 1, current.getRole())));
+
+        assertEquals(WRITERS, userService.getUserById(counter.getId()).getAge());
+    }
+
+    private interface Writer<T> {
+        T write(int writer) throws Exception;
+    }
+
+    private static <T> List<T> concurrently(Writer<T> writer) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                int id = i;
+                Callable<T> task = () -> {
+                    start.await();
+                    return writer.write(id);
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
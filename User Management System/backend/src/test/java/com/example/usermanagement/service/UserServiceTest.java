@@ -1,22 +1,38 @@
 package com.example.usermanagement.service;
 
+import com.example.usermanagement.dto.UserResponseDto;
 import com.example.usermanagement.entity.User;
+import com.example.usermanagement.exception.InvalidQueryException;
+import com.example.usermanagement.exception.UserConflictException;
 import com.example.usermanagement.exception.UserNotFoundException;
 import com.example.usermanagement.repository.UserRepository;
 import com.example.usermanagement.repository.UserSearchRepository;
+import com.example.usermanagement.store.JpaUserStore;
+import com.example.usermanagement.store.UserQuery;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.test.StepVerifier;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -29,14 +45,28 @@ class UserServiceTest {
     @Mock
     private UserSearchRepository userSearchRepository;
 
-    @InjectMocks
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final DataChangeFeed changeFeed = new DataChangeFeed(100);
+
+    @TempDir
+    Path tempDir;
+
+    private DatasetSnapshotService snapshotService;
+
     private UserService userService;
 
     private User testUser;
     private List<User> testUsers;
 
+    private final List<Runnable> keyFilterRebuilds = new ArrayList<>();
+
     @BeforeEach
     void setUp() {
+        snapshotService = new DatasetSnapshotService(true, tempDir.resolve("users.snapshot").toString(),
+                Duration.ofHours(1));
+        userService = new UserService(new JpaUserStore(userRepository, userSearchRepository), changeFeed,
+                snapshotService, TransactionOperations.withoutTransaction(), meterRegistry, keyFilterRebuilds::add);
         testUser = new User(1L, "John", "Doe", "123-45-6789", "john.doe@example.com", 30, "admin");
         User testUser2 = new User(2L, "Jane", "Smith", "987-65-4321", "jane.smith@example.com", 25, "user");
         testUsers = Arrays.asList(testUser, testUser2);
@@ -124,6 +154,8 @@ class UserServiceTest {
         assertEquals("John", result.get(0).getFirstName());
         verify(userSearchRepository).fullTextSearch("John");
         verify(userRepository, never()).findBySearchTerm(anyString());
+        assertEquals(1, meterRegistry.get("users.search").tag("type", "full_text").timer().count());
+        assertEquals(1.0, meterRegistry.get("users.search.results").tag("type", "full_text").summary().totalAmount());
     }
 
     @Test
@@ -140,6 +172,103 @@ class UserServiceTest {
         verify(userRepository).saveAll(testUsers);
     }
 
+    @Test
+    void saveAllUsers_ShouldPublishUpsertsThenVersionToChangeFeed() {
+        StepVerifier.create(changeFeed.changes(null).take(4))
+                .assertNext(change -> assertEquals("reset", change.type()))
+                .then(() -> userService.saveAllUsers(testUsers))
+                .assertNext(change -> assertEquals(1L, ((UserResponseDto) change.data()).getId()))
+                .assertNext(change -> assertEquals(2L, ((UserResponseDto) change.data()).getId()))
+                .assertNext(change -> {
+                    assertEquals("version", change.type());
+                    assertEquals(Map.of("version", 1L, "upserts", 2L, "deletes", 0L, "complete", true),
+                            change.data());
+                })
+                .verifyComplete();
+        verify(userRepository, never()).count();
+    }
+
+    @Test
+    void committedWrites_ShouldDeleteTheSnapshot() {
+        Path snapshot = tempDir.resolve("users.snapshot");
+        snapshotService.write(afterId -> afterId < 1 ? List.of(testUser) : List.of(), "source");
+        assertTrue(Files.exists(snapshot));
+
+        userService.saveAllUsers(testUsers);
+        assertFalse(Files.exists(snapshot));
+
+        snapshotService.write(afterId -> afterId < 1 ? List.of(testUser) : List.of(), "source");
+        when(userRepository.findAllById(List.of(2L))).thenReturn(List.of(testUsers.get(1)));
+        userService.deleteUsers(List.of(2L));
+        assertFalse(Files.exists(snapshot));
+    }
+
+    @Test
+    void writeUsers_ShouldRefuseUnknownIdsAndTakenKeysAndWriteTheRest() {
+        User renamed = new User(1L, "Johnny", "Doe", "123-45-6789", "johnny@example.com", 31, "admin");
+        User unknown = new User(9L, "Ghost", "User", "000-00-0000", "ghost@example.com", 40, "user");
+        User takenEmail = new User(null, "Copy", "Cat", "111-11-1111", "jane.smith@example.com", 20, "user");
+        User claimedInBatch = new User(null, "Late", "Comer", "222-22-2222", "johnny@example.com", 22, "user");
+        User fresh = new User(null, "New", "User", "333-33-3333", "new@example.com", 33, "user");
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(testUser));
+        when(userRepository.findByEmailKeyIn(anyCollection())).thenReturn(testUsers);
+        when(userRepository.findBySsnIn(anyCollection())).thenReturn(testUsers);
+
+        List<UserService.WriteOutcome> outcomes =
+                userService.writeUsers(List.of(renamed, unknown, takenEmail, claimedInBatch, fresh));
+
+        assertEquals(List.of(UserService.WriteOutcome.Status.UPDATED, UserService.WriteOutcome.Status.NOT_FOUND,
+                        UserService.WriteOutcome.Status.CONFLICT, UserService.WriteOutcome.Status.CONFLICT,
+                        UserService.WriteOutcome.Status.CREATED),
+                outcomes.stream().map(UserService.WriteOutcome::status).toList());
+        assertEquals("email", outcomes.get(2).field());
+        assertEquals("email", outcomes.get(3).field());
+        assertEquals("Johnny", outcomes.get(0).user().getFirstName());
+        verify(userRepository).saveAll(List.of(renamed, fresh));
+    }
+
+    @Test
+    void writeUsers_ShouldTreatEmailsThatDifferOnlyInCaseAsTheSame() {
+        User shouting = new User(null, "Jane", "Copy", "444-44-4444", "JANE.SMITH@Example.com", 20, "user");
+        User recased = new User(1L, "John", "Doe", "123-45-6789", "John.Doe@Example.com", 30, "admin");
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(testUser));
+        when(userRepository.findByEmailKeyIn(argThat(keys ->
+                Set.copyOf(keys).equals(Set.of("jane.smith@example.com", "john.doe@example.com")))))
+                .thenReturn(testUsers);
+
+        List<UserService.WriteOutcome> outcomes = userService.writeUsers(List.of(shouting, recased));
+
+        assertEquals(UserService.WriteOutcome.Status.CONFLICT, outcomes.get(0).status());
+        assertEquals("email", outcomes.get(0).field());
+        assertEquals(UserService.WriteOutcome.Status.UPDATED, outcomes.get(1).status());
+        verify(userRepository).saveAll(List.of(recased));
+    }
+
+    @Test
+    void updateUser_WhenSsnBelongsToAnotherUser_ShouldThrowConflict() {
+        User user = new User(null, "John", "Doe", "987-65-4321", "john.doe@example.com", 30, "admin");
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(testUser));
+        when(userRepository.findByEmailKeyIn(anyCollection())).thenReturn(testUsers);
+        when(userRepository.findBySsnIn(anyCollection())).thenReturn(testUsers);
+
+        UserConflictException e = assertThrows(UserConflictException.class, () -> userService.updateUser(1L, user));
+
+        assertEquals("ssn already belongs to another user", e.getMessage());
+        verify(userRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void deleteUser_ShouldDeleteStoredUserOrThrowNotFound() {
+        when(userRepository.findAllById(List.of(1L))).thenReturn(List.of(testUser));
+        when(userRepository.findAllById(List.of(9L))).thenReturn(List.of());
+
+        userService.deleteUser(1L);
+
+        verify(userRepository).deleteAllByIdInBatch(List.of(1L));
+        assertThrows(UserNotFoundException.class, () -> userService.deleteUser(9L));
+        verify(userRepository, never()).deleteAllByIdInBatch(List.of(9L));
+    }
+
     @Test
     void getUserCount_ShouldReturnCount() {
         when(userRepository.count()).thenReturn(5L);
@@ -156,4 +285,198 @@ class UserServiceTest {
 
         verify(userSearchRepository).indexAllUsers();
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUserById_AfterIndexing_WhenIdNotStored_ShouldNotQueryRepository() {
+        stored(testUsers);
+        userService.indexAllUsers();
+
+        assertThrows(UserNotFoundException.class, () -> userService.getUserById(999_999L));
+        verify(userRepository, never()).findById(999_999L);
+        assertEquals(1.0, meterRegistry.get("users.lookup.filtered").tag("key", "id").counter().count());
+    }
+
+    @Test
+    void getUserByEmail_AfterIndexing_ShouldIgnoreCase() {
+        stored(testUsers);
+        when(userRepository.findByEmail("John.Doe@Example.com")).thenReturn(Optional.of(testUser));
+        userService.indexAllUsers();
+
+        assertEquals("John", userService.getUserByEmail("John.Doe@Example.com").getFirstName());
+        assertThrows(UserNotFoundException.class, () -> userService.getUserByEmail("nobody@example.com"));
+        verify(userRepository, never()).findByEmail("nobody@example.com");
+    }
+
+    @Test
+    void saveUser_AfterIndexing_ShouldMakeUserFindable() {
+        stored(testUsers);
+        userService.indexAllUsers();
+        User added = new User(42L, "Ada", "Lovelace", "111-22-3333", "ada@example.com", 36, "user");
+        when(userRepository.findById(42L)).thenReturn(Optional.of(added));
+
+        userService.saveUser(added);
+
+        assertEquals("Ada", userService.getUserById(42L).getFirstName());
+    }
+
+    @Test
+    void saveAllUsers_WhenWritesOutgrowTheKeyFilter_ShouldRebuildItFromPagesInTheBackground() {
+        stored(testUsers);
+        userService.indexAllUsers();
+        List<User> added = new ArrayList<>();
+        for (long id = 3; id <= 1100; id++) {
+            added.add(new User(id, "New", "User", "000-00-" + id, "user" + id + "@example.com", 30, "user"));
+        }
+
+        userService.saveAllUsers(added.subList(0, 1050));
+        userService.saveAllUsers(added.subList(1050, added.size()));
+
+        // The second write finds a rebuild already pending
+        assertEquals(1, keyFilterRebuilds.size());
+        keyFilterRebuilds.remove(0).run();
+        // One walk for indexAllUsers, one for the rebuild
+        verify(userRepository, times(2)).findByIdGreaterThanOrderByIdAsc(eq(Long.MIN_VALUE), any());
+        verify(userRepository, never()).findAll();
+    }
+
+    /**
+     * Serves {@code users} as the stored users to the key filter's page walk.
+     */
+    private void stored(List<User> users) {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            return users.stream().filter(user -> user.getId() > afterId).toList();
+        });
+    }
+
+    @Test
+    void phoneticSearch_ShouldRankClosestSpellingFirst() {
+        User smith = new User(3L, "Anna", "Smith", "111-11-1111", "anna.smith@example.com", 40, "user");
+        User smyth = new User(4L, "Anna", "Smyth", "222-22-2222", "anna.smyth@example.com", 41, "user");
+        User jones = new User(5L, "Smith", "Jones", "333-33-3333", "smith.jones@example.com", 42, "user");
+        when(userRepository.findByPhoneticKeys(anyCollection())).thenReturn(List.of(smith, smyth, jones));
+
+        var result = userService.phoneticSearch("Smyth");
+
+        assertEquals(List.of("Smyth", "Smith", "Jones"), result.stream().map(u -> u.getLastName()).toList());
+        assertEquals(1, meterRegistry.get("users.search").tag("type", "phonetic").timer().count());
+    }
+
+    @Test
+    void phoneticSearch_WithSeveralWords_ShouldRequireEveryWordToMatch() {
+        User annaSmith = new User(3L, "Anna", "Smith", "111-11-1111", "anna.smith@example.com", 40, "user");
+        User markSmith = new User(6L, "Mark", "Smith", "444-44-4444", "mark.smith@example.com", 50, "user");
+        when(userRepository.findByPhoneticKeys(anyCollection())).thenReturn(List.of(annaSmith, markSmith));
+
+        var result = userService.phoneticSearch("Marc Smyth");
+
+        assertEquals(List.of(6L), result.stream().map(u -> u.getId()).toList());
+    }
+
+    @Test
+    void searchUsers_WithRoleAndAge_ShouldNarrowTextSearchResults() {
+        User older = new User(3L, "Johnny", "Cash", "333-33-3333", "johnny@example.com", 71, "admin");
+        when(userSearchRepository.fullTextSearch("John")).thenReturn(List.of(testUser, older));
+
+        var result = userService.searchUsers("John", "ADMIN", null, 40);
+
+        assertEquals(List.of(1L), result.stream().map(u -> u.getId()).toList());
+        assertEquals(1, meterRegistry.get("users.search").tag("type", "full_text").timer().count());
+    }
+
+    @Test
+    void searchUsers_WithOnlyFilter_ShouldQueryMatchingUsers() {
+        when(userSearchRepository.findMatching(new UserQuery.And(List.of(
+                new UserQuery.Role("admin"), new UserQuery.Age(25, 35))))).thenReturn(List.of(testUser));
+
+        var result = userService.searchUsers(" ", " admin ", 25, 35);
+
+        assertEquals(1, result.size());
+        verify(userRepository, never()).findAll();
+        assertEquals(1, meterRegistry.get("users.search").tag("type", "filter").timer().count());
+    }
+
+    @Test
+    void countUsers_ShouldCountWithFilterOrAll() {
+        when(userSearchRepository.countMatching(new UserQuery.Age(20, 30))).thenReturn(7L);
+        when(userRepository.count()).thenReturn(10L);
+
+        assertEquals(7, userService.countUsers(null, 20, 30));
+        assertEquals(10, userService.countUsers("", null, null));
+    }
+
+    @Test
+    void queryUsers_ShouldRunTermsAndCheckConditionsOnTheirResults() {
+        User moderator = new User(3L, "Johnny", "Cash", "333-33-3333", "johnny@example.com", 71, "moderator");
+        when(userSearchRepository.fullTextSearch("john")).thenReturn(List.of(testUser, moderator));
+        when(userRepository.findBySearchTerm("jo")).thenReturn(List.of(moderator));
+
+        var result = userService.queryUsers("john (role:admin OR age:70..)");
+        assertEquals(List.of(1L, 3L), result.stream().map(u -> u.getId()).toList());
+        assertEquals(List.of(3L), userService.queryUsers("john AND jo").stream().map(u -> u.getId()).toList());
+        assertEquals(1, userService.countQuery("john ssn:333*"));
+        assertEquals(2, meterRegistry.get("users.search").tag("type", "query").timer().count());
+    }
+
+    @Test
+    void queryUsers_WithoutTerms_ShouldRunOneDatabaseQuery() {
+        UserQuery query = new UserQuery.Or(List.of(new UserQuery.Gender("female"), new UserQuery.SsnPrefix("12345")));
+        when(userSearchRepository.findMatching(query)).thenReturn(List.of(testUser));
+
+        assertEquals(1, userService.queryUsers("gender:female OR ssn:123-45*").size());
+        verify(userSearchRepository, never()).fullTextSearch(anyString());
+    }
+
+    @Test
+    void queryUsers_WithMalformedQuery_ShouldRejectWithoutQuerying() {
+        assertThrows(InvalidQueryException.class, () -> userService.queryUsers("(role:admin"));
+        assertThrows(InvalidQueryException.class, () -> userService.countQuery("age:50..20"));
+        verifyNoInteractions(userRepository, userSearchRepository);
+    }
+
+    @Test
+    void searchUsers_WithInvalidAgeRange_ShouldRejectWithoutQuerying() {
+        assertThrows(InvalidQueryException.class, () -> userService.searchUsers("John", null, -1, null));
+        assertThrows(InvalidQueryException.class, () -> userService.searchUsers(null, null, null, 151));
+        assertThrows(InvalidQueryException.class, () -> userService.countUsers(null, 40, 30));
+        verifyNoInteractions(userRepository, userSearchRepository);
+    }
+
+    @Test
+    void findNear_ShouldDropBoxCornersAndSortByDistance() {
+        User far = located(1L, 40.80, -73.92);    // inside the box, 12 km away
+        User near = located(2L, 40.72, -74.00);
+        User nearer = located(3L, 40.7128, -74.0059);
+        when(userRepository.findInBox(anyDouble(), anyDouble(), anyDouble(), anyDouble(), any()))
+                .thenReturn(List.of(far, near, nearer));
+
+        var result = userService.findNear(40.7128, -74.0060, 10, 20);
+
+        assertEquals(List.of(3L, 2L), result.stream().map(u -> u.getId()).toList());
+        assertEquals(40.72, result.get(1).getLatitude());
+        assertEquals(1, meterRegistry.get("users.search").tag("type", "near").timer().count());
+    }
+
+    @Test
+    void findNear_WithInvalidArguments_ShouldRejectWithoutQuerying() {
+        assertThrows(InvalidQueryException.class, () -> userService.findNear(91, 0, 10, 20));
+        assertThrows(InvalidQueryException.class, () -> userService.findNear(0, 0, 0, 20));
+        assertThrows(InvalidQueryException.class, () -> userService.findNear(0, 0, Double.NaN, 20));
+        assertThrows(InvalidQueryException.class, () -> userService.findNear(0, 0, 10, 1001));
+        assertThrows(InvalidQueryException.class, () -> userService.findInBox(10, 0, 5, 1, 20));
+        verifyNoInteractions(userRepository);
+    }
+
+    private static User located(long id, double latitude, double longitude) {
+        User user = new User(id, "Geo", "User", "000-00-000" + id, "geo" + id + "@example.com", 30, "user");
+        user.setLatitude(latitude);
+        user.setLongitude(longitude);
+        return user;
+    }
+
+    @Test
+    void phoneticSearch_WithoutLetters_ShouldNotQueryStore() {
+        assertTrue(userService.phoneticSearch("123").isEmpty());
+        verify(userRepository, never()).findByPhoneticKeys(anyCollection());
+    }
+}
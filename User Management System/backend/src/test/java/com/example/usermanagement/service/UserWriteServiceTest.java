@@ -0,0 +1,187 @@
+package com.example.usermanagement.service;
+
+import com.example.usermanagement.dto.UserRequestDto;
+import com.example.usermanagement.dto.UserResponseDto;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.exception.UserConflictException;
+import com.example.usermanagement.store.InMemoryUserStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UserWriteServiceTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private InMemoryUserStore userStore;
+
+    private UserWriteService writeService;
+
+    @BeforeEach
+    void setUp() {
+        userStore = new InMemoryUserStore(1, 50000);
+        userStore.saveAll(List.of(
+                new User(1L, "John", "Doe", "123-45-6789", "john.doe@example.com", 30, "admin"),
+                new User(2L, "Jane", "Smith", "987-65-4321", "jane.smith@example.com", 25, "user")));
+        UserService userService = new UserService(userStore, new DataChangeFeed(100), new DatasetSnapshotService(false, "unused", Duration.ZERO),
+                TransactionOperations.withoutTransaction(), meterRegistry, Runnable::run);
+        writeService = new UserWriteService(userService, objectMapper, validator, 2, 1000, meterRegistry);
+    }
+
+    @Test
+    void writeAll_ShouldWriteValidRowsInBatchesAndReportTheRestByLine() throws IOException {
+        String ndjson = String.join("\n",
+                "{\"id\":1,\"firstName\":\"Johnny\",\"lastName\":\"Doe\",\"ssn\":\"123-45-6789\",\"email\":\"johnny@example.com\",\"age\":31,\"role\":\"admin\"}",
+                "",
+                "{\"firstName\":",
+                "{\"firstName\":\"Ava\",\"lastName\":\"Garcia\",\"ssn\":\"555-12-3456\",\"email\":\"ava@example.com\",\"age\":22,\"role\":\"user\"}",
+                "{\"firstName\":\"No\",\"ssn\":\"555-12-0000\",\"email\":\"no@example.com\",\"age\":22,\"role\":\"user\"}",
+                "{\"id\":99,\"firstName\":\"Ghost\",\"lastName\":\"User\",\"ssn\":\"000-00-0000\",\"email\":\"ghost@example.com\",\"age\":40,\"role\":\"user\"}",
+                "{\"firstName\":\"Copy\",\"lastName\":\"Cat\",\"ssn\":\"111-11-1111\",\"email\":\"jane.smith@example.com\",\"age\":20,\"role\":\"user\"}",
+                "null") + "\n";
+
+        UserWriteService.BulkWriteResult result = writeService.writeAll(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(7, result.rows());
+        assertEquals(1, result.created());
+        assertEquals(1, result.updated());
+        assertEquals(5, result.failed());
+        assertEquals(List.of(3L, 5L, 6L, 7L, 8L), result.errors().stream().map(UserWriteService.RowError::line).toList());
+        assertEquals(List.of("invalid", "invalid", "not_found", "conflict", "invalid"),
+                result.errors().stream().map(UserWriteService.RowError::error).toList());
+        assertEquals("lastName", result.errors().get(1).field());
+        assertEquals("email", result.errors().get(3).field());
+
+        assertEquals("Johnny", userStore.findById(1L).orElseThrow().getFirstName());
+        assertEquals("Ava", userStore.findById(3L).orElseThrow().getFirstName());
+        assertEquals(3, userStore.count());
+        // Four rows passed validation, so two batches of two were written
+        assertEquals(2, meterRegistry.get("users.write.batch").timer().count());
+        assertEquals(3.0, meterRegistry.get("users.write.rows").tag("outcome", "invalid").counter().count());
+        assertEquals(1.0, meterRegistry.get("users.write.rows").tag("outcome", "created").counter().count());
+    }
+
+    @Test
+    void writeAll_WhenStoreRejectsABatch_ShouldRetryRowByRow() throws IOException {
+        UserService userService = mock(UserService.class);
+        writeService = new UserWriteService(userService, objectMapper, validator, 3, 1, meterRegistry);
+        when(userService.writeUsers(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            if (users.size() > 1 || users.get(0).getEmail().equals("taken@example.com")) {
+                users.forEach(user -> user.setId(42L));
+                throw new DataIntegrityViolationException("unique constraint");
+            }
+            return List.of(new UserService.WriteOutcome(UserService.WriteOutcome.Status.CREATED,
+                    new UserResponseDto(), null, null));
+        });
+        StringBuilder ndjson = new StringBuilder();
+        for (String email : List.of("a@example.com", "taken@example.com", "b@example.com", "taken@example.com")) {
+            ndjson.append("{\"firstName\":\"A\",\"lastName\":\"B\",\"ssn\":\"1\",\"email\":\"").append(email)
+                    .append("\",\"age\":1,\"role\":\"user\"}\n");
+        }
+
+        UserWriteService.BulkWriteResult result = writeService.writeAll(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.created());
+        assertEquals(2, result.failed());
+        // Only the first error is listed with max-errors 1, and the ids handed out were rolled back
+        assertEquals(1, result.errors().size());
+        assertEquals(2, result.errors().get(0).line());
+        assertNull(result.errors().get(0).id());
+        assertEquals("conflict", result.errors().get(0).error());
+    }
+
+    @Test
+    void replace_WithAnotherUsersEmailInOtherCase_ShouldBeRefused() {
+        UserRequestDto copy = request("Jane", "Copy", "444-44-4444", "JANE.SMITH@Example.com");
+        UserRequestDto recased = request("John", "Doe", "123-45-6789", "John.Doe@Example.com");
+
+        assertThrows(UserConflictException.class, () -> writeService.replace(1L, copy));
+        assertEquals("John.Doe@Example.com", writeService.replace(1L, recased).getEmail());
+
+        assertEquals(2, userStore.count());
+        assertEquals(1L, userStore.findByEmail("John.Doe@Example.com").orElseThrow().getId());
+        assertEquals(2L, userStore.findByEmail("jane.smith@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    void replace_ShouldIgnoreTheIdAndDerivedKeysInTheBody() throws IOException {
+        UserRequestDto request = objectMapper.readValue(
+                "{\"id\":2,\"emailKey\":\"jane.smith@example.com\",\"firstName\":\"John\",\"lastName\":\"Doe\","
+                        + "\"ssn\":\"123-45-6789\",\"email\":\"johnny@example.com\",\"age\":31,\"role\":\"admin\"}",
+                UserRequestDto.class);
+
+        UserResponseDto replaced = writeService.replace(1L, request);
+
+        assertEquals(1L, replaced.getId());
+        assertEquals(1L, userStore.findByEmail("johnny@example.com").orElseThrow().getId());
+        assertEquals(2L, userStore.findByEmail("jane.smith@example.com").orElseThrow().getId());
+    }
+
+    @Test
+    void patch_ShouldMergeGivenFieldsIntoTheStoredUser() {
+        UserResponseDto patched = writeService.patch(1L, objectMapper.createObjectNode()
+                .put("id", 7)
+                .put("age", 50)
+                .put("city", "Chicago")
+                .putNull("phone"));
+
+        assertEquals(1L, patched.getId());
+        assertEquals(50, patched.getAge());
+        User stored = userStore.findById(1L).orElseThrow();
+        assertEquals("Chicago", stored.getCity());
+        assertEquals("John", stored.getFirstName());
+        assertEquals("john.doe@example.com", stored.getEmail());
+        assertTrue(userStore.findById(7L).isEmpty());
+    }
+
+    @Test
+    void patch_ThatBreaksTheUser_ShouldBeRefusedWithoutWriting() {
+        assertThrows(ConstraintViolationException.class,
+                () -> writeService.patch(1L, objectMapper.createObjectNode().putNull("firstName")));
+        assertThrows(ConstraintViolationException.class,
+                () -> writeService.patch(1L, objectMapper.createObjectNode().put("age", "old")));
+        assertThrows(ConstraintViolationException.class,
+                () -> writeService.patch(1L, objectMapper.createArrayNode()));
+        assertThrows(UserConflictException.class,
+                () -> writeService.patch(1L, objectMapper.createObjectNode().put("ssn", "987-65-4321")));
+
+        assertEquals("John", userStore.findById(1L).orElseThrow().getFirstName());
+        assertEquals("123-45-6789", userStore.findById(1L).orElseThrow().getSsn());
+    }
+
+    private static UserRequestDto request(String firstName, String lastName, String ssn, String email) {
+        UserRequestDto request = new UserRequestDto();
+        request.setFirstName(firstName);
+        request.setLastName(lastName);
+        request.setSsn(ssn);
+        request.setEmail(email);
+        request.setAge(30);
+        request.setRole("user");
+        return request;
+    }
+}
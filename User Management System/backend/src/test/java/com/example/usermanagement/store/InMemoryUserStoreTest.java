@@ -0,0 +1,309 @@
+package com.example.usermanagement.store;
+
+import com.example.usermanagement.entity.PhoneticKeys;
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.service.SyntheticUserGenerator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryUserStoreTest {
+
+    private InMemoryUserStore userStore;
+
+    InMemoryUserStore createStore() {
+        return new InMemoryUserStore(1, 50000);
+    }
+
+    @BeforeEach
+    void setUp() {
+        userStore = createStore();
+        userStore.saveAll(List.of(
+                new User(3L, "Sophia", "Brown", "618-379-463", "sophia.brown@x.com", 42, "user"),
+                new User(1L, "Emily", "Johnson", "900-590-289", "emily.johnson@x.com", 28, "admin"),
+                new User(2L, "Michael", "Williams", "108-953-962", "michael.williams@x.com", 35, "admin"),
+                new User(12L, "Emma", "Miller", "123-45-6789", "emma.miller@x.com", 30, "moderator")));
+    }
+
+    @Test
+    void findById_ShouldUseIdIndex() {
+        assertEquals("Michael", userStore.findById(2L).orElseThrow().getFirstName());
+        assertTrue(userStore.findById(99L).isEmpty());
+    }
+
+    @Test
+    void findByEmail_ShouldMatchExactly() {
+        assertEquals(1L, userStore.findByEmail("emily.johnson@x.com").orElseThrow().getId());
+        assertTrue(userStore.findByEmail("EMILY.JOHNSON@x.com").isEmpty());
+    }
+
+    @Test
+    void findAll_ShouldReturnRowsInIdOrder() {
+        assertEquals(List.of(1L, 2L, 3L, 12L), ids(userStore.findAll()));
+    }
+
+    @Test
+    void findPageAfter_ShouldWalkUsersInIdOrder() {
+        assertEquals(List.of(1L, 2L), ids(userStore.findPageAfter(Long.MIN_VALUE, 2)));
+        assertEquals(List.of(3L, 12L), ids(userStore.findPageAfter(2L, 2)));
+        assertEquals(List.of(12L), ids(userStore.findPageAfter(4L, 5)));
+        assertTrue(userStore.findPageAfter(12L, 2).isEmpty());
+    }
+
+    @Test
+    void fullTextSearch_WithNumericId_ShouldReturnOnlyThatUser() {
+        assertEquals(List.of(12L), ids(userStore.fullTextSearch("12")));
+    }
+
+    @Test
+    void fullTextSearch_WithUnknownNumericId_ShouldFallBackToSsnMatch() {
+        assertEquals(List.of(12L), ids(userStore.fullTextSearch("456")));
+    }
+
+    @Test
+    void fullTextSearch_WithEmailIgnoringCase_ShouldReturnThatUser() {
+        assertEquals(List.of(3L), ids(userStore.fullTextSearch("Sophia.Brown@X.com")));
+    }
+
+    @Test
+    void fullTextSearch_WithSingleWord_ShouldMatchNamesAndEmailCaseInsensitively() {
+        assertEquals(List.of(1L, 12L), ids(userStore.fullTextSearch("EM")));
+        assertEquals(List.of(2L), ids(userStore.fullTextSearch("williams")));
+    }
+
+    @Test
+    void fullTextSearch_WithSsnWithoutDashes_ShouldMatch() {
+        assertEquals(List.of(1L), ids(userStore.fullTextSearch("900590")));
+    }
+
+    @Test
+    void fullTextSearch_WithFullName_ShouldMatchEitherOrder() {
+        assertEquals(List.of(1L), ids(userStore.fullTextSearch("emily johnson")));
+        assertEquals(List.of(1L), ids(userStore.fullTextSearch("Johnson Emily")));
+        assertTrue(userStore.fullTextSearch("emily williams").isEmpty());
+    }
+
+    @Test
+    void fullTextSearch_WithNameAndSsn_ShouldRequireBoth() {
+        assertEquals(List.of(2L), ids(userStore.fullTextSearch("michael 108")));
+        assertTrue(userStore.fullTextSearch("michael 900").isEmpty());
+    }
+
+    @Test
+    void findBySearchTerm_ShouldMatchNamesAndSsn() {
+        assertEquals(List.of(1L, 12L), ids(userStore.findBySearchTerm("Em")));
+        assertEquals(List.of(12L), ids(userStore.findBySearchTerm("45")));
+    }
+
+    @Test
+    void saveAll_WithExistingId_ShouldReplaceRow() {
+        userStore.saveAll(List.of(new User(2L, "Mike", "Williams", "108-953-962", "mike@x.com", 36, "admin")));
+
+        assertEquals(4, userStore.count());
+        assertEquals("Mike", userStore.findById(2L).orElseThrow().getFirstName());
+        assertTrue(userStore.findByEmail("michael.williams@x.com").isEmpty());
+    }
+
+    @Test
+    void deleteAllById_ShouldHideUsersFromEveryLookup() {
+        userStore.deleteAllById(List.of(3L, 99L));
+
+        assertEquals(3, userStore.count());
+        assertTrue(userStore.findById(3L).isEmpty());
+        assertTrue(userStore.findByEmail("sophia.brown@x.com").isEmpty());
+        assertTrue(userStore.fullTextSearch("sophia").isEmpty());
+        assertTrue(userStore.findByEmailInOrSsnIn(List.of("sophia.brown@x.com"), List.of("618-379-463")).isEmpty());
+        assertEquals(List.of(1L, 2L, 12L), ids(userStore.findAll()));
+        assertEquals(List.of(1L, 12L), ids(userStore.findAllById(List.of(1L, 3L, 12L))));
+    }
+
+    @Test
+    void saveAll_WithoutId_ShouldAssignIdsAboveAnyUsedBefore() {
+        userStore.deleteAllById(List.of(12L));
+        User first = new User(null, "Liam", "Davis", "555-12-3456", "liam@x.com", 20, "user");
+        User second = new User(null, "Ava", "Garcia", "tmp-12", "ava@x.com", 22, "user");
+
+        userStore.saveAll(List.of(first, second));
+
+        assertEquals(13L, first.getId());
+        assertEquals(14L, second.getId());
+        assertEquals("Liam", userStore.findById(13L).orElseThrow().getFirstName());
+        assertEquals(List.of(13L, 14L), ids(userStore.findByEmailInOrSsnIn(List.of(), List.of("555-12-3456", "tmp-12"))));
+        assertTrue(userStore.findByEmailInOrSsnIn(List.of(), List.of("555123456", "TMP-12", "555-12-3457")).isEmpty());
+    }
+
+    @Test
+    void openBulkLoad_ShouldKeepRowsInvisibleUntilPublished() {
+        UserStore.BulkLoad bulkLoad = userStore.openBulkLoad();
+        bulkLoad.add(List.of(new User(40L, "Ava", "Taylor", "222-33-4444", "ava.taylor@x.com", 25, "user")));
+        bulkLoad.add(List.of(new User(2L, "Mike", "Williams", "108-953-962", "mike@x.com", 36, "admin")));
+
+        assertEquals(4, userStore.count());
+        assertTrue(userStore.findById(40L).isEmpty());
+        assertSame(bulkLoad, userStore.openBulkLoad());
+
+        bulkLoad.publish();
+
+        assertEquals(List.of(1L, 2L, 3L, 12L, 40L), ids(userStore.findAll()));
+        assertEquals("Mike", userStore.findById(2L).orElseThrow().getFirstName());
+        assertNotSame(bulkLoad, userStore.openBulkLoad());
+    }
+
+    @Test
+    void openBulkLoad_WhenAborted_ShouldDropStagedRows() {
+        UserStore.BulkLoad bulkLoad = userStore.openBulkLoad();
+        bulkLoad.add(List.of(new User(40L, "Ava", "Taylor", "222-33-4444", "ava.taylor@x.com", 25, "user")));
+
+        bulkLoad.abort();
+        userStore.openBulkLoad().publish();
+
+        assertEquals(4, userStore.count());
+        assertTrue(userStore.findById(40L).isEmpty());
+    }
+
+    @Test
+    void phoneticSearch_ShouldMatchFirstOrLastNameBySound() {
+        assertEquals(List.of(1L), ids(userStore.phoneticSearch(PhoneticKeys.ofWords("Jonsen"))));
+        assertEquals(List.of(2L), ids(userStore.phoneticSearch(PhoneticKeys.ofWords("Mikael"))));
+        assertEquals(List.of(1L, 12L), ids(userStore.phoneticSearch(PhoneticKeys.ofWords("Emilie Ema"))));
+        assertTrue(userStore.phoneticSearch(PhoneticKeys.ofWords("Zzyzx")).isEmpty());
+    }
+
+    @Test
+    void saveAll_ShouldRoundTripCompactedColumns() {
+        User padded = new User(50L, "Zoë", "Lee", "321-54-9876", "Zoë.Lee@X.com", 33, "user");
+        padded.setBirthDate("1991-05-07");
+        padded.setPhone("+1 555-010-0199");
+        User wide = new User(51L, "Li", "Wei", "321-54-0000", "li.李@x.com", 29, "user");
+        wide.setBirthDate("sometime in 1995");
+        wide.setUsername("liwei");
+        userStore.saveAll(List.of(padded, wide));
+
+        User found = userStore.findByEmail("Zoë.Lee@X.com").orElseThrow();
+        assertEquals("1991-05-07", found.getBirthDate());
+        assertEquals("+1 555-010-0199", found.getPhone());
+        assertNull(found.getUsername());
+        assertEquals("sometime in 1995", userStore.findById(51L).orElseThrow().getBirthDate());
+        assertEquals(List.of(50L), ids(userStore.fullTextSearch("zoë.lee@x.com")));
+        assertEquals(List.of(51L), ids(userStore.fullTextSearch("李@x")));
+        assertEquals(List.of(51L), ids(userStore.fullTextSearch("LI.李")));
+        assertEquals(List.of(50L, 51L), ids(userStore.findBySearchTerm("32154")));
+    }
+
+    @Test
+    void memoryBytes_ShouldStayCompactPerUser() {
+        InMemoryUserStore store = createStore();
+        store.saveAll(new SyntheticUserGenerator(42).users(1, 100_000));
+
+        long bytesPerUser = store.memoryBytes() / store.count();
+
+        assertTrue(bytesPerUser < 200, "bytes per user: " + bytesPerUser);
+    }
+
+    @Test
+    void findNear_ShouldReturnUsersInRadiusNearestFirst() {
+        userStore.saveAll(List.of(
+                located(20L, 40.7580, -73.9855),   // Times Square, 5.4 km from the center
+                located(21L, 40.7128, -74.0060),   // the center
+                located(22L, 40.6892, -74.0445),   // Statue of Liberty, 4.0 km
+                located(23L, 40.6413, -73.7781),   // JFK, 20.6 km
+                located(24L, 34.0522, -118.2437)));
+
+        assertEquals(List.of(21L, 22L, 20L), ids(userStore.findNear(40.7128, -74.0060, 10, 20)));
+        assertEquals(List.of(21L, 22L), ids(userStore.findNear(40.7128, -74.0060, 10, 2)));
+        assertEquals(List.of(21L, 22L, 20L, 23L), ids(userStore.findNear(40.7128, -74.0060, 25, 20)));
+        User center = userStore.findNear(40.7128, -74.0060, 1, 1).get(0);
+        assertEquals(40.7128, center.getLatitude());
+        assertEquals(-74.0060, center.getLongitude());
+    }
+
+    @Test
+    void findNear_AcrossAntimeridian_ShouldFindUsersOnBothSides() {
+        userStore.saveAll(List.of(located(20L, -17.0, 179.95), located(21L, -17.0, -179.95), located(22L, -17.0, 178.0)));
+
+        assertEquals(List.of(20L, 21L), ids(userStore.findNear(-17.0, 179.99, 20, 20)));
+    }
+
+    @Test
+    void findInBox_ShouldReturnLocatedUsersInIdOrder() {
+        userStore.saveAll(List.of(located(30L, 10.5, 20.5), located(20L, 10.1, 20.9), located(25L, 11.5, 20.5),
+                located(26L, 10.5, 179.5), located(27L, 10.5, -179.5)));
+
+        assertEquals(List.of(20L, 30L), ids(userStore.findInBox(10, 20, 11, 21, 100)));
+        assertEquals(List.of(20L), ids(userStore.findInBox(10, 20, 11, 21, 1)));
+        assertEquals(List.of(26L, 27L), ids(userStore.findInBox(10, 179, 11, -179, 100)));
+        // Users without coordinates are never located
+        assertEquals(List.of(20L, 25L, 26L, 27L, 30L), ids(userStore.findInBox(-90, -180, 90, 180, 100)));
+    }
+
+    @Test
+    void query_ShouldIntersectAgeRangeAndRole() {
+        User unknownAge = new User(40L, "Noah", "Davis", "404-40-4040", "noah@x.com", null, "admin");
+        User implausibleAge = new User(41L, "Ava", "Garcia", "414-41-4141", "ava@x.com", 200, "user");
+        userStore.saveAll(List.of(unknownAge, implausibleAge));
+
+        assertEquals(List.of(1L, 2L, 12L), ids(userStore.query(new UserQuery.Age(28, 35))));
+        assertEquals(List.of(2L), ids(userStore.query(and(new UserQuery.Role("ADMIN"), new UserQuery.Age(30, null)))));
+        assertEquals(List.of(1L, 2L, 40L), ids(userStore.query(new UserQuery.Role("admin"))));
+        assertEquals(List.of(41L), ids(userStore.query(new UserQuery.Age(100, null))));
+        assertEquals(List.of(), ids(userStore.query(new UserQuery.Role("guest"))));
+
+        assertEquals(3, userStore.count(new UserQuery.Age(28, 35)));
+        assertEquals(1, userStore.count(and(new UserQuery.Role("admin"), new UserQuery.Age(30, 40))));
+        assertEquals(3, userStore.count(new UserQuery.Role("Admin")));
+        assertEquals(1, userStore.count(new UserQuery.Age(43, null)));
+    }
+
+    @Test
+    void query_WithTerm_ShouldNarrowTextMatches() {
+        UserQuery.Term mil = UserQuery.Term.of("mil");
+        assertEquals(List.of(1L, 12L), ids(userStore.query(mil)));
+        assertEquals(List.of(1L), ids(userStore.query(and(mil, new UserQuery.Age(null, 29)))));
+        // An id hit that fails the other conditions leaves nothing
+        assertEquals(List.of(), ids(userStore.query(and(UserQuery.Term.of("12"), new UserQuery.Role("admin")))));
+        assertEquals(List.of(12L), ids(userStore.query(and(UserQuery.Term.of("em"), new UserQuery.Role("moderator")))));
+        assertEquals(1, userStore.count(and(mil, new UserQuery.Age(null, 29))));
+    }
+
+    @Test
+    void query_ShouldCombineConditionsWithOrAndSsnPrefix() {
+        User dashless = new User(50L, "Liam", "Wilson", "123456789", "liam@x.com", 61, "user");
+        dashless.setGender("male");
+        User noSsn = new User(51L, "Olivia", "Wilson", null, "olivia@x.com", 33, "user");
+        noSsn.setGender("female");
+        userStore.saveAll(List.of(dashless, noSsn));
+
+        assertEquals(List.of(12L, 50L), ids(userStore.query(new UserQuery.SsnPrefix("12345"))));
+        assertEquals(List.of(2L, 12L, 50L), ids(userStore.query(new UserQuery.SsnPrefix("1"))));
+        assertEquals(List.of(1L), ids(userStore.query(new UserQuery.SsnPrefix("9005902"))));
+        assertEquals(List.of(1L, 12L, 50L, 51L), ids(userStore.query(new UserQuery.Or(List.of(
+                new UserQuery.Gender("FEMALE"), new UserQuery.Gender("male"), new UserQuery.SsnPrefix("90"),
+                new UserQuery.Role("moderator"))))));
+        // (admin OR wilson) AND age 30..65
+        UserQuery query = and(new UserQuery.Or(List.of(new UserQuery.Role("admin"), UserQuery.Term.of("wilson"))),
+                new UserQuery.Age(30, 65));
+        assertEquals(List.of(2L, 50L, 51L), ids(userStore.query(query)));
+        assertEquals(3, userStore.count(query));
+        assertEquals(List.of(51L), ids(userStore.query(and(UserQuery.Term.of("wilson"), UserQuery.Term.of("olivia")))));
+    }
+
+    static UserQuery and(UserQuery... operands) {
+        return new UserQuery.And(List.of(operands));
+    }
+
+    static User located(long id, double latitude, double longitude) {
+        User user = new User(id, "Geo", "User" + id, "000-00-" + id, "geo" + id + "@x.com", 30, "user");
+        user.setCity("Somewhere");
+        user.setState("Nowhere");
+        user.setLatitude(latitude);
+        user.setLongitude(longitude);
+        return user;
+    }
+
+    static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).toList();
+    }
+}
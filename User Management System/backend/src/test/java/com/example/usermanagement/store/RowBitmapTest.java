@@ -0,0 +1,66 @@
+package com.example.usermanagement.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RowBitmapTest {
+
+    @Test
+    void setOperations_ShouldMatchBitSetAcrossSparseAndDenseChunks() {
+        Random random = new Random(5);
+        // Densities on both sides of the array/bitmap threshold of 4096 rows per 65536
+        double[] densities = {0.0005, 0.01, 0.05, 0.3, 0.9};
+        List<BitSet> sets = new ArrayList<>();
+        List<RowBitmap> bitmaps = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            BitSet set = new BitSet();
+            for (int chunk = 0; chunk < 4; chunk++) {
+                double density = densities[random.nextInt(densities.length)];
+                for (int low = 0; low < 65536; low++) {
+                    if (random.nextDouble() < density) {
+                        set.set(chunk * 65536 + low);
+                    }
+                }
+            }
+            sets.add(set);
+            bitmaps.add(RowBitmap.of(set.stream().toArray()));
+        }
+
+        for (int i = 0; i < sets.size(); i++) {
+            assertBitmap(sets.get(i), bitmaps.get(i));
+            for (int j = 0; j < sets.size(); j++) {
+                BitSet and = (BitSet) sets.get(i).clone();
+                and.and(sets.get(j));
+                assertBitmap(and, bitmaps.get(i).and(bitmaps.get(j)));
+                BitSet or = (BitSet) sets.get(i).clone();
+                or.or(sets.get(j));
+                assertBitmap(or, bitmaps.get(i).or(bitmaps.get(j)));
+            }
+        }
+        BitSet all = new BitSet();
+        sets.forEach(all::or);
+        assertBitmap(all, RowBitmap.union(bitmaps));
+    }
+
+    @Test
+    void containsAndFilter_ShouldAgreeWithRows() {
+        RowBitmap bitmap = RowBitmap.of(new int[] {0, 7, 65535, 65536, 200_000});
+
+        assertTrue(bitmap.contains(65536));
+        assertFalse(bitmap.contains(8));
+        assertArrayEquals(new int[] {0, 65536, 200_000}, bitmap.filter(row -> row % 2 == 0).toArray());
+        assertTrue(RowBitmap.union(List.of(RowBitmap.EMPTY, RowBitmap.EMPTY)).isEmpty());
+        assertTrue(bitmap.and(RowBitmap.EMPTY).isEmpty());
+    }
+
+    private static void assertBitmap(BitSet expected, RowBitmap actual) {
+        assertEquals(expected.cardinality(), actual.cardinality());
+        assertArrayEquals(expected.stream().toArray(), actual.toArray());
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.usermanagement.store;
+
+import com.example.usermanagement.entity.User;
+import com.example.usermanagement.service.SyntheticUserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the in-memory store tests against a sharded table that always scatters searches
+ * across the fork-join pool.
+ */
+class ShardedInMemoryUserStoreTest extends InMemoryUserStoreTest {
+
+    @Override
+    InMemoryUserStore createStore() {
+        return new InMemoryUserStore(4, 0);
+    }
+
+    @Test
+    void search_ShouldReturnSameOrderedResultsAsSingleShard() {
+        String[] firstNames = {"Emily", "Michael", "Sophia", "Emma", "Liam", "Olivia", "Noah", "Ava"};
+        String[] lastNames = {"Johnson", "Williams", "Brown", "Miller", "Davis", "Garcia", "Wilson"};
+        Random random = new Random(42);
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 2000; id++) {
+            String first = firstNames[random.nextInt(firstNames.length)];
+            String last = lastNames[random.nextInt(lastNames.length)];
+            String ssn = String.format("%03d-%02d-%04d", random.nextInt(1000), random.nextInt(100), random.nextInt(10000));
+            users.add(new User(id, first, last, ssn, first.toLowerCase() + id + "@x.com", 20 + random.nextInt(50), "user"));
+        }
+        InMemoryUserStore single = new InMemoryUserStore(1, Integer.MAX_VALUE);
+        InMemoryUserStore sharded = new InMemoryUserStore(8, 0);
+        single.saveAll(users);
+        UserStore.BulkLoad bulkLoad = sharded.openBulkLoad();
+        bulkLoad.add(users);
+        bulkLoad.publish();
+
+        assertEquals(ids(single.findAll()), ids(sharded.findAll()));
+        for (String term : List.of("em", "mil", "Emma Brown", "brown emma", "olivia 12", "1500", "noah7@x.com", "-4")) {
+            assertEquals(ids(single.fullTextSearch(term)), ids(sharded.fullTextSearch(term)), term);
+            assertEquals(ids(single.findBySearchTerm(term)), ids(sharded.findBySearchTerm(term)), term);
+        }
+    }
+
+    @Test
+    void query_ShouldMatchBruteForceAcrossShards() {
+        List<User> users = new SyntheticUserGenerator(3).users(1, 20_000);
+        InMemoryUserStore store = new InMemoryUserStore(3, 0);
+        store.saveAll(users);
+
+        Random random = new Random(11);
+        for (int i = 0; i < 60; i++) {
+            UserQuery query = randomQuery(random, 2);
+            List<Long> expected = users.stream().filter(query::matches).map(User::getId).sorted().toList();
+            assertEquals(expected, ids(store.query(query)), query.toString());
+            assertEquals(expected.size(), store.count(query), query.toString());
+        }
+    }
+
+    /**
+     * Conditions nested up to {@code depth} levels of AND and OR.
+     */
+    private static UserQuery randomQuery(Random random, int depth) {
+        int kind = random.nextInt(depth > 0 ? 6 : 4);
+        switch (kind) {
+            case 0:
+                return new UserQuery.Role(new String[] {"admin", "MODERATOR", "user", "guest"}[random.nextInt(4)]);
+            case 1:
+                return new UserQuery.Gender(random.nextBoolean() ? "female" : "Male");
+            case 2:
+                Integer minAge = random.nextBoolean() ? null : random.nextInt(90);
+                Integer maxAge = random.nextBoolean() ? null : (minAge == null ? 0 : minAge) + random.nextInt(30);
+                return new UserQuery.Age(minAge, maxAge);
+            case 3:
+                return new UserQuery.SsnPrefix(Integer.toString(random.nextInt((int) Math.pow(10, 1 + random.nextInt(5)))));
+            default:
+                List<UserQuery> operands = new ArrayList<>();
+                for (int n = 2 + random.nextInt(2); n > 0; n--) {
+                    operands.add(randomQuery(random, depth - 1));
+                }
+                return kind == 4 ? new UserQuery.And(operands) : new UserQuery.Or(operands);
+        }
+    }
+
+    @Test
+    void findNear_ShouldMatchBruteForceAcrossShards() {
+        // A dense city block, so larger radii go through the ring search, plus scattered users
+        Random random = new Random(7);
+        List<User> users = new ArrayList<>();
+        for (long id = 1; id <= 30_000; id++) {
+            boolean inCity = id % 10 != 0;
+            double latitude = inCity ? 41.7 + random.nextDouble() * 0.3 : -60 + random.nextDouble() * 120;
+            double longitude = inCity ? -87.8 + random.nextDouble() * 0.3 : -180 + random.nextDouble() * 360;
+            users.add(located(id, Math.round(latitude * 1e6) / 1e6, Math.round(longitude * 1e6) / 1e6));
+        }
+        InMemoryUserStore sharded = new InMemoryUserStore(2, 0);
+        sharded.saveAll(users);
+
+        double[][] points = {{41.8781, -87.6298}, {41.7, -87.8}, {41.95, -87.51}, {40.0, -80.0}};
+        for (double[] point : points) {
+            for (double radiusKm : new double[] {0.5, 3, 25, 2000}) {
+                for (int limit : new int[] {1, 50, 500}) {
+                    List<Long> expected = users.stream()
+                            .filter(u -> GeoMath.distanceKm(haversine(u, point[0], point[1])) <= radiusKm)
+                            .sorted(Comparator.<User>comparingDouble(u -> haversine(u, point[0], point[1]))
+                                    .thenComparing(User::getId))
+                            .limit(limit)
+                            .map(User::getId)
+                            .toList();
+                    assertEquals(expected, ids(sharded.findNear(point[0], point[1], radiusKm, limit)),
+                            point[0] + "," + point[1] + " radius " + radiusKm + " limit " + limit);
+                }
+            }
+        }
+        assertEquals(users.stream().filter(u -> u.getLatitude() >= 41.8 && u.getLatitude() <= 41.9
+                        && u.getLongitude() >= -87.7 && u.getLongitude() <= -87.6).map(User::getId).limit(100).toList(),
+                ids(sharded.findInBox(41.8, -87.7, 41.9, -87.6, 100)));
+    }
+
+    @Test
+    void writes_ShouldMatchBruteForceThroughDeltaAndFolds() {
+        SyntheticUserGenerator generator = new SyntheticUserGenerator(5);
+        InMemoryUserStore store = new InMemoryUserStore(3, 0);
+        Map<Long, User> expected = new TreeMap<>();
+        for (User user : generator.users(1, 6_000)) {
+            expected.put(user.getId(), user);
+        }
+        store.saveAll(new ArrayList<>(expected.values()));
+
+        Random random = new Random(23);
+        long created = 0;
+        for (int round = 0; round < 40; round++) {
+            List<User> writes = new ArrayList<>();
+            for (User user : generator.users(100_000 + round * 1_000L, 1 + random.nextInt(300))) {
+                if (round != 25 && random.nextInt(4) == 0) {
+                    user.setId(null);
+                    created++;
+                } else {
+                    user.setId(1 + (long) random.nextInt(6_100));
+                }
+                writes.add(user);
+            }
+            List<Long> deletes = random.ints(random.nextInt(40), 1, 6_100).mapToObj(Long::valueOf).toList();
+            if (round == 25) {
+                // A published load replaces everything it brings while writes sit in the delta
+                UserStore.BulkLoad bulkLoad = store.openBulkLoad();
+                bulkLoad.add(writes);
+                bulkLoad.publish();
+            } else {
+                store.saveAll(writes);
+                store.deleteAllById(deletes);
+            }
+            for (User user : writes) {
+                expected.put(user.getId(), user);
+            }
+            if (round != 25) {
+                deletes.forEach(expected::remove);
+            }
+
+            String context = "round " + round;
+            assertEquals(expected.size(), store.count(), context);
+            assertEquals(new ArrayList<>(expected.keySet()), ids(store.findAll()), context);
+            for (int i = 0; i < 50; i++) {
+                long id = 1 + random.nextInt(6_100);
+                assertEquals(expected.containsKey(id), store.findById(id).isPresent(), context + " id " + id);
+            }
+            User probe = expected.get(writes.get(random.nextInt(writes.size())).getId());
+            assertEquals(probe.getId(), store.findByEmail(probe.getEmail()).map(User::getId).orElse(null), context);
+            assertEquals(List.of(probe.getId()), ids(store.findAllById(List.of(probe.getId()))), context);
+            UserQuery query = randomQuery(random, 1);
+            List<Long> matching = expected.values().stream().filter(query::matches).map(User::getId).toList();
+            assertEquals(matching, ids(store.query(query)), context + " " + query);
+            assertEquals(matching.size(), store.count(query), context + " " + query);
+            List<Long> near = expected.values().stream()
+                    .filter(u -> u.getLatitude() != null && GeoMath.distanceKm(haversine(u, 40.7, -74.0)) <= 30)
+                    .sorted(Comparator.<User>comparingDouble(u -> haversine(u, 40.7, -74.0)).thenComparing(User::getId))
+                    .limit(25)
+                    .map(User::getId)
+                    .toList();
+            assertEquals(near, ids(store.findNear(40.7, -74.0, 30, 25)), context);
+            long after = random.nextInt(6_000);
+            assertEquals(expected.keySet().stream().filter(id -> id > after).limit(100).toList(),
+                    ids(store.findPageAfter(after, 100)), context);
+        }
+        assertTrue(created > 0);
+        assertTrue(expected.keySet().stream().anyMatch(id -> id > 6_100));
+    }
+
+    private static double haversine(User user, double latitude, double longitude) {
+        return GeoMath.haversine(latitude, longitude, user.getLatitude(), user.getLongitude());
+    }
+}
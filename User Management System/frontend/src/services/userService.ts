@@ -3,6 +3,8 @@ import { User } from '../types/User';
 
 const API_BASE_URL = process.env.REACT_APP_API_URL || 'http://localhost:8084/api';
 
+const JOB_POLL_INTERVAL_MS = 500;
+
 const apiClient = axios.create({
   baseURL: API_BASE_URL,
   timeout: 10000,
@@ -56,7 +58,16 @@ export const userService = {
   async loadUsersFromAPI(): Promise<{ success: boolean; message: string; loadedCount: number }> {
     try {
       const response = await apiClient.post('/data/load');
-      return response.data;
+      let job = response.data;
+      // The backend runs loads as background jobs; poll until the job finishes
+      while (job.jobId && job.status !== 'COMPLETED' && job.status !== 'FAILED') {
+        await new Promise((resolve) => setTimeout(resolve, JOB_POLL_INTERVAL_MS));
+        job = (await apiClient.get(`/data/jobs/${job.jobId}`)).data;
+      }
+      if (job.status === 'FAILED') {
+        throw new Error(job.message);
+      }
+      return job;
     } catch (error) {
       console.error('Error loading users from API:', error);
       throw new Error('Failed to load users from external API');